@@ -0,0 +1,49 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.services.s3.model.ListObjectVersionsResponse;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the delete batches of a page of object versions, and emptying a bucket of {@code versionCount}
+ * versions held by {@link StubS3Client}: listing, batching and scheduling the deletes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class BucketTeardownBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int versionCount;
+
+    private ListObjectVersionsResponse firstPage;
+    private ExecutorService transferExecutor;
+    private BucketTeardownEngine bucketTeardownEngine;
+
+    @Setup
+    public void setUp() {
+        StubS3Client s3Client = new StubS3Client(versionCount);
+        firstPage = s3Client.versionPage(0);
+        transferExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        bucketTeardownEngine = new BucketTeardownEngine(s3Client, transferExecutor, 4);
+    }
+
+    @TearDown
+    public void tearDown() {
+        transferExecutor.shutdown();
+    }
+
+    @Benchmark
+    public List<?> batches() {
+        return BucketTeardownEngine.batches(firstPage);
+    }
+
+    @Benchmark
+    public void emptyBucket() throws InterruptedException {
+        bucketTeardownEngine.emptyBucket("dev.studio");
+    }
+}
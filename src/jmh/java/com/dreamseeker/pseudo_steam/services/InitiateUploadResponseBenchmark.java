@@ -0,0 +1,53 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.domains.InitiateUploadResponse;
+import com.dreamseeker.pseudo_steam.domains.PreSignedPartUrl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing the response to an upload of 10,000 parts, the largest S3 allows, with the object mapper Spring MVC
+ * would use. The URLs are real presigned URLs, so the payload has its production size.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class InitiateUploadResponseBenchmark {
+
+    private ObjectMapper objectMapper;
+    private InitiateUploadResponse response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        ExecutorService presignExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try (S3Presigner s3Presigner = PreSignedUrlBenchmark.presigner()) {
+            List<PreSignedPartUrl> preSignedUrls = new PreSignedUrlGenerator(s3Presigner, presignExecutor, PartCalculation.MAX_PARTS, PartCalculation.MAX_PARTS)
+                    .generateInitialPreSignedUrls("dev.studio", "game.zip", "upload-id", PartCalculation.MAX_PARTS,
+                            PreSignedUrlBenchmark.PART_SIZE, PreSignedUrlBenchmark.PART_SIZE * PartCalculation.MAX_PARTS);
+            response = new InitiateUploadResponse("upload-id", "game.zip", preSignedUrls, preSignedUrls.size(), Crc32c.ALGORITHM);
+        } finally {
+            presignExecutor.shutdown();
+        }
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public void writeValueToStream() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), response);
+    }
+}
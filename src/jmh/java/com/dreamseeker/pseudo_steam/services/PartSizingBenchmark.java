@@ -0,0 +1,43 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.domains.UploadSession;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PartSizingBenchmark {
+
+    private static final String OBSERVED_STUDIO = "dev.observed";
+
+    @Param({"104857600", "10737418240", "1099511627776"})
+    private long fileSize;
+
+    private AdaptivePartSizingStrategy adaptivePartSizingStrategy;
+
+    @Setup
+    public void setUp() {
+        adaptivePartSizingStrategy = new AdaptivePartSizingStrategy(Duration.ofSeconds(10), 1024L * 1024 * 1024, 4, 4);
+        adaptivePartSizingStrategy.recordUpload(new UploadSession("upload", OBSERVED_STUDIO, "game.zip", 1024L * 1024 * 1024,
+                16L * 1024 * 1024, 64, 4, Instant.EPOCH), Duration.ofSeconds(40));
+    }
+
+    @Benchmark
+    public PartCalculation fixedCalculateParts() {
+        return FixedPartSizingStrategy.calculateParts(fileSize);
+    }
+
+    @Benchmark
+    public PartCalculation adaptiveWithoutObservations() {
+        return adaptivePartSizingStrategy.partsFor("dev.new", fileSize, PartSizingStrategy.Hints.NONE);
+    }
+
+    @Benchmark
+    public PartCalculation adaptiveWithObservedBandwidth() {
+        return adaptivePartSizingStrategy.partsFor(OBSERVED_STUDIO, fileSize, PartSizingStrategy.Hints.NONE);
+    }
+}
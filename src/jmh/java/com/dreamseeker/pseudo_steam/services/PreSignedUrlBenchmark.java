@@ -0,0 +1,56 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.domains.PreSignedPartUrl;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Presigning is local CPU work, so it runs against a real {@link S3Presigner} with static credentials.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class PreSignedUrlBenchmark {
+
+    static final long PART_SIZE = 16L * 1024 * 1024;
+
+    @Param({"100", "1000", "10000"})
+    private int partCount;
+
+    private S3Presigner s3Presigner;
+    private ExecutorService presignExecutor;
+    private PreSignedUrlGenerator preSignedUrlGenerator;
+
+    @Setup
+    public void setUp() {
+        s3Presigner = presigner();
+        presignExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        preSignedUrlGenerator = new PreSignedUrlGenerator(s3Presigner, presignExecutor, partCount, PartCalculation.MAX_PARTS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        presignExecutor.shutdown();
+        s3Presigner.close();
+    }
+
+    @Benchmark
+    public List<PreSignedPartUrl> generateInitialPreSignedUrls() {
+        return preSignedUrlGenerator.generateInitialPreSignedUrls("dev.studio", "game.zip", "upload-id", partCount, PART_SIZE, PART_SIZE * partCount);
+    }
+
+    static S3Presigner presigner() {
+        return S3Presigner.builder()
+                .region(Region.SA_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("AKIABENCHMARK", "benchmark-secret")))
+                .build();
+    }
+}
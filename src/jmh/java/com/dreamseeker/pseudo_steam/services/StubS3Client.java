@@ -0,0 +1,96 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * S3Client answering from memory, so benchmarks measure this service's code rather than the network. Part bodies
+ * are read to the end like the HTTP client would, and the versions of a bucket are served as pages of
+ * {@value #VERSIONS_PER_PAGE} that are built once upfront, so the stub does not allocate while it is measured.
+ */
+class StubS3Client implements S3Client {
+
+    static final int VERSIONS_PER_PAGE = 1000;
+    private static final String PAGE_MARKER = "page-";
+
+    private final List<ListObjectVersionsResponse> versionPages = new ArrayList<>();
+    private final UploadPartResponse uploadPartResponse = UploadPartResponse.builder().eTag("\"0123456789abcdef\"").build();
+    private final DeleteObjectsResponse deleteObjectsResponse = DeleteObjectsResponse.builder().build();
+    private final ListMultipartUploadsResponse listMultipartUploadsResponse = ListMultipartUploadsResponse.builder().isTruncated(false).build();
+
+    /**
+     * Holds {@code versionCount} versions, a tenth of them delete markers.
+     */
+    StubS3Client(int versionCount) {
+        for (int first = 0; first < versionCount; first += VERSIONS_PER_PAGE) {
+            int last = Math.min(versionCount, first + VERSIONS_PER_PAGE);
+            List<ObjectVersion> versions = new ArrayList<>();
+            List<DeleteMarkerEntry> deleteMarkers = new ArrayList<>();
+            for (int i = first; i < last; i++) {
+                String key = "game-" + (i / 10) + ".zip";
+                String versionId = String.format("%032x", i);
+                if (i % 10 == 9)
+                    deleteMarkers.add(DeleteMarkerEntry.builder().key(key).versionId(versionId).build());
+                else
+                    versions.add(ObjectVersion.builder().key(key).versionId(versionId).size(1024L).build());
+            }
+            boolean truncated = last < versionCount;
+            versionPages.add(ListObjectVersionsResponse.builder()
+                    .versions(versions)
+                    .deleteMarkers(deleteMarkers)
+                    .isTruncated(truncated)
+                    .nextKeyMarker(truncated ? PAGE_MARKER + (versionPages.size() + 1) : null)
+                    .nextVersionIdMarker(truncated ? "marker" : null)
+                    .build());
+        }
+    }
+
+    ListObjectVersionsResponse versionPage(int page) {
+        return versionPages.get(page);
+    }
+
+    @Override
+    public UploadPartResponse uploadPart(UploadPartRequest uploadPartRequest, RequestBody requestBody) {
+        try (InputStream inputStream = requestBody.contentStreamProvider().newStream()) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return uploadPartResponse;
+    }
+
+    @Override
+    public ListObjectVersionsResponse listObjectVersions(ListObjectVersionsRequest listObjectVersionsRequest) {
+        String keyMarker = listObjectVersionsRequest.keyMarker();
+        if (versionPages.isEmpty())
+            return ListObjectVersionsResponse.builder().isTruncated(false).build();
+        return versionPages.get(keyMarker == null ? 0 : Integer.parseInt(keyMarker.substring(PAGE_MARKER.length())));
+    }
+
+    @Override
+    public ListMultipartUploadsResponse listMultipartUploads(ListMultipartUploadsRequest listMultipartUploadsRequest) {
+        return listMultipartUploadsResponse;
+    }
+
+    @Override
+    public DeleteObjectsResponse deleteObjects(DeleteObjectsRequest deleteObjectsRequest) {
+        return deleteObjectsResponse;
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+}
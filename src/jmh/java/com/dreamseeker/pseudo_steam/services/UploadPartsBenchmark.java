@@ -0,0 +1,104 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slicing a file into parts, and uploading the parts of an in-memory file to {@link StubS3Client}: spooling the
+ * file to disk, reading every slice into a pooled buffer, its CRC32C and building the part request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class UploadPartsBenchmark {
+
+    private static final long FILE_SIZE = 64L * 1024 * 1024;
+
+    @Param({"1048576", "8388608"})
+    private long partSize;
+
+    private int partCount;
+    private MultipartFile file;
+    private ExecutorService transferExecutor;
+    private MultipartUploadEngine multipartUploadEngine;
+
+    @Setup
+    public void setUp() {
+        partCount = (int) ((FILE_SIZE + partSize - 1) / partSize);
+        byte[] content = new byte[(int) FILE_SIZE];
+        new Random(42).nextBytes(content);
+        file = new InMemoryMultipartFile(content);
+        transferExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        multipartUploadEngine = new MultipartUploadEngine(new StubS3Client(0), transferExecutor, 8, new PartBufferPool(8 * partSize));
+    }
+
+    @TearDown
+    public void tearDown() {
+        transferExecutor.shutdown();
+    }
+
+    @Benchmark
+    public List<?> slice() {
+        return MultipartUploadEngine.slice(FILE_SIZE, partSize, partCount);
+    }
+
+    @Benchmark
+    public List<CompletedPart> uploadParts() throws IOException, InterruptedException {
+        return multipartUploadEngine.uploadParts("dev.studio", "game.zip", "upload-id", file, partSize, partCount);
+    }
+
+    private record InMemoryMultipartFile(byte[] content) implements MultipartFile {
+
+        @Override
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return "game.zip";
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/zip";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return content.length == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return content.length;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return content;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.write(dest.toPath(), content);
+        }
+    }
+}
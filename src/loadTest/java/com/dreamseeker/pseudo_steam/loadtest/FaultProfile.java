@@ -0,0 +1,91 @@
+package com.dreamseeker.pseudo_steam.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Latency and errors the {@link S3StandIn} injects per operation. Both are given as comma separated
+ * {@code Operation=value} entries, where {@code *} stands for every operation without an entry of its own:
+ * latencies as a duration or a uniform {@code min..max} range ({@code *=2ms,HeadObject=15ms,UploadPart=40ms..120ms}),
+ * error rates as the fraction of requests failed with a 503 SlowDown ({@code UploadPart=0.01}).
+ */
+public class FaultProfile {
+
+    private static final String EVERY_OPERATION = "*";
+
+    private final Map<S3Operation, Latency> latencies;
+    private final Map<S3Operation, Double> errorRates;
+
+    private FaultProfile(Map<S3Operation, Latency> latencies, Map<S3Operation, Double> errorRates) {
+        this.latencies = latencies;
+        this.errorRates = errorRates;
+    }
+
+    public static FaultProfile none() {
+        return parse("", "");
+    }
+
+    public static FaultProfile parse(String latencySpec, String errorRateSpec) {
+        Map<S3Operation, Latency> latencies = new EnumMap<>(S3Operation.class);
+        parse(latencySpec, latencies, FaultProfile::latency, new Latency(Duration.ZERO, Duration.ZERO));
+        Map<S3Operation, Double> errorRates = new EnumMap<>(S3Operation.class);
+        parse(errorRateSpec, errorRates, FaultProfile::errorRate, 0.0);
+        return new FaultProfile(latencies, errorRates);
+    }
+
+    private static <T> void parse(String spec, Map<S3Operation, T> values, Function<String, T> parser, T none) {
+        T everyOperation = none;
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank())
+                continue;
+            String[] pair = entry.split("=", 2);
+            if (pair.length != 2)
+                throw new IllegalArgumentException("Expected Operation=value but got " + entry);
+            T value = parser.apply(pair[1].trim());
+            if (pair[0].trim().equals(EVERY_OPERATION))
+                everyOperation = value;
+            else
+                values.put(S3Operation.ofApiName(pair[0].trim()), value);
+        }
+        for (S3Operation operation : S3Operation.values())
+            values.putIfAbsent(operation, everyOperation);
+    }
+
+    private static Latency latency(String value) {
+        int range = value.indexOf("..");
+        Duration min = DurationStyle.detectAndParse(range < 0 ? value : value.substring(0, range));
+        Duration max = range < 0 ? min : DurationStyle.detectAndParse(value.substring(range + 2));
+        if (min.isNegative() || max.compareTo(min) < 0)
+            throw new IllegalArgumentException("Invalid latency: " + value);
+        return new Latency(min, max);
+    }
+
+    private static double errorRate(String value) {
+        double errorRate = Double.parseDouble(value);
+        if (errorRate < 0 || errorRate > 1)
+            throw new IllegalArgumentException("Error rate must be between 0 and 1: " + value);
+        return errorRate;
+    }
+
+    void delay(S3Operation operation) throws InterruptedException {
+        Latency latency = latencies.get(operation);
+        long nanos = latency.min().toNanos();
+        if (latency.max().compareTo(latency.min()) > 0)
+            nanos = ThreadLocalRandom.current().nextLong(nanos, latency.max().toNanos() + 1);
+        if (nanos > 0)
+            Thread.sleep(Duration.ofNanos(nanos));
+    }
+
+    boolean fails(S3Operation operation) {
+        double errorRate = errorRates.get(operation);
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    record Latency(Duration min, Duration max) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.dreamseeker.pseudo_steam.loadtest;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Latencies and failures per operation over a run, reported as throughput and latency percentiles. Every sample
+ * is kept, so percentiles are exact; a run of a few million requests fits in a few tens of megabytes.
+ */
+public class LatencyRecorder {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, Samples> samples = new ConcurrentSkipListMap<>();
+
+    public void record(String operation, long nanos) {
+        samples.computeIfAbsent(operation, ignored -> new Samples()).add(nanos);
+    }
+
+    public void recordFailure(String operation, long nanos, Exception failure) {
+        samples.computeIfAbsent(operation, ignored -> new Samples()).addFailure(nanos, failure);
+    }
+
+    public void report(String title, Duration elapsed, PrintStream out) {
+        double seconds = Math.max(elapsed.toNanos(), 1) / 1e9;
+        out.println();
+        out.println(title);
+        out.printf("%-24s %9s %8s %9s %9s %9s %9s %9s %9s%n", "operation", "count", "errors", "ops/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        samples.forEach((operation, operationSamples) -> {
+            long[] latencies = operationSamples.sorted();
+            out.printf("%-24s %9d %8d %9.1f", operation, latencies.length, operationSamples.failures(), latencies.length / seconds);
+            for (double percentile : PERCENTILES)
+                out.printf(" %9.2f", millis(percentile(latencies, percentile)));
+            out.printf(" %9.2f%n", millis(latencies.length == 0 ? 0 : latencies[latencies.length - 1]));
+        });
+        samples.forEach((operation, operationSamples) -> {
+            if (operationSamples.firstFailure() != null)
+                out.printf("first %s failure: %s%n", operation, operationSamples.firstFailure());
+        });
+    }
+
+    /**
+     * The nearest-rank percentile of sorted latencies.
+     */
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0)
+            return 0;
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static final class Samples {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private int failures;
+        private String firstFailure;
+
+        synchronized void add(long nanos) {
+            if (count == latencies.length)
+                latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+        }
+
+        synchronized void addFailure(long nanos, Exception failure) {
+            add(nanos);
+            if (failures++ == 0)
+                firstFailure = String.valueOf(failure);
+        }
+
+        synchronized long[] sorted() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        synchronized int failures() {
+            return failures;
+        }
+
+        synchronized String firstFailure() {
+            return firstFailure;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.dreamseeker.pseudo_steam.loadtest;
+
+import com.dreamseeker.pseudo_steam.PseudoSteamApplication;
+import com.dreamseeker.pseudo_steam.loadtest.RequestLog.RecordedOperation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToLongFunction;
+
+/**
+ * Boots pseudo-steam against an {@link S3StandIn} and drives a workload through its HTTP API, then reports
+ * throughput and latency percentiles per workload operation, per API request and per S3 operation.
+ *
+ * <p>The workload is either a weighted mix of {@link WorkloadOperation}s issued at {@code --rate} operations per
+ * second for {@code --duration}, or a {@link RequestLog} recorded by an earlier run ({@code --replay}). Operations
+ * are issued on schedule whether or not earlier ones have finished, and their latency is measured from when they
+ * were due, so a saturated service shows up as latency rather than as a lower request rate; at most
+ * {@code --max-in-flight} run at once. Before the run every studio is seeded with its games.
+ *
+ * <p>Options, with their defaults:
+ * <pre>
+ * --rate=50                 workload operations per second
+ * --duration=60s
+ * --mix=upload=5,game-info=60,list-games=30,delete-studio=5
+ * --studios=4               studios seeded before the run
+ * --games-per-studio=20     games seeded in every studio, read and re-uploaded by the mix
+ * --game-size=12MB
+ * --part-concurrency=4      part PUTs in flight per upload
+ * --max-in-flight=1000      workload operations in flight
+ * --s3-latency=*=5ms        per S3 operation, see {@link FaultProfile}
+ * --s3-errors=              per S3 operation, see {@link FaultProfile}
+ * --seed=1
+ * --record=                 file to record the issued operations to
+ * --replay=                 recorded file to replay instead of the mix
+ * --replay-speed=1          replays that many times faster than recorded
+ * </pre>
+ * Any other {@code --name=value} is passed to the application as a property, e.g.
+ * {@code --storage.client.mode=async}. The harness, the application and the stand-in share one JVM, so results
+ * are for comparing builds and settings on the same machine rather than for sizing production.
+ */
+public class LoadHarness {
+
+    private static final Map<String, String> DEFAULT_OPTIONS = Map.ofEntries(
+            Map.entry("rate", "50"),
+            Map.entry("duration", "60s"),
+            Map.entry("mix", "upload=5,game-info=60,list-games=30,delete-studio=5"),
+            Map.entry("studios", "4"),
+            Map.entry("games-per-studio", "20"),
+            Map.entry("game-size", "12MB"),
+            Map.entry("part-concurrency", "4"),
+            Map.entry("max-in-flight", "1000"),
+            Map.entry("s3-latency", "*=5ms"),
+            Map.entry("s3-errors", ""),
+            Map.entry("seed", "1"),
+            Map.entry("record", ""),
+            Map.entry("replay", ""),
+            Map.entry("replay-speed", "1"));
+    private static final int SEED_CONCURRENCY = 16;
+
+    private final Map<String, String> options;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final URI baseUrl;
+    private final S3StandIn s3StandIn;
+    private final PrintStream out;
+    private final List<String> studios = new ArrayList<>();
+
+    LoadHarness(Map<String, String> options, ObjectMapper objectMapper, HttpClient httpClient, URI baseUrl, S3StandIn s3StandIn,
+                PrintStream out) {
+        this.options = options;
+        this.objectMapper = objectMapper;
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.s3StandIn = s3StandIn;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(DEFAULT_OPTIONS);
+        Map<String, String> applicationProperties = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0)
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            String name = arg.substring(2, equals);
+            if (DEFAULT_OPTIONS.containsKey(name))
+                options.put(name, arg.substring(equals + 1));
+            else
+                applicationProperties.put(name, arg.substring(equals + 1));
+        }
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        FaultProfile faultProfile = FaultProfile.parse(options.get("s3-latency"), options.get("s3-errors"));
+        Path dataDirectory = Files.createTempDirectory("pseudo-steam-load-");
+        // the stand-in does not check signatures, but the SDK signs every request
+        System.setProperty("aws.accessKeyId", "stand-in");
+        System.setProperty("aws.secretAccessKey", "stand-in");
+        try (S3StandIn s3StandIn = S3StandIn.start(faultProfile)) {
+            applicationProperties.put("aws.s3.endpoint", s3StandIn.endpoint().toString());
+            applicationProperties.put("storage.engine", "s3");
+            applicationProperties.putIfAbsent("server.port", "0");
+            applicationProperties.putIfAbsent("spring.main.banner-mode", "off");
+            applicationProperties.putIfAbsent("logging.level.root", "WARN");
+            applicationProperties.put("metadata.store.path", dataDirectory.resolve("metadata/game-metadata.log").toString());
+            applicationProperties.put("studios.directory.snapshot-path", dataDirectory.resolve("studios.snapshot").toString());
+            applicationProperties.put("cache.game-files.directory", dataDirectory.resolve("downloads").toString());
+
+            // passed as arguments, so they override application.properties
+            String[] applicationArgs = applicationProperties.entrySet().stream()
+                    .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                    .toArray(String[]::new);
+            try (ConfigurableApplicationContext application = new SpringApplicationBuilder(PseudoSteamApplication.class).run(applicationArgs)) {
+                URI baseUrl = URI.create("http://localhost:" + application.getEnvironment().getProperty("local.server.port"));
+                HttpClient httpClient = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+                new LoadHarness(options, objectMapper, httpClient, baseUrl, s3StandIn, System.out).run();
+            }
+        } finally {
+            FileSystemUtils.deleteRecursively(dataDirectory);
+        }
+    }
+
+    void run() throws IOException, InterruptedException {
+        List<RecordedOperation> replayed = options.get("replay").isEmpty() ? null
+                : RequestLog.read(Path.of(options.get("replay")), objectMapper);
+        long gameSize = DataSize.parse(options.get("game-size")).toBytes();
+        if (replayed != null)
+            gameSize = Math.max(gameSize, replayed.stream().mapToLong(RecordedOperation::size).max().orElse(0));
+        byte[] payload = new byte[Math.toIntExact(gameSize)];
+        Random random = new Random(Long.parseLong(options.get("seed")));
+        random.nextBytes(payload);
+        int partConcurrency = Integer.parseInt(options.get("part-concurrency"));
+
+        long seedStart = System.nanoTime();
+        PseudoSteamDriver seeder = new PseudoSteamDriver(httpClient, baseUrl, objectMapper, new LatencyRecorder(), payload, partConcurrency);
+        int seededGames = seed(seeder, replayed, gameSize);
+        out.printf("Seeded %d studios with %d games in %s%n", studios.size(), seededGames, Duration.ofNanos(System.nanoTime() - seedStart));
+
+        LatencyRecorder operations = new LatencyRecorder();
+        LatencyRecorder requests = new LatencyRecorder();
+        PseudoSteamDriver driver = new PseudoSteamDriver(httpClient, baseUrl, objectMapper, requests, payload, partConcurrency);
+        long[] s3RequestsBefore = snapshot(s3StandIn::requests);
+        long[] s3ErrorsBefore = snapshot(s3StandIn::injectedErrors);
+        Iterator<RecordedOperation> schedule = replayed != null ? replayed.iterator() : mix(random, gameSize);
+        double speed = replayed != null ? Double.parseDouble(options.get("replay-speed")) : 1;
+        Duration elapsed = drive(schedule, speed, driver, operations);
+
+        operations.report("Workload operations, from when they were due", elapsed, out);
+        requests.report("API requests", elapsed, out);
+        reportS3(s3RequestsBefore, s3ErrorsBefore, elapsed);
+    }
+
+    /**
+     * Creates the studios and uploads the games the workload reads: every game of every studio for a mix, the
+     * games a replay reads for a replay. Returns the number of games uploaded.
+     */
+    private int seed(PseudoSteamDriver seeder, List<RecordedOperation> replayed, long gameSize) throws IOException, InterruptedException {
+        int studioCount = replayed == null ? Integer.parseInt(options.get("studios"))
+                : replayed.stream().mapToInt(RecordedOperation::studio).max().orElse(-1) + 1;
+        for (int studio = 0; studio < studioCount; studio++)
+            studios.add(seeder.createStudio("load-" + studio));
+
+        Set<Map.Entry<Integer, String>> games = new LinkedHashSet<>();
+        if (replayed == null) {
+            int gamesPerStudio = Integer.parseInt(options.get("games-per-studio"));
+            for (int studio = 0; studio < studioCount; studio++) {
+                for (int game = 0; game < gamesPerStudio; game++)
+                    games.add(Map.entry(studio, "game-" + game));
+            }
+        } else {
+            for (RecordedOperation operation : replayed) {
+                if (operation.operation() == WorkloadOperation.GAME_INFO)
+                    games.add(Map.entry(operation.studio(), operation.game()));
+            }
+        }
+
+        Semaphore permits = new Semaphore(SEED_CONCURRENCY);
+        List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Map.Entry<Integer, String> game : games) {
+                permits.acquire();
+                executor.submit(() -> {
+                    try {
+                        seeder.upload(studios.get(game.getKey()), game.getValue(), gameSize);
+                    } catch (IOException | RuntimeException e) {
+                        failures.add(e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        if (!failures.isEmpty())
+            throw new IOException(failures.size() + " games could not be seeded", failures.getFirst());
+        return games.size();
+    }
+
+    /**
+     * Schedules {@code --rate} operations per second for {@code --duration}, drawn from {@code --mix}.
+     */
+    private Iterator<RecordedOperation> mix(Random random, long gameSize) {
+        double rate = Double.parseDouble(options.get("rate"));
+        Duration duration = DurationStyle.detectAndParse(options.get("duration"));
+        if (rate <= 0 || duration.isNegative() || duration.isZero())
+            throw new IllegalArgumentException("rate and duration must be positive");
+        long count = (long) (rate * duration.toNanos() / 1e9);
+
+        List<WorkloadOperation> operations = new ArrayList<>();
+        List<Integer> cumulativeWeights = new ArrayList<>();
+        int totalWeight = 0;
+        for (String entry : options.get("mix").split(",")) {
+            String[] pair = entry.split("=", 2);
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight <= 0)
+                continue;
+            totalWeight += weight;
+            operations.add(WorkloadOperation.ofLabel(pair[0].trim()));
+            cumulativeWeights.add(totalWeight);
+        }
+        if (totalWeight == 0)
+            throw new IllegalArgumentException("mix has no operation with a positive weight");
+        int weights = totalWeight;
+        int gamesPerStudio = Integer.parseInt(options.get("games-per-studio"));
+
+        return new Iterator<>() {
+            private long issued;
+
+            @Override
+            public boolean hasNext() {
+                return issued < count;
+            }
+
+            @Override
+            public RecordedOperation next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                long offsetMicros = Math.round(issued++ * 1e6 / rate);
+                int draw = random.nextInt(weights);
+                int index = 0;
+                while (cumulativeWeights.get(index) <= draw)
+                    index++;
+                WorkloadOperation operation = operations.get(index);
+                return switch (operation) {
+                    case UPLOAD, GAME_INFO -> new RecordedOperation(offsetMicros, operation, random.nextInt(studios.size()),
+                            "game-" + random.nextInt(gamesPerStudio), operation == WorkloadOperation.UPLOAD ? gameSize : 0);
+                    case LIST_GAMES -> new RecordedOperation(offsetMicros, operation, random.nextInt(studios.size()), null, 0);
+                    case DELETE_STUDIO -> new RecordedOperation(offsetMicros, operation, -1, null, 0);
+                };
+            }
+        };
+    }
+
+    /**
+     * Issues every operation when it is due, {@code speed} times faster than scheduled, and returns once all of
+     * them finished.
+     */
+    private Duration drive(Iterator<RecordedOperation> schedule, double speed, PseudoSteamDriver driver, LatencyRecorder operations)
+            throws IOException, InterruptedException {
+        Semaphore inFlight = new Semaphore(Integer.parseInt(options.get("max-in-flight")));
+        RequestLog requestLog = options.get("record").isEmpty() ? null : RequestLog.create(Path.of(options.get("record")), objectMapper);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (schedule.hasNext()) {
+                RecordedOperation operation = schedule.next();
+                long due = start + (long) (operation.offsetMicros() * 1000 / speed);
+                for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime())
+                    LockSupport.parkNanos(wait);
+                inFlight.acquire();
+                if (requestLog != null)
+                    requestLog.append(operation);
+                executor.submit(() -> {
+                    try {
+                        driver.run(operation.operation(), operation.studio() < 0 ? null : studios.get(operation.studio()),
+                                operation.game(), operation.size());
+                        operations.record(operation.operation().label(), System.nanoTime() - due);
+                    } catch (IOException | RuntimeException e) {
+                        operations.recordFailure(operation.operation().label(), System.nanoTime() - due, e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            if (requestLog != null)
+                requestLog.close();
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private static long[] snapshot(ToLongFunction<S3Operation> counter) {
+        return Arrays.stream(S3Operation.values()).mapToLong(counter).toArray();
+    }
+
+    private void reportS3(long[] requestsBefore, long[] errorsBefore, Duration elapsed) {
+        double seconds = Math.max(elapsed.toNanos(), 1) / 1e9;
+        out.println();
+        out.println("S3 stand-in requests");
+        out.printf("%-34s %9s %9s %9s%n", "operation", "count", "req/s", "injected");
+        for (S3Operation operation : S3Operation.values()) {
+            long count = s3StandIn.requests(operation) - requestsBefore[operation.ordinal()];
+            if (count > 0)
+                out.printf("%-34s %9d %9.1f %9d%n", operation.apiName(), count, count / seconds,
+                        s3StandIn.injectedErrors(operation) - errorsBefore[operation.ordinal()]);
+        }
+    }
+}
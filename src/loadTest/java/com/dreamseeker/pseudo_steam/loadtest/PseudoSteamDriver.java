@@ -0,0 +1,179 @@
+package com.dreamseeker.pseudo_steam.loadtest;
+
+import com.dreamseeker.pseudo_steam.domains.BucketsPage;
+import com.dreamseeker.pseudo_steam.domains.CompleteUploadRequest;
+import com.dreamseeker.pseudo_steam.domains.InitiateUploadRequest;
+import com.dreamseeker.pseudo_steam.domains.InitiateUploadResponse;
+import com.dreamseeker.pseudo_steam.domains.PreSignedPartUrl;
+import com.dreamseeker.pseudo_steam.domains.PreSignedPartsPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Makes pseudo-steam's API calls for workload operations over HTTP, the way the launcher and the studios'
+ * uploaders do, and times every request. Parts are PUT straight to their presigned URLs with their CRC32C, at most
+ * {@code partConcurrency} at a time per upload; every part is a prefix of the same random {@code payload}, which
+ * is all the stand-in needs since it keeps no content.
+ */
+public class PseudoSteamDriver {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(2);
+    private static final int PRESIGN_PAGE_SIZE = 1000;
+    private static final int MAX_ERROR_BODY = 200;
+
+    private final HttpClient httpClient;
+    private final URI baseUrl;
+    private final ObjectMapper objectMapper;
+    private final LatencyRecorder requests;
+    private final byte[] payload;
+    private final int partConcurrency;
+    private final Map<Integer, String> checksums = new ConcurrentHashMap<>();
+    private final AtomicLong scratchStudios = new AtomicLong();
+
+    public PseudoSteamDriver(HttpClient httpClient, URI baseUrl, ObjectMapper objectMapper, LatencyRecorder requests,
+                             byte[] payload, int partConcurrency) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.requests = requests;
+        this.payload = payload;
+        this.partConcurrency = partConcurrency;
+    }
+
+    public void run(WorkloadOperation operation, String studioId, String game, long size) throws IOException, InterruptedException {
+        switch (operation) {
+            case UPLOAD -> upload(studioId, game, size);
+            case GAME_INFO -> send("GET game", request("/studios/%s/games/%s", studioId, game).GET().build());
+            case LIST_GAMES -> send("GET games", request("/studios/%s/games", studioId).GET().build());
+            case DELETE_STUDIO -> deleteStudio(createStudio("scratch-" + scratchStudios.incrementAndGet()));
+        }
+    }
+
+    public String createStudio(String name) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = send("POST studio", request("/studios/%s", name).POST(HttpRequest.BodyPublishers.noBody()).build());
+        return objectMapper.readValue(response.body(), BucketsPage.Bucket.class).bucketName();
+    }
+
+    public void deleteStudio(String studioId) throws IOException, InterruptedException {
+        send("DELETE studio", request("/studios/%s", studioId).DELETE().build());
+    }
+
+    public void upload(String studioId, String game, long size) throws IOException, InterruptedException {
+        InitiateUploadRequest initiateUploadRequest = new InitiateUploadRequest(game, size, "application/zip",
+                Map.of("genre", "load-test", "version", "v1"));
+        InitiateUploadResponse initiated = objectMapper.readValue(
+                send("POST initiate", json(request("/studios/%s/games/initiate", studioId), initiateUploadRequest)).body(),
+                InitiateUploadResponse.class);
+
+        List<PreSignedPartUrl> preSignedUrls = new ArrayList<>(initiated.presignedUrls());
+        while (preSignedUrls.size() < initiated.partCount()) {
+            HttpRequest presignRequest = request("/studios/%s/games/%s/uploads/%s/parts?from=%d&count=%d",
+                    studioId, game, initiated.uploadId(), preSignedUrls.size() + 1, PRESIGN_PAGE_SIZE).GET().build();
+            PreSignedPartsPage page = objectMapper.readValue(send("GET upload parts", presignRequest).body(), PreSignedPartsPage.class);
+            if (page.presignedUrls().isEmpty())
+                throw new IOException("No presigned URLs after part " + preSignedUrls.size() + " of upload " + initiated.uploadId());
+            preSignedUrls.addAll(page.presignedUrls());
+        }
+
+        List<CompleteUploadRequest.CompletedPart> completedParts = putParts(preSignedUrls);
+        send("POST complete", json(request("/studios/%s/games/complete", studioId),
+                new CompleteUploadRequest(initiated.uploadId(), game, completedParts)));
+    }
+
+    private List<CompleteUploadRequest.CompletedPart> putParts(List<PreSignedPartUrl> preSignedUrls) throws IOException, InterruptedException {
+        Semaphore permits = new Semaphore(partConcurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<CompleteUploadRequest.CompletedPart>> futures = new ArrayList<>(preSignedUrls.size());
+            for (PreSignedPartUrl preSignedUrl : preSignedUrls) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return putPart(preSignedUrl);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            List<CompleteUploadRequest.CompletedPart> completedParts = new ArrayList<>(futures.size());
+            try {
+                for (Future<CompleteUploadRequest.CompletedPart> future : futures)
+                    completedParts.add(future.get());
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                if (e.getCause() instanceof IOException cause)
+                    throw cause;
+                throw new IOException(e.getCause());
+            }
+            return completedParts;
+        }
+    }
+
+    private CompleteUploadRequest.CompletedPart putPart(PreSignedPartUrl preSignedUrl) throws IOException, InterruptedException {
+        if (preSignedUrl.partSize() > payload.length)
+            throw new IOException(String.format("Part %d is %d bytes, more than the %d byte payload", preSignedUrl.partNumber(),
+                    preSignedUrl.partSize(), payload.length));
+        int length = (int) preSignedUrl.partSize();
+        String checksum = checksums.computeIfAbsent(length, this::checksum);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(preSignedUrl.preSignedUrl()))
+                .timeout(REQUEST_TIMEOUT)
+                .header("x-amz-checksum-crc32c", checksum)
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(payload, 0, length))
+                .build();
+        String eTag = send("PUT part", request).headers().firstValue("ETag")
+                .orElseThrow(() -> new IOException("Part " + preSignedUrl.partNumber() + " was stored without an ETag"));
+        return new CompleteUploadRequest.CompletedPart(preSignedUrl.partNumber(), eTag, checksum);
+    }
+
+    private String checksum(int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload, 0, length);
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+
+    private HttpRequest.Builder request(String pathFormat, Object... arguments) {
+        return HttpRequest.newBuilder(baseUrl.resolve(String.format(pathFormat, arguments))).timeout(REQUEST_TIMEOUT);
+    }
+
+    private HttpRequest json(HttpRequest.Builder request, Object body) throws IOException {
+        return request.header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private HttpResponse<byte[]> send(String name, HttpRequest request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() >= 300) {
+                String body = new String(response.body(), StandardCharsets.UTF_8);
+                throw new IOException(String.format("%s %s answered %d: %s", request.method(), request.uri().getPath(),
+                        response.statusCode(), body.length() > MAX_ERROR_BODY ? body.substring(0, MAX_ERROR_BODY) : body));
+            }
+            requests.record(name, System.nanoTime() - start);
+            return response;
+        } catch (IOException e) {
+            requests.recordFailure(name, System.nanoTime() - start, e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.dreamseeker.pseudo_steam.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A recorded workload, one JSON {@link RecordedOperation} per line. A run started with {@code --record} writes
+ * every operation it issues, and {@code --replay} issues them again on the same schedule. Studios are referred to
+ * by their position among the studios the run seeded, since every run creates its own.
+ */
+public class RequestLog implements Closeable {
+
+    private final BufferedWriter writer;
+    private final ObjectMapper objectMapper;
+
+    private RequestLog(BufferedWriter writer, ObjectMapper objectMapper) {
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+    }
+
+    public static RequestLog create(Path path, ObjectMapper objectMapper) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        return new RequestLog(Files.newBufferedWriter(path), objectMapper);
+    }
+
+    /**
+     * Reads a log, ordered by offset.
+     */
+    public static List<RecordedOperation> read(Path path, ObjectMapper objectMapper) throws IOException {
+        List<RecordedOperation> operations = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (!line.isBlank())
+                    operations.add(objectMapper.readValue(line, RecordedOperation.class));
+            }
+        }
+        operations.sort(Comparator.comparingLong(RecordedOperation::offsetMicros));
+        return operations;
+    }
+
+    public void append(RecordedOperation operation) throws IOException {
+        writer.write(objectMapper.writeValueAsString(operation));
+        writer.newLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * An operation issued {@code offsetMicros} after the start of a run. {@code studio} is -1 and {@code game}
+     * {@code null} for operations that do not target them.
+     */
+    public record RecordedOperation(long offsetMicros, WorkloadOperation operation, int studio, String game, long size) {
+    }
+}
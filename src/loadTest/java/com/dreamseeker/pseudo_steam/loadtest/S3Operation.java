@@ -0,0 +1,80 @@
+package com.dreamseeker.pseudo_steam.loadtest;
+
+import java.util.Map;
+
+/**
+ * The S3 operations the {@link S3StandIn} serves, named as in the S3 API so latencies and error rates are
+ * configured per operation by those names.
+ */
+public enum S3Operation {
+    LIST_BUCKETS("ListBuckets"),
+    CREATE_BUCKET("CreateBucket"),
+    HEAD_BUCKET("HeadBucket"),
+    DELETE_BUCKET("DeleteBucket"),
+    PUT_BUCKET_VERSIONING("PutBucketVersioning"),
+    PUT_BUCKET_LIFECYCLE_CONFIGURATION("PutBucketLifecycleConfiguration"),
+    LIST_OBJECTS_V2("ListObjectsV2"),
+    LIST_OBJECT_VERSIONS("ListObjectVersions"),
+    LIST_MULTIPART_UPLOADS("ListMultipartUploads"),
+    DELETE_OBJECTS("DeleteObjects"),
+    HEAD_OBJECT("HeadObject"),
+    GET_OBJECT("GetObject"),
+    PUT_OBJECT("PutObject"),
+    DELETE_OBJECT("DeleteObject"),
+    CREATE_MULTIPART_UPLOAD("CreateMultipartUpload"),
+    UPLOAD_PART("UploadPart"),
+    LIST_PARTS("ListParts"),
+    COMPLETE_MULTIPART_UPLOAD("CompleteMultipartUpload"),
+    ABORT_MULTIPART_UPLOAD("AbortMultipartUpload");
+
+    private final String apiName;
+
+    S3Operation(String apiName) {
+        this.apiName = apiName;
+    }
+
+    public String apiName() {
+        return apiName;
+    }
+
+    public static S3Operation ofApiName(String apiName) {
+        for (S3Operation operation : values()) {
+            if (operation.apiName.equals(apiName))
+                return operation;
+        }
+        throw new IllegalArgumentException("Unknown S3 operation: " + apiName);
+    }
+
+    /**
+     * Resolves the operation of a path-style request, or returns {@code null} for one the stand-in does not serve.
+     */
+    static S3Operation resolve(String method, String bucket, String key, Map<String, String> query, boolean copy) {
+        if (bucket == null)
+            return method.equals("GET") ? LIST_BUCKETS : null;
+        if (copy)
+            return null;
+        if (key == null) {
+            return switch (method) {
+                case "PUT" -> query.containsKey("versioning") ? PUT_BUCKET_VERSIONING
+                        : query.containsKey("lifecycle") ? PUT_BUCKET_LIFECYCLE_CONFIGURATION
+                        : query.isEmpty() ? CREATE_BUCKET : null;
+                case "GET" -> query.containsKey("versions") ? LIST_OBJECT_VERSIONS
+                        : query.containsKey("uploads") ? LIST_MULTIPART_UPLOADS
+                        : "2".equals(query.get("list-type")) ? LIST_OBJECTS_V2 : null;
+                case "HEAD" -> HEAD_BUCKET;
+                case "DELETE" -> query.isEmpty() ? DELETE_BUCKET : null;
+                case "POST" -> query.containsKey("delete") ? DELETE_OBJECTS : null;
+                default -> null;
+            };
+        }
+        return switch (method) {
+            case "PUT" -> query.containsKey("uploadId") ? UPLOAD_PART : PUT_OBJECT;
+            case "GET" -> query.containsKey("uploadId") ? LIST_PARTS : query.containsKey("attributes") ? null : GET_OBJECT;
+            case "HEAD" -> HEAD_OBJECT;
+            case "POST" -> query.containsKey("uploads") ? CREATE_MULTIPART_UPLOAD
+                    : query.containsKey("uploadId") ? COMPLETE_MULTIPART_UPLOAD : null;
+            case "DELETE" -> query.containsKey("uploadId") ? ABORT_MULTIPART_UPLOAD : DELETE_OBJECT;
+            default -> null;
+        };
+    }
+}
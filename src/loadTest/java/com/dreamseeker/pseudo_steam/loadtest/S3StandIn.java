@@ -0,0 +1,877 @@
+package com.dreamseeker.pseudo_steam.loadtest;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32C;
+
+/**
+ * An in-process stand-in for S3, serving the part of its REST API pseudo-steam uses over path-style HTTP:
+ * versioned buckets, HEADs and listings, multipart uploads including presigned part PUTs, and batch deletes.
+ * Buckets, versions and uploads live in memory, object content does not: bodies are read, checksummed and
+ * dropped, and GETs serve zeros of the stored length. Every request is first delayed and possibly failed with a
+ * 503 SlowDown by the {@link FaultProfile}, the way a throttled S3 fails. Signatures are not checked.
+ */
+public class S3StandIn implements AutoCloseable {
+
+    private static final String XMLNS = "http://s3.amazonaws.com/doc/2006-03-01/";
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final int MAX_PART_NUMBER = 10000;
+    private static final int DEFAULT_MAX_KEYS = 1000;
+    private static final byte[] ZEROS = new byte[64 * 1024];
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final FaultProfile faultProfile;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<S3Operation, LongAdder> requests = new EnumMap<>(S3Operation.class);
+    private final Map<S3Operation, LongAdder> injectedErrors = new EnumMap<>(S3Operation.class);
+
+    private S3StandIn(HttpServer server, ExecutorService executor, FaultProfile faultProfile) {
+        this.server = server;
+        this.executor = executor;
+        this.faultProfile = faultProfile;
+        for (S3Operation operation : S3Operation.values()) {
+            requests.put(operation, new LongAdder());
+            injectedErrors.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Starts a stand-in on an ephemeral port of the loopback interface.
+     */
+    public static S3StandIn start(FaultProfile faultProfile) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        S3StandIn standIn = new S3StandIn(server, executor, faultProfile);
+        server.createContext("/", standIn::handle);
+        server.setExecutor(executor);
+        server.start();
+        return standIn;
+    }
+
+    public URI endpoint() {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    public long requests(S3Operation operation) {
+        return requests.get(operation).sum();
+    }
+
+    public long injectedErrors(S3Operation operation) {
+        return injectedErrors.get(operation).sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            Request request = Request.of(exchange);
+            S3Operation operation = S3Operation.resolve(request.method(), request.bucket(), request.key(), request.query(),
+                    request.header("x-amz-copy-source") != null);
+            try {
+                if (operation == null)
+                    throw new S3Error(501, "NotImplemented", request.method() + " " + exchange.getRequestURI().getRawPath() + " is not supported by the stand-in");
+                requests.get(operation).increment();
+                faultProfile.delay(operation);
+                if (faultProfile.fails(operation)) {
+                    injectedErrors.get(operation).increment();
+                    exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+                    throw new S3Error(503, "SlowDown", "Please reduce your request rate.");
+                }
+                dispatch(operation, request, exchange);
+            } catch (S3Error e) {
+                sendError(exchange, request.method(), e);
+            } catch (RuntimeException e) {
+                sendError(exchange, request.method(), new S3Error(500, "InternalError", String.valueOf(e)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sendError(exchange, request.method(), new S3Error(503, "ServiceUnavailable", "The stand-in is shutting down."));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void dispatch(S3Operation operation, Request request, HttpExchange exchange) throws IOException, S3Error {
+        switch (operation) {
+            case LIST_BUCKETS -> listBuckets(request, exchange);
+            case CREATE_BUCKET -> createBucket(request, exchange);
+            case HEAD_BUCKET -> {
+                bucket(request);
+                sendEmpty(exchange, 200);
+            }
+            case DELETE_BUCKET -> deleteBucket(request, exchange);
+            case PUT_BUCKET_VERSIONING, PUT_BUCKET_LIFECYCLE_CONFIGURATION -> {
+                bucket(request);
+                exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+                sendEmpty(exchange, 200);
+            }
+            case LIST_OBJECTS_V2 -> listObjectsV2(request, exchange);
+            case LIST_OBJECT_VERSIONS -> listObjectVersions(request, exchange);
+            case LIST_MULTIPART_UPLOADS -> listMultipartUploads(request, exchange);
+            case DELETE_OBJECTS -> deleteObjects(request, exchange);
+            case HEAD_OBJECT -> headObject(request, exchange);
+            case GET_OBJECT -> getObject(request, exchange);
+            case PUT_OBJECT -> putObject(request, exchange);
+            case DELETE_OBJECT -> deleteObject(request, exchange);
+            case CREATE_MULTIPART_UPLOAD -> createMultipartUpload(request, exchange);
+            case UPLOAD_PART -> uploadPart(request, exchange);
+            case LIST_PARTS -> listParts(request, exchange);
+            case COMPLETE_MULTIPART_UPLOAD -> completeMultipartUpload(request, exchange);
+            case ABORT_MULTIPART_UPLOAD -> {
+                if (bucket(request).uploads.remove(request.query().get("uploadId")) == null)
+                    throw noSuchUpload(request);
+                sendEmpty(exchange, 204);
+            }
+        }
+    }
+
+    private void listBuckets(Request request, HttpExchange exchange) throws IOException {
+        String prefix = request.query().getOrDefault("prefix", "");
+        String continuationToken = request.query().get("continuation-token");
+        int maxBuckets = request.intParameter("max-buckets", 10000);
+        List<Bucket> matching = buckets.values().stream()
+                .filter(bucket -> bucket.name.startsWith(prefix))
+                .filter(bucket -> continuationToken == null || bucket.name.compareTo(continuationToken) > 0)
+                .sorted(Comparator.comparing(bucket -> bucket.name))
+                .toList();
+        List<Bucket> page = matching.subList(0, Math.min(maxBuckets, matching.size()));
+
+        Xml xml = new Xml("ListAllMyBucketsResult").open("Owner").element("ID", "stand-in").close("Owner").open("Buckets");
+        for (Bucket bucket : page)
+            xml.open("Bucket").element("Name", bucket.name).element("CreationDate", bucket.creationDate).close("Bucket");
+        xml.close("Buckets");
+        if (page.size() < matching.size())
+            xml.element("ContinuationToken", page.getLast().name);
+        sendXml(exchange, 200, xml.element("Prefix", prefix));
+    }
+
+    private void createBucket(Request request, HttpExchange exchange) throws IOException, S3Error {
+        exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+        if (buckets.putIfAbsent(request.bucket(), new Bucket(request.bucket(), now())) != null)
+            throw new S3Error(409, "BucketAlreadyOwnedByYou", "Your previous request to create the named bucket succeeded and you already own it.");
+        exchange.getResponseHeaders().set("Location", "/" + request.bucket());
+        sendEmpty(exchange, 200);
+    }
+
+    private void deleteBucket(Request request, HttpExchange exchange) throws IOException, S3Error {
+        Bucket bucket = bucket(request);
+        synchronized (bucket) {
+            if (!bucket.objects.isEmpty() || !bucket.uploads.isEmpty())
+                throw new S3Error(409, "BucketNotEmpty", "The bucket you tried to delete is not empty.");
+            buckets.remove(bucket.name);
+        }
+        sendEmpty(exchange, 204);
+    }
+
+    private void listObjectsV2(Request request, HttpExchange exchange) throws IOException, S3Error {
+        Bucket bucket = bucket(request);
+        String prefix = request.query().getOrDefault("prefix", "");
+        String delimiter = request.query().get("delimiter");
+        String continuationToken = request.query().get("continuation-token");
+        String startAfter = continuationToken != null ? continuationToken : request.query().get("start-after");
+        int maxKeys = request.intParameter("max-keys", DEFAULT_MAX_KEYS);
+
+        List<Version> contents = new ArrayList<>();
+        SortedSet<String> commonPrefixes = new TreeSet<>();
+        String lastKey = null;
+        boolean truncated = false;
+        synchronized (bucket) {
+            SortedMap<String, List<Version>> objects = startAfter == null ? bucket.objects : bucket.objects.tailMap(startAfter + "\0");
+            for (Map.Entry<String, List<Version>> object : objects.entrySet()) {
+                String key = object.getKey();
+                Version latest = object.getValue().getLast();
+                if (!key.startsWith(prefix) || latest.deleteMarker())
+                    continue;
+                if (contents.size() + commonPrefixes.size() == maxKeys) {
+                    truncated = true;
+                    break;
+                }
+                int delimiterIndex = delimiter == null ? -1 : key.indexOf(delimiter, prefix.length());
+                if (delimiterIndex >= 0)
+                    commonPrefixes.add(key.substring(0, delimiterIndex + delimiter.length()));
+                else
+                    contents.add(latest);
+                lastKey = key;
+            }
+        }
+
+        Xml xml = new Xml("ListBucketResult").element("Name", bucket.name).element("Prefix", prefix)
+                .element("KeyCount", contents.size() + commonPrefixes.size()).element("MaxKeys", maxKeys)
+                .element("IsTruncated", truncated);
+        if (continuationToken != null)
+            xml.element("ContinuationToken", continuationToken);
+        if (truncated)
+            xml.element("NextContinuationToken", lastKey);
+        for (Version version : contents)
+            xml.open("Contents").element("Key", version.key()).element("LastModified", version.lastModified())
+                    .element("ETag", version.eTag()).element("Size", version.size()).element("StorageClass", "STANDARD").close("Contents");
+        for (String commonPrefix : commonPrefixes)
+            xml.open("CommonPrefixes").element("Prefix", commonPrefix).close("CommonPrefixes");
+        sendXml(exchange, 200, xml);
+    }
+
+    private void listObjectVersions(Request request, HttpExchange exchange) throws IOException, S3Error {
+        Bucket bucket = bucket(request);
+        String prefix = request.query().getOrDefault("prefix", "");
+        String keyMarker = request.query().get("key-marker");
+        String versionIdMarker = request.query().get("version-id-marker");
+        int maxKeys = request.intParameter("max-keys", DEFAULT_MAX_KEYS);
+
+        List<Version> page = new ArrayList<>();
+        Set<Version> latestVersions = new HashSet<>();
+        boolean truncated = false;
+        synchronized (bucket) {
+            SortedMap<String, List<Version>> objects = keyMarker == null ? bucket.objects : bucket.objects.tailMap(keyMarker);
+            listing:
+            for (Map.Entry<String, List<Version>> object : objects.entrySet()) {
+                if (!object.getKey().startsWith(prefix))
+                    continue;
+                List<Version> versions = object.getValue().reversed();
+                int from = 0;
+                if (object.getKey().equals(keyMarker)) {
+                    if (versionIdMarker == null || versionIdMarker.isEmpty())
+                        continue;
+                    while (from < versions.size() && !versions.get(from).versionId().equals(versionIdMarker))
+                        from++;
+                    from++;
+                }
+                for (int i = from; i < versions.size(); i++) {
+                    if (page.size() == maxKeys) {
+                        truncated = true;
+                        break listing;
+                    }
+                    page.add(versions.get(i));
+                    if (i == 0)
+                        latestVersions.add(versions.get(i));
+                }
+            }
+        }
+
+        Xml xml = new Xml("ListVersionsResult").element("Name", bucket.name).element("Prefix", prefix)
+                .element("KeyMarker", keyMarker == null ? "" : keyMarker)
+                .element("VersionIdMarker", versionIdMarker == null ? "" : versionIdMarker)
+                .element("MaxKeys", maxKeys).element("IsTruncated", truncated);
+        if (truncated)
+            xml.element("NextKeyMarker", page.getLast().key()).element("NextVersionIdMarker", page.getLast().versionId());
+        for (Version version : page) {
+            String element = version.deleteMarker() ? "DeleteMarker" : "Version";
+            xml.open(element).element("Key", version.key()).element("VersionId", version.versionId())
+                    .element("IsLatest", latestVersions.contains(version)).element("LastModified", version.lastModified());
+            if (!version.deleteMarker())
+                xml.element("ETag", version.eTag()).element("Size", version.size()).element("StorageClass", "STANDARD");
+            xml.close(element);
+        }
+        sendXml(exchange, 200, xml);
+    }
+
+    private void listMultipartUploads(Request request, HttpExchange exchange) throws IOException, S3Error {
+        Bucket bucket = bucket(request);
+        String prefix = request.query().getOrDefault("prefix", "");
+        String keyMarker = request.query().getOrDefault("key-marker", "");
+        String uploadIdMarker = request.query().getOrDefault("upload-id-marker", "");
+        int maxUploads = request.intParameter("max-uploads", DEFAULT_MAX_KEYS);
+
+        List<Upload> matching = bucket.uploads.values().stream()
+                .filter(upload -> upload.key.startsWith(prefix))
+                .filter(upload -> {
+                    int comparison = upload.key.compareTo(keyMarker);
+                    return comparison > 0 || comparison == 0 && !uploadIdMarker.isEmpty() && upload.uploadId.compareTo(uploadIdMarker) > 0;
+                })
+                .sorted(Comparator.comparing((Upload upload) -> upload.key).thenComparing(upload -> upload.uploadId))
+                .toList();
+        List<Upload> page = matching.subList(0, Math.min(maxUploads, matching.size()));
+        boolean truncated = page.size() < matching.size();
+
+        Xml xml = new Xml("ListMultipartUploadsResult").element("Bucket", bucket.name).element("Prefix", prefix)
+                .element("KeyMarker", keyMarker).element("UploadIdMarker", uploadIdMarker)
+                .element("MaxUploads", maxUploads).element("IsTruncated", truncated);
+        if (truncated)
+            xml.element("NextKeyMarker", page.getLast().key).element("NextUploadIdMarker", page.getLast().uploadId);
+        for (Upload upload : page)
+            xml.open("Upload").element("Key", upload.key).element("UploadId", upload.uploadId)
+                    .element("Initiated", upload.initiated).element("StorageClass", "STANDARD").close("Upload");
+        sendXml(exchange, 200, xml);
+    }
+
+    private void deleteObjects(Request request, HttpExchange exchange) throws IOException, S3Error {
+        Bucket bucket = bucket(request);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        readBody(exchange, body);
+        Document document = parse(body.toByteArray());
+        boolean quiet = "true".equals(text(document.getDocumentElement(), "Quiet"));
+
+        Xml xml = new Xml("DeleteResult");
+        NodeList objects = document.getElementsByTagName("Object");
+        for (int i = 0; i < objects.getLength(); i++) {
+            Element object = (Element) objects.item(i);
+            String key = text(object, "Key");
+            String versionId = text(object, "VersionId");
+            Version deleted = delete(bucket, key, versionId);
+            if (quiet)
+                continue;
+            xml.open("Deleted").element("Key", key);
+            if (versionId != null)
+                xml.element("VersionId", versionId);
+            if (deleted != null && deleted.deleteMarker())
+                xml.element("DeleteMarker", true).element("DeleteMarkerVersionId", deleted.versionId());
+            xml.close("Deleted");
+        }
+        sendXml(exchange, 200, xml);
+    }
+
+    private void headObject(Request request, HttpExchange exchange) throws IOException, S3Error {
+        Version version = version(request);
+        objectHeaders(exchange.getResponseHeaders(), version, "ENABLED".equals(request.header("x-amz-checksum-mode")));
+        exchange.getResponseHeaders().set("Content-Length", Long.toString(version.size()));
+        sendEmpty(exchange, 200);
+    }
+
+    private void getObject(Request request, HttpExchange exchange) throws IOException, S3Error {
+        Version version = version(request);
+        String ifMatch = request.header("If-Match");
+        if (ifMatch != null && !ifMatch.equals(version.eTag()))
+            throw new S3Error(412, "PreconditionFailed", "At least one of the pre-conditions you specified did not hold");
+        long start = 0;
+        long length = version.size();
+        String range = request.header("Range");
+        if (range != null && range.startsWith("bytes=")) {
+            String[] bounds = range.substring("bytes=".length()).split("-", 2);
+            start = Long.parseLong(bounds[0]);
+            long end = bounds[1].isEmpty() ? version.size() - 1 : Math.min(Long.parseLong(bounds[1]), version.size() - 1);
+            if (start >= version.size() || end < start)
+                throw new S3Error(416, "InvalidRange", "The requested range is not satisfiable");
+            length = end - start + 1;
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + version.size());
+        }
+        // the content was never kept, so there is no checksum to validate it against
+        objectHeaders(exchange.getResponseHeaders(), version, false);
+        exchange.sendResponseHeaders(range == null ? 200 : 206, length == 0 ? -1 : length);
+        OutputStream out = exchange.getResponseBody();
+        for (long remaining = length; remaining > 0; remaining -= Math.min(remaining, ZEROS.length))
+            out.write(ZEROS, 0, (int) Math.min(remaining, ZEROS.length));
+    }
+
+    private void putObject(Request request, HttpExchange exchange) throws IOException, S3Error {
+        Bucket bucket = bucket(request);
+        ContentDigest digest = readContent(request, exchange);
+        Version version = new Version(request.key(), nextId(), false, digest.size, "\"" + digest.md5() + "\"", now(),
+                request.header("Content-Type"), request.metadata(), digest.crc32c());
+        synchronized (bucket) {
+            bucket.objects.computeIfAbsent(request.key(), key -> new ArrayList<>()).add(version);
+        }
+        exchange.getResponseHeaders().set("ETag", version.eTag());
+        exchange.getResponseHeaders().set("x-amz-version-id", version.versionId());
+        exchange.getResponseHeaders().set("x-amz-checksum-crc32c", version.checksumCrc32c());
+        sendEmpty(exchange, 200);
+    }
+
+    private void deleteObject(Request request, HttpExchange exchange) throws IOException, S3Error {
+        Version deleted = delete(bucket(request), request.key(), request.query().get("versionId"));
+        if (deleted != null) {
+            exchange.getResponseHeaders().set("x-amz-version-id", deleted.versionId());
+            if (deleted.deleteMarker())
+                exchange.getResponseHeaders().set("x-amz-delete-marker", "true");
+        }
+        sendEmpty(exchange, 204);
+    }
+
+    private void createMultipartUpload(Request request, HttpExchange exchange) throws IOException, S3Error {
+        Bucket bucket = bucket(request);
+        Upload upload = new Upload(nextId(), request.key(), now(), request.header("Content-Type"), request.metadata());
+        bucket.uploads.put(upload.uploadId, upload);
+        sendXml(exchange, 200, new Xml("InitiateMultipartUploadResult").element("Bucket", bucket.name)
+                .element("Key", upload.key).element("UploadId", upload.uploadId));
+    }
+
+    private void uploadPart(Request request, HttpExchange exchange) throws IOException, S3Error {
+        Upload upload = upload(request);
+        int partNumber = request.intParameter("partNumber", 0);
+        if (partNumber < 1 || partNumber > MAX_PART_NUMBER)
+            throw new S3Error(400, "InvalidArgument", "Part number must be an integer between 1 and " + MAX_PART_NUMBER);
+        ContentDigest digest = readContent(request, exchange);
+        Part part = new Part(partNumber, digest.size, digest.md5(), digest.crc32c(), now());
+        upload.parts.put(partNumber, part);
+        exchange.getResponseHeaders().set("ETag", part.eTag());
+        exchange.getResponseHeaders().set("x-amz-checksum-crc32c", part.checksumCrc32c());
+        sendEmpty(exchange, 200);
+    }
+
+    private void listParts(Request request, HttpExchange exchange) throws IOException, S3Error {
+        Upload upload = upload(request);
+        int partNumberMarker = request.intParameter("part-number-marker", 0);
+        int maxParts = request.intParameter("max-parts", DEFAULT_MAX_KEYS);
+        List<Part> parts = new ArrayList<>(upload.parts.tailMap(partNumberMarker, false).values());
+        List<Part> page = parts.subList(0, Math.min(maxParts, parts.size()));
+        boolean truncated = page.size() < parts.size();
+
+        Xml xml = new Xml("ListPartsResult").element("Bucket", request.bucket()).element("Key", upload.key)
+                .element("UploadId", upload.uploadId).element("PartNumberMarker", partNumberMarker)
+                .element("MaxParts", maxParts).element("IsTruncated", truncated);
+        if (truncated)
+            xml.element("NextPartNumberMarker", page.getLast().partNumber());
+        for (Part part : page)
+            xml.open("Part").element("PartNumber", part.partNumber()).element("LastModified", part.lastModified())
+                    .element("ETag", part.eTag()).element("Size", part.size()).element("ChecksumCRC32C", part.checksumCrc32c())
+                    .close("Part");
+        sendXml(exchange, 200, xml);
+    }
+
+    private void completeMultipartUpload(Request request, HttpExchange exchange) throws IOException, S3Error {
+        Bucket bucket = bucket(request);
+        Upload upload = upload(request);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        readBody(exchange, body);
+        NodeList requestedParts = parse(body.toByteArray()).getElementsByTagName("Part");
+        if (requestedParts.getLength() == 0)
+            throw new S3Error(400, "MalformedXML", "The XML you provided was not well-formed or did not validate against our published schema.");
+
+        MessageDigest md5 = md5();
+        long size = 0;
+        int previousPartNumber = 0;
+        for (int i = 0; i < requestedParts.getLength(); i++) {
+            Element requestedPart = (Element) requestedParts.item(i);
+            int partNumber = Integer.parseInt(text(requestedPart, "PartNumber"));
+            Part part = upload.parts.get(partNumber);
+            if (part == null || !part.eTag().equals(quoted(text(requestedPart, "ETag"))))
+                throw new S3Error(400, "InvalidPart", "One or more of the specified parts could not be found.");
+            if (partNumber <= previousPartNumber)
+                throw new S3Error(400, "InvalidPartOrder", "The list of parts was not in ascending order.");
+            if (i < requestedParts.getLength() - 1 && part.size() < MIN_PART_SIZE)
+                throw new S3Error(400, "EntityTooSmall", "Your proposed upload is smaller than the minimum allowed object size.");
+            md5.update(HexFormat.of().parseHex(part.md5()));
+            size += part.size();
+            previousPartNumber = partNumber;
+        }
+        if (bucket.uploads.remove(upload.uploadId) == null)
+            throw noSuchUpload(request);
+
+        String eTag = "\"" + HexFormat.of().formatHex(md5.digest()) + "-" + requestedParts.getLength() + "\"";
+        Version version = new Version(upload.key, nextId(), false, size, eTag, now(), upload.contentType, upload.metadata,
+                request.header("x-amz-checksum-crc32c"));
+        synchronized (bucket) {
+            bucket.objects.computeIfAbsent(upload.key, key -> new ArrayList<>()).add(version);
+        }
+        exchange.getResponseHeaders().set("x-amz-version-id", version.versionId());
+        sendXml(exchange, 200, new Xml("CompleteMultipartUploadResult")
+                .element("Location", endpoint() + "/" + bucket.name + "/" + upload.key).element("Bucket", bucket.name)
+                .element("Key", upload.key).element("ETag", eTag));
+    }
+
+    /**
+     * Deletes a version, or adds a delete marker when {@code versionId} is {@code null}, as in a versioned bucket.
+     * Returns the deleted version or the added marker, or {@code null} when there was no such version.
+     */
+    private Version delete(Bucket bucket, String key, String versionId) {
+        synchronized (bucket) {
+            if (versionId == null) {
+                Version marker = new Version(key, nextId(), true, 0, null, now(), null, Map.of(), null);
+                bucket.objects.computeIfAbsent(key, ignored -> new ArrayList<>()).add(marker);
+                return marker;
+            }
+            List<Version> versions = bucket.objects.get(key);
+            if (versions == null)
+                return null;
+            Version deleted = null;
+            for (Iterator<Version> iterator = versions.iterator(); iterator.hasNext(); ) {
+                Version version = iterator.next();
+                if (version.versionId().equals(versionId)) {
+                    iterator.remove();
+                    deleted = version;
+                }
+            }
+            if (versions.isEmpty())
+                bucket.objects.remove(key);
+            return deleted;
+        }
+    }
+
+    private Bucket bucket(Request request) throws S3Error {
+        Bucket bucket = buckets.get(request.bucket());
+        if (bucket == null)
+            throw new S3Error(404, "NoSuchBucket", "The specified bucket does not exist");
+        return bucket;
+    }
+
+    private Upload upload(Request request) throws S3Error {
+        Upload upload = bucket(request).uploads.get(request.query().get("uploadId"));
+        if (upload == null || !upload.key.equals(request.key()))
+            throw noSuchUpload(request);
+        return upload;
+    }
+
+    private static S3Error noSuchUpload(Request request) {
+        return new S3Error(404, "NoSuchUpload", "The specified upload does not exist: " + request.query().get("uploadId"));
+    }
+
+    private Version version(Request request) throws S3Error {
+        Bucket bucket = bucket(request);
+        String versionId = request.query().get("versionId");
+        synchronized (bucket) {
+            List<Version> versions = bucket.objects.get(request.key());
+            if (versions != null && versionId == null && !versions.getLast().deleteMarker())
+                return versions.getLast();
+            if (versions != null && versionId != null) {
+                for (Version version : versions) {
+                    if (version.versionId().equals(versionId) && version.deleteMarker())
+                        throw new S3Error(405, "MethodNotAllowed", "The specified method is not allowed against this resource.");
+                    if (version.versionId().equals(versionId))
+                        return version;
+                }
+            }
+        }
+        throw new S3Error(404, "NoSuchKey", "The specified key does not exist.");
+    }
+
+    private static void objectHeaders(Headers headers, Version version, boolean checksum) {
+        headers.set("ETag", version.eTag());
+        headers.set("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(version.lastModified().atOffset(ZoneOffset.UTC)));
+        headers.set("x-amz-version-id", version.versionId());
+        headers.set("Accept-Ranges", "bytes");
+        if (version.contentType() != null)
+            headers.set("Content-Type", version.contentType());
+        version.metadata().forEach((name, value) -> headers.set("x-amz-meta-" + name, value));
+        if (checksum && version.checksumCrc32c() != null) {
+            headers.set("x-amz-checksum-crc32c", version.checksumCrc32c());
+            headers.set("x-amz-checksum-type", "FULL_OBJECT");
+        }
+    }
+
+    private String nextId() {
+        return Long.toString(System.currentTimeMillis(), 36) + "-" + sequence.incrementAndGet();
+    }
+
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private static String quoted(String eTag) {
+        return eTag == null || eTag.startsWith("\"") ? eTag : "\"" + eTag + "\"";
+    }
+
+    /**
+     * Reads an object or part body, rejecting it with a BadDigest when it does not match the CRC32C the client
+     * sent as a header or as an aws-chunked trailer.
+     */
+    private static ContentDigest readContent(Request request, HttpExchange exchange) throws IOException, S3Error {
+        ContentDigest digest = new ContentDigest();
+        Map<String, String> trailers = readBody(exchange, digest);
+        String expected = request.header("x-amz-checksum-crc32c");
+        if (expected == null)
+            expected = trailers.get("x-amz-checksum-crc32c");
+        if (expected != null && !expected.equals(digest.crc32c()))
+            throw new S3Error(400, "BadDigest", "The CRC32C you specified did not match the calculated checksum.");
+        return digest;
+    }
+
+    /**
+     * Copies a request body to {@code sink}, undoing the aws-chunked encoding the SDK streams bodies with, and
+     * returns its trailing headers.
+     */
+    private static Map<String, String> readBody(HttpExchange exchange, OutputStream sink) throws IOException {
+        Headers headers = exchange.getRequestHeaders();
+        String contentSha256 = Objects.requireNonNullElse(headers.getFirst("x-amz-content-sha256"), "");
+        String contentEncoding = Objects.requireNonNullElse(headers.getFirst("Content-Encoding"), "");
+        if (!contentSha256.startsWith("STREAMING-") && !contentEncoding.contains("aws-chunked")) {
+            exchange.getRequestBody().transferTo(sink);
+            return Map.of();
+        }
+        InputStream in = new BufferedInputStream(exchange.getRequestBody());
+        while (true) {
+            String chunkHeader = readLine(in);
+            if (chunkHeader == null)
+                throw new EOFException("aws-chunked body ended before its last chunk");
+            int extension = chunkHeader.indexOf(';');
+            int length = Integer.parseInt((extension < 0 ? chunkHeader : chunkHeader.substring(0, extension)).trim(), 16);
+            if (length == 0)
+                break;
+            byte[] chunk = in.readNBytes(length);
+            if (chunk.length < length)
+                throw new EOFException("aws-chunked body ended inside a chunk");
+            sink.write(chunk);
+            readLine(in);
+        }
+        Map<String, String> trailers = new HashMap<>();
+        for (String line = readLine(in); line != null && !line.isEmpty(); line = readLine(in)) {
+            int colon = line.indexOf(':');
+            if (colon > 0)
+                trailers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+        }
+        return trailers;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (b != '\r')
+                line.append((char) b);
+        }
+        return b == -1 && line.isEmpty() ? null : line.toString();
+    }
+
+    private static Document parse(byte[] xml) throws S3Error {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+        } catch (ParserConfigurationException | SAXException | IOException e) {
+            throw new S3Error(400, "MalformedXML", "The XML you provided was not well-formed or did not validate against our published schema.");
+        }
+    }
+
+    private static String text(Element parent, String name) {
+        NodeList children = parent.getElementsByTagName(name);
+        return children.getLength() == 0 ? null : children.item(0).getTextContent().trim();
+    }
+
+    private static void sendXml(HttpExchange exchange, int status, Xml xml) throws IOException {
+        byte[] body = xml.toBytes();
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static void sendEmpty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private static void sendError(HttpExchange exchange, String method, S3Error error) throws IOException {
+        exchange.getResponseHeaders().set("x-amz-request-id", UUID.randomUUID().toString());
+        if (method.equals("HEAD")) {
+            sendEmpty(exchange, error.status);
+            return;
+        }
+        sendXml(exchange, error.status, new Xml("Error", null).element("Code", error.code).element("Message", error.getMessage()));
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+
+    private record Request(String method, String bucket, String key, Map<String, String> query, Headers headers) {
+
+        static Request of(HttpExchange exchange) {
+            String path = exchange.getRequestURI().getRawPath().substring(1);
+            int slash = path.indexOf('/');
+            String bucket = path.isEmpty() ? null : decode(slash < 0 ? path : path.substring(0, slash));
+            String key = slash < 0 || slash == path.length() - 1 ? null : decode(path.substring(slash + 1));
+
+            Map<String, String> query = new HashMap<>();
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            if (rawQuery != null) {
+                for (String parameter : rawQuery.split("&")) {
+                    if (parameter.isEmpty())
+                        continue;
+                    String[] pair = parameter.split("=", 2);
+                    query.put(decode(pair[0]), pair.length == 2 ? decode(pair[1]) : "");
+                }
+            }
+            // the SDK names the operation of some requests in the query, routing does not rely on it
+            query.remove("x-id");
+            return new Request(exchange.getRequestMethod(), bucket, key, query, exchange.getRequestHeaders());
+        }
+
+        private static String decode(String value) {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8);
+        }
+
+        String header(String name) {
+            return headers.getFirst(name);
+        }
+
+        int intParameter(String name, int defaultValue) {
+            String value = query.get(name);
+            return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+        }
+
+        Map<String, String> metadata() {
+            Map<String, String> metadata = new HashMap<>();
+            headers.forEach((name, values) -> {
+                if (name.toLowerCase(Locale.ROOT).startsWith("x-amz-meta-"))
+                    metadata.put(name.substring("x-amz-meta-".length()).toLowerCase(Locale.ROOT), values.getFirst());
+            });
+            return Map.copyOf(metadata);
+        }
+    }
+
+    private static final class Bucket {
+
+        private final String name;
+        private final Instant creationDate;
+        /** The versions of every key, oldest first. Guarded by the bucket. */
+        private final NavigableMap<String, List<Version>> objects = new TreeMap<>();
+        private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+
+        private Bucket(String name, Instant creationDate) {
+            this.name = name;
+            this.creationDate = creationDate;
+        }
+    }
+
+    private static final class Upload {
+
+        private final String uploadId;
+        private final String key;
+        private final Instant initiated;
+        private final String contentType;
+        private final Map<String, String> metadata;
+        private final NavigableMap<Integer, Part> parts = new ConcurrentSkipListMap<>();
+
+        private Upload(String uploadId, String key, Instant initiated, String contentType, Map<String, String> metadata) {
+            this.uploadId = uploadId;
+            this.key = key;
+            this.initiated = initiated;
+            this.contentType = contentType;
+            this.metadata = metadata;
+        }
+    }
+
+    private record Version(String key, String versionId, boolean deleteMarker, long size, String eTag, Instant lastModified,
+                           String contentType, Map<String, String> metadata, String checksumCrc32c) {
+    }
+
+    private record Part(int partNumber, long size, String md5, String checksumCrc32c, Instant lastModified) {
+
+        String eTag() {
+            return "\"" + md5 + "\"";
+        }
+    }
+
+    /**
+     * Sizes, MD5s and CRC32Cs what is written to it, and drops it.
+     */
+    private static final class ContentDigest extends OutputStream {
+
+        private final MessageDigest md5 = S3StandIn.md5();
+        private final CRC32C crc32c = new CRC32C();
+        private long size;
+
+        @Override
+        public void write(int b) {
+            md5.update((byte) b);
+            crc32c.update(b);
+            size++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            md5.update(buffer, offset, length);
+            crc32c.update(buffer, offset, length);
+            size += length;
+        }
+
+        String md5() {
+            return HexFormat.of().formatHex(md5.digest());
+        }
+
+        String crc32c() {
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(4).putInt((int) crc32c.getValue()).array());
+        }
+    }
+
+    private static final class Xml {
+
+        private final StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        private final String root;
+
+        Xml(String root) {
+            this(root, XMLNS);
+        }
+
+        Xml(String root, String namespace) {
+            this.root = root;
+            xml.append('<').append(root);
+            if (namespace != null)
+                xml.append(" xmlns=\"").append(namespace).append('"');
+            xml.append('>');
+        }
+
+        Xml open(String name) {
+            xml.append('<').append(name).append('>');
+            return this;
+        }
+
+        Xml close(String name) {
+            xml.append("</").append(name).append('>');
+            return this;
+        }
+
+        Xml element(String name, Object value) {
+            if (value == null)
+                return this;
+            open(name);
+            String text = value.toString();
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '<' -> xml.append("&lt;");
+                    case '>' -> xml.append("&gt;");
+                    case '&' -> xml.append("&amp;");
+                    case '"' -> xml.append("&quot;");
+                    default -> xml.append(c);
+                }
+            }
+            return close(name);
+        }
+
+        byte[] toBytes() {
+            return close(root).xml.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class S3Error extends Exception {
+
+        private final int status;
+        private final String code;
+
+        private S3Error(int status, String code, String message) {
+            super(message);
+            this.status = status;
+            this.code = code;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.dreamseeker.pseudo_steam.loadtest;
+
+/**
+ * What a workload asks of pseudo-steam, each one a short sequence of API calls made by the
+ * {@link PseudoSteamDriver}.
+ */
+public enum WorkloadOperation {
+    /** Initiates a multipart upload of a new version of a game, PUTs its parts to the presigned URLs and completes it. */
+    UPLOAD("upload"),
+    /** Fetches a game's info, a HEAD of the game unless its info is cached. */
+    GAME_INFO("game-info"),
+    /** Lists a studio's catalog, a listing and a HEAD per game unless its info is cached. */
+    LIST_GAMES("list-games"),
+    /** Creates a scratch studio and deletes it again. */
+    DELETE_STUDIO("delete-studio");
+
+    private final String label;
+
+    WorkloadOperation(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public static WorkloadOperation ofLabel(String label) {
+        for (WorkloadOperation operation : values()) {
+            if (operation.label.equals(label))
+                return operation;
+        }
+        throw new IllegalArgumentException("Unknown workload operation: " + label);
+    }
+}
@@ -0,0 +1,102 @@
+package com.dreamseeker.pseudo_steam.caches;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory set of the chunk hashes every studio's depot holds, so the chunks an uploader still has to send are
+ * known without a request per chunk. A studio is loaded from a full listing of its depot, studios are evicted least
+ * recently used first once {@code maxChunks} hashes are held, and a studio whose depot alone is larger than that is
+ * remembered as oversized and never loaded.
+ */
+public class ChunkIndex {
+
+    private final long maxChunks;
+    private final LinkedHashMap<String, Set<String>> studios = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> oversized = new HashSet<>();
+    private long size;
+
+    public ChunkIndex(long maxChunks) {
+        this.maxChunks = maxChunks;
+    }
+
+    public long maxChunks() {
+        return maxChunks;
+    }
+
+    public synchronized boolean isLoaded(String studioId) {
+        return studios.get(studioId) != null;
+    }
+
+    public synchronized boolean isOversized(String studioId) {
+        return oversized.contains(studioId);
+    }
+
+    /**
+     * Returns the hashes the index does not know for the studio, all of them when the studio is not loaded.
+     */
+    public synchronized List<String> unknown(String studioId, Collection<String> hashes) {
+        Set<String> known = studios.getOrDefault(studioId, Set.of());
+        return hashes.stream().filter(hash -> !known.contains(hash)).toList();
+    }
+
+    public synchronized void load(String studioId, Collection<String> hashes) {
+        Set<String> previous = studios.remove(studioId);
+        if (previous != null)
+            size -= previous.size();
+        if (hashes.size() > maxChunks) {
+            oversized.add(studioId);
+            return;
+        }
+        oversized.remove(studioId);
+        studios.put(studioId, new HashSet<>(hashes));
+        size += hashes.size();
+        evict();
+    }
+
+    public synchronized void markOversized(String studioId) {
+        Set<String> previous = studios.remove(studioId);
+        if (previous != null)
+            size -= previous.size();
+        oversized.add(studioId);
+    }
+
+    /**
+     * Records chunks stored after the studio was loaded. Nothing is recorded for a studio that is not loaded,
+     * its next load lists them anyway.
+     */
+    public synchronized void add(String studioId, Collection<String> hashes) {
+        Set<String> known = studios.get(studioId);
+        if (known == null)
+            return;
+        for (String hash : hashes) {
+            if (known.add(hash))
+                size++;
+        }
+        evict();
+    }
+
+    public synchronized void removeStudio(String studioId) {
+        Set<String> previous = studios.remove(studioId);
+        if (previous != null)
+            size -= previous.size();
+        oversized.remove(studioId);
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Set<String>>> eldest = studios.entrySet().iterator();
+        while (size > maxChunks && eldest.hasNext()) {
+            size -= eldest.next().getValue().size();
+            eldest.remove();
+        }
+    }
+}
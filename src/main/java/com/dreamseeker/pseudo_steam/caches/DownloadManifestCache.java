@@ -0,0 +1,58 @@
+package com.dreamseeker.pseudo_steam.caches;
+
+import com.dreamseeker.pseudo_steam.domains.DownloadManifest;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Download manifests by game version and ETag. A version never changes once written, so entries do not expire;
+ * they are evicted least recently used first once the cached manifests hold more than {@code maxChunks} chunks.
+ */
+public class DownloadManifestCache {
+
+    private final long maxChunks;
+    private final LinkedHashMap<Key, DownloadManifest> manifests = new LinkedHashMap<>(16, 0.75f, true);
+    private long chunks;
+
+    public DownloadManifestCache(long maxChunks) {
+        this.maxChunks = maxChunks;
+    }
+
+    public synchronized DownloadManifest get(String studioId, String gameName, String versionId, String eTag) {
+        return manifests.get(new Key(studioId, gameName, versionId, eTag));
+    }
+
+    public synchronized void put(String studioId, DownloadManifest manifest) {
+        if (manifest.chunks().size() > maxChunks)
+            return;
+        DownloadManifest previous = manifests.put(new Key(studioId, manifest.gameName(), manifest.versionId(), manifest.eTag()), manifest);
+        if (previous != null)
+            chunks -= previous.chunks().size();
+        chunks += manifest.chunks().size();
+        Iterator<DownloadManifest> eldest = manifests.values().iterator();
+        while (chunks > maxChunks && eldest.hasNext()) {
+            chunks -= eldest.next().chunks().size();
+            eldest.remove();
+        }
+    }
+
+    public synchronized void removeStudio(String studioId) {
+        Iterator<Map.Entry<Key, DownloadManifest>> entries = manifests.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Key, DownloadManifest> entry = entries.next();
+            if (entry.getKey().studioId().equals(studioId)) {
+                chunks -= entry.getValue().chunks().size();
+                entries.remove();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return manifests.size();
+    }
+
+    private record Key(String studioId, String gameName, String versionId, String eTag) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.dreamseeker.pseudo_steam.caches;
+
+import com.dreamseeker.pseudo_steam.domains.HotGame;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estimates how often every game was read recently, as TinyLFU does, so caches can admit a game only when it is read
+ * more often than the entry it would evict. A count-min sketch of eight bit counters, eight to a {@code long},
+ * counts every read at four positions, and the smallest of them is the estimate. Counters are updated with CAS and
+ * never locked, so recording a read costs a few atomic operations. Once {@code 10 * expectedGames} reads were
+ * recorded every counter is halved, so the estimates follow what is hot now rather than what was hot once.
+ * <p>
+ * The games whose estimate reached the hottest ones seen so far are kept as candidates for {@link #hottest}.
+ */
+public class FrequencySketch {
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7F7F7F7F7F7F7F7FL;
+    private static final int MAX_COUNT = 255;
+
+    private final AtomicLongArray table;
+    private final int tableMask;
+    private final int sampleSize;
+    private final int hotGamesCapacity;
+    private final AtomicInteger additions = new AtomicInteger();
+    private final ReentrantLock resetLock = new ReentrantLock();
+    private final ReentrantLock pruneLock = new ReentrantLock();
+    private final Set<Game> candidates = ConcurrentHashMap.newKeySet();
+    private volatile int candidateThreshold = 1;
+
+    public FrequencySketch(int expectedGames, int hotGamesCapacity) {
+        int tableSize = Integer.highestOneBit(Math.clamp(expectedGames, 64, 1 << 26) - 1) << 1;
+        this.table = new AtomicLongArray(tableSize);
+        this.tableMask = tableSize - 1;
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * Math.max(expectedGames, 64));
+        this.hotGamesCapacity = hotGamesCapacity;
+    }
+
+    public void increment(String studioId, String gameName) {
+        long hash = hash(studioId, gameName);
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++)
+            added |= incrementAt(hash, i);
+        if (added && additions.incrementAndGet() >= sampleSize)
+            reset();
+
+        if (hotGamesCapacity > 0 && frequency(hash) >= candidateThreshold) {
+            Game game = new Game(studioId, gameName);
+            if (candidates.add(game) && candidates.size() > 2 * hotGamesCapacity)
+                pruneCandidates();
+        }
+    }
+
+    public int frequency(String studioId, String gameName) {
+        return frequency(hash(studioId, gameName));
+    }
+
+    /**
+     * Returns the {@code limit} games read most often recently, hottest first.
+     */
+    public List<HotGame> hottest(int limit) {
+        return ranked().stream()
+                .filter(hotGame -> hotGame.frequency() > 0)
+                .limit(Math.min(limit, hotGamesCapacity))
+                .toList();
+    }
+
+    public void removeStudio(String studioId) {
+        candidates.removeIf(game -> game.studioId().equals(studioId));
+    }
+
+    private boolean incrementAt(long hash, int depth) {
+        long counterHash = rehash(hash * SEEDS[depth]);
+        int slot = (int) counterHash & tableMask;
+        int offset = (int) (counterHash >>> 61) << 3;
+        long mask = 0xFFL << offset;
+        while (true) {
+            long value = table.get(slot);
+            if ((value & mask) == mask)
+                return false;
+            if (table.compareAndSet(slot, value, value + (1L << offset)))
+                return true;
+        }
+    }
+
+    private int frequency(long hash) {
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long counterHash = rehash(hash * SEEDS[i]);
+            int offset = (int) (counterHash >>> 61) << 3;
+            long value = table.get((int) counterHash & tableMask);
+            frequency = Math.min(frequency, (int) ((value >>> offset) & 0xFF));
+        }
+        return frequency;
+    }
+
+    private void reset() {
+        if (!resetLock.tryLock())
+            return;
+        try {
+            if (additions.get() < sampleSize)
+                return;
+            for (int slot = 0; slot < table.length(); slot++) {
+                long value;
+                do {
+                    value = table.get(slot);
+                } while (!table.compareAndSet(slot, value, (value >>> 1) & RESET_MASK));
+            }
+            additions.updateAndGet(count -> count / 2);
+            candidateThreshold = Math.max(1, candidateThreshold / 2);
+        } finally {
+            resetLock.unlock();
+        }
+    }
+
+    private void pruneCandidates() {
+        if (!pruneLock.tryLock())
+            return;
+        try {
+            List<HotGame> ranked = ranked();
+            if (ranked.size() <= hotGamesCapacity)
+                return;
+            candidateThreshold = Math.max(1, ranked.get(hotGamesCapacity - 1).frequency());
+            for (HotGame cold : ranked.subList(hotGamesCapacity, ranked.size()))
+                candidates.remove(new Game(cold.studioId(), cold.gameName()));
+        } finally {
+            pruneLock.unlock();
+        }
+    }
+
+    private List<HotGame> ranked() {
+        return candidates.stream()
+                .map(game -> new HotGame(game.studioId(), game.gameName(), frequency(game.studioId(), game.gameName())))
+                .sorted(Comparator.comparingInt(HotGame::frequency).reversed())
+                .toList();
+    }
+
+    private static long hash(String studioId, String gameName) {
+        return rehash(studioId.hashCode() * 0x9E3779B97F4A7C15L + gameName.hashCode());
+    }
+
+    private static long rehash(long x) {
+        x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+        x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return x ^ (x >>> 33);
+    }
+
+    private record Game(String studioId, String gameName) {
+    }
+}
@@ -0,0 +1,317 @@
+package com.dreamseeker.pseudo_steam.caches;
+
+import com.dreamseeker.pseudo_steam.domains.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Downloaded games on local disk, keyed by studio, game, version and ETag so a file is only ever served for the exact
+ * object it was downloaded from. Files are written to a staging directory and moved into place once complete, and
+ * evicted least recently used first once they take more than {@code maxBytes}. A new game is only admitted when
+ * the {@link FrequencySketch} estimates it is read more often than every game it would evict, so a burst of one-off
+ * downloads cannot flush the popular ones; older versions of the same game are always evicted in its favor.
+ * <p>
+ * The entries are written to an index file in access order whenever they change and on shutdown, so a restarted node
+ * keeps its cache; files the index does not know, left behind by a crash, are deleted when it is loaded.
+ */
+@Slf4j
+public class GameFileCache {
+
+    private static final int INDEX_MAGIC = 0x47464331;
+    private static final String INDEX_FILE = ".index";
+    private static final String STAGING_DIRECTORY = ".staging";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final FrequencySketch frequencySketch;
+    private final LinkedHashMap<Key, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long bytes;
+
+    public GameFileCache(Path directory, long maxBytes, FrequencySketch frequencySketch) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.frequencySketch = frequencySketch;
+    }
+
+    /**
+     * Returns the cached file of the object, or null when it is not cached.
+     */
+    public Path get(String studioId, String gameName, String versionId, String eTag) {
+        Key key = new Key(studioId, gameName, versionId, eTag);
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                misses.increment();
+                return null;
+            }
+        }
+        hits.increment();
+        return path(key);
+    }
+
+    /**
+     * Tells whether a file of {@code size} bytes for the object would be admitted if it were published now, so a
+     * caller can skip downloading a game the cache would only drop. {@link #publish} decides again on the real file.
+     */
+    public boolean admits(String studioId, String gameName, String versionId, String eTag, long size) {
+        if (size > maxBytes)
+            return false;
+        Key key = new Key(studioId, gameName, versionId, eTag);
+        synchronized (this) {
+            return entries.containsKey(key) || victims(key, size) != null;
+        }
+    }
+
+    /**
+     * Creates an empty file to download a game into before it is {@link #publish published}.
+     */
+    public Path stagingFile() throws IOException {
+        Path stagingDirectory = directory.resolve(STAGING_DIRECTORY);
+        Files.createDirectories(stagingDirectory);
+        return Files.createTempFile(stagingDirectory, "game", ".tmp");
+    }
+
+    /**
+     * Moves a complete staged file into the cache and returns where it now lives, or null when it was not admitted
+     * and was dropped.
+     */
+    public Path publish(String studioId, String gameName, String versionId, String eTag, Path stagedFile) throws IOException {
+        Key key = new Key(studioId, gameName, versionId, eTag);
+        long size = Files.size(stagedFile);
+        if (size > maxBytes) {
+            log.info("Not caching {}/{} version {}: {} bytes exceed the cache size", studioId, gameName, versionId, size);
+            Files.deleteIfExists(stagedFile);
+            return null;
+        }
+        Path target = path(key);
+        List<Path> evicted = new ArrayList<>();
+        Path published = null;
+        synchronized (this) {
+            if (entries.containsKey(key)) {
+                Files.deleteIfExists(stagedFile);
+                return target;
+            }
+            List<Key> victims = victims(key, size);
+            if (victims == null) {
+                log.info("Not caching {}/{} version {}: not read more often than the games it would evict", studioId, gameName, versionId);
+                Files.deleteIfExists(stagedFile);
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(stagedFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                for (Key victim : victims) {
+                    bytes -= entries.remove(victim);
+                    evicted.add(path(victim));
+                    evictions.increment();
+                }
+                entries.put(key, size);
+                bytes += size;
+                published = target;
+                writeIndex();
+            }
+        }
+        delete(evicted);
+        return published;
+    }
+
+    public void removeStudio(String studioId) {
+        List<Path> removed = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Map.Entry<Key, Long>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, Long> entry = iterator.next();
+                if (entry.getKey().studioId().equals(studioId)) {
+                    bytes -= entry.getValue();
+                    removed.add(path(entry.getKey()));
+                    iterator.remove();
+                }
+            }
+            if (!removed.isEmpty())
+                tryWriteIndex();
+        }
+        delete(removed);
+        Path studioDirectory = directory.resolve(studioId).normalize();
+        try {
+            if (directory.equals(studioDirectory.getParent()))
+                deleteTree(studioDirectory);
+        } catch (IOException e) {
+            log.warn("Could not delete cached games of {}", studioId, e);
+        }
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public CacheStats stats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return new CacheStats(hitCount, missCount, requests == 0 ? 0 : (double) hitCount / requests, evictions.sum(), size);
+    }
+
+    /**
+     * Restores the entries of the index whose files are still intact, and deletes staged files and files the index
+     * does not know.
+     */
+    public void load() throws IOException {
+        deleteTree(directory.resolve(STAGING_DIRECTORY));
+        LinkedHashMap<Key, Long> restored = new LinkedHashMap<>(16, 0.75f, true);
+        Path indexPath = directory.resolve(INDEX_FILE);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            if (in.readInt() != INDEX_MAGIC)
+                throw new IOException("Not a game file cache index: " + indexPath);
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String studioId = in.readUTF();
+                String gameName = in.readUTF();
+                String versionId = in.readBoolean() ? in.readUTF() : null;
+                String eTag = in.readUTF();
+                long size = in.readLong();
+                Key key = new Key(studioId, gameName, versionId, eTag);
+                Path file = path(key);
+                if (Files.isRegularFile(file) && Files.size(file) == size)
+                    restored.put(key, size);
+            }
+        } catch (NoSuchFileException e) {
+            log.info("No game file cache index at {}, dropping any files left in it", indexPath);
+        }
+
+        Set<Path> known = new HashSet<>();
+        restored.keySet().forEach(key -> known.add(path(key)));
+        int orphans = 0;
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.filter(Files::isRegularFile).toList()) {
+                    if (!known.contains(file) && !file.equals(indexPath) && Files.deleteIfExists(file))
+                        orphans++;
+                }
+            }
+        }
+        synchronized (this) {
+            entries.clear();
+            entries.putAll(restored);
+            bytes = restored.values().stream().mapToLong(Long::longValue).sum();
+            Iterator<Map.Entry<Key, Long>> eldest = entries.entrySet().iterator();
+            List<Path> evicted = new ArrayList<>();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<Key, Long> entry = eldest.next();
+                bytes -= entry.getValue();
+                evicted.add(path(entry.getKey()));
+                eldest.remove();
+            }
+            delete(evicted);
+        }
+        log.info("Loaded {} cached games ({} bytes) from {}, deleted {} orphan files", restored.size(), bytes(), directory, orphans);
+    }
+
+    public synchronized void writeIndex() throws IOException {
+        Files.createDirectories(directory);
+        Path indexPath = directory.resolve(INDEX_FILE);
+        Path temp = Files.createTempFile(directory, INDEX_FILE, ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(entries.size());
+            for (Map.Entry<Key, Long> entry : entries.entrySet()) {
+                Key key = entry.getKey();
+                out.writeUTF(key.studioId());
+                out.writeUTF(key.gameName());
+                out.writeBoolean(key.versionId() != null);
+                if (key.versionId() != null)
+                    out.writeUTF(key.versionId());
+                out.writeUTF(key.eTag());
+                out.writeLong(entry.getValue());
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the least recently used entries to evict to make room for {@code size} bytes, or null when the
+     * candidate is not hotter than one of them.
+     */
+    private List<Key> victims(Key candidate, long size) {
+        List<Key> victims = new ArrayList<>();
+        long freed = 0;
+        int candidateFrequency = -1;
+        for (Map.Entry<Key, Long> entry : entries.entrySet()) {
+            if (bytes - freed + size <= maxBytes)
+                break;
+            Key victim = entry.getKey();
+            boolean sameGame = victim.studioId().equals(candidate.studioId()) && victim.gameName().equals(candidate.gameName());
+            if (!sameGame) {
+                if (candidateFrequency < 0)
+                    candidateFrequency = frequencySketch.frequency(candidate.studioId(), candidate.gameName());
+                if (frequencySketch.frequency(victim.studioId(), victim.gameName()) >= candidateFrequency)
+                    return null;
+            }
+            victims.add(victim);
+            freed += entry.getValue();
+        }
+        return victims;
+    }
+
+    private void tryWriteIndex() {
+        try {
+            writeIndex();
+        } catch (IOException e) {
+            log.warn("Could not write game file cache index in {}", directory, e);
+        }
+    }
+
+    private Path path(Key key) {
+        String fileName = (key.versionId() == null ? "null" : key.versionId()) + "." + key.eTag().replace("\"", "");
+        Path path = directory.resolve(key.studioId()).resolve(key.gameName()).resolve(fileName).normalize();
+        if (!path.startsWith(directory) || path.getParent().equals(directory))
+            throw new IllegalArgumentException("Invalid cache key " + key);
+        return path;
+    }
+
+    private static void delete(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete cached game {}", file, e);
+            }
+        }
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root))
+            return;
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted((a, b) -> b.getNameCount() - a.getNameCount()).toList())
+                Files.deleteIfExists(path);
+        }
+    }
+
+    private record Key(String studioId, String gameName, String versionId, String eTag) {
+    }
+}
@@ -0,0 +1,178 @@
+package com.dreamseeker.pseudo_steam.caches;
+
+import com.dreamseeker.pseudo_steam.domains.CacheStats;
+import com.dreamseeker.pseudo_steam.domains.GameInfo;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache of {@link GameInfo} keyed by studio and game name. Entries are evicted
+ * least recently used first once a segment is full, and expire after {@code ttl}. Missing games are
+ * cached for {@code negativeTtl} so repeated lookups of unknown games do not reach S3.
+ * <p>
+ * The cache is split into segments to keep lock contention low on the read path. Every segment keeps a
+ * write generation, so a load racing with an invalidation never publishes the stale value.
+ */
+public class GameInfoCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public GameInfoCache(int maxSize, Duration ttl, Duration negativeTtl) {
+        this.segments = new Segment[SEGMENTS];
+        int segmentSize = Math.max(0, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++)
+            segments[i] = new Segment(segmentSize);
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+    }
+
+    public GameInfo get(String studioId, String gameName, GameInfoLoader loader) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        Key key = new Key(studioId, gameName);
+        Segment segment = segmentFor(key);
+        long generation;
+        synchronized (segment) {
+            Entry entry = segment.get(key);
+            if (entry != null && entry.expiresAtNanos() - System.nanoTime() > 0) {
+                hits.increment();
+                if (entry.gameInfo() == null)
+                    throw new ObjectDoesNotExistsException();
+                return entry.gameInfo();
+            }
+            generation = segment.generation;
+        }
+
+        misses.increment();
+        try {
+            GameInfo gameInfo = loader.load();
+            store(segment, key, gameInfo, ttlNanos, generation);
+            return gameInfo;
+        } catch (ObjectDoesNotExistsException e) {
+            store(segment, key, null, negativeTtlNanos, generation);
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #get} for the async client: the entry is filled when the load completes, and a
+     * load failing with {@link ObjectDoesNotExistsException} leaves a negative entry like the blocking path does.
+     */
+    public CompletableFuture<GameInfo> getAsync(String studioId, String gameName, Supplier<CompletableFuture<GameInfo>> loader) {
+        Key key = new Key(studioId, gameName);
+        Segment segment = segmentFor(key);
+        long generation;
+        synchronized (segment) {
+            Entry entry = segment.get(key);
+            if (entry != null && entry.expiresAtNanos() - System.nanoTime() > 0) {
+                hits.increment();
+                if (entry.gameInfo() == null)
+                    return CompletableFuture.failedFuture(new ObjectDoesNotExistsException());
+                return CompletableFuture.completedFuture(entry.gameInfo());
+            }
+            generation = segment.generation;
+        }
+
+        misses.increment();
+        return loader.get().whenComplete((gameInfo, e) -> {
+            if (e == null)
+                store(segment, key, gameInfo, ttlNanos, generation);
+            else if ((e instanceof CompletionException && e.getCause() != null ? e.getCause() : e) instanceof ObjectDoesNotExistsException)
+                store(segment, key, null, negativeTtlNanos, generation);
+        });
+    }
+
+    public void put(GameInfo gameInfo) {
+        Key key = new Key(gameInfo.studioId(), gameInfo.gameName());
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.generation++;
+            segment.put(key, new Entry(gameInfo, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    public void invalidate(String studioId, String gameName) {
+        Key key = new Key(studioId, gameName);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.generation++;
+            segment.remove(key);
+        }
+    }
+
+    public void invalidateStudio(String studioId) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.generation++;
+                segment.keySet().removeIf(key -> key.studioId().equals(studioId));
+            }
+        }
+    }
+
+    public CacheStats stats() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return new CacheStats(hitCount, missCount, requests == 0 ? 0 : (double) hitCount / requests, evictions.sum(), size);
+    }
+
+    private void store(Segment segment, Key key, GameInfo gameInfo, long entryTtlNanos, long generation) {
+        synchronized (segment) {
+            if (segment.generation == generation)
+                segment.put(key, new Entry(gameInfo, System.nanoTime() + entryTtlNanos));
+        }
+    }
+
+    private Segment segmentFor(Key key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    @FunctionalInterface
+    public interface GameInfoLoader {
+        GameInfo load() throws ObjectDoesNotExistsException, BucketDoesNotExistException;
+    }
+
+    private record Key(String studioId, String gameName) {
+    }
+
+    private record Entry(GameInfo gameInfo, long expiresAtNanos) {
+    }
+
+    private class Segment extends LinkedHashMap<Key, Entry> {
+        private final int maxSize;
+        private long generation;
+
+        Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() <= maxSize)
+                return false;
+            evictions.increment();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,523 @@
+package com.dreamseeker.pseudo_steam.caches;
+
+import com.dreamseeker.pseudo_steam.domains.GameInfo;
+import com.dreamseeker.pseudo_steam.domains.GameSearchPage;
+import com.dreamseeker.pseudo_steam.domains.SearchIndexStats;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory search index over the games of every studio. Every game gets an int id; studio, genre and version
+ * are interned into term tables and map to sorted int posting lists, and the ids of each studio are also kept
+ * sorted by game name so pages are read in order without sorting the matches. Names are also kept lower-cased in a
+ * sorted map, so a name prefix resolves to a range of games. Per game only the name and three term ids are stored.
+ * <p>
+ * A filtered search reads its candidates from the smallest of the genre postings, the version postings and the
+ * name prefix range, and checks the other filters against those; an unfiltered or broad one walks the games in
+ * order instead.
+ * <p>
+ * The index is updated incrementally and replaced by {@link #completeRebuild} after a full listing. Updates
+ * made while a rebuild runs are replayed onto the rebuilt index before it is published.
+ */
+public class GameSearchIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    private List<Consumer<Index>> pendingUpdates;
+
+    public void put(GameInfo gameInfo) {
+        update(index -> index.put(gameInfo));
+    }
+
+    public void remove(String studioId, String gameName) {
+        update(index -> index.remove(studioId, gameName));
+    }
+
+    public void removeStudio(String studioId) {
+        update(index -> index.removeStudio(studioId));
+    }
+
+    public GameSearchPage search(String genre, String version, String namePrefix, int limit, String continuationToken) {
+        lock.readLock().lock();
+        try {
+            return index.search(genre, version, namePrefix, limit, continuationToken);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SearchIndexStats stats() {
+        lock.readLock().lock();
+        try {
+            return index.stats();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Rebuild beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = new ArrayList<>();
+            return new Rebuild();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void completeRebuild(Rebuild rebuild) {
+        lock.writeLock().lock();
+        try {
+            if (pendingUpdates != null)
+                pendingUpdates.forEach(update -> update.accept(rebuild.index));
+            pendingUpdates = null;
+            index = rebuild.index;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void abortRebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void update(Consumer<Index> update) {
+        lock.writeLock().lock();
+        try {
+            update.accept(index);
+            if (pendingUpdates != null)
+                pendingUpdates.add(update);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static class Rebuild {
+        private final Index index = new Index();
+
+        public synchronized void add(GameInfo gameInfo) {
+            index.put(gameInfo);
+        }
+    }
+
+    private static final class Index {
+        private static final int NONE = -1;
+
+        private String[] gameNames = new String[1024];
+        private int[] studioIds = new int[1024];
+        private int[] genreIds = new int[1024];
+        private int[] versionIds = new int[1024];
+        private int highestId;
+        private int[] freeIds = new int[16];
+        private int freeCount;
+        private int games;
+
+        private final Terms studios = new Terms();
+        private final Terms genres = new Terms();
+        private final Terms versions = new Terms();
+        private final TreeMap<String, NameOrder> studioGames = new TreeMap<>();
+        private final TreeMap<String, Postings> names = new TreeMap<>();
+
+        void put(GameInfo gameInfo) {
+            remove(gameInfo.studioId(), gameInfo.gameName());
+            int id = allocate();
+            gameNames[id] = gameInfo.gameName();
+            studioIds[id] = studios.add(gameInfo.studioId(), id);
+            genreIds[id] = gameInfo.genre() == null ? NONE : genres.add(gameInfo.genre(), id);
+            versionIds[id] = gameInfo.version() == null ? NONE : versions.add(gameInfo.version(), id);
+            studioGames.computeIfAbsent(gameInfo.studioId(), studio -> new NameOrder()).add(id);
+            names.computeIfAbsent(fold(gameInfo.gameName()), name -> new Postings()).add(id);
+            games++;
+        }
+
+        void remove(String studioId, String gameName) {
+            NameOrder sameStudio = studioGames.get(studioId);
+            int id = sameStudio == null ? NONE : sameStudio.find(gameName);
+            if (id != NONE)
+                remove(id);
+        }
+
+        void removeStudio(String studioId) {
+            NameOrder sameStudio = studioGames.get(studioId);
+            if (sameStudio == null)
+                return;
+            for (int id : Arrays.copyOf(sameStudio.ids, sameStudio.size))
+                remove(id);
+        }
+
+        /**
+         * Drops the game and frees the terms and the studio order it was the last game of, so studios and genres
+         * that come and go do not pile up in the term tables.
+         */
+        private void remove(int id) {
+            String studio = studios.value(studioIds[id]);
+            NameOrder sameStudio = studioGames.get(studio);
+            sameStudio.remove(id);
+            if (sameStudio.size == 0)
+                studioGames.remove(studio);
+            String name = fold(gameNames[id]);
+            Postings sameName = names.get(name);
+            sameName.remove(id);
+            if (sameName.size == 0)
+                names.remove(name);
+            studios.remove(studioIds[id], id);
+            if (genreIds[id] != NONE)
+                genres.remove(genreIds[id], id);
+            if (versionIds[id] != NONE)
+                versions.remove(versionIds[id], id);
+            gameNames[id] = null;
+            if (freeCount == freeIds.length)
+                freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+            freeIds[freeCount++] = id;
+            games--;
+        }
+
+        private int allocate() {
+            if (freeCount > 0)
+                return freeIds[--freeCount];
+            if (highestId == gameNames.length) {
+                int capacity = gameNames.length * 2;
+                gameNames = Arrays.copyOf(gameNames, capacity);
+                studioIds = Arrays.copyOf(studioIds, capacity);
+                genreIds = Arrays.copyOf(genreIds, capacity);
+                versionIds = Arrays.copyOf(versionIds, capacity);
+            }
+            return highestId++;
+        }
+
+        GameSearchPage search(String genre, String version, String namePrefix, int limit, String continuationToken) {
+            Postings sameGenre = null;
+            if (genre != null) {
+                int term = genres.find(genre);
+                if (term == NONE)
+                    return new GameSearchPage(null, List.of());
+                sameGenre = genres.postings(term);
+            }
+            Postings sameVersion = null;
+            if (version != null) {
+                int term = versions.find(version);
+                if (term == NONE)
+                    return new GameSearchPage(null, List.of());
+                sameVersion = versions.postings(term);
+            }
+            String prefix = namePrefix == null || namePrefix.isEmpty() ? null : fold(namePrefix);
+
+            String lastStudio = null;
+            String lastName = null;
+            if (continuationToken != null) {
+                int separator = continuationToken.indexOf('/');
+                if (separator < 0)
+                    throw new IllegalArgumentException("Invalid continuation token: " + continuationToken);
+                lastStudio = continuationToken.substring(0, separator);
+                lastName = continuationToken.substring(separator + 1);
+            }
+
+            Filter filter = new Filter(sameGenre, sameVersion, prefix);
+            int[] candidates = null;
+            Postings smallest = sameVersion == null || sameGenre != null && sameGenre.size <= sameVersion.size ? sameGenre : sameVersion;
+            if (smallest != null)
+                candidates = Arrays.copyOf(smallest.ids, smallest.size);
+            if (prefix != null) {
+                int[] sameName = withPrefix(prefix, candidates == null ? games : candidates.length);
+                if (sameName != null)
+                    candidates = sameName;
+            }
+            // a walk in order reads about (limit + 1) * games / matches games to fill a page, so it beats sorting
+            // the candidates once they are more than the square root of that
+            if (candidates == null || (long) candidates.length * candidates.length > (limit + 1L) * games)
+                return walk(filter, limit, lastStudio, lastName);
+            return pick(candidates, filter, limit, lastStudio, lastName);
+        }
+
+        /**
+         * Walks the games in (studio, name) order from the continuation token and stops at the first match past
+         * {@code limit}, so a page costs the games skipped to fill it rather than every match of the query.
+         */
+        private GameSearchPage walk(Filter filter, int limit, String lastStudio, String lastName) {
+            List<GameInfo> matches = new ArrayList<>(Math.min(limit, 1024));
+            SortedMap<String, NameOrder> studiosFrom = lastStudio == null ? studioGames : studioGames.tailMap(lastStudio);
+            for (Map.Entry<String, NameOrder> studio : studiosFrom.entrySet()) {
+                NameOrder sameStudio = studio.getValue();
+                int from = studio.getKey().equals(lastStudio) ? sameStudio.after(lastName) : 0;
+                for (int i = from; i < sameStudio.size; i++) {
+                    int id = sameStudio.ids[i];
+                    if (!filter.matches(id))
+                        continue;
+                    if (matches.size() == limit)
+                        return page(matches, true);
+                    matches.add(gameInfo(id));
+                }
+            }
+            return page(matches, false);
+        }
+
+        /**
+         * Keeps the first {@code limit + 1} matching candidates past the continuation token in (studio, name) order,
+         * so a page costs the candidates rather than every game.
+         */
+        private GameSearchPage pick(int[] candidates, Filter filter, int limit, String lastStudio, String lastName) {
+            Comparator<Integer> order = Comparator.<Integer, String>comparing(id -> studios.value(studioIds[id]))
+                    .thenComparing(id -> gameNames[id]);
+            PriorityQueue<Integer> first = new PriorityQueue<>(order.reversed());
+            for (int id : candidates) {
+                if (!filter.matches(id))
+                    continue;
+                if (lastStudio != null) {
+                    int comparison = studios.value(studioIds[id]).compareTo(lastStudio);
+                    if (comparison < 0 || comparison == 0 && gameNames[id].compareTo(lastName) <= 0)
+                        continue;
+                }
+                first.add(id);
+                if (first.size() - 1 > limit)
+                    first.poll();
+            }
+            List<Integer> ids = new ArrayList<>(first);
+            ids.sort(order);
+            boolean more = ids.size() > limit;
+            List<GameInfo> matches = new ArrayList<>(Math.min(limit, ids.size()));
+            for (int id : more ? ids.subList(0, limit) : ids)
+                matches.add(gameInfo(id));
+            return page(matches, more);
+        }
+
+        private static GameSearchPage page(List<GameInfo> matches, boolean more) {
+            if (!more)
+                return new GameSearchPage(null, List.copyOf(matches));
+            GameInfo last = matches.getLast();
+            return new GameSearchPage(last.studioId() + "/" + last.gameName(), List.copyOf(matches));
+        }
+
+        /**
+         * Returns the ids of the games whose lower-cased name starts with {@code prefix}, or null once there are
+         * more than {@code max} of them.
+         */
+        private int[] withPrefix(String prefix, int max) {
+            int[] ids = new int[16];
+            int size = 0;
+            for (Map.Entry<String, Postings> name : names.tailMap(prefix).entrySet()) {
+                if (!name.getKey().startsWith(prefix))
+                    break;
+                Postings sameName = name.getValue();
+                if (size + sameName.size > max)
+                    return null;
+                if (size + sameName.size > ids.length)
+                    ids = Arrays.copyOf(ids, Math.max(ids.length * 2, size + sameName.size));
+                System.arraycopy(sameName.ids, 0, ids, size, sameName.size);
+                size += sameName.size;
+            }
+            return Arrays.copyOf(ids, size);
+        }
+
+        private static String fold(String name) {
+            return name.toLowerCase(Locale.ROOT);
+        }
+
+        private GameInfo gameInfo(int id) {
+            return new GameInfo(studios.value(studioIds[id]), gameNames[id],
+                    genreIds[id] == NONE ? null : genres.value(genreIds[id]),
+                    versionIds[id] == NONE ? null : versions.value(versionIds[id]));
+        }
+
+        SearchIndexStats stats() {
+            long bytes = 4L * 16 + (long) gameNames.length * (4 + 3 * 4) + 4L * freeIds.length;
+            for (int id = 0; id < highestId; id++) {
+                if (gameNames[id] != null)
+                    bytes += stringBytes(gameNames[id]);
+            }
+            for (NameOrder sameStudio : studioGames.values())
+                bytes += 40 + sameStudio.bytes();
+            for (Map.Entry<String, Postings> name : names.entrySet())
+                bytes += 40 + stringBytes(name.getKey()) + name.getValue().bytes();
+            bytes += studios.bytes() + genres.bytes() + versions.bytes();
+            return new SearchIndexStats(games, studios.size(), genres.size(), versions.size(), bytes, games == 0 ? 0 : bytes / games);
+        }
+
+        private static long stringBytes(String value) {
+            return 24 + 16 + value.length();
+        }
+
+        /**
+         * Interned term values with one posting list per term. Ids of terms without games are reused.
+         */
+        private static final class Terms {
+            private final Map<String, Integer> ids = new HashMap<>();
+            private final List<String> values = new ArrayList<>();
+            private final List<Postings> postings = new ArrayList<>();
+            private final Deque<Integer> freeIds = new ArrayDeque<>();
+
+            int add(String value, int gameId) {
+                Integer id = ids.get(value);
+                if (id == null) {
+                    id = freeIds.isEmpty() ? values.size() : freeIds.pop();
+                    ids.put(value, id);
+                    if (id == values.size()) {
+                        values.add(value);
+                        postings.add(new Postings());
+                    } else {
+                        values.set(id, value);
+                        postings.set(id, new Postings());
+                    }
+                }
+                postings.get(id).add(gameId);
+                return id;
+            }
+
+            void remove(int id, int gameId) {
+                Postings samePostings = postings.get(id);
+                samePostings.remove(gameId);
+                if (samePostings.size > 0)
+                    return;
+                ids.remove(values.get(id));
+                values.set(id, null);
+                postings.set(id, null);
+                freeIds.push(id);
+            }
+
+            int find(String value) {
+                return ids.getOrDefault(value, NONE);
+            }
+
+            String value(int id) {
+                return values.get(id);
+            }
+
+            Postings postings(int id) {
+                return postings.get(id);
+            }
+
+            int size() {
+                return ids.size();
+            }
+
+            long bytes() {
+                long bytes = 16L * values.size();
+                for (int id = 0; id < values.size(); id++) {
+                    if (values.get(id) != null)
+                        bytes += 48 + stringBytes(values.get(id)) + postings.get(id).bytes();
+                }
+                return bytes;
+            }
+        }
+
+        /**
+         * The filters of one search, checked per game.
+         */
+        private final class Filter {
+            private final Postings sameGenre;
+            private final Postings sameVersion;
+            private final String prefix;
+
+            Filter(Postings sameGenre, Postings sameVersion, String prefix) {
+                this.sameGenre = sameGenre;
+                this.sameVersion = sameVersion;
+                this.prefix = prefix;
+            }
+
+            boolean matches(int id) {
+                if (sameGenre != null && !sameGenre.contains(id) || sameVersion != null && !sameVersion.contains(id))
+                    return false;
+                return prefix == null || fold(gameNames[id]).startsWith(prefix);
+            }
+        }
+
+        /**
+         * Ids of the games of one studio, sorted by game name.
+         */
+        private final class NameOrder {
+            private int[] ids = new int[4];
+            private int size;
+
+            void add(int id) {
+                int index = -indexOf(gameNames[id]) - 1;
+                if (size == ids.length)
+                    ids = Arrays.copyOf(ids, size * 2);
+                System.arraycopy(ids, index, ids, index + 1, size - index);
+                ids[index] = id;
+                size++;
+            }
+
+            void remove(int id) {
+                int index = indexOf(gameNames[id]);
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+
+            int find(String gameName) {
+                int index = indexOf(gameName);
+                return index < 0 ? NONE : ids[index];
+            }
+
+            /**
+             * Position of the first game named after {@code gameName}.
+             */
+            int after(String gameName) {
+                int index = indexOf(gameName);
+                return index < 0 ? -index - 1 : index + 1;
+            }
+
+            private int indexOf(String gameName) {
+                int low = 0;
+                int high = size - 1;
+                while (low <= high) {
+                    int middle = (low + high) >>> 1;
+                    int comparison = gameNames[ids[middle]].compareTo(gameName);
+                    if (comparison < 0)
+                        low = middle + 1;
+                    else if (comparison > 0)
+                        high = middle - 1;
+                    else
+                        return middle;
+                }
+                return -low - 1;
+            }
+
+            long bytes() {
+                return 16 + 16 + 4L * ids.length;
+            }
+        }
+
+        /**
+         * Sorted, growable array of game ids.
+         */
+        private static final class Postings {
+            private int[] ids = new int[4];
+            private int size;
+
+            void add(int id) {
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if (index >= 0)
+                    return;
+                index = -index - 1;
+                if (size == ids.length)
+                    ids = Arrays.copyOf(ids, size * 2);
+                System.arraycopy(ids, index, ids, index + 1, size - index);
+                ids[index] = id;
+                size++;
+            }
+
+            void remove(int id) {
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if (index < 0)
+                    return;
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+
+            boolean contains(int id) {
+                return Arrays.binarySearch(ids, 0, size, id) >= 0;
+            }
+
+            long bytes() {
+                return 16 + 16 + 4L * ids.length;
+            }
+        }
+    }
+}
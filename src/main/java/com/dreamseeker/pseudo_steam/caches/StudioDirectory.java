@@ -0,0 +1,204 @@
+package com.dreamseeker.pseudo_steam.caches;
+
+import com.dreamseeker.pseudo_steam.domains.BucketsPage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory index of every studio bucket, sorted by name so {@code /studios} pages are served without
+ * listing S3. Creations and deletions on this node are applied immediately; {@link #reconcile} replaces the
+ * index with a full listing while keeping the changes made after that listing started. The index is
+ * written to a compact snapshot file so a restarted node serves pages before its first reconcile.
+ * <p>
+ * Studios an S3 lookup found missing are remembered for {@code missingTtl}, so a stream of unknown ids is rejected
+ * without a lookup per request; creating or listing the studio forgets it.
+ */
+@Slf4j
+public class StudioDirectory {
+
+    private static final int SNAPSHOT_MAGIC = 0x53544431;
+    private static final int DEFAULT_PAGE_SIZE = 10000;
+    private static final int MAX_MISSING = 10000;
+
+    private final Path snapshotPath;
+    private volatile NavigableMap<String, Studio> studios = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> deletions = new HashMap<>();
+    private final long missingTtlNanos;
+    private final Map<String, Long> missing = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private boolean dirty;
+
+    public StudioDirectory(Path snapshotPath, Duration missingTtl) {
+        this.snapshotPath = snapshotPath;
+        this.missingTtlNanos = missingTtl.toNanos();
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean contains(String studioId) {
+        return studios.containsKey(studioId);
+    }
+
+    /**
+     * Whether the index is loaded and does not know the studio, in which case game operations can be rejected
+     * without a round-trip to S3.
+     */
+    public boolean isUnknown(String studioId) {
+        return loaded && !studios.containsKey(studioId);
+    }
+
+    /**
+     * Whether an S3 lookup found the studio missing less than {@code missingTtl} ago.
+     */
+    public boolean isKnownMissing(String studioId) {
+        Long expiresAtNanos = missing.get(studioId);
+        if (expiresAtNanos == null)
+            return false;
+        if (expiresAtNanos - System.nanoTime() > 0)
+            return true;
+        missing.remove(studioId, expiresAtNanos);
+        return false;
+    }
+
+    /**
+     * Records that an S3 lookup found the studio missing, unless it was created on this node meanwhile. Once
+     * {@value #MAX_MISSING} unexpired studios are recorded, further ones are looked up again.
+     */
+    public synchronized void markMissing(String studioId) {
+        if (studios.containsKey(studioId))
+            return;
+        long now = System.nanoTime();
+        if (missing.size() >= MAX_MISSING)
+            missing.values().removeIf(expiresAtNanos -> expiresAtNanos - now <= 0);
+        if (missing.size() < MAX_MISSING)
+            missing.put(studioId, now + missingTtlNanos);
+    }
+
+    public synchronized void add(BucketsPage.Bucket bucket) {
+        studios.put(bucket.bucketName(), new Studio(bucket.creationDate(), System.nanoTime()));
+        deletions.remove(bucket.bucketName());
+        missing.remove(bucket.bucketName());
+        dirty = true;
+    }
+
+    public synchronized void remove(String studioId) {
+        studios.remove(studioId);
+        deletions.put(studioId, System.nanoTime());
+        dirty = true;
+    }
+
+    public BucketsPage page(Integer limit, String continuationToken) {
+        int pageSize = limit == null || limit < 1 ? DEFAULT_PAGE_SIZE : limit;
+        NavigableMap<String, Studio> remaining = continuationToken == null ? studios : studios.tailMap(continuationToken, false);
+        List<BucketsPage.Bucket> buckets = new ArrayList<>(Math.min(pageSize, remaining.size()));
+        for (Map.Entry<String, Studio> entry : remaining.entrySet()) {
+            if (buckets.size() == pageSize)
+                return new BucketsPage(buckets.getLast().bucketName(), buckets);
+            buckets.add(new BucketsPage.Bucket(entry.getKey(), entry.getValue().creationDate()));
+        }
+        return new BucketsPage(null, buckets);
+    }
+
+    /**
+     * Replaces the index with {@code listed}, a full listing that started at {@code listingStartedAtNanos}.
+     * Studios created or deleted on this node after the listing started are kept as they are.
+     */
+    public synchronized void reconcile(List<BucketsPage.Bucket> listed, long listingStartedAtNanos) {
+        NavigableMap<String, Studio> reconciled = new ConcurrentSkipListMap<>();
+        for (BucketsPage.Bucket bucket : listed) {
+            reconciled.put(bucket.bucketName(), new Studio(bucket.creationDate(), listingStartedAtNanos));
+            missing.remove(bucket.bucketName());
+        }
+        studios.forEach((name, studio) -> {
+            if (studio.recordedAtNanos() - listingStartedAtNanos > 0)
+                reconciled.put(name, studio);
+        });
+        deletions.entrySet().removeIf(deletion -> deletion.getValue() - listingStartedAtNanos <= 0);
+        deletions.keySet().forEach(reconciled::remove);
+
+        int added = (int) reconciled.keySet().stream().filter(name -> !studios.containsKey(name)).count();
+        int removed = (int) studios.keySet().stream().filter(name -> !reconciled.containsKey(name)).count();
+        if (added > 0 || removed > 0)
+            log.info("Reconciled studio directory: {} studios, {} added and {} removed", reconciled.size(), added, removed);
+        studios = reconciled;
+        loaded = true;
+        dirty = true;
+    }
+
+    public void loadSnapshot() throws IOException {
+        NavigableMap<String, Studio> restored = new ConcurrentSkipListMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC)
+                throw new IOException("Not a studio directory snapshot: " + snapshotPath);
+            int count = in.readInt();
+            long now = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                long creationMillis = in.readLong();
+                restored.put(name, new Studio(creationMillis < 0 ? null : Instant.ofEpochMilli(creationMillis), now));
+            }
+        } catch (NoSuchFileException e) {
+            log.info("No studio directory snapshot at {}, waiting for the first reconcile", snapshotPath);
+            return;
+        }
+        synchronized (this) {
+            restored.putAll(studios);
+            deletions.keySet().forEach(restored::remove);
+            studios = restored;
+            loaded = true;
+        }
+        log.info("Loaded {} studios from {}", restored.size(), snapshotPath);
+    }
+
+    public void writeSnapshot() throws IOException {
+        NavigableMap<String, Studio> current;
+        synchronized (this) {
+            if (!dirty)
+                return;
+            current = studios;
+            dirty = false;
+        }
+        Path parent = snapshotPath.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, snapshotPath.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            List<Map.Entry<String, Studio>> entries = new ArrayList<>(current.entrySet());
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Studio> entry : entries) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue().creationDate() == null ? -1 : entry.getValue().creationDate().toEpochMilli());
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            synchronized (this) {
+                dirty = true;
+            }
+            throw e;
+        }
+        Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private record Studio(Instant creationDate, long recordedAtNanos) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.dreamseeker.pseudo_steam.configs;
+
+import com.dreamseeker.pseudo_steam.caches.FrequencySketch;
+import com.dreamseeker.pseudo_steam.caches.GameFileCache;
+import com.dreamseeker.pseudo_steam.caches.GameInfoCache;
+import com.dreamseeker.pseudo_steam.caches.StudioDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Slf4j
+@Configuration
+public class CacheConfig {
+
+    @Value("${cache.game-info.max-size:10000}")
+    private int gameInfoMaxSize;
+
+    @Value("${cache.game-info.ttl:5m}")
+    private Duration gameInfoTtl;
+
+    @Value("${cache.game-info.negative-ttl:30s}")
+    private Duration gameInfoNegativeTtl;
+
+    @Value("${cache.game-files.directory:downloads}")
+    private Path gameFilesDirectory;
+
+    @Value("${cache.game-files.max-size:50GB}")
+    private DataSize gameFilesMaxSize;
+
+    @Value("${cache.frequency-sketch.expected-games:100000}")
+    private int frequencySketchExpectedGames;
+
+    @Value("${cache.hot-games.capacity:100}")
+    private int hotGamesCapacity;
+
+    @Value("${studios.directory.snapshot-path:data/studios.snapshot}")
+    private Path studioDirectorySnapshotPath;
+
+    @Value("${studios.directory.missing-ttl:30s}")
+    private Duration studioDirectoryMissingTtl;
+
+    @Bean
+    public GameInfoCache gameInfoCache() {
+        return new GameInfoCache(gameInfoMaxSize, gameInfoTtl, gameInfoNegativeTtl);
+    }
+
+    @Bean
+    public FrequencySketch frequencySketch() {
+        return new FrequencySketch(frequencySketchExpectedGames, hotGamesCapacity);
+    }
+
+    @Bean(destroyMethod = "writeIndex")
+    public GameFileCache gameFileCache() {
+        GameFileCache gameFileCache = new GameFileCache(gameFilesDirectory, gameFilesMaxSize.toBytes(), frequencySketch());
+        try {
+            gameFileCache.load();
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable game file cache index in {}", gameFilesDirectory, e);
+        }
+        return gameFileCache;
+    }
+
+    @Bean(destroyMethod = "writeSnapshot")
+    public StudioDirectory studioDirectory() {
+        StudioDirectory studioDirectory = new StudioDirectory(studioDirectorySnapshotPath, studioDirectoryMissingTtl);
+        try {
+            studioDirectory.loadSnapshot();
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable studio directory snapshot at {}", studioDirectorySnapshotPath, e);
+        }
+        return studioDirectory;
+    }
+}
@@ -0,0 +1,40 @@
+package com.dreamseeker.pseudo_steam.configs;
+
+import com.dreamseeker.pseudo_steam.caches.GameInfoCache;
+import com.dreamseeker.pseudo_steam.caches.GameSearchIndex;
+import com.dreamseeker.pseudo_steam.services.GameCatalogLister;
+import com.dreamseeker.pseudo_steam.services.GameSearchIndexRebuilder;
+import com.dreamseeker.pseudo_steam.services.ObjectStorageClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+@Configuration
+public class CatalogConfig {
+
+    @Value("${catalog.list.max-concurrent-heads:32}")
+    private int maxConcurrentHeads;
+
+    @Value("${search.index.rebuild.max-concurrent-heads:16}")
+    private int rebuildMaxConcurrentHeads;
+
+    @Bean
+    public GameCatalogLister gameCatalogLister(ObjectStorageClient objectStorageClient, GameInfoCache gameInfoCache,
+                                               ObjectMapper objectMapper, ExecutorService transferExecutor) {
+        return new GameCatalogLister(objectStorageClient, gameInfoCache, objectMapper, transferExecutor, maxConcurrentHeads);
+    }
+
+    @Bean
+    public GameSearchIndex gameSearchIndex() {
+        return new GameSearchIndex();
+    }
+
+    @Bean
+    public GameSearchIndexRebuilder gameSearchIndexRebuilder(ObjectStorageClient objectStorageClient, GameInfoCache gameInfoCache,
+                                                             ExecutorService transferExecutor) {
+        return new GameSearchIndexRebuilder(objectStorageClient, gameInfoCache, gameSearchIndex(), transferExecutor, rebuildMaxConcurrentHeads);
+    }
+}
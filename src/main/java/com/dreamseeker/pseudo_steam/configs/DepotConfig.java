@@ -0,0 +1,56 @@
+package com.dreamseeker.pseudo_steam.configs;
+
+import com.dreamseeker.pseudo_steam.caches.ChunkIndex;
+import com.dreamseeker.pseudo_steam.caches.DownloadManifestCache;
+import com.dreamseeker.pseudo_steam.services.ChunkStore;
+import com.dreamseeker.pseudo_steam.services.DownloadManifestBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.util.concurrent.ExecutorService;
+
+@Configuration
+@ConditionalOnProperty(name = "storage.engine", havingValue = "s3", matchIfMissing = true)
+public class DepotConfig {
+
+    @Value("${depot.index.max-chunks:1000000}")
+    private long maxIndexedChunks;
+
+    @Value("${depot.max-concurrent-requests:32}")
+    private int maxConcurrentRequests;
+
+    @Value("${depot.presign.max-chunks-per-request:1000}")
+    private int maxPresignedChunks;
+
+    @Value("${depot.manifest.cache.max-chunks:1000000}")
+    private long maxCachedManifestChunks;
+
+    @Value("${transfer.download.range-size:16MB}")
+    private DataSize downloadRangeSize;
+
+    @Bean
+    public ChunkIndex chunkIndex() {
+        return new ChunkIndex(maxIndexedChunks);
+    }
+
+    @Bean
+    public ChunkStore chunkStore(S3Client s3Client, S3Presigner s3Presigner, ObjectMapper objectMapper, ExecutorService transferExecutor) {
+        return new ChunkStore(s3Client, s3Presigner, objectMapper, transferExecutor, chunkIndex(), maxConcurrentRequests, maxPresignedChunks);
+    }
+
+    @Bean
+    public DownloadManifestCache downloadManifestCache() {
+        return new DownloadManifestCache(maxCachedManifestChunks);
+    }
+
+    @Bean
+    public DownloadManifestBuilder downloadManifestBuilder(S3Client s3Client, S3Presigner s3Presigner, ChunkStore chunkStore) {
+        return new DownloadManifestBuilder(s3Client, s3Presigner, chunkStore, downloadManifestCache(), downloadRangeSize.toBytes(), maxPresignedChunks);
+    }
+}
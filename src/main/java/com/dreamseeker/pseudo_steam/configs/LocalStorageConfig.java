@@ -0,0 +1,70 @@
+package com.dreamseeker.pseudo_steam.configs;
+
+import com.dreamseeker.pseudo_steam.services.LocalObjectStorageClient;
+import com.dreamseeker.pseudo_steam.services.LocalUrlSigner;
+import com.dreamseeker.pseudo_steam.services.PartSizingStrategy;
+import com.dreamseeker.pseudo_steam.stores.GameVersionIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "storage.engine", havingValue = "local")
+public class LocalStorageConfig {
+
+    @Value("${storage.local.root:data/storage}")
+    private Path root;
+
+    @Value("${storage.local.public-url:http://localhost:8081}")
+    private String publicUrl;
+
+    @Value("${storage.local.signing-key:}")
+    private String signingKey;
+
+    @Value("${storage.local.signature-duration:1h}")
+    private Duration signatureDuration;
+
+    @Value("${transfer.download.range-size:16MB}")
+    private DataSize downloadRangeSize;
+
+    @Value("${uploads.presign.initial-parts:1000}")
+    private int initialPresignedParts;
+
+    @Value("${uploads.presign.max-parts-per-request:1000}")
+    private int maxPresignedPartsPerRequest;
+
+    @Value("${depot.presign.max-chunks-per-request:1000}")
+    private int maxPresignedChunks;
+
+    @Bean
+    public LocalUrlSigner localUrlSigner() {
+        byte[] key = signingKey.getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0) {
+            log.warn("No storage.local.signing-key set, presigned URLs will not survive a restart");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        }
+        return new LocalUrlSigner(key, publicUrl, signatureDuration, Clock.systemUTC());
+    }
+
+    @Bean
+    public LocalObjectStorageClient localObjectStorageClient(PartSizingStrategy partSizingStrategy) throws IOException {
+        Path storageRoot = root.toAbsolutePath().normalize();
+        Files.createDirectories(storageRoot);
+        log.info("Storing studios and games in {}", storageRoot);
+        return new LocalObjectStorageClient(storageRoot, localUrlSigner(), new GameVersionIndex(), partSizingStrategy,
+                downloadRangeSize.toBytes(), initialPresignedParts, maxPresignedPartsPerRequest, maxPresignedChunks);
+    }
+}
@@ -1,29 +1,72 @@
 package com.dreamseeker.pseudo_steam.configs;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.S3CrtAsyncClientBuilder;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
+import java.net.URI;
+
 @Configuration
+@ConditionalOnProperty(name = "storage.engine", havingValue = "s3", matchIfMissing = true)
 public class S3Config {
 
     @Value("${aws.region}")
     private String region;
 
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${aws.s3.async.crt:true}")
+    private boolean crt;
+
+    @Value("${aws.s3.async.max-concurrency:1000}")
+    private int maxConcurrency;
+
     @Bean
     public S3Client s3Client() {
-        return S3Client.builder()
-                .region(Region.of(region))
-                .build();
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region));
+        if (!endpoint.isEmpty())
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+        return builder.build();
     }
 
     @Bean
     public S3Presigner s3Presigner() {
-        return S3Presigner.builder()
+        S3Presigner.Builder builder = S3Presigner.builder()
+                .region(Region.of(region));
+        if (!endpoint.isEmpty())
+            builder.endpointOverride(URI.create(endpoint))
+                    .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.client.mode", havingValue = "async")
+    public S3AsyncClient s3AsyncClient() {
+        if (crt) {
+            S3CrtAsyncClientBuilder builder = S3AsyncClient.crtBuilder()
+                    .region(Region.of(region))
+                    .maxConcurrency(maxConcurrency);
+            if (!endpoint.isEmpty())
+                builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+            return builder.build();
+        }
+        S3AsyncClientBuilder builder = S3AsyncClient.builder()
                 .region(Region.of(region))
-                .build();
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder().maxConcurrency(maxConcurrency));
+        if (!endpoint.isEmpty())
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+        return builder.build();
     }
 }
@@ -0,0 +1,33 @@
+package com.dreamseeker.pseudo_steam.configs;
+
+import com.dreamseeker.pseudo_steam.stores.GameMetadataStore;
+import com.dreamseeker.pseudo_steam.stores.UploadSessionRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+public class StoreConfig {
+
+    @Value("${metadata.store.path:data/metadata/game-metadata.log}")
+    private Path metadataStorePath;
+
+    @Value("${metadata.store.fsync:false}")
+    private boolean metadataStoreFsync;
+
+    @Value("${metadata.store.compaction-threshold:10000}")
+    private int metadataStoreCompactionThreshold;
+
+    @Bean(destroyMethod = "close")
+    public GameMetadataStore gameMetadataStore() throws IOException {
+        return new GameMetadataStore(metadataStorePath, metadataStoreFsync, metadataStoreCompactionThreshold);
+    }
+
+    @Bean
+    public UploadSessionRegistry uploadSessionRegistry() {
+        return new UploadSessionRegistry();
+    }
+}
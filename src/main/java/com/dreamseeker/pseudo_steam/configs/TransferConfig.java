@@ -0,0 +1,162 @@
+package com.dreamseeker.pseudo_steam.configs;
+
+import com.dreamseeker.pseudo_steam.services.AdaptivePartSizingStrategy;
+import com.dreamseeker.pseudo_steam.services.BucketTeardownEngine;
+import com.dreamseeker.pseudo_steam.services.FixedPartSizingStrategy;
+import com.dreamseeker.pseudo_steam.services.MultipartUploadEngine;
+import com.dreamseeker.pseudo_steam.services.ObjectCopyEngine;
+import com.dreamseeker.pseudo_steam.services.ObjectStorageClient;
+import com.dreamseeker.pseudo_steam.services.PartBufferPool;
+import com.dreamseeker.pseudo_steam.services.PartCompressor;
+import com.dreamseeker.pseudo_steam.services.PartSizingStrategy;
+import com.dreamseeker.pseudo_steam.services.PreSignedUrlGenerator;
+import com.dreamseeker.pseudo_steam.services.RangedDownloadEngine;
+import com.dreamseeker.pseudo_steam.services.StaleUploadReaper;
+import com.dreamseeker.pseudo_steam.stores.UploadSessionRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class TransferConfig {
+
+    @Value("${transfer.executor.virtual-threads:true}")
+    private boolean virtualThreads;
+
+    @Value("${transfer.executor.pool-size:16}")
+    private int poolSize;
+
+    @Value("${transfer.upload.max-concurrent-parts:8}")
+    private int maxConcurrentParts;
+
+    @Value("${transfer.upload.buffer-memory:1GB}")
+    private DataSize uploadBufferMemory;
+
+    @Value("${transfer.download.range-size:16MB}")
+    private DataSize downloadRangeSize;
+
+    @Value("${transfer.download.max-concurrent-ranges:8}")
+    private int maxConcurrentRanges;
+
+    @Value("${transfer.download.max-attempts:3}")
+    private int downloadMaxAttempts;
+
+    @Value("${transfer.teardown.max-concurrent-deletes:4}")
+    private int maxConcurrentDeletes;
+
+    @Value("${transfer.copy.part-size:256MB}")
+    private DataSize copyPartSize;
+
+    @Value("${transfer.copy.max-concurrent-parts:16}")
+    private int maxConcurrentCopyParts;
+
+    @Value("${transfer.copy.multipart-threshold:256MB}")
+    private DataSize copyMultipartThreshold;
+
+    @Value("${transfer.compression.enabled:false}")
+    private boolean compressionEnabled;
+
+    @Value("${transfer.compression.level:1}")
+    private int compressionLevel;
+
+    @Value("${uploads.presign.initial-parts:1000}")
+    private int initialPresignedParts;
+
+    @Value("${uploads.presign.max-parts-per-request:1000}")
+    private int maxPresignedPartsPerRequest;
+
+    @Value("${uploads.sizing.target-part-duration:10s}")
+    private Duration targetPartDuration;
+
+    @Value("${uploads.sizing.max-part-size:1GB}")
+    private DataSize maxUploadPartSize;
+
+    @Value("${uploads.sizing.default-parallelism:4}")
+    private int defaultUploadParallelism;
+
+    @Value("${uploads.sizing.min-parts-per-stream:4}")
+    private int minPartsPerStream;
+
+    @Value("${uploads.reaper.max-age:24h}")
+    private Duration staleUploadMaxAge;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService transferExecutor() {
+        if (virtualThreads)
+            return Executors.newVirtualThreadPerTaskExecutor();
+        return Executors.newFixedThreadPool(poolSize);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "storage.engine", havingValue = "s3", matchIfMissing = true)
+    public ExecutorService presignExecutor() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.engine", havingValue = "s3", matchIfMissing = true)
+    public PreSignedUrlGenerator preSignedUrlGenerator(S3Presigner s3Presigner) {
+        return new PreSignedUrlGenerator(s3Presigner, presignExecutor(), initialPresignedParts, maxPresignedPartsPerRequest);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.engine", havingValue = "s3", matchIfMissing = true)
+    public PartBufferPool partBufferPool() {
+        return new PartBufferPool(uploadBufferMemory.toBytes());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.engine", havingValue = "s3", matchIfMissing = true)
+    public MultipartUploadEngine multipartUploadEngine(S3Client s3Client) {
+        return new MultipartUploadEngine(s3Client, transferExecutor(), maxConcurrentParts, partBufferPool());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.engine", havingValue = "s3", matchIfMissing = true)
+    public RangedDownloadEngine rangedDownloadEngine(S3Client s3Client) {
+        return new RangedDownloadEngine(s3Client, transferExecutor(), downloadRangeSize.toBytes(), maxConcurrentRanges, downloadMaxAttempts);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.engine", havingValue = "s3", matchIfMissing = true)
+    public ObjectCopyEngine objectCopyEngine(S3Client s3Client) {
+        return new ObjectCopyEngine(s3Client, transferExecutor(), copyPartSize.toBytes(), maxConcurrentCopyParts, copyMultipartThreshold.toBytes());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.engine", havingValue = "s3", matchIfMissing = true)
+    public BucketTeardownEngine bucketTeardownEngine(S3Client s3Client) {
+        return new BucketTeardownEngine(s3Client, transferExecutor(), maxConcurrentDeletes);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.engine", havingValue = "s3", matchIfMissing = true)
+    public PartCompressor partCompressor() {
+        return new PartCompressor(compressionEnabled, compressionLevel);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "uploads.sizing.strategy", havingValue = "adaptive", matchIfMissing = true)
+    public PartSizingStrategy adaptivePartSizingStrategy() {
+        return new AdaptivePartSizingStrategy(targetPartDuration, maxUploadPartSize.toBytes(), defaultUploadParallelism, minPartsPerStream);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "uploads.sizing.strategy", havingValue = "fixed")
+    public PartSizingStrategy fixedPartSizingStrategy() {
+        return new FixedPartSizingStrategy();
+    }
+
+    @Bean
+    public StaleUploadReaper staleUploadReaper(ObjectStorageClient objectStorageClient, UploadSessionRegistry uploadSessionRegistry) {
+        return new StaleUploadReaper(objectStorageClient, uploadSessionRegistry, staleUploadMaxAge);
+    }
+}
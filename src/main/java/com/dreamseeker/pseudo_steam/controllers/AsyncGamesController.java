@@ -0,0 +1,57 @@
+package com.dreamseeker.pseudo_steam.controllers;
+
+import com.dreamseeker.pseudo_steam.domains.CompleteUploadRequest;
+import com.dreamseeker.pseudo_steam.domains.GameInfo;
+import com.dreamseeker.pseudo_steam.domains.InitiateUploadRequest;
+import com.dreamseeker.pseudo_steam.domains.InitiateUploadResponse;
+import com.dreamseeker.pseudo_steam.services.AsyncGamesService;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/studios/{studio-id}/games")
+@AllArgsConstructor
+@ConditionalOnProperty(name = "storage.client.mode", havingValue = "async")
+public class AsyncGamesController {
+
+    private final AsyncGamesService asyncGamesService;
+
+    @PostMapping("/initiate")
+    public CompletableFuture<ResponseEntity<InitiateUploadResponse>> initiateGameUpload(@PathVariable("studio-id") String studioId, @RequestBody InitiateUploadRequest initiateUploadRequest) {
+        return asyncGamesService.initiateGameUpload(studioId, initiateUploadRequest).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/complete")
+    public CompletableFuture<ResponseEntity<Void>> completeGameUpload(@PathVariable("studio-id") String studioId, @RequestBody CompleteUploadRequest completeGameUpload) {
+        return asyncGamesService.completeGameUpload(studioId, completeGameUpload)
+                .thenApply(completed -> ResponseEntity.ok().build());
+    }
+
+    @GetMapping("/{game-name}")
+    public CompletableFuture<ResponseEntity<GameInfo>> fetchGameInfo(
+            @PathVariable("studio-id") String studioId,
+            @PathVariable("game-name") String gameName) {
+        return asyncGamesService.fetchGameInfo(studioId, gameName).thenApply(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{game-name}")
+    public CompletableFuture<ResponseEntity<GameInfo>> modifyGameInfo(
+            @PathVariable("studio-id") String studioId,
+            @PathVariable("game-name") String gameName,
+            @RequestBody Map<String, String> metadata) {
+        return asyncGamesService.modifyGameInfo(studioId, gameName, metadata).thenApply(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/{game-name}")
+    public CompletableFuture<ResponseEntity<Void>> deleteGame(
+            @PathVariable("game-name") String gameName,
+            @PathVariable("studio-id") String studioId) {
+        return asyncGamesService.deleteGame(studioId, gameName)
+                .thenApply(deleted -> ResponseEntity.ok().build());
+    }
+}
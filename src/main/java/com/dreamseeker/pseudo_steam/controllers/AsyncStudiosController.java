@@ -0,0 +1,39 @@
+package com.dreamseeker.pseudo_steam.controllers;
+
+import com.dreamseeker.pseudo_steam.domains.BucketsPage;
+import com.dreamseeker.pseudo_steam.services.AsyncStudiosService;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/studios")
+@AllArgsConstructor
+@ConditionalOnProperty(name = "storage.client.mode", havingValue = "async")
+public class AsyncStudiosController {
+
+    private final AsyncStudiosService asyncStudiosService;
+
+    @PostMapping("/{studio-name}")
+    public CompletableFuture<ResponseEntity<BucketsPage.Bucket>> createStudio(@PathVariable("studio-name") String studioName) {
+        return asyncStudiosService.createStudio(studioName)
+                .thenApply(bucket -> ResponseEntity.status(HttpStatus.OK).body(bucket));
+    }
+
+    @GetMapping
+    public CompletableFuture<ResponseEntity<BucketsPage>> listAllStudios(
+            @RequestParam(required = false) String continuationToken,
+            @RequestParam(required = false, defaultValue = "10") Integer limit) {
+        return asyncStudiosService.fetchStudios(limit, continuationToken).thenApply(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/{studio-id}")
+    public CompletableFuture<ResponseEntity<Void>> deleteStudio(@PathVariable("studio-id") String studioId) {
+        return asyncStudiosService.deleteStudio(studioId)
+                .thenApply(deleted -> ResponseEntity.status(HttpStatus.OK).build());
+    }
+}
@@ -0,0 +1,42 @@
+package com.dreamseeker.pseudo_steam.controllers;
+
+import com.dreamseeker.pseudo_steam.caches.FrequencySketch;
+import com.dreamseeker.pseudo_steam.caches.GameFileCache;
+import com.dreamseeker.pseudo_steam.caches.GameInfoCache;
+import com.dreamseeker.pseudo_steam.domains.CacheStats;
+import com.dreamseeker.pseudo_steam.domains.HotGame;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/caches")
+@AllArgsConstructor
+public class CachesController {
+
+    private final GameInfoCache gameInfoCache;
+    private final GameFileCache gameFileCache;
+    private final FrequencySketch frequencySketch;
+
+    @GetMapping("/game-info")
+    public ResponseEntity<CacheStats> fetchGameInfoCacheStats() {
+        return ResponseEntity.ok(gameInfoCache.stats());
+    }
+
+    @GetMapping("/game-files")
+    public ResponseEntity<CacheStats> fetchGameFileCacheStats() {
+        return ResponseEntity.ok(gameFileCache.stats());
+    }
+
+    @GetMapping("/hot-games")
+    public ResponseEntity<List<HotGame>> fetchHotGames(@RequestParam(required = false, defaultValue = "10") Integer limit) {
+        if (limit < 1)
+            throw new IllegalArgumentException("limit must be positive");
+        return ResponseEntity.ok(frequencySketch.hottest(limit));
+    }
+}
@@ -0,0 +1,34 @@
+package com.dreamseeker.pseudo_steam.controllers;
+
+import com.dreamseeker.pseudo_steam.domains.ChunkedUploadRequest;
+import com.dreamseeker.pseudo_steam.domains.ChunkedUploadResponse;
+import com.dreamseeker.pseudo_steam.domains.ObjectUploadResponse;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.services.GamesService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/studios/{studio-id}/games/chunked")
+@AllArgsConstructor
+public class ChunkedUploadsController {
+
+    private final GamesService gamesService;
+
+    @PostMapping("/initiate")
+    public ResponseEntity<ChunkedUploadResponse> initiateChunkedUpload(
+            @PathVariable("studio-id") String studioId,
+            @RequestBody ChunkedUploadRequest chunkedUploadRequest) throws BucketDoesNotExistException {
+        ChunkedUploadResponse chunkedUploadResponse = gamesService.initiateChunkedGameUpload(studioId, chunkedUploadRequest);
+        return ResponseEntity.ok().body(chunkedUploadResponse);
+    }
+
+    @PostMapping("/commit")
+    public ResponseEntity<ObjectUploadResponse> commitChunkedUpload(
+            @PathVariable("studio-id") String studioId,
+            @RequestBody ChunkedUploadRequest chunkedUploadRequest) throws BucketDoesNotExistException {
+        ObjectUploadResponse objectUploadResponse = gamesService.commitChunkedGameUpload(studioId, chunkedUploadRequest);
+        return ResponseEntity.ok().body(objectUploadResponse);
+    }
+}
@@ -0,0 +1,29 @@
+package com.dreamseeker.pseudo_steam.controllers;
+
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.services.GamesService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/studios/{studio-id}/games")
+@AllArgsConstructor
+public class GameCatalogController {
+
+    private final GamesService gamesService;
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> listGames(
+            @PathVariable("studio-id") String studioId,
+            @RequestParam(required = false) String continuationToken,
+            @RequestParam(required = false, defaultValue = "1000") Integer limit) throws BucketDoesNotExistException {
+        if (limit < 1)
+            throw new IllegalArgumentException("limit must be positive");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(gamesService.fetchGames(studioId, limit, continuationToken));
+    }
+}
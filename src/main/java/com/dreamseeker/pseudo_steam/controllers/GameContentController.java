@@ -0,0 +1,40 @@
+package com.dreamseeker.pseudo_steam.controllers;
+
+import com.dreamseeker.pseudo_steam.domains.GameContent;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import com.dreamseeker.pseudo_steam.exceptions.RangeNotSatisfiableException;
+import com.dreamseeker.pseudo_steam.services.GamesService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/studios/{studio-id}/games/{game-name}/content")
+@AllArgsConstructor
+public class GameContentController {
+
+    private final GamesService gamesService;
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> downloadGame(
+            @PathVariable("studio-id") String studioId,
+            @PathVariable("game-name") String gameName,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) throws ObjectDoesNotExistsException, BucketDoesNotExistException, RangeNotSatisfiableException {
+        GameContent gameContent = gamesService.fetchGameContent(studioId, gameName, range, ifRange);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(gameContent.partialContent() ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentLength(gameContent.contentLength())
+                .eTag(gameContent.eTag());
+        if (gameContent.partialContent())
+            response.header(HttpHeaders.CONTENT_RANGE, gameContent.contentRange());
+        if (gameContent.contentType() != null)
+            response.contentType(MediaType.parseMediaType(gameContent.contentType()));
+        return response.body(gameContent.body());
+    }
+}
@@ -0,0 +1,33 @@
+package com.dreamseeker.pseudo_steam.controllers;
+
+import com.dreamseeker.pseudo_steam.domains.GameInfo;
+import com.dreamseeker.pseudo_steam.domains.ObjectUploadResponse;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import com.dreamseeker.pseudo_steam.services.GamesService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/studios/{studio-id}/games/{game-name}")
+@AllArgsConstructor
+public class GameMaintenanceController {
+
+    private final GamesService gamesService;
+
+    @PostMapping("/versions/{version-id}/restore")
+    public ResponseEntity<ObjectUploadResponse> restoreGameVersion(
+            @PathVariable("studio-id") String studioId,
+            @PathVariable("game-name") String gameName,
+            @PathVariable("version-id") String versionId) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        return ResponseEntity.ok(gamesService.restoreGameVersion(studioId, gameName, versionId));
+    }
+
+    @PostMapping("/metadata/persist")
+    public ResponseEntity<GameInfo> persistGameInfo(
+            @PathVariable("studio-id") String studioId,
+            @PathVariable("game-name") String gameName) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        return ResponseEntity.ok(gamesService.persistGameInfo(studioId, gameName));
+    }
+}
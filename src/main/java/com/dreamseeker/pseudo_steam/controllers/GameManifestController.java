@@ -0,0 +1,28 @@
+package com.dreamseeker.pseudo_steam.controllers;
+
+import com.dreamseeker.pseudo_steam.domains.DownloadManifestPage;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import com.dreamseeker.pseudo_steam.services.GamesService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/studios/{studio-id}/games/{game-name}/manifest")
+@AllArgsConstructor
+public class GameManifestController {
+
+    private final GamesService gamesService;
+
+    @GetMapping
+    public ResponseEntity<DownloadManifestPage> fetchGameManifest(
+            @PathVariable("studio-id") String studioId,
+            @PathVariable("game-name") String gameName,
+            @RequestParam(required = false) String versionId,
+            @RequestParam(required = false, defaultValue = "0") Integer from,
+            @RequestParam(required = false, defaultValue = "100") Integer count) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        DownloadManifestPage downloadManifestPage = gamesService.fetchGameManifest(studioId, gameName, versionId, from, count);
+        return ResponseEntity.ok().body(downloadManifestPage);
+    }
+}
@@ -0,0 +1,33 @@
+package com.dreamseeker.pseudo_steam.controllers;
+
+import com.dreamseeker.pseudo_steam.caches.GameSearchIndex;
+import com.dreamseeker.pseudo_steam.domains.GameSearchPage;
+import com.dreamseeker.pseudo_steam.domains.SearchIndexStats;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/games/search")
+@AllArgsConstructor
+public class GameSearchController {
+
+    private final GameSearchIndex gameSearchIndex;
+
+    @GetMapping
+    public ResponseEntity<GameSearchPage> searchGames(
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) String version,
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) String continuationToken,
+            @RequestParam(required = false, defaultValue = "100") Integer limit) {
+        if (limit < 1)
+            throw new IllegalArgumentException("limit must be positive");
+        return ResponseEntity.ok(gameSearchIndex.search(genre, version, namePrefix, limit, continuationToken));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<SearchIndexStats> fetchSearchIndexStats() {
+        return ResponseEntity.ok(gameSearchIndex.stats());
+    }
+}
@@ -0,0 +1,42 @@
+package com.dreamseeker.pseudo_steam.controllers;
+
+import com.dreamseeker.pseudo_steam.domains.PreSignedPartsPage;
+import com.dreamseeker.pseudo_steam.domains.ResumeUploadResponse;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.exceptions.UploadDoesNotExistException;
+import com.dreamseeker.pseudo_steam.services.GamesService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/studios/{studio-id}/games/{game-name}/uploads")
+@AllArgsConstructor
+public class GameUploadsController {
+
+    private final GamesService gamesService;
+
+    @GetMapping("/{upload-id}/parts")
+    public ResponseEntity<PreSignedPartsPage> presignUploadParts(
+            @PathVariable("studio-id") String studioId,
+            @PathVariable("game-name") String gameName,
+            @PathVariable("upload-id") String uploadId,
+            @RequestParam(required = false) Long fileSize,
+            @RequestParam(required = false) Long partSize,
+            @RequestParam(required = false, defaultValue = "1") Integer from,
+            @RequestParam(required = false, defaultValue = "100") Integer count) throws UploadDoesNotExistException {
+        PreSignedPartsPage preSignedPartsPage = gamesService.presignGameUploadParts(studioId, gameName, uploadId, fileSize, partSize, from, count);
+        return ResponseEntity.ok().body(preSignedPartsPage);
+    }
+
+    @GetMapping("/{upload-id}/resume")
+    public ResponseEntity<ResumeUploadResponse> resumeUpload(
+            @PathVariable("studio-id") String studioId,
+            @PathVariable("game-name") String gameName,
+            @PathVariable("upload-id") String uploadId,
+            @RequestParam(required = false) Long fileSize,
+            @RequestParam(required = false) Long partSize) throws UploadDoesNotExistException, BucketDoesNotExistException {
+        ResumeUploadResponse resumeUploadResponse = gamesService.resumeGameUpload(studioId, gameName, uploadId, fileSize, partSize);
+        return ResponseEntity.ok().body(resumeUploadResponse);
+    }
+}
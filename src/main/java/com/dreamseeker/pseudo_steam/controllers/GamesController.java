@@ -6,8 +6,10 @@ import com.dreamseeker.pseudo_steam.domains.InitiateUploadRequest;
 import com.dreamseeker.pseudo_steam.domains.InitiateUploadResponse;
 import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
 import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import com.dreamseeker.pseudo_steam.exceptions.UploadDoesNotExistException;
 import com.dreamseeker.pseudo_steam.services.GamesService;
 import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,6 +18,7 @@ import java.util.Map;
 @RestController
 @RequestMapping("/studios/{studio-id}/games")
 @AllArgsConstructor
+@ConditionalOnProperty(name = "storage.client.mode", havingValue = "sync", matchIfMissing = true)
 public class GamesController {
 
     private final GamesService gamesService;
@@ -27,7 +30,8 @@ public class GamesController {
     }
 
     @PostMapping("/complete")
-    public ResponseEntity<Void> completeGameUpload(@PathVariable("studio-id") String studioId, @RequestBody CompleteUploadRequest completeGameUpload) {
+    public ResponseEntity<Void> completeGameUpload(@PathVariable("studio-id") String studioId, @RequestBody CompleteUploadRequest completeGameUpload)
+            throws UploadDoesNotExistException {
             gamesService.completeGameUpload(studioId, completeGameUpload);
             return ResponseEntity.ok().build();
     }
@@ -0,0 +1,85 @@
+package com.dreamseeker.pseudo_steam.controllers;
+
+import com.dreamseeker.pseudo_steam.domains.GameContent;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.exceptions.InvalidSignatureException;
+import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import com.dreamseeker.pseudo_steam.exceptions.RangeNotSatisfiableException;
+import com.dreamseeker.pseudo_steam.exceptions.UploadDoesNotExistException;
+import com.dreamseeker.pseudo_steam.services.LocalObjectStorageClient;
+import com.dreamseeker.pseudo_steam.services.LocalUrlSigner;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+
+/**
+ * Serves the URLs the local storage engine presigns in place of S3's: part and chunk uploads, and downloads of game
+ * versions.
+ */
+@RestController
+@RequestMapping("/local-storage/studios/{studio-id}")
+@AllArgsConstructor
+@ConditionalOnProperty(name = "storage.engine", havingValue = "local")
+public class LocalStorageController {
+
+    private static final String CHECKSUM_CRC32C = "x-amz-checksum-crc32c";
+
+    private final LocalObjectStorageClient localObjectStorageClient;
+    private final LocalUrlSigner localUrlSigner;
+
+    @PutMapping("/uploads/{upload-id}/parts/{part-number}")
+    public ResponseEntity<Void> uploadPart(
+            @PathVariable("studio-id") String studioId,
+            @PathVariable("upload-id") String uploadId,
+            @PathVariable("part-number") int partNumber,
+            @RequestParam("expires") long expires,
+            @RequestParam("signature") String signature,
+            @RequestHeader(value = CHECKSUM_CRC32C, required = false) String checksumCrc32c,
+            InputStream content) throws InvalidSignatureException, UploadDoesNotExistException, BucketDoesNotExistException {
+        localUrlSigner.verify("PUT", LocalObjectStorageClient.partResource(studioId, uploadId, partNumber), null, expires, signature);
+        String eTag = localObjectStorageClient.uploadPart(studioId, uploadId, partNumber, content, checksumCrc32c);
+        return ResponseEntity.ok().eTag(eTag).build();
+    }
+
+    @PutMapping("/chunks/{hash}")
+    public ResponseEntity<Void> uploadChunk(
+            @PathVariable("studio-id") String studioId,
+            @PathVariable("hash") String hash,
+            @RequestParam("expires") long expires,
+            @RequestParam("signature") String signature,
+            InputStream content) throws InvalidSignatureException, BucketDoesNotExistException {
+        localUrlSigner.verify("PUT", LocalObjectStorageClient.chunkResource(studioId, hash), null, expires, signature);
+        localObjectStorageClient.uploadChunk(studioId, hash, content);
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/games/{game-name}")
+    public ResponseEntity<StreamingResponseBody> downloadGame(
+            @PathVariable("studio-id") String studioId,
+            @PathVariable("game-name") String gameName,
+            @RequestParam(value = "versionId", required = false) String versionId,
+            @RequestParam("expires") long expires,
+            @RequestParam("signature") String signature,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange)
+            throws InvalidSignatureException, ObjectDoesNotExistsException, BucketDoesNotExistException, RangeNotSatisfiableException {
+        localUrlSigner.verify("GET", LocalObjectStorageClient.gameResource(studioId, gameName), versionId, expires, signature);
+        GameContent gameContent = localObjectStorageClient.fetchObjectContent(studioId, gameName, versionId, range, ifRange);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(gameContent.partialContent() ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentLength(gameContent.contentLength())
+                .eTag(gameContent.eTag());
+        if (gameContent.partialContent())
+            response.header(HttpHeaders.CONTENT_RANGE, gameContent.contentRange());
+        if (gameContent.contentType() != null)
+            response.contentType(MediaType.parseMediaType(gameContent.contentType()));
+        return response.body(gameContent.body());
+    }
+}
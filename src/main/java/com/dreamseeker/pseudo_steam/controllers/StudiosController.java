@@ -6,6 +6,7 @@ import com.dreamseeker.pseudo_steam.exceptions.BucketNameExistsException;
 import com.dreamseeker.pseudo_steam.exceptions.BucketNotEmptyException;
 import com.dreamseeker.pseudo_steam.services.StudiosService;
 import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/studios")
 @AllArgsConstructor
+@ConditionalOnProperty(name = "storage.client.mode", havingValue = "sync", matchIfMissing = true)
 public class StudiosController {
 
     private final StudiosService studiosService;
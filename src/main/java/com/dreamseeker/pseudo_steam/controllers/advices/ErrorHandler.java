@@ -3,6 +3,10 @@ package com.dreamseeker.pseudo_steam.controllers.advices;
 import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
 import com.dreamseeker.pseudo_steam.exceptions.BucketNameExistsException;
 import com.dreamseeker.pseudo_steam.exceptions.BucketNotEmptyException;
+import com.dreamseeker.pseudo_steam.exceptions.InvalidSignatureException;
+import com.dreamseeker.pseudo_steam.exceptions.RangeNotSatisfiableException;
+import com.dreamseeker.pseudo_steam.exceptions.UploadDoesNotExistException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -26,6 +30,28 @@ public class ErrorHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body("Bucket is not empty: " + ex.getBucketName());
     }
 
+    @ExceptionHandler(UploadDoesNotExistException.class)
+    public ResponseEntity<String> handleUploadDoesNotExistException(UploadDoesNotExistException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Upload does not exist: " + ex.getUploadId());
+    }
+
+    @ExceptionHandler(InvalidSignatureException.class)
+    public ResponseEntity<String> handleInvalidSignatureException(InvalidSignatureException ex) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Invalid or expired signature for " + ex.getResource());
+    }
+
+    @ExceptionHandler(RangeNotSatisfiableException.class)
+    public ResponseEntity<String> handleRangeNotSatisfiableException(RangeNotSatisfiableException ex) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + ex.getObjectSize())
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleGenericException(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred: " + ex.getMessage());
@@ -0,0 +1,4 @@
+package com.dreamseeker.pseudo_steam.domains;
+
+public record CacheStats(long hits, long misses, double hitRate, long evictions, long size) {
+}
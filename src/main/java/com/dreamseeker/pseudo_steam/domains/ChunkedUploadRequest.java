@@ -0,0 +1,10 @@
+package com.dreamseeker.pseudo_steam.domains;
+
+import java.util.List;
+import java.util.Map;
+
+public record ChunkedUploadRequest(String gameName, String contentType, Map<String, String> metadata, List<Chunk> chunks) {
+
+    public record Chunk(String hash, long size) {
+    }
+}
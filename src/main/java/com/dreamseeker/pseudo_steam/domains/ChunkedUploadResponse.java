@@ -0,0 +1,9 @@
+package com.dreamseeker.pseudo_steam.domains;
+
+import java.util.List;
+
+public record ChunkedUploadResponse(String gameName, int chunkCount, int missingChunkCount, List<ChunkUploadUrl> presignedUrls) {
+
+    public record ChunkUploadUrl(String hash, long size, String preSignedUrl) {
+    }
+}
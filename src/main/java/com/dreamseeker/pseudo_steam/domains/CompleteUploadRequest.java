@@ -2,7 +2,16 @@ package com.dreamseeker.pseudo_steam.domains;
 
 import java.util.List;
 
-public record CompleteUploadRequest(String uploadId, String key, List<CompletedPart> parts) {
-    public record CompletedPart(int partNumber, String etag) {
+public record CompleteUploadRequest(String uploadId, String key, List<CompletedPart> parts, String checksumCrc32c) {
+
+    public CompleteUploadRequest(String uploadId, String key, List<CompletedPart> parts) {
+        this(uploadId, key, parts, null);
+    }
+
+    public record CompletedPart(int partNumber, String etag, String checksumCrc32c) {
+
+        public CompletedPart(int partNumber, String etag) {
+            this(partNumber, etag, null);
+        }
     }
 }
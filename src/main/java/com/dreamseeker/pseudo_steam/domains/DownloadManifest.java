@@ -0,0 +1,15 @@
+package com.dreamseeker.pseudo_steam.domains;
+
+import java.util.List;
+
+public record DownloadManifest(String gameName, String versionId, String eTag, long size, String contentType, String checksumAlgorithm,
+                               String codec, List<Chunk> chunks) {
+
+    /**
+     * A chunk is fetched from {@code objectKey} as a whole, as one part of a multipart object or as a byte range.
+     * Offset and size are those of the content; checksums cover the bytes as stored, which for a compressed game
+     * are a frame of the {@code codec}.
+     */
+    public record Chunk(long offset, long size, String checksum, String objectKey, Integer partNumber, String range) {
+    }
+}
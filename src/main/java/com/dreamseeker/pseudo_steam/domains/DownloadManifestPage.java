@@ -0,0 +1,10 @@
+package com.dreamseeker.pseudo_steam.domains;
+
+import java.util.List;
+
+public record DownloadManifestPage(String gameName, String versionId, long size, String contentType, String checksumAlgorithm,
+                                   String codec, int chunkCount, List<ChunkDownloadUrl> chunks) {
+
+    public record ChunkDownloadUrl(int index, long offset, long size, String checksum, String range, String preSignedUrl) {
+    }
+}
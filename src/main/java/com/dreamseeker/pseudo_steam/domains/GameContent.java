@@ -0,0 +1,7 @@
+package com.dreamseeker.pseudo_steam.domains;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public record GameContent(long contentLength, String contentRange, String eTag, String contentType,
+                          boolean partialContent, StreamingResponseBody body) {
+}
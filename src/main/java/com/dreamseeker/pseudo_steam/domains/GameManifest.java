@@ -0,0 +1,9 @@
+package com.dreamseeker.pseudo_steam.domains;
+
+import java.util.List;
+
+public record GameManifest(String gameName, String contentType, long size, List<Chunk> chunks) {
+
+    public record Chunk(String hash, long offset, long size) {
+    }
+}
@@ -0,0 +1,6 @@
+package com.dreamseeker.pseudo_steam.domains;
+
+import java.util.List;
+
+public record GameSearchPage(String continuationToken, List<GameInfo> games) {
+}
@@ -0,0 +1,4 @@
+package com.dreamseeker.pseudo_steam.domains;
+
+public record HotGame(String studioId, String gameName, int frequency) {
+}
@@ -2,5 +2,10 @@ package com.dreamseeker.pseudo_steam.domains;
 
 import java.util.Map;
 
-public record InitiateUploadRequest(String gameName, long fileSize, String contentType, Map<String, String> metadata) {
+public record InitiateUploadRequest(String gameName, long fileSize, String contentType, Map<String, String> metadata,
+                                    Integer parallelism, Long bandwidthBytesPerSecond) {
+
+    public InitiateUploadRequest(String gameName, long fileSize, String contentType, Map<String, String> metadata) {
+        this(gameName, fileSize, contentType, metadata, null, null);
+    }
 }
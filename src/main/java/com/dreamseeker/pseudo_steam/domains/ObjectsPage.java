@@ -0,0 +1,6 @@
+package com.dreamseeker.pseudo_steam.domains;
+
+import java.util.List;
+
+public record ObjectsPage(String continuationToken, List<String> keys) {
+}
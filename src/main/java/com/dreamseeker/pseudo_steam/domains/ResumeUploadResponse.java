@@ -0,0 +1,8 @@
+package com.dreamseeker.pseudo_steam.domains;
+
+import java.util.List;
+
+public record ResumeUploadResponse(String uploadId, String gameName, int partCount,
+                                   List<CompleteUploadRequest.CompletedPart> uploadedParts,
+                                   List<Integer> missingParts, List<PreSignedPartUrl> presignedUrls) {
+}
@@ -0,0 +1,4 @@
+package com.dreamseeker.pseudo_steam.domains;
+
+public record SearchIndexStats(int games, int studios, int genres, int versions, long estimatedBytes, long estimatedBytesPerGame) {
+}
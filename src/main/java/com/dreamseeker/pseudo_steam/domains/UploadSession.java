@@ -0,0 +1,11 @@
+package com.dreamseeker.pseudo_steam.domains;
+
+import java.time.Instant;
+
+public record UploadSession(String uploadId, String studioId, String gameName, long fileSize, long partSize, int partCount,
+                            int parallelism, Instant initiatedAt) {
+
+    public long partSize(int partNumber) {
+        return partNumber == partCount ? fileSize - partSize * (partCount - 1) : partSize;
+    }
+}
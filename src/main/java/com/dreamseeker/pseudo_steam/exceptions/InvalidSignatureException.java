@@ -0,0 +1,13 @@
+package com.dreamseeker.pseudo_steam.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class InvalidSignatureException extends Exception {
+    private final String resource;
+
+    public InvalidSignatureException(String resource) {
+        super(resource);
+        this.resource = resource;
+    }
+}
@@ -0,0 +1,13 @@
+package com.dreamseeker.pseudo_steam.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class RangeNotSatisfiableException extends Exception {
+    private final long objectSize;
+
+    public RangeNotSatisfiableException(long objectSize) {
+        super("Range not satisfiable for object of size " + objectSize);
+        this.objectSize = objectSize;
+    }
+}
@@ -0,0 +1,13 @@
+package com.dreamseeker.pseudo_steam.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class UploadDoesNotExistException extends Exception {
+    private final String uploadId;
+
+    public UploadDoesNotExistException(String uploadId, Throwable cause) {
+        super(uploadId, cause);
+        this.uploadId = uploadId;
+    }
+}
@@ -0,0 +1,319 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.caches.GameFileCache;
+import com.dreamseeker.pseudo_steam.domains.*;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.exceptions.BucketNameExistsException;
+import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import com.dreamseeker.pseudo_steam.stores.GameMetadataStore;
+import com.dreamseeker.pseudo_steam.stores.UploadSessionRegistry;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.dreamseeker.pseudo_steam.services.AWSObjectStorageClient.GENRE;
+import static com.dreamseeker.pseudo_steam.services.AWSObjectStorageClient.VERSION;
+
+@Slf4j
+@AllArgsConstructor
+@Component
+@ConditionalOnProperty(name = "storage.client.mode", havingValue = "async")
+public class AWSAsyncObjectStorageClient implements AsyncObjectStorageClient {
+
+    private final S3AsyncClient s3AsyncClient;
+    private final PreSignedUrlGenerator preSignedUrlGenerator;
+    private final ExecutorService transferExecutor;
+    private final GameMetadataStore gameMetadataStore;
+    private final UploadSessionRegistry uploadSessionRegistry;
+    private final PartSizingStrategy partSizingStrategy;
+    private final GameFileCache gameFileCache;
+    private final ChunkStore chunkStore;
+    private final DownloadManifestBuilder downloadManifestBuilder;
+    private final BucketTeardownEngine bucketTeardownEngine;
+    private final SingleFlight<AWSObjectStorageClient.ObjectLocation, GameInfo> metadataFlights = new SingleFlight<>();
+    private final SingleFlight<AWSObjectStorageClient.BucketsQuery, BucketsPage> bucketsFlights = new SingleFlight<>();
+
+    @Override
+    public CompletableFuture<BucketsPage.Bucket> createBucket(String bucketName) {
+        String newBucketName = String.format("dev.%s-%s", bucketName, UUID.randomUUID());
+        return s3AsyncClient.createBucket(CreateBucketRequest.builder().bucket(newBucketName).build())
+                .thenCompose(created -> s3AsyncClient.putBucketVersioning(PutBucketVersioningRequest.builder()
+                        .bucket(newBucketName)
+                        .versioningConfiguration(VersioningConfiguration.builder()
+                                .status(BucketVersioningStatus.ENABLED)
+                                .build())
+                        .build()))
+                .thenCompose(versioned -> s3AsyncClient.putBucketLifecycleConfiguration(AWSObjectStorageClient.lifecycleConfigurationRequest(newBucketName)))
+                .thenApply(configured -> new BucketsPage.Bucket(newBucketName, Instant.now()))
+                .exceptionallyCompose(e -> failed(translate(e, bucketName, null)));
+    }
+
+    @Override
+    public CompletableFuture<BucketsPage> fetchBuckets(Integer limit, String continuationToken) {
+        return bucketsFlights.submit(new AWSObjectStorageClient.BucketsQuery(limit, continuationToken), () -> listBuckets(limit, continuationToken));
+    }
+
+    private CompletableFuture<BucketsPage> listBuckets(Integer limit, String continuationToken) {
+        ListBucketsRequest listBucketsRequest = ListBucketsRequest.builder()
+                .maxBuckets(limit)
+                .continuationToken(continuationToken)
+                .prefix("dev.")
+                .build();
+        return s3AsyncClient.listBuckets(listBucketsRequest).thenApply(bucketsResponse -> {
+            List<BucketsPage.Bucket> buckets = bucketsResponse.buckets().stream().map(bucket -> new BucketsPage.Bucket(bucket.name(), bucket.creationDate())).toList();
+            return new BucketsPage(bucketsResponse.continuationToken(), buckets);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> bucketExists(String bucketName) {
+        return s3AsyncClient.headBucket(HeadBucketRequest.builder().bucket(bucketName).build())
+                .thenApply(response -> true)
+                .exceptionallyCompose(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    return cause instanceof NoSuchBucketException ? CompletableFuture.completedFuture(false) : failed(cause);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteBucket(String bucketName) {
+        return abortMultipartUploads(bucketName)
+                .thenCompose(aborted -> deleteVersions(bucketName, null, null, CompletableFuture.completedFuture(null)))
+                .thenCompose(emptied -> s3AsyncClient.deleteBucket(DeleteBucketRequest.builder().bucket(bucketName).build()))
+                .<Void>thenApply(deleted -> {
+                    gameMetadataStore.removeStudio(bucketName);
+                    chunkStore.removeStudio(bucketName);
+                    downloadManifestBuilder.removeStudio(bucketName);
+                    gameFileCache.removeStudio(bucketName);
+                    return null;
+                })
+                .exceptionallyCompose(e -> failed(translate(e, bucketName, null)));
+    }
+
+    /**
+     * Aborts the outstanding uploads as they are listed, with no more aborts in flight than the blocking
+     * {@link BucketTeardownEngine} runs: the listing is only asked for another upload once an abort completes.
+     */
+    private CompletableFuture<Void> abortMultipartUploads(String bucketName) {
+        BoundedAborts aborts = new BoundedAborts(bucketName, bucketTeardownEngine.maxConcurrentDeletes());
+        s3AsyncClient.listMultipartUploadsPaginator(ListMultipartUploadsRequest.builder().bucket(bucketName).build())
+                .uploads()
+                .subscribe(aborts);
+        return aborts.done;
+    }
+
+    /**
+     * Lists one page of versions and deletes it while the next page is listed. A page is only listed once the
+     * deletions of the page before the previous one are done, so at most two pages of deletions are in flight.
+     */
+    private CompletableFuture<Void> deleteVersions(String bucketName, String keyMarker, String versionIdMarker,
+                                                   CompletableFuture<Void> previousDeletions) {
+        ListObjectVersionsRequest listObjectVersionsRequest = ListObjectVersionsRequest.builder()
+                .bucket(bucketName)
+                .keyMarker(keyMarker)
+                .versionIdMarker(versionIdMarker)
+                .build();
+        return s3AsyncClient.listObjectVersions(listObjectVersionsRequest).thenCompose(page -> {
+            CompletableFuture<Void> deletions = CompletableFuture.allOf(BucketTeardownEngine.batches(page).stream()
+                    .map(batch -> deleteBatch(bucketName, batch))
+                    .toArray(CompletableFuture[]::new));
+            return previousDeletions.thenCompose(previous -> Boolean.TRUE.equals(page.isTruncated())
+                    ? deleteVersions(bucketName, page.nextKeyMarker(), page.nextVersionIdMarker(), deletions)
+                    : deletions);
+        });
+    }
+
+    private CompletableFuture<Void> deleteBatch(String bucketName, List<ObjectIdentifier> batch) {
+        DeleteObjectsRequest deleteObjectsRequest = DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder().objects(batch).quiet(true).build())
+                .build();
+        return s3AsyncClient.deleteObjects(deleteObjectsRequest).thenAccept(response -> {
+            if (response.hasErrors() && !response.errors().isEmpty())
+                throw new IllegalStateException(String.format("Failed to delete %d objects in bucket %s, first error on %s: %s",
+                        response.errors().size(), bucketName, response.errors().getFirst().key(), response.errors().getFirst().message()));
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> deleteObject(String bucketName, String objectKey, String versionId) {
+        DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder().bucket(bucketName).key(objectKey).versionId(versionId).build();
+        return s3AsyncClient.deleteObject(deleteObjectRequest)
+                .thenApply(response -> {
+                    gameMetadataStore.remove(bucketName, objectKey);
+                    return response.versionId();
+                })
+                .exceptionallyCompose(e -> failed(translate(e, bucketName, objectKey)));
+    }
+
+    @Override
+    public CompletableFuture<InitiateUploadResponse> initiateUpload(String bucketName, InitiateUploadRequest initiateUploadRequest) {
+        CreateMultipartUploadRequest createRequest = CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(initiateUploadRequest.gameName())
+                .contentType(initiateUploadRequest.contentType())
+                .metadata(initiateUploadRequest.metadata())
+                .checksumAlgorithm(ChecksumAlgorithm.CRC32C)
+                .checksumType(ChecksumType.FULL_OBJECT)
+                .build();
+        return s3AsyncClient.createMultipartUpload(createRequest)
+                .thenApplyAsync(response -> {
+                    PartCalculation calculatedParts = partSizingStrategy.partsFor(bucketName, initiateUploadRequest.fileSize(), PartSizingStrategy.Hints.of(initiateUploadRequest));
+                    uploadSessionRegistry.register(new UploadSession(response.uploadId(), bucketName, initiateUploadRequest.gameName(),
+                            initiateUploadRequest.fileSize(), calculatedParts.partSize(), calculatedParts.partCount(),
+                            Objects.requireNonNullElse(initiateUploadRequest.parallelism(), 0), Instant.now()));
+                    List<PreSignedPartUrl> preSignedUrls = preSignedUrlGenerator.generateInitialPreSignedUrls(
+                            bucketName,
+                            initiateUploadRequest.gameName(),
+                            response.uploadId(),
+                            calculatedParts.partCount(),
+                            calculatedParts.partSize(),
+                            initiateUploadRequest.fileSize()
+                    );
+                    log.info("Initiated multipart upload for bucket: {} with uploadId: {} and {} parts",
+                            initiateUploadRequest.gameName(), response.uploadId(), calculatedParts.partCount());
+                    return new InitiateUploadResponse(response.uploadId(), initiateUploadRequest.gameName(), preSignedUrls, calculatedParts.partCount(),
+                            Crc32c.ALGORITHM);
+                }, transferExecutor)
+                .exceptionallyCompose(e -> failed(translate(e, bucketName, initiateUploadRequest.gameName())));
+    }
+
+    @Override
+    public CompletableFuture<Void> completeUpload(String bucketName, CompleteUploadRequest completeUploadRequest) {
+        UploadSession session = uploadSessionRegistry.get(completeUploadRequest.uploadId());
+        return s3AsyncClient.completeMultipartUpload(AWSObjectStorageClient.completeMultipartUploadRequest(bucketName, completeUploadRequest, session))
+                .thenAccept(response -> {
+                    gameMetadataStore.remove(bucketName, completeUploadRequest.key());
+                    uploadSessionRegistry.remove(completeUploadRequest.uploadId());
+                    if (session != null && session.initiatedAt() != null)
+                        partSizingStrategy.recordUpload(session, Duration.between(session.initiatedAt(), Instant.now()));
+                    log.info("Successfully completed multipart upload in bucket {} for key: {} with ETag: {}",
+                            bucketName, completeUploadRequest.key(), response.eTag());
+                })
+                .exceptionallyCompose(e -> failed(translate(e, bucketName, completeUploadRequest.key())));
+    }
+
+    @Override
+    public CompletableFuture<GameInfo> fetchObjectMetadata(String bucketName, String objectKey) {
+        Map<String, String> storedMetadata = gameMetadataStore.get(bucketName, objectKey);
+        if (storedMetadata != null)
+            return CompletableFuture.completedFuture(new GameInfo(bucketName, objectKey, storedMetadata.get(GENRE), storedMetadata.get(VERSION)));
+        return metadataFlights.submit(new AWSObjectStorageClient.ObjectLocation(bucketName, objectKey), () -> headObject(bucketName, objectKey)
+                .thenApply(metadata -> new GameInfo(bucketName, objectKey, metadata.get(GENRE), metadata.get(VERSION)))
+                .exceptionallyCompose(e -> failed(translate(e, bucketName, objectKey))));
+    }
+
+    @Override
+    public CompletableFuture<GameInfo> modifyObjectMetadata(String bucketName, String objectKey, Map<String, String> metadata) {
+        Map<String, String> storedMetadata = gameMetadataStore.get(bucketName, objectKey);
+        CompletableFuture<Map<String, String>> currentMetadata = storedMetadata != null
+                ? CompletableFuture.completedFuture(storedMetadata)
+                : headObject(bucketName, objectKey);
+        return currentMetadata
+                .thenApply(current -> {
+                    Map<String, String> newMetadata = new HashMap<>(current);
+                    newMetadata.put(GENRE, metadata.get(GENRE));
+                    gameMetadataStore.put(bucketName, objectKey, newMetadata);
+                    return new GameInfo(bucketName, objectKey, newMetadata.get(GENRE), newMetadata.get(VERSION));
+                })
+                .exceptionallyCompose(e -> failed(translate(e, bucketName, objectKey)));
+    }
+
+    private CompletableFuture<Map<String, String>> headObject(String bucketName, String objectKey) {
+        HeadObjectRequest headRequest = HeadObjectRequest.builder()
+                .bucket(bucketName)
+                .key(objectKey)
+                .build();
+        return s3AsyncClient.headObject(headRequest).thenApply(HeadObjectResponse::metadata);
+    }
+
+    private static Throwable translate(Throwable e, String bucketName, String objectKey) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof NoSuchKeyException) {
+            log.error("The object: {} does not exists", bucketName.concat("/" + objectKey));
+            return new ObjectDoesNotExistsException();
+        }
+        if (cause instanceof NoSuchBucketException) {
+            log.error("Bucket ({}) does not exist", bucketName);
+            return new BucketDoesNotExistException(bucketName, cause.getCause());
+        }
+        if (cause instanceof BucketAlreadyExistsException || cause instanceof BucketAlreadyOwnedByYouException) {
+            log.error("Bucket ({}) already exists", bucketName, cause);
+            return new BucketNameExistsException(bucketName, cause);
+        }
+        return cause;
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable e) {
+        return CompletableFuture.failedFuture(e);
+    }
+
+    private class BoundedAborts implements Subscriber<MultipartUpload> {
+        private final String bucketName;
+        private final int maxInFlight;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile Subscription subscription;
+        private volatile boolean listed;
+
+        BoundedAborts(String bucketName, int maxInFlight) {
+            this.bucketName = bucketName;
+            this.maxInFlight = Math.max(1, maxInFlight);
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(maxInFlight);
+        }
+
+        @Override
+        public void onNext(MultipartUpload upload) {
+            inFlight.incrementAndGet();
+            s3AsyncClient.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(upload.key())
+                    .uploadId(upload.uploadId())
+                    .build()).whenComplete((aborted, e) -> {
+                if (e != null) {
+                    subscription.cancel();
+                    done.completeExceptionally(e);
+                    return;
+                }
+                if (inFlight.decrementAndGet() == 0 && listed)
+                    done.complete(null);
+                else
+                    subscription.request(1);
+            });
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            done.completeExceptionally(e);
+        }
+
+        @Override
+        public void onComplete() {
+            listed = true;
+            if (inFlight.get() == 0)
+                done.complete(null);
+        }
+    }
+}
@@ -1,50 +1,78 @@
 package com.dreamseeker.pseudo_steam.services;
 
+import com.dreamseeker.pseudo_steam.caches.FrequencySketch;
+import com.dreamseeker.pseudo_steam.caches.GameFileCache;
 import com.dreamseeker.pseudo_steam.domains.*;
 import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
 import com.dreamseeker.pseudo_steam.exceptions.BucketNameExistsException;
 import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import com.dreamseeker.pseudo_steam.exceptions.RangeNotSatisfiableException;
+import com.dreamseeker.pseudo_steam.exceptions.UploadDoesNotExistException;
+import com.dreamseeker.pseudo_steam.stores.GameMetadataStore;
+import com.dreamseeker.pseudo_steam.stores.UploadSessionRegistry;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
-import software.amazon.awssdk.services.s3.paginators.ListObjectVersionsIterable;
-import software.amazon.awssdk.services.s3.presigner.S3Presigner;
-import software.amazon.awssdk.services.s3.presigner.model.PresignedUploadPartRequest;
-import software.amazon.awssdk.services.s3.presigner.model.UploadPartPresignRequest;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+
+
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 @Slf4j
 @AllArgsConstructor
 @Component
 @Primary
+@ConditionalOnProperty(name = "storage.engine", havingValue = "s3", matchIfMissing = true)
 public class AWSObjectStorageClient implements ObjectStorageClient {
 
-    private static final long MIN_PART_SIZE = 5 * 1024 * 1024;
-    private static final long MAX_PART_SIZE = 100 * 1024 * 1024; // 100MB for optimal performance
-    private static final int MAX_PARTS = 10000;
-    private static final String OUTPUT_DIRECTORY = "downloads/";
-    private static final String VERSION = "version";
-    private static final String GENRE = "genre";
+    static final String VERSION = "version";
+    static final String GENRE = "genre";
+    private static final int LOCAL_TRANSFER_BUFFER_SIZE = 64 * 1024;
 
     protected final S3Client s3Client;
-    private final S3Presigner s3Presigner;
+    private final PreSignedUrlGenerator preSignedUrlGenerator;
+    private final MultipartUploadEngine multipartUploadEngine;
+    private final RangedDownloadEngine rangedDownloadEngine;
+    private final BucketTeardownEngine bucketTeardownEngine;
+    private final ObjectCopyEngine objectCopyEngine;
+    private final GameMetadataStore gameMetadataStore;
+    private final UploadSessionRegistry uploadSessionRegistry;
+    private final PartSizingStrategy partSizingStrategy;
+    private final ChunkStore chunkStore;
+    private final DownloadManifestBuilder downloadManifestBuilder;
+    private final PartCompressor partCompressor;
+    private final GameFileCache gameFileCache;
+    private final FrequencySketch frequencySketch;
+    private final ExecutorService transferExecutor;
+    private final SingleFlight<ObjectLocation, GameInfo> metadataFlights = new SingleFlight<>();
+    private final SingleFlight<BucketsQuery, BucketsPage> bucketsFlights = new SingleFlight<>();
+    private final SingleFlight<CachedGame, Path> downloadFlights = new SingleFlight<>();
 
     @Override
     public BucketsPage.Bucket createBucket(String bucketName) throws BucketNameExistsException {
@@ -73,6 +101,10 @@ public class AWSObjectStorageClient implements ObjectStorageClient {
     }
 
     private void addLifecycleConfigs(String bucketName) {
+        s3Client.putBucketLifecycleConfiguration(lifecycleConfigurationRequest(bucketName));
+    }
+
+    static PutBucketLifecycleConfigurationRequest lifecycleConfigurationRequest(String bucketName) {
         NoncurrentVersionTransition transition = NoncurrentVersionTransition.builder()
                 .noncurrentDays(30)
                 .storageClass(TransitionStorageClass.STANDARD_IA)
@@ -95,16 +127,18 @@ public class AWSObjectStorageClient implements ObjectStorageClient {
                 .rules(rule)
                 .build();
 
-        PutBucketLifecycleConfigurationRequest request = PutBucketLifecycleConfigurationRequest.builder()
+        return PutBucketLifecycleConfigurationRequest.builder()
                 .bucket(bucketName)
                 .lifecycleConfiguration(lifecycleConfig)
                 .build();
-
-        s3Client.putBucketLifecycleConfiguration(request);
     }
 
     @Override
     public BucketsPage fetchBuckets(Integer limit, String continuationToken) {
+        return bucketsFlights.execute(new BucketsQuery(limit, continuationToken), () -> listBuckets(limit, continuationToken));
+    }
+
+    private BucketsPage listBuckets(Integer limit, String continuationToken) {
         ListBucketsRequest listBucketsRequest = ListBucketsRequest.builder()
                 .maxBuckets(limit)
                 .continuationToken(continuationToken)
@@ -115,74 +149,108 @@ public class AWSObjectStorageClient implements ObjectStorageClient {
         return new BucketsPage(bucketsResponse.continuationToken(), buckets);
     }
 
+    @Override
+    public boolean bucketExists(String bucketName) {
+        try {
+            s3Client.headBucket(HeadBucketRequest.builder().bucket(bucketName).build());
+            return true;
+        } catch (NoSuchBucketException e) {
+            return false;
+        }
+    }
+
     @Override
     public void deleteBucket(String bucketName) throws BucketDoesNotExistException {
         try {
-            deleteObjects(bucketName);
+            bucketTeardownEngine.emptyBucket(bucketName);
             DeleteBucketRequest deleteBucketRequest = DeleteBucketRequest.builder().bucket(bucketName).build();
             s3Client.deleteBucket(deleteBucketRequest);
+            gameMetadataStore.removeStudio(bucketName);
+            chunkStore.removeStudio(bucketName);
+            downloadManifestBuilder.removeStudio(bucketName);
+            gameFileCache.removeStudio(bucketName);
         } catch (NoSuchBucketException e) {
             log.error("Bucket ({}) does not exist", bucketName);
             throw new BucketDoesNotExistException(bucketName, e.getCause());
-        } catch (SdkClientException | AwsServiceException e) {
+        } catch (SdkClientException | AwsServiceException | IllegalStateException e) {
             log.error(e.getMessage(), e);
             throw new RuntimeException(e.getMessage(), e);
-        }
-    }
-
-    private void deleteObjects(String bucketName) {
-        List<ObjectIdentifier> objectIdentifiers = new ArrayList<>();
-        ListObjectVersionsRequest listObjectVersionsRequest = ListObjectVersionsRequest.builder().bucket(bucketName).build();
-        ListObjectVersionsIterable listObjectVersionsResponses = s3Client.listObjectVersionsPaginator(listObjectVersionsRequest);
-        for (ListObjectVersionsResponse listObjectVersionsResponse : listObjectVersionsResponses) {
-
-            listObjectVersionsResponse.versions().forEach(objectVersion -> {
-                ObjectIdentifier objectIdentifier = ObjectIdentifier.builder().key(objectVersion.key()).versionId(objectVersion.versionId()).build();
-                objectIdentifiers.add(objectIdentifier);
-            });
-            log.info("Found {} previous versions", listObjectVersionsResponse.versions().size());
-
-            listObjectVersionsResponse.deleteMarkers().forEach(deleteMarker -> {
-                ObjectIdentifier objectIdentifier = ObjectIdentifier.builder().key(deleteMarker.key()).versionId(deleteMarker.versionId()).build();
-                objectIdentifiers.add(objectIdentifier);
-            });
-            log.info("Found {} delete markers", listObjectVersionsResponse.deleteMarkers().size());
-        }
-
-        if (!objectIdentifiers.isEmpty()) {
-            log.info("Deleting {} previous versions/delete markers in bucket {}", objectIdentifiers.size(), bucketName);
-            Delete deletions = Delete.builder().objects(objectIdentifiers).build();
-            s3Client.deleteObjects(DeleteObjectsRequest.builder().bucket(bucketName).delete(deletions).build());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
         }
     }
 
     @Override
     public ObjectUploadResponse putObjectSinglePartUpload(String bucketName, String objectKey, MultipartFile file) throws BucketDoesNotExistException {
+        Path compressedFile = null;
         try {
+            long compressedSize = -1;
+            if (partCompressor.isEnabled()) {
+                compressedFile = Files.createTempFile("upload-", ".deflate");
+                try (InputStream inputStream = file.getInputStream()) {
+                    compressedSize = partCompressor.encode(inputStream, file.getSize(), compressedFile);
+                }
+            }
             PutObjectRequest request = PutObjectRequest.builder()
                     .bucket(bucketName)
                     .key(objectKey)
                     .contentType(file.getContentType())
+                    .metadata(compressedSize < 0 ? null : PartCompressor.metadata(null, file.getSize(), file.getSize()))
+                    .checksumAlgorithm(ChecksumAlgorithm.CRC32C)
                     .build();
 
-            PutObjectResponse response = s3Client.putObject(request, RequestBody.fromBytes(file.getBytes()));
+            RequestBody requestBody = compressedSize < 0
+                    ? RequestBody.fromContentProvider(() -> openInputStream(file), file.getSize(), file.getContentType())
+                    : RequestBody.fromFile(compressedFile);
+            PutObjectResponse response = s3Client.putObject(request, requestBody);
+            gameMetadataStore.remove(bucketName, objectKey);
+            if (compressedSize >= 0)
+                log.info("Uploaded {} compressed from {} to {} bytes", objectKey, file.getSize(), compressedSize);
             return new ObjectUploadResponse(bucketName, objectKey, response.versionId());
         } catch (IOException e) {
             log.error(e.getMessage(), e);
             throw new RuntimeException(e);
+        } catch (UncheckedIOException e) {
+            log.error(e.getMessage(), e);
+            throw new RuntimeException(e.getCause());
         } catch (NoSuchBucketException e) {
             log.error("Bucket ({}) does not exist", bucketName);
             throw new BucketDoesNotExistException(bucketName, e.getCause());
+        } finally {
+            deleteTemporaryFile(compressedFile);
         }
     }
 
+    private void deleteTemporaryFile(Path path) {
+        if (path == null)
+            return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary file {}", path, e);
+        }
+    }
+
+    /**
+     * With compression enabled every part is uploaded as one compressed frame. Compressed parts differ in size, so
+     * the upload uses composite checksums, S3 still checks the CRC32C of every part.
+     * <p>
+     * Server-side uploads hold their parts in the shared {@link PartBufferPool}, so they keep the fixed layout with
+     * parts of at most 100MB; the adaptive strategy is sized for clients uploading through presigned URLs.
+     */
     @Override
     public ObjectUploadResponse putObjectMultiPartUpload(String bucketName, String objectKey, MultipartFile file) {
         String uploadId = null;
         try {
-            uploadId = initiateMultipartUpload(bucketName, objectKey, file);
-            List<CompletedPart> completedParts = uploadParts(bucketName, objectKey, file, uploadId);
-            return completeMultipartUpload(bucketName, objectKey, completedParts, uploadId);
+            PartCalculation calculatedParts = FixedPartSizingStrategy.calculateParts(file.getSize());
+            boolean compressed = partCompressor.isEnabled();
+            uploadId = initiateMultipartUpload(bucketName, objectKey, file,
+                    compressed ? PartCompressor.metadata(null, file.getSize(), calculatedParts.partSize()) : null,
+                    compressed ? ChecksumType.COMPOSITE : ChecksumType.FULL_OBJECT);
+            List<CompletedPart> completedParts = uploadParts(bucketName, objectKey, file, uploadId, calculatedParts, compressed ? partCompressor : null);
+            return completeMultipartUpload(bucketName, objectKey, completedParts, uploadId,
+                    compressed ? null : Crc32c.combine(completedParts.stream().map(CompletedPart::checksumCRC32C).toList(), calculatedParts.partSize(), file.getSize()));
         } catch (Exception e) {
             try {
                 abortMultipartUpload(bucketName, objectKey, uploadId);
@@ -193,21 +261,233 @@ public class AWSObjectStorageClient implements ObjectStorageClient {
         }
     }
 
+    @Override
+    public ObjectUploadResponse putObjectStreamingUpload(String bucketName, String objectKey, MultipartFile file) {
+        String uploadId = null;
+        try (InputStream inputStream = file.getInputStream()) {
+            uploadId = initiateMultipartUpload(bucketName, objectKey, file, null, ChecksumType.FULL_OBJECT);
+            PartCalculation calculatedParts = FixedPartSizingStrategy.calculateParts(file.getSize());
+            List<CompletedPart> completedParts = multipartUploadEngine.uploadStream(bucketName, objectKey, uploadId, inputStream, calculatedParts.partSize());
+            return completeMultipartUpload(bucketName, objectKey, completedParts, uploadId,
+                    Crc32c.combine(completedParts.stream().map(CompletedPart::checksumCRC32C).toList(), calculatedParts.partSize(), file.getSize()));
+        } catch (Exception e) {
+            try {
+                abortMultipartUpload(bucketName, objectKey, uploadId);
+            } catch (Exception abortException) {
+                log.error("Failed to abort multipart upload", e);
+            }
+            throw new RuntimeException("Streaming upload failed", e);
+        }
+    }
+
+    private InputStream openInputStream(MultipartFile file) {
+        try {
+            return file.getInputStream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public ObjectsPage listObjects(String bucketName, Integer limit, String continuationToken) throws BucketDoesNotExistException {
+        try {
+            ListObjectsV2Request listObjectsRequest = ListObjectsV2Request.builder()
+                    .bucket(bucketName)
+                    .maxKeys(limit)
+                    .continuationToken(continuationToken)
+                    .delimiter("/")
+                    .build();
+            ListObjectsV2Response listObjectsResponse = s3Client.listObjectsV2(listObjectsRequest);
+            List<String> keys = listObjectsResponse.contents().stream().map(S3Object::key).toList();
+            return new ObjectsPage(listObjectsResponse.nextContinuationToken(), keys);
+        } catch (NoSuchBucketException e) {
+            log.error("Bucket ({}) does not exist", bucketName);
+            throw new BucketDoesNotExistException(bucketName, e.getCause());
+        }
+    }
+
     @Override
     public void getObject(String bucketName, String objectKey, String versionId) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        try {
+            HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectKey)
+                    .versionId(versionId)
+                    .checksumMode(ChecksumMode.ENABLED)
+                    .build());
+            frequencySketch.increment(bucketName, objectKey);
+            Path localPath = gameFileCache.get(bucketName, objectKey, head.versionId(), head.eTag());
+            if (localPath != null) {
+                log.info("{} with version id {} is already cached in {}", objectKey, head.versionId(), localPath);
+                return;
+            }
+            GameManifest manifest = ChunkStore.isChunked(head.metadata()) ? chunkStore.readManifest(bucketName, objectKey, head.versionId()) : null;
+            long gameSize = manifest != null ? manifest.size()
+                    : PartCompressor.isCompressed(head.metadata()) ? PartCompressor.uncompressedSize(head.metadata()) : head.contentLength();
+            if (!gameFileCache.admits(bucketName, objectKey, head.versionId(), head.eTag(), gameSize)) {
+                log.info("Not downloading {} with version id {}: the game file cache would not admit its {} bytes", objectKey, head.versionId(), gameSize);
+                return;
+            }
+            localPath = downloadFlights.execute(new CachedGame(bucketName, objectKey, head.versionId(), head.eTag()),
+                    () -> download(bucketName, objectKey, head, manifest));
+            if (localPath == null)
+                log.info("Downloaded {} with version id {} but the game file cache did not admit it", objectKey, head.versionId());
+            else
+                log.info("Successfully downloaded {} with version id {} in {}", objectKey, head.versionId(), localPath);
+        } catch (IOException | UncheckedIOException e) {
+            log.error(e.getMessage(), e);
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (NoSuchKeyException e) {
+            log.error("The object: {} does not exists", bucketName.concat("/" + objectKey));
+            throw new ObjectDoesNotExistsException();
+        } catch (NoSuchBucketException e) {
+            log.error("Bucket ({}) does not exist", bucketName);
+            throw new BucketDoesNotExistException(bucketName, e.getCause());
+        }
+    }
+
+    private Path download(String bucketName, String objectKey, HeadObjectResponse head, GameManifest manifest) throws IOException, InterruptedException {
+        Path cachedFile = gameFileCache.get(bucketName, objectKey, head.versionId(), head.eTag());
+        if (cachedFile != null)
+            return cachedFile;
+        Path stagedFile = gameFileCache.stagingFile();
+        try {
+            if (manifest != null) {
+                chunkStore.download(bucketName, manifest, stagedFile);
+            } else {
+                rangedDownloadEngine.download(bucketName, objectKey, head, stagedFile);
+                if (PartCompressor.isCompressed(head.metadata()))
+                    PartCompressor.decode(stagedFile);
+            }
+            return gameFileCache.publish(bucketName, objectKey, head.versionId(), head.eTag(), stagedFile);
+        } finally {
+            Files.deleteIfExists(stagedFile);
+        }
+    }
+
+    @Override
+    public GameContent fetchObjectContent(String bucketName, String objectKey, String range, String ifRange)
+            throws ObjectDoesNotExistsException, BucketDoesNotExistException, RangeNotSatisfiableException {
+        try {
+            HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectKey)
+                    .checksumMode(ChecksumMode.ENABLED)
+                    .build());
+            GameManifest manifest = ChunkStore.isChunked(head.metadata()) ? chunkStore.readManifest(bucketName, objectKey, head.versionId()) : null;
+            boolean compressed = PartCompressor.isCompressed(head.metadata());
+            long objectSize = manifest != null ? manifest.size() : compressed ? PartCompressor.uncompressedSize(head.metadata()) : head.contentLength();
+            RequestedRange requestedRange = RequestedRange.resolve(range, ifRange, head.eTag(), head.lastModified(), objectSize);
+            long start = requestedRange == null ? 0 : requestedRange.start();
+            long length = requestedRange == null ? objectSize : requestedRange.length();
+
+            StreamingResponseBody remoteBody;
+            if (manifest != null)
+                remoteBody = outputStream -> chunkStore.transfer(bucketName, manifest, start, length, outputStream);
+            else if (compressed)
+                remoteBody = outputStream -> transferCompressedObject(bucketName, objectKey, head, start, length, outputStream);
+            else
+                remoteBody = outputStream -> transferObject(bucketName, objectKey, head, requestedRange, outputStream);
+            Path cachedFile = gameFileCache.get(bucketName, objectKey, head.versionId(), head.eTag());
+            if (cachedFile == null && gameFileCache.admits(bucketName, objectKey, head.versionId(), head.eTag(), objectSize))
+                cacheInBackground(bucketName, objectKey, head, manifest);
+            StreamingResponseBody body = cachedFile == null ? remoteBody : outputStream -> {
+                try {
+                    transferLocalFile(cachedFile, start, length, outputStream);
+                } catch (NoSuchFileException e) {
+                    // evicted since the lookup, nothing was written yet
+                    remoteBody.writeTo(outputStream);
+                }
+            };
+
+            return new GameContent(
+                    length,
+                    requestedRange == null ? null : requestedRange.contentRange(),
+                    head.eTag(),
+                    manifest == null ? head.contentType() : manifest.contentType(),
+                    requestedRange != null,
+                    body
+            );
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        } catch (NoSuchKeyException e) {
+            log.error("The object: {} does not exists", bucketName.concat("/" + objectKey));
+            throw new ObjectDoesNotExistsException();
+        } catch (NoSuchBucketException e) {
+            log.error("Bucket ({}) does not exist", bucketName);
+            throw new BucketDoesNotExistException(bucketName, e.getCause());
+        }
+    }
+
+    /**
+     * Downloads a game the file cache would admit on the transfer executor, so the next request for it is served
+     * from disk while this one is still streamed from S3. Misses for a game already being downloaded share that
+     * download.
+     */
+    private void cacheInBackground(String bucketName, String objectKey, HeadObjectResponse head, GameManifest manifest) {
+        downloadFlights.submit(new CachedGame(bucketName, objectKey, head.versionId(), head.eTag()), () -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return download(bucketName, objectKey, head, manifest);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, transferExecutor)).whenComplete((localPath, e) -> {
+            if (e != null)
+                log.warn("Could not cache {} with version id {}", objectKey, head.versionId(), e);
+            else if (localPath != null)
+                log.info("Cached {} with version id {} in {}", objectKey, head.versionId(), localPath);
+        });
+    }
+
+    /**
+     * Copies the range of a cached file through a heap buffer; the response stream is not a channel the kernel
+     * could send the file to directly.
+     */
+    private void transferLocalFile(Path localPath, long position, long length, OutputStream outputStream) throws IOException {
+        try (InputStream in = Files.newInputStream(localPath)) {
+            in.skipNBytes(position);
+            byte[] buffer = new byte[LOCAL_TRANSFER_BUFFER_SIZE];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0)
+                    throw new EOFException(String.format("%s ended %d bytes early", localPath, remaining));
+                outputStream.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    private void transferObject(String bucketName, String objectKey, HeadObjectResponse head, RequestedRange requestedRange,
+                                OutputStream outputStream) throws IOException {
         GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                 .bucket(bucketName)
                 .key(objectKey)
-                .versionId(versionId)
+                .versionId(head.versionId())
+                .ifMatch(head.eTag())
+                .range(requestedRange == null ? null : requestedRange.header())
+                .checksumMode(requestedRange == null ? ChecksumMode.ENABLED : null)
                 .build();
         try (ResponseInputStream<GetObjectResponse> response = s3Client.getObject(getObjectRequest)) {
-            Path localPath = Paths.get(OUTPUT_DIRECTORY + objectKey);
-            Files.createDirectories(localPath.getParent());
-            Files.copy(response, localPath, StandardCopyOption.REPLACE_EXISTING);
-            log.info("Successfully downloaded {} with version id {} in {}", objectKey, response.response().versionId(), localPath);
+            response.transferTo(outputStream);
+        }
+    }
+
+    @Override
+    public DownloadManifestPage fetchDownloadManifest(String bucketName, String objectKey, String versionId, int fromChunk, int count)
+            throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        try {
+            return downloadManifestBuilder.page(bucketName, objectKey, versionId, fromChunk, count);
         } catch (IOException e) {
             log.error(e.getMessage(), e);
-            throw new RuntimeException(e);
+            throw new UncheckedIOException(e);
         } catch (NoSuchKeyException e) {
             log.error("The object: {} does not exists", bucketName.concat("/" + objectKey));
             throw new ObjectDoesNotExistsException();
@@ -217,11 +497,46 @@ public class AWSObjectStorageClient implements ObjectStorageClient {
         }
     }
 
+    /**
+     * Streams a range of a compressed object, fetching and decoding only the parts it spans. Objects uploaded in one
+     * part are a single frame.
+     */
+    private void transferCompressedObject(String bucketName, String objectKey, HeadObjectResponse head, long start, long length,
+                                          OutputStream outputStream) throws IOException {
+        long partSize = PartCompressor.uncompressedPartSize(head.metadata());
+        boolean multipart = partSize < PartCompressor.uncompressedSize(head.metadata());
+        int partNumber = multipart ? (int) (start / partSize) + 1 : 1;
+        long skip = multipart ? start - (partNumber - 1) * partSize : start;
+        long remaining = length;
+        while (remaining > 0) {
+            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectKey)
+                    .versionId(head.versionId())
+                    .ifMatch(head.eTag())
+                    .partNumber(multipart ? partNumber : null)
+                    .checksumMode(ChecksumMode.ENABLED)
+                    .build();
+            try (ResponseInputStream<GetObjectResponse> response = s3Client.getObject(getObjectRequest);
+                 InputStream decoded = PartCompressor.decoding(response)) {
+                decoded.skipNBytes(skip);
+                long transferred = PartCompressor.transfer(decoded, outputStream, remaining);
+                if (transferred == 0)
+                    throw new IOException(String.format("Compressed object %s/%s ended %d bytes early", bucketName, objectKey, remaining));
+                remaining -= transferred;
+            }
+            skip = 0;
+            partNumber++;
+        }
+    }
+
     @Override
     public String deleteObject(String bucketName, String objectKey, String versionId) throws BucketDoesNotExistException, ObjectDoesNotExistsException {
         try {
             DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder().bucket(bucketName).key(objectKey).versionId(versionId).build();
-            return s3Client.deleteObject(deleteObjectRequest).versionId();
+            String deletedVersionId = s3Client.deleteObject(deleteObjectRequest).versionId();
+            gameMetadataStore.remove(bucketName, objectKey);
+            return deletedVersionId;
         } catch (NoSuchBucketException e) {
             log.error("Bucket ({}) does not exist", bucketName);
             throw new BucketDoesNotExistException(bucketName, e.getCause());
@@ -238,11 +553,15 @@ public class AWSObjectStorageClient implements ObjectStorageClient {
                 .key(initiateUploadRequest.gameName())
                 .contentType(initiateUploadRequest.contentType())
                 .metadata(initiateUploadRequest.metadata())
+                .checksumAlgorithm(ChecksumAlgorithm.CRC32C)
+                .checksumType(ChecksumType.FULL_OBJECT)
                 .build();
         String uploadId = s3Client.createMultipartUpload(createRequest).uploadId();
 
-        PartCalculation calculatedParts = calculateParts(initiateUploadRequest.fileSize());
-        List<PreSignedPartUrl> preSignedUrls = generatePreSignedUrls(
+        PartCalculation calculatedParts = partSizingStrategy.partsFor(bucketName, initiateUploadRequest.fileSize(), PartSizingStrategy.Hints.of(initiateUploadRequest));
+        uploadSessionRegistry.register(new UploadSession(uploadId, bucketName, initiateUploadRequest.gameName(), initiateUploadRequest.fileSize(),
+                calculatedParts.partSize(), calculatedParts.partCount(), Objects.requireNonNullElse(initiateUploadRequest.parallelism(), 0), Instant.now()));
+        List<PreSignedPartUrl> preSignedUrls = preSignedUrlGenerator.generateInitialPreSignedUrls(
                 bucketName,
                 initiateUploadRequest.gameName(),
                 uploadId,
@@ -253,36 +572,206 @@ public class AWSObjectStorageClient implements ObjectStorageClient {
 
         log.info("Initiated multipart upload for bucket: {} with uploadId: {} and {} parts",
                 initiateUploadRequest.gameName(), uploadId, calculatedParts.partCount());
-        return new InitiateUploadResponse(uploadId, initiateUploadRequest.gameName(), preSignedUrls);
+        return new InitiateUploadResponse(uploadId, initiateUploadRequest.gameName(), preSignedUrls, calculatedParts.partCount(), Crc32c.ALGORITHM);
+    }
+
+    /**
+     * Upload sessions are only held in memory, so after a restart the client has to send the file and part size
+     * it is uploading with; any other layout would presign parts that do not line up with the ones it holds.
+     */
+    @Override
+    public PreSignedPartsPage presignUploadParts(String bucketName, String objectKey, String uploadId, Long fileSize, Long partSize, int fromPart, int count) {
+        UploadSession session = uploadSessionRegistry.get(uploadId);
+        if (session == null) {
+            session = untrackedSession(bucketName, objectKey, uploadId, fileSize, partSize);
+            uploadSessionRegistry.register(session);
+        }
+        List<PreSignedPartUrl> preSignedUrls = preSignedUrlGenerator.generatePreSignedUrlsWindow(
+                bucketName, objectKey, uploadId, fromPart, count, session.partCount(), session.partSize(), session.fileSize());
+        return new PreSignedPartsPage(uploadId, session.partCount(), preSignedUrls);
+    }
+
+    /**
+     * Lists the parts S3 already holds for an upload and presigns fresh URLs for the ones that are missing. A part
+     * whose size does not match the session's layout is treated as missing, so an interrupted part is uploaded again.
+     * For an upload this instance did not start, the layout is the part size the client sends, or else the size of
+     * the first listed part; without either it cannot be known and the request is rejected.
+     */
+    @Override
+    public ResumeUploadResponse resumeUpload(String bucketName, String objectKey, String uploadId, Long fileSize, Long partSize)
+            throws UploadDoesNotExistException, BucketDoesNotExistException {
+        List<Part> listedParts = new ArrayList<>();
+        try {
+            ListPartsRequest listPartsRequest = ListPartsRequest.builder().bucket(bucketName).key(objectKey).uploadId(uploadId).build();
+            s3Client.listPartsPaginator(listPartsRequest).parts().forEach(listedParts::add);
+        } catch (NoSuchUploadException e) {
+            log.error("The upload: {} does not exist", uploadId);
+            uploadSessionRegistry.remove(uploadId);
+            throw new UploadDoesNotExistException(uploadId, e);
+        } catch (NoSuchBucketException e) {
+            log.error("Bucket ({}) does not exist", bucketName);
+            throw new BucketDoesNotExistException(bucketName, e.getCause());
+        }
+
+        UploadSession session = uploadSessionRegistry.get(uploadId);
+        if (session == null) {
+            Long firstPartSize = listedParts.stream().filter(part -> part.partNumber() == 1).findFirst().map(Part::size).orElse(null);
+            session = untrackedSession(bucketName, objectKey, uploadId, fileSize, partSize != null ? partSize : firstPartSize);
+            uploadSessionRegistry.register(session);
+        }
+
+        BitSet uploaded = new BitSet(session.partCount() + 1);
+        List<CompleteUploadRequest.CompletedPart> uploadedParts = new ArrayList<>();
+        for (Part part : listedParts) {
+            if (part.partNumber() <= session.partCount() && part.size() == session.partSize(part.partNumber())) {
+                uploaded.set(part.partNumber());
+                uploadedParts.add(new CompleteUploadRequest.CompletedPart(part.partNumber(), part.eTag()));
+            }
+        }
+        List<Integer> missingParts = new ArrayList<>(session.partCount() - uploaded.cardinality());
+        for (int partNumber = uploaded.nextClearBit(1); partNumber <= session.partCount(); partNumber = uploaded.nextClearBit(partNumber + 1))
+            missingParts.add(partNumber);
+
+        List<PreSignedPartUrl> preSignedUrls = preSignedUrlGenerator.generatePreSignedUrlsForParts(
+                bucketName, objectKey, uploadId, missingParts, session.partCount(), session.partSize(), session.fileSize());
+        log.info("Resuming upload {} of {}/{}: {} of {} parts missing", uploadId, bucketName, objectKey, missingParts.size(), session.partCount());
+        return new ResumeUploadResponse(uploadId, objectKey, session.partCount(), uploadedParts, missingParts, preSignedUrls);
+    }
+
+    private static UploadSession untrackedSession(String bucketName, String objectKey, String uploadId, Long fileSize, Long partSize) {
+        if (fileSize == null)
+            throw new IllegalArgumentException("fileSize is required for upload " + uploadId + " that was not started by this instance");
+        if (partSize == null || partSize < 1)
+            throw new IllegalArgumentException("partSize is required for upload " + uploadId + " that was not started by this instance");
+        PartCalculation calculatedParts = partSize < fileSize
+                ? new PartCalculation(partSize, (int) ((fileSize + partSize - 1) / partSize))
+                : new PartCalculation(fileSize, 1);
+        // the layout is recovered from S3, when and how the upload was started is unknown
+        return new UploadSession(uploadId, bucketName, objectKey, fileSize, calculatedParts.partSize(), calculatedParts.partCount(), 0, null);
     }
 
     @Override
-    public void completeUpload(String bucketName, CompleteUploadRequest completeUploadRequest) {
+    public void completeUpload(String bucketName, CompleteUploadRequest completeUploadRequest) throws UploadDoesNotExistException {
+        UploadSession session = uploadSessionRegistry.get(completeUploadRequest.uploadId());
+        CompleteMultipartUploadResponse response;
+        try {
+            response = s3Client.completeMultipartUpload(completeMultipartUploadRequest(bucketName, completeUploadRequest, session));
+        } catch (NoSuchUploadException e) {
+            log.error("The upload: {} does not exist", completeUploadRequest.uploadId());
+            uploadSessionRegistry.remove(completeUploadRequest.uploadId());
+            throw new UploadDoesNotExistException(completeUploadRequest.uploadId(), e);
+        }
+        gameMetadataStore.remove(bucketName, completeUploadRequest.key());
+        uploadSessionRegistry.remove(completeUploadRequest.uploadId());
+        if (session != null && session.initiatedAt() != null)
+            partSizingStrategy.recordUpload(session, Duration.between(session.initiatedAt(), Instant.now()));
+        log.info("Successfully completed multipart upload in bucket {} for key: {} with ETag: {}",
+                bucketName, completeUploadRequest.key(), response.eTag());
+    }
+
+    @Override
+    public List<String> abortStaleUploads(String bucketName, Instant initiatedBefore) throws BucketDoesNotExistException {
+        try {
+            List<String> abortedUploads = new ArrayList<>();
+            ListMultipartUploadsRequest listMultipartUploadsRequest = ListMultipartUploadsRequest.builder().bucket(bucketName).build();
+            for (MultipartUpload upload : s3Client.listMultipartUploadsPaginator(listMultipartUploadsRequest).uploads()) {
+                if (!upload.initiated().isBefore(initiatedBefore))
+                    continue;
+                try {
+                    abortMultipartUpload(bucketName, upload.key(), upload.uploadId());
+                } catch (NoSuchUploadException e) {
+                    // completed or aborted after it was listed
+                }
+                uploadSessionRegistry.remove(upload.uploadId());
+                abortedUploads.add(upload.uploadId());
+            }
+            return abortedUploads;
+        } catch (NoSuchBucketException e) {
+            log.error("Bucket ({}) does not exist", bucketName);
+            throw new BucketDoesNotExistException(bucketName, e.getCause());
+        }
+    }
+
+    @Override
+    public ChunkedUploadResponse initiateChunkedUpload(String bucketName, ChunkedUploadRequest chunkedUploadRequest) throws BucketDoesNotExistException {
+        try {
+            return chunkStore.missingChunks(bucketName, chunkedUploadRequest);
+        } catch (NoSuchBucketException e) {
+            log.error("Bucket ({}) does not exist", bucketName);
+            throw new BucketDoesNotExistException(bucketName, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public ObjectUploadResponse commitChunkedUpload(String bucketName, ChunkedUploadRequest chunkedUploadRequest) throws BucketDoesNotExistException {
+        try {
+            ObjectUploadResponse response = chunkStore.commit(bucketName, chunkedUploadRequest);
+            gameMetadataStore.remove(bucketName, chunkedUploadRequest.gameName());
+            return response;
+        } catch (NoSuchBucketException e) {
+            log.error("Bucket ({}) does not exist", bucketName);
+            throw new BucketDoesNotExistException(bucketName, e.getCause());
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Uploads tracked by a session were created for CRC32C, so every part must come with its checksum. The full
+     * object checksum is the client's when it sends one, otherwise it is combined from the part checksums, and
+     * S3 verifies it against the parts it received.
+     */
+    static CompleteMultipartUploadRequest completeMultipartUploadRequest(String bucketName, CompleteUploadRequest completeUploadRequest,
+                                                                         UploadSession session) {
         List<CompleteUploadRequest.CompletedPart> sortedParts = completeUploadRequest.parts().stream()
                 .sorted(Comparator.comparing(CompleteUploadRequest.CompletedPart::partNumber))
                 .toList();
+        if (session != null) {
+            sortedParts.stream().filter(part -> part.checksumCrc32c() == null).findFirst().ifPresent(part -> {
+                throw new IllegalArgumentException(String.format("Part %d of upload %s has no %s checksum",
+                        part.partNumber(), completeUploadRequest.uploadId(), Crc32c.ALGORITHM));
+            });
+        }
         List<software.amazon.awssdk.services.s3.model.CompletedPart> s3Parts = sortedParts.stream()
                 .map(part -> software.amazon.awssdk.services.s3.model.CompletedPart.builder()
                         .partNumber(part.partNumber())
                         .eTag(part.etag())
+                        .checksumCRC32C(part.checksumCrc32c())
                         .build())
                 .collect(Collectors.toList());
-        CompleteMultipartUploadRequest completeRequest = CompleteMultipartUploadRequest.builder()
+
+        String checksum = completeUploadRequest.checksumCrc32c();
+        if (checksum == null && session != null && sortedParts.size() == session.partCount())
+            checksum = Crc32c.combine(sortedParts.stream().map(CompleteUploadRequest.CompletedPart::checksumCrc32c).toList(),
+                    session.partSize(), session.fileSize());
+        return CompleteMultipartUploadRequest.builder()
                 .bucket(bucketName)
                 .key(completeUploadRequest.key())
                 .uploadId(completeUploadRequest.uploadId())
                 .multipartUpload(CompletedMultipartUpload.builder()
                         .parts(s3Parts)
                         .build())
+                .checksumType(checksum == null ? null : ChecksumType.FULL_OBJECT)
+                .checksumCRC32C(checksum)
                 .build();
-
-        CompleteMultipartUploadResponse response = s3Client.completeMultipartUpload(completeRequest);
-        log.info("Successfully completed multipart upload in bucket {} for key: {} with ETag: {}",
-                bucketName, completeUploadRequest.key(), response.eTag());
     }
 
     @Override
     public GameInfo fetchObjectMetadata(String bucketName, String objectKey) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        Map<String, String> storedMetadata = gameMetadataStore.get(bucketName, objectKey);
+        if (storedMetadata != null)
+            return new GameInfo(bucketName, objectKey, storedMetadata.get(GENRE), storedMetadata.get(VERSION));
+        return metadataFlights.execute(new ObjectLocation(bucketName, objectKey), () -> headGameInfo(bucketName, objectKey));
+    }
+
+    private GameInfo headGameInfo(String bucketName, String objectKey) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
         try {
             Map<String, String> metadata = performHeadObjectRequest(bucketName, objectKey);
             String genre = metadata.get(GENRE);
@@ -308,20 +797,13 @@ public class AWSObjectStorageClient implements ObjectStorageClient {
     @Override
     public GameInfo modifyObjectMetadata(String bucketName, String objectKey, Map<String, String> metadata) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
         try {
-            Map<String, String> currentMetadata = performHeadObjectRequest(bucketName, objectKey);
+            Map<String, String> currentMetadata = gameMetadataStore.get(bucketName, objectKey);
+            if (currentMetadata == null)
+                currentMetadata = performHeadObjectRequest(bucketName, objectKey);
             Map<String, String> newMetadata = new HashMap<>(currentMetadata);
             newMetadata.put(GENRE, metadata.get(GENRE));
 
-            CopyObjectRequest copyRequest = CopyObjectRequest.builder()
-                    .sourceBucket(bucketName)
-                    .sourceKey(objectKey)
-                    .destinationBucket(bucketName)
-                    .destinationKey(objectKey)
-                    .metadata(newMetadata)
-                    .metadataDirective(MetadataDirective.REPLACE)
-                    .build();
-
-            s3Client.copyObject(copyRequest);
+            gameMetadataStore.put(bucketName, objectKey, newMetadata);
 
             return new GameInfo(bucketName, objectKey, newMetadata.get(GENRE), newMetadata.get(VERSION));
         } catch (NoSuchKeyException e) {
@@ -333,35 +815,48 @@ public class AWSObjectStorageClient implements ObjectStorageClient {
         }
     }
 
-    private List<PreSignedPartUrl> generatePreSignedUrls(String bucketName, String objectKey, String uploadId,
-                                                         int partCount, long partSize, long totalFileSize) {
-        List<PreSignedPartUrl> preSignedUrls = new ArrayList<>();
-        for (int partNumber = 1; partNumber <= partCount; partNumber++) {
-            long currentPartSize = partSize;
-            if (partNumber == partCount)
-                currentPartSize = totalFileSize - (partSize * (partCount - 1));
-
-            UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
-                    .bucket(bucketName)
-                    .key(objectKey)
-                    .uploadId(uploadId)
-                    .partNumber(partNumber)
-                    .build();
-
-            UploadPartPresignRequest presignRequest = UploadPartPresignRequest.builder()
-                    .signatureDuration(Duration.ofHours(1))
-                    .uploadPartRequest(uploadPartRequest)
-                    .build();
-            PresignedUploadPartRequest presignedRequest = s3Presigner.presignUploadPart(presignRequest);
-
-            preSignedUrls.add(new PreSignedPartUrl(
-                    partNumber,
-                    presignedRequest.url().toString(),
-                    currentPartSize
-            ));
+    /**
+     * Writes the metadata held in the metadata store onto the object itself with a server-side copy, after which
+     * the object is the only copy of its metadata again.
+     */
+    @Override
+    public GameInfo persistObjectMetadata(String bucketName, String objectKey) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        Map<String, String> storedMetadata = gameMetadataStore.get(bucketName, objectKey);
+        if (storedMetadata == null)
+            return fetchObjectMetadata(bucketName, objectKey);
+        try {
+            objectCopyEngine.copy(bucketName, objectKey, null, storedMetadata);
+            gameMetadataStore.remove(bucketName, objectKey);
+            return new GameInfo(bucketName, objectKey, storedMetadata.get(GENRE), storedMetadata.get(VERSION));
+        } catch (NoSuchKeyException e) {
+            log.error("The object: {} does not exists", bucketName.concat("/" + objectKey));
+            throw new ObjectDoesNotExistsException();
+        } catch (NoSuchBucketException e) {
+            log.error("Bucket ({}) does not exist", bucketName);
+            throw new BucketDoesNotExistException(bucketName, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
         }
+    }
 
-        return preSignedUrls;
+    @Override
+    public ObjectUploadResponse restoreObjectVersion(String bucketName, String objectKey, String versionId) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        try {
+            String restoredVersionId = objectCopyEngine.copy(bucketName, objectKey, versionId, null);
+            gameMetadataStore.remove(bucketName, objectKey);
+            log.info("Restored version {} of {}/{} as version {}", versionId, bucketName, objectKey, restoredVersionId);
+            return new ObjectUploadResponse(bucketName, objectKey, restoredVersionId);
+        } catch (NoSuchKeyException e) {
+            log.error("The object: {} does not exists", bucketName.concat("/" + objectKey));
+            throw new ObjectDoesNotExistsException();
+        } catch (NoSuchBucketException e) {
+            log.error("Bucket ({}) does not exist", bucketName);
+            throw new BucketDoesNotExistException(bucketName, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
     }
 
     private void abortMultipartUpload(String bucketName, String gameName, String uploadId) {
@@ -373,7 +868,8 @@ public class AWSObjectStorageClient implements ObjectStorageClient {
         s3Client.abortMultipartUpload(abortRequest);
     }
 
-    private ObjectUploadResponse completeMultipartUpload(String bucketName, String gameName, List<CompletedPart> completedParts, String uploadId) {
+    private ObjectUploadResponse completeMultipartUpload(String bucketName, String gameName, List<CompletedPart> completedParts, String uploadId,
+                                                         String fullObjectChecksum) {
         CompletedMultipartUpload completedUpload = CompletedMultipartUpload.builder()
                 .parts(completedParts)
                 .build();
@@ -382,67 +878,43 @@ public class AWSObjectStorageClient implements ObjectStorageClient {
                 .key(gameName)
                 .uploadId(uploadId)
                 .multipartUpload(completedUpload)
+                .checksumType(fullObjectChecksum == null ? null : ChecksumType.FULL_OBJECT)
+                .checksumCRC32C(fullObjectChecksum)
                 .build();
         CompleteMultipartUploadResponse completeMultipartUploadResponse = s3Client.completeMultipartUpload(completeRequest);
+        gameMetadataStore.remove(bucketName, gameName);
 
         return new ObjectUploadResponse(bucketName, gameName, completeMultipartUploadResponse.versionId());
     }
 
-    private List<CompletedPart> uploadParts(String bucketName, String gameName, MultipartFile file, String uploadId) throws IOException {
-        List<CompletedPart> completedParts = new ArrayList<>();
-        PartCalculation calculatedParts = calculateParts(file.getSize());
+    private List<CompletedPart> uploadParts(String bucketName, String gameName, MultipartFile file, String uploadId,
+                                            PartCalculation calculatedParts, PartCompressor compressor) throws IOException, InterruptedException {
         log.info("Number of parts: {}", calculatedParts.partCount);
         log.info("Parts size: {}", calculatedParts.partSize);
-        for (int i = 0; i < calculatedParts.partCount(); i++) {
-            int partNumber = i + 1;
-            long startPos = (long) i * calculatedParts.partSize();
-            long currentPartSize = Math.min(calculatedParts.partSize(), file.getSize() - startPos);
-            byte[] partData = Arrays.copyOfRange(file.getBytes(), (int) startPos, (int) (startPos + currentPartSize));
-            UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
-                    .bucket(bucketName)
-                    .key(gameName)
-                    .uploadId(uploadId)
-                    .partNumber(partNumber)
-                    .build();
-            UploadPartResponse uploadPartResponse = s3Client.uploadPart(uploadPartRequest, RequestBody.fromBytes(partData));
-
-            log.info("Upload part ({}) successful. Etag: {}", partNumber, uploadPartResponse.eTag());
-            completedParts.add(
-                    CompletedPart.builder()
-                            .partNumber(partNumber)
-                            .eTag(uploadPartResponse.eTag())
-                            .build()
-            );
-        }
-        return completedParts;
+        return multipartUploadEngine.uploadParts(bucketName, gameName, uploadId, file, calculatedParts.partSize(), calculatedParts.partCount(), compressor);
     }
 
-    private String initiateMultipartUpload(String bucketName, String gameName, MultipartFile file) {
+    private String initiateMultipartUpload(String bucketName, String gameName, MultipartFile file, Map<String, String> metadata,
+                                           ChecksumType checksumType) {
         CreateMultipartUploadRequest createRequest = CreateMultipartUploadRequest.builder()
                 .bucket(bucketName)
                 .key(gameName)
                 .contentType(file.getContentType())
+                .metadata(metadata)
+                .checksumAlgorithm(ChecksumAlgorithm.CRC32C)
+                .checksumType(checksumType)
                 .build();
         String uploadId = s3Client.createMultipartUpload(createRequest).uploadId();
         log.info("Multipart upload created. Upload ID: {}", uploadId);
         return uploadId;
     }
 
-    private PartCalculation calculateParts(long fileSize) {
-        // Start with target part size, but ensure we don't exceed max parts
-        long partSize = Math.max(MIN_PART_SIZE, fileSize / MAX_PARTS);
-
-        // Cap at max part size for performance
-        partSize = Math.min(partSize, MAX_PART_SIZE);
-
-        // Round up to nearest MB for cleaner numbers
-        partSize = ((partSize + 1024 * 1024 - 1) / (1024 * 1024)) * 1024 * 1024;
-
-        int partCount = (int) Math.ceil((double) fileSize / partSize);
+    record ObjectLocation(String bucketName, String objectKey) {
+    }
 
-        return new PartCalculation(partSize, partCount);
+    record BucketsQuery(Integer limit, String continuationToken) {
     }
 
-    record PartCalculation(long partSize, int partCount) {
+    record CachedGame(String bucketName, String objectKey, String versionId, String eTag) {
     }
 }
@@ -0,0 +1,81 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.domains.UploadSession;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.dreamseeker.pseudo_steam.services.PartCalculation.MAX_PARTS;
+import static com.dreamseeker.pseudo_steam.services.PartCalculation.MAX_PART_SIZE;
+import static com.dreamseeker.pseudo_steam.services.PartCalculation.MIN_PART_SIZE;
+
+/**
+ * Sizes parts so that a single part takes about {@code targetPartDuration} on one of the uploader's streams.
+ * The per-stream bandwidth comes from the client's hints when it sends them, otherwise from the uploads the
+ * studio completed before, and the fixed sizing is used when neither is known.
+ * <p>
+ * Parts are never so large that the upload has fewer than {@code minPartsPerStream} parts per stream, so every
+ * stream stays busy until the end, and never so small that the upload needs more than {@value PartCalculation#MAX_PARTS}
+ * parts or parts below the S3 minimum.
+ */
+public class AdaptivePartSizingStrategy implements PartSizingStrategy {
+
+    private static final double SMOOTHING = 0.3;
+
+    private final double targetPartSeconds;
+    private final long maxPartSize;
+    private final int defaultParallelism;
+    private final int minPartsPerStream;
+    private final Map<String, Double> observedStreamBandwidth = new ConcurrentHashMap<>();
+
+    public AdaptivePartSizingStrategy(Duration targetPartDuration, long maxPartSize, int defaultParallelism, int minPartsPerStream) {
+        if (maxPartSize < MIN_PART_SIZE || maxPartSize > MAX_PART_SIZE)
+            throw new IllegalArgumentException(String.format("maxPartSize must be between %d and %d bytes", MIN_PART_SIZE, MAX_PART_SIZE));
+        this.targetPartSeconds = targetPartDuration.toNanos() / 1e9;
+        this.maxPartSize = maxPartSize;
+        this.defaultParallelism = Math.max(1, defaultParallelism);
+        this.minPartsPerStream = Math.max(1, minPartsPerStream);
+    }
+
+    @Override
+    public PartCalculation partsFor(String studioId, long fileSize, Hints hints) {
+        int parallelism = hints.parallelism() != null && hints.parallelism() > 0 ? Math.min(hints.parallelism(), MAX_PARTS) : defaultParallelism;
+
+        long lowerBound = Math.max(MIN_PART_SIZE, (fileSize + MAX_PARTS - 1) / MAX_PARTS);
+        long upperBound = Math.max(lowerBound, Math.min(maxPartSize, fileSize / ((long) parallelism * minPartsPerStream)));
+
+        double streamBandwidth = streamBandwidth(studioId, hints, parallelism);
+        long partSize = streamBandwidth > 0
+                ? (long) Math.min(streamBandwidth * targetPartSeconds, maxPartSize)
+                : FixedPartSizingStrategy.calculateParts(fileSize).partSize();
+
+        return PartCalculation.of(fileSize, Math.clamp(partSize, lowerBound, upperBound));
+    }
+
+    /**
+     * Derives how long one part took on one stream from the time between initiating and completing the upload,
+     * assuming the parts were spread evenly over the uploader's streams.
+     */
+    @Override
+    public void recordUpload(UploadSession session, Duration elapsed) {
+        if (session.partCount() < 1 || elapsed.isZero() || elapsed.isNegative())
+            return;
+        int parallelism = session.parallelism() > 0 ? session.parallelism() : defaultParallelism;
+        int partsPerStream = (session.partCount() + parallelism - 1) / parallelism;
+        double partSeconds = elapsed.toNanos() / 1e9 / partsPerStream;
+        double streamBandwidth = session.partSize() / partSeconds;
+        observedStreamBandwidth.merge(session.studioId(), streamBandwidth, (current, observed) -> current + SMOOTHING * (observed - current));
+    }
+
+    public Double observedStreamBandwidth(String studioId) {
+        return observedStreamBandwidth.get(studioId);
+    }
+
+    private double streamBandwidth(String studioId, Hints hints, int parallelism) {
+        if (hints.bandwidthBytesPerSecond() != null && hints.bandwidthBytesPerSecond() > 0)
+            return (double) hints.bandwidthBytesPerSecond() / parallelism;
+        Double observed = observedStreamBandwidth.get(studioId);
+        return observed == null ? -1 : observed;
+    }
+}
@@ -0,0 +1,88 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.caches.FrequencySketch;
+import com.dreamseeker.pseudo_steam.caches.GameInfoCache;
+import com.dreamseeker.pseudo_steam.caches.GameSearchIndex;
+import com.dreamseeker.pseudo_steam.caches.StudioDirectory;
+import com.dreamseeker.pseudo_steam.domains.BucketsPage;
+import com.dreamseeker.pseudo_steam.domains.CompleteUploadRequest;
+import com.dreamseeker.pseudo_steam.domains.GameInfo;
+import com.dreamseeker.pseudo_steam.domains.InitiateUploadRequest;
+import com.dreamseeker.pseudo_steam.domains.InitiateUploadResponse;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+@ConditionalOnProperty(name = "storage.client.mode", havingValue = "async")
+public class AsyncGamesService {
+    private final AsyncObjectStorageClient asyncObjectStorageClient;
+    private final GameInfoCache gameInfoCache;
+    private final GameSearchIndex gameSearchIndex;
+    private final StudioDirectory studioDirectory;
+    private final FrequencySketch frequencySketch;
+
+    public CompletableFuture<Void> deleteGame(String studioId, String gameName) {
+        return requireStudio(studioId).thenCompose(known -> asyncObjectStorageClient.deleteObject(studioId, gameName, null)).thenAccept(versionId -> {
+            gameInfoCache.invalidate(studioId, gameName);
+            gameSearchIndex.remove(studioId, gameName);
+        });
+    }
+
+    public CompletableFuture<InitiateUploadResponse> initiateGameUpload(String studioId, InitiateUploadRequest initiateUploadRequest) {
+        return asyncObjectStorageClient.initiateUpload(studioId, initiateUploadRequest);
+    }
+
+    public CompletableFuture<Void> completeGameUpload(String studioId, CompleteUploadRequest completeUploadRequest) {
+        return asyncObjectStorageClient.completeUpload(studioId, completeUploadRequest).thenCompose(ignored -> {
+            gameInfoCache.invalidate(studioId, completeUploadRequest.key());
+            return asyncObjectStorageClient.fetchObjectMetadata(studioId, completeUploadRequest.key())
+                    .thenAccept(gameSearchIndex::put)
+                    .exceptionally(e -> {
+                        log.warn("Completed game {} in studio {} is not visible yet, leaving it to the next index rebuild", completeUploadRequest.key(), studioId);
+                        return null;
+                    });
+        });
+    }
+
+    public CompletableFuture<GameInfo> fetchGameInfo(String studioId, String gameName) {
+        return requireStudio(studioId).thenCompose(known -> {
+            frequencySketch.increment(studioId, gameName);
+            return gameInfoCache.getAsync(studioId, gameName, () -> asyncObjectStorageClient.fetchObjectMetadata(studioId, gameName));
+        });
+    }
+
+    public CompletableFuture<GameInfo> modifyGameInfo(String studioId, String gameName, Map<String, String> metadata) {
+        return requireStudio(studioId).thenCompose(known -> asyncObjectStorageClient.modifyObjectMetadata(studioId, gameName, metadata)).thenApply(gameInfo -> {
+            gameInfoCache.put(gameInfo);
+            gameSearchIndex.put(gameInfo);
+            return gameInfo;
+        });
+    }
+
+    /**
+     * Same check as the blocking {@link GamesService}: studios the directory does not know are looked up in S3, in
+     * case they were created on another node since the last reconcile.
+     */
+    private CompletableFuture<Void> requireStudio(String studioId) {
+        if (!studioDirectory.isUnknown(studioId))
+            return CompletableFuture.completedFuture(null);
+        if (studioDirectory.isKnownMissing(studioId))
+            return CompletableFuture.failedFuture(new BucketDoesNotExistException(studioId, null));
+        return asyncObjectStorageClient.bucketExists(studioId).thenCompose(exists -> {
+            if (!exists) {
+                studioDirectory.markMissing(studioId);
+                return CompletableFuture.failedFuture(new BucketDoesNotExistException(studioId, null));
+            }
+            studioDirectory.add(new BucketsPage.Bucket(studioId, null));
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.domains.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link ObjectStorageClient}. Futures complete exceptionally with the same
+ * checked exceptions the blocking client throws, e.g. {@link com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException}.
+ */
+public interface AsyncObjectStorageClient {
+    CompletableFuture<BucketsPage.Bucket> createBucket(String bucketName);
+
+    CompletableFuture<BucketsPage> fetchBuckets(Integer limit, String continuationToken);
+
+    CompletableFuture<Boolean> bucketExists(String bucketName);
+
+    CompletableFuture<Void> deleteBucket(String bucketName);
+
+    CompletableFuture<String> deleteObject(String bucketName, String objectKey, String versionId);
+
+    CompletableFuture<InitiateUploadResponse> initiateUpload(String studioId, InitiateUploadRequest initiateUploadRequest);
+
+    CompletableFuture<Void> completeUpload(String studioId, CompleteUploadRequest completeUploadRequest);
+
+    CompletableFuture<GameInfo> fetchObjectMetadata(String bucketName, String objectKey);
+
+    CompletableFuture<GameInfo> modifyObjectMetadata(String bucketName, String objectKey, Map<String, String> metadata);
+}
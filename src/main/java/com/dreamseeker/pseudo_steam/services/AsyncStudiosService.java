@@ -0,0 +1,45 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.caches.FrequencySketch;
+import com.dreamseeker.pseudo_steam.caches.GameInfoCache;
+import com.dreamseeker.pseudo_steam.caches.GameSearchIndex;
+import com.dreamseeker.pseudo_steam.caches.StudioDirectory;
+import com.dreamseeker.pseudo_steam.domains.BucketsPage;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+@Service
+@AllArgsConstructor
+@ConditionalOnProperty(name = "storage.client.mode", havingValue = "async")
+public class AsyncStudiosService {
+    private final AsyncObjectStorageClient asyncObjectStorageClient;
+    private final GameInfoCache gameInfoCache;
+    private final StudioDirectory studioDirectory;
+    private final GameSearchIndex gameSearchIndex;
+    private final FrequencySketch frequencySketch;
+
+    public CompletableFuture<BucketsPage.Bucket> createStudio(String studioName) {
+        return asyncObjectStorageClient.createBucket(studioName).thenApply(bucket -> {
+            studioDirectory.add(bucket);
+            return bucket;
+        });
+    }
+
+    public CompletableFuture<BucketsPage> fetchStudios(Integer limit, String continuationToken) {
+        if (studioDirectory.isLoaded())
+            return CompletableFuture.completedFuture(studioDirectory.page(limit, continuationToken));
+        return asyncObjectStorageClient.fetchBuckets(limit, continuationToken);
+    }
+
+    public CompletableFuture<Void> deleteStudio(String studioId) {
+        return asyncObjectStorageClient.deleteBucket(studioId).thenRun(() -> {
+            studioDirectory.remove(studioId);
+            gameSearchIndex.removeStudio(studioId);
+            gameInfoCache.invalidateStudio(studioId);
+            frequencySketch.removeStudio(studioId);
+        });
+    }
+}
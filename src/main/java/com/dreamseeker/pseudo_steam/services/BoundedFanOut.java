@@ -0,0 +1,98 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fans one request out into many tasks on an executor, with at most {@code maxInFlight} of them submitted at a
+ * time. {@link #submit} blocks while every slot is taken, so the caller produces work no faster than it is done.
+ * The first failure stops the fan-out: later submissions are refused, tasks still queued are skipped, and
+ * {@link #await()} rethrows it once the tasks in flight have finished.
+ */
+final class BoundedFanOut {
+
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final Semaphore permits;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    BoundedFanOut(ExecutorService executor, int maxInFlight) {
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    boolean submit(Runnable task) throws InterruptedException {
+        return submit(task, null);
+    }
+
+    /**
+     * @param release runs once the task is done or skipped, before its slot is freed, to hand back what the
+     *                caller acquired for it
+     * @return {@code false}, without running the task, once a task has failed
+     */
+    boolean submit(Runnable task, Runnable release) throws InterruptedException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            if (release != null)
+                release.run();
+            throw e;
+        }
+        if (failed()) {
+            finish(release);
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    if (!failed())
+                        task.run();
+                } catch (RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    finish(release);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            finish(release);
+            throw e;
+        }
+        return true;
+    }
+
+    boolean failed() {
+        return failure.get() != null;
+    }
+
+    /**
+     * Waits for the tasks in flight without rethrowing their failure.
+     */
+    void drain() throws InterruptedException {
+        permits.acquire(maxInFlight);
+        permits.release(maxInFlight);
+    }
+
+    /**
+     * Waits for the tasks in flight and rethrows the first failure.
+     */
+    void await() throws InterruptedException {
+        drain();
+        Throwable e = failure.get();
+        if (e instanceof Error error)
+            throw error;
+        if (e != null)
+            throw (RuntimeException) e;
+    }
+
+    private void finish(Runnable release) {
+        try {
+            if (release != null)
+                release.run();
+        } finally {
+            permits.release();
+        }
+    }
+}
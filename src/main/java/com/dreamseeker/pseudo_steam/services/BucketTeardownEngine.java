@@ -0,0 +1,110 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Empties a versioned bucket as a pipeline: every page of versions and delete markers is split into
+ * batches of at most {@value #MAX_KEYS_PER_DELETE} keys as soon as it arrives, and up to
+ * {@code maxConcurrentDeletes} batches are deleted while the next page is being listed. Outstanding
+ * multipart uploads are aborted the same way. Only the batches in flight are held in memory.
+ */
+@Slf4j
+@AllArgsConstructor
+public class BucketTeardownEngine {
+
+    static final int MAX_KEYS_PER_DELETE = 1000;
+
+    private final S3Client s3Client;
+    private final ExecutorService executor;
+    private final int maxConcurrentDeletes;
+
+    public void emptyBucket(String bucketName) throws InterruptedException {
+        BoundedFanOut fanOut = new BoundedFanOut(executor, maxConcurrentDeletes);
+        AtomicLong deletedObjects = new AtomicLong();
+        AtomicLong abortedUploads = new AtomicLong();
+
+        try {
+            ListMultipartUploadsRequest listMultipartUploadsRequest = ListMultipartUploadsRequest.builder().bucket(bucketName).build();
+            for (MultipartUpload upload : s3Client.listMultipartUploadsPaginator(listMultipartUploadsRequest).uploads()) {
+                if (!fanOut.submit(() -> {
+                    abortUpload(bucketName, upload);
+                    abortedUploads.incrementAndGet();
+                }))
+                    break;
+            }
+
+            ListObjectVersionsRequest listObjectVersionsRequest = ListObjectVersionsRequest.builder().bucket(bucketName).build();
+            pages:
+            for (ListObjectVersionsResponse page : s3Client.listObjectVersionsPaginator(listObjectVersionsRequest)) {
+                log.info("Found {} previous versions and {} delete markers", page.versions().size(), page.deleteMarkers().size());
+                for (List<ObjectIdentifier> batch : batches(page)) {
+                    if (!fanOut.submit(() -> deletedObjects.addAndGet(deleteBatch(bucketName, batch))))
+                        break pages;
+                }
+            }
+        } finally {
+            fanOut.drain();
+        }
+
+        fanOut.await();
+        log.info("Deleted {} previous versions/delete markers and aborted {} uploads in bucket {}",
+                deletedObjects.get(), abortedUploads.get(), bucketName);
+    }
+
+    int maxConcurrentDeletes() {
+        return maxConcurrentDeletes;
+    }
+
+    static List<List<ObjectIdentifier>> batches(ListObjectVersionsResponse page) {
+        List<List<ObjectIdentifier>> batches = new ArrayList<>();
+        List<ObjectIdentifier> batch = new ArrayList<>(Math.min(MAX_KEYS_PER_DELETE, page.versions().size() + page.deleteMarkers().size()));
+        for (ObjectVersion objectVersion : page.versions()) {
+            batch = addToBatch(batches, batch, objectVersion.key(), objectVersion.versionId());
+        }
+        for (DeleteMarkerEntry deleteMarker : page.deleteMarkers()) {
+            batch = addToBatch(batches, batch, deleteMarker.key(), deleteMarker.versionId());
+        }
+        if (!batch.isEmpty())
+            batches.add(batch);
+        return batches;
+    }
+
+    private static List<ObjectIdentifier> addToBatch(List<List<ObjectIdentifier>> batches, List<ObjectIdentifier> batch,
+                                                     String key, String versionId) {
+        batch.add(ObjectIdentifier.builder().key(key).versionId(versionId).build());
+        if (batch.size() < MAX_KEYS_PER_DELETE)
+            return batch;
+        batches.add(batch);
+        return new ArrayList<>(MAX_KEYS_PER_DELETE);
+    }
+
+    private int deleteBatch(String bucketName, List<ObjectIdentifier> batch) {
+        DeleteObjectsRequest deleteObjectsRequest = DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder().objects(batch).quiet(true).build())
+                .build();
+        DeleteObjectsResponse response = s3Client.deleteObjects(deleteObjectsRequest);
+        if (response.hasErrors() && !response.errors().isEmpty()) {
+            S3Error error = response.errors().getFirst();
+            throw new IllegalStateException(String.format("Failed to delete %d objects in bucket %s, first error on %s: %s",
+                    response.errors().size(), bucketName, error.key(), error.message()));
+        }
+        return batch.size();
+    }
+
+    private void abortUpload(String bucketName, MultipartUpload upload) {
+        s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(upload.key())
+                .uploadId(upload.uploadId())
+                .build());
+    }
+}
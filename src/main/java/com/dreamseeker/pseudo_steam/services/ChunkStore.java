@@ -0,0 +1,345 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.caches.ChunkIndex;
+import com.dreamseeker.pseudo_steam.domains.ChunkedUploadRequest;
+import com.dreamseeker.pseudo_steam.domains.ChunkedUploadResponse;
+import com.dreamseeker.pseudo_steam.domains.GameManifest;
+import com.dreamseeker.pseudo_steam.domains.ObjectUploadResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Content addressed chunk storage inside a studio bucket. Chunks are stored once under {@value #CHUNKS_PREFIX}
+ * keyed by the hex SHA-256 of their content, and a game uploaded as chunks is a JSON {@link GameManifest} listing
+ * its chunks in order, tagged with {@value #LAYOUT}={@value #CHUNKED_LAYOUT}.
+ * <p>
+ * Presigned chunk PUTs are signed with the chunk's SHA-256, so S3 rejects a chunk whose content does not match its
+ * key, and a chunk that exists in the depot is never uploaded again. The chunks a studio holds are kept in the
+ * {@link ChunkIndex}; studios too large for it are checked with a HEAD per chunk.
+ */
+@Slf4j
+@AllArgsConstructor
+public class ChunkStore {
+
+    static final String DEPOT_PREFIX = ".depot/";
+    static final String CHUNKS_PREFIX = DEPOT_PREFIX + "chunks/";
+    static final String LAYOUT = "layout";
+    static final String CHUNKED_LAYOUT = "chunked";
+    static final long MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final String MANIFEST_CONTENT_TYPE = "application/json";
+    private static final Duration SIGNATURE_DURATION = Duration.ofHours(1);
+    static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final ChunkIndex chunkIndex;
+    private final int maxConcurrentRequests;
+    private final int maxPresignedChunks;
+    private final SingleFlight<String, Boolean> loadFlights = new SingleFlight<>();
+
+    static boolean isChunked(Map<String, String> metadata) {
+        return metadata != null && CHUNKED_LAYOUT.equals(metadata.get(LAYOUT));
+    }
+
+    /**
+     * Returns the chunks of the request the depot does not hold yet, presigned up to {@code maxPresignedChunks}
+     * at a time. Uploaders call this again after uploading a batch until nothing is missing.
+     */
+    public ChunkedUploadResponse missingChunks(String bucketName, ChunkedUploadRequest request) throws InterruptedException {
+        Map<String, Long> chunks = distinctChunks(request);
+        List<String> missing = missing(bucketName, chunks);
+
+        List<ChunkedUploadResponse.ChunkUploadUrl> preSignedUrls = missing.stream()
+                .limit(maxPresignedChunks)
+                .map(hash -> new ChunkedUploadResponse.ChunkUploadUrl(hash, chunks.get(hash), presignChunk(bucketName, hash, chunks.get(hash))))
+                .toList();
+        log.info("Chunked upload of {}/{}: {} of {} distinct chunks missing", bucketName, request.gameName(), missing.size(), chunks.size());
+        return new ChunkedUploadResponse(request.gameName(), request.chunks().size(), missing.size(), preSignedUrls);
+    }
+
+    /**
+     * Writes the manifest of the game once every chunk it lists is in the depot with the size the request
+     * declares. The manifest becomes a new version of the game object.
+     */
+    public ObjectUploadResponse commit(String bucketName, ChunkedUploadRequest request) throws InterruptedException, IOException {
+        Map<String, Long> chunks = distinctChunks(request);
+        List<String> unknown = chunkIndex.isLoaded(bucketName) || load(bucketName)
+                ? chunkIndex.unknown(bucketName, chunks.keySet())
+                : List.copyOf(chunks.keySet());
+        Map<String, Long> stored = headChunks(bucketName, unknown);
+        List<String> absent = unknown.stream().filter(hash -> !chunks.get(hash).equals(stored.get(hash))).toList();
+        if (!absent.isEmpty())
+            throw new IllegalArgumentException(String.format("%d chunks of %s have not been uploaded, first: %s",
+                    absent.size(), request.gameName(), absent.getFirst()));
+        chunkIndex.add(bucketName, unknown);
+
+        GameManifest manifest = manifest(request);
+        Map<String, String> metadata = new HashMap<>(request.metadata() == null ? Map.of() : request.metadata());
+        metadata.put(LAYOUT, CHUNKED_LAYOUT);
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(request.gameName())
+                .contentType(MANIFEST_CONTENT_TYPE)
+                .metadata(metadata)
+                .checksumAlgorithm(ChecksumAlgorithm.CRC32C)
+                .build();
+        PutObjectResponse response = s3Client.putObject(putObjectRequest, RequestBody.fromBytes(objectMapper.writeValueAsBytes(manifest)));
+        log.info("Committed {}/{} as {} chunks ({} bytes), version {}", bucketName, request.gameName(), manifest.chunks().size(),
+                manifest.size(), response.versionId());
+        return new ObjectUploadResponse(bucketName, request.gameName(), response.versionId());
+    }
+
+    public GameManifest readManifest(String bucketName, String objectKey, String versionId) throws IOException {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder().bucket(bucketName).key(objectKey).versionId(versionId).build();
+        try (ResponseInputStream<GetObjectResponse> response = s3Client.getObject(getObjectRequest)) {
+            return objectMapper.readValue(response, GameManifest.class);
+        }
+    }
+
+    /**
+     * Streams {@code length} bytes of the game starting at {@code start}, reading the chunks it spans in order.
+     */
+    public void transfer(String bucketName, GameManifest manifest, long start, long length, OutputStream outputStream) throws IOException {
+        long end = start + length;
+        for (GameManifest.Chunk chunk : manifest.chunks().subList(chunkAt(manifest, start), manifest.chunks().size())) {
+            if (chunk.offset() >= end)
+                break;
+            long from = Math.max(start, chunk.offset()) - chunk.offset();
+            long to = Math.min(end, chunk.offset() + chunk.size()) - chunk.offset();
+            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(CHUNKS_PREFIX + chunk.hash())
+                    .range(from == 0 && to == chunk.size() ? null : "bytes=" + from + "-" + (to - 1))
+                    .build();
+            try (ResponseInputStream<GetObjectResponse> response = s3Client.getObject(getObjectRequest)) {
+                response.transferTo(outputStream);
+            }
+        }
+    }
+
+    /**
+     * Assembles the game into {@code target}, fetching chunks concurrently into a preallocated file and checking the
+     * SHA-256 of every chunk as it is written.
+     */
+    public void download(String bucketName, GameManifest manifest, Path target) throws IOException, InterruptedException {
+        Path partialFile = target.resolveSibling(target.getFileName() + ".part");
+        try (FileChannel channel = FileChannel.open(partialFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (manifest.size() > 0)
+                channel.write(ByteBuffer.allocate(1), manifest.size() - 1);
+            forEachConcurrently(manifest.chunks(), chunk -> fetchChunk(bucketName, chunk, channel));
+            channel.force(false);
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(partialFile);
+            throw e.getCause();
+        } catch (RuntimeException | IOException | InterruptedException e) {
+            Files.deleteIfExists(partialFile);
+            throw e;
+        }
+        Files.move(partialFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void removeStudio(String bucketName) {
+        chunkIndex.removeStudio(bucketName);
+    }
+
+    static Map<String, Long> distinctChunks(ChunkedUploadRequest request) {
+        if (request.gameName() == null || request.gameName().isBlank() || request.gameName().contains("/"))
+            throw new IllegalArgumentException("Invalid game name: " + request.gameName());
+        if (request.chunks() == null || request.chunks().isEmpty())
+            throw new IllegalArgumentException("A chunked upload needs at least one chunk");
+        Map<String, Long> chunks = new LinkedHashMap<>();
+        for (ChunkedUploadRequest.Chunk chunk : request.chunks()) {
+            if (chunk.hash() == null || !HASH.matcher(chunk.hash()).matches())
+                throw new IllegalArgumentException("Chunk hashes must be lowercase hex SHA-256: " + chunk.hash());
+            if (chunk.size() < 1 || chunk.size() > MAX_CHUNK_SIZE)
+                throw new IllegalArgumentException(String.format("Chunk %s is %d bytes, chunks must be between 1 and %d bytes",
+                        chunk.hash(), chunk.size(), MAX_CHUNK_SIZE));
+            Long previous = chunks.putIfAbsent(chunk.hash(), chunk.size());
+            if (previous != null && previous != chunk.size())
+                throw new IllegalArgumentException("Chunk " + chunk.hash() + " is listed with different sizes");
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns the chunks not in the depot, the first {@code maxPresignedChunks} of them confirmed with a HEAD. Chunks
+     * uploaded through presigned URLs only reach the index here or on commit, so the hashes the index does not know
+     * are checked a page at a time until a full page of URLs is known to be missing; the rest are counted unchecked.
+     */
+    private List<String> missing(String bucketName, Map<String, Long> chunks) throws InterruptedException {
+        boolean indexed = chunkIndex.isLoaded(bucketName) || load(bucketName);
+        List<String> unknown = indexed ? chunkIndex.unknown(bucketName, chunks.keySet()) : List.copyOf(chunks.keySet());
+        List<String> missing = new ArrayList<>();
+        int checked = 0;
+        while (checked < unknown.size() && missing.size() < maxPresignedChunks) {
+            List<String> page = unknown.subList(checked, Math.min(unknown.size(), checked + maxPresignedChunks - missing.size()));
+            Map<String, Long> stored = headChunks(bucketName, page);
+            List<String> uploaded = new ArrayList<>();
+            for (String hash : page) {
+                if (chunks.get(hash).equals(stored.get(hash)))
+                    uploaded.add(hash);
+                else
+                    missing.add(hash);
+            }
+            chunkIndex.add(bucketName, uploaded);
+            checked += page.size();
+        }
+        missing.addAll(unknown.subList(checked, unknown.size()));
+        return missing;
+    }
+
+    /**
+     * Loads the studio's depot listing into the index, stopping as soon as it is too large to be held.
+     * Returns whether the studio is loaded.
+     */
+    private boolean load(String bucketName) {
+        if (chunkIndex.isOversized(bucketName))
+            return false;
+        return loadFlights.execute(bucketName, () -> {
+            Set<String> hashes = new HashSet<>();
+            ListObjectsV2Request listRequest = ListObjectsV2Request.builder().bucket(bucketName).prefix(CHUNKS_PREFIX).build();
+            for (S3Object object : s3Client.listObjectsV2Paginator(listRequest).contents()) {
+                hashes.add(object.key().substring(CHUNKS_PREFIX.length()));
+                if (hashes.size() > chunkIndex.maxChunks()) {
+                    log.info("Depot of {} holds more than {} chunks, checking its chunks one by one", bucketName, chunkIndex.maxChunks());
+                    chunkIndex.markOversized(bucketName);
+                    return false;
+                }
+            }
+            chunkIndex.load(bucketName, hashes);
+            return true;
+        });
+    }
+
+    private Map<String, Long> headChunks(String bucketName, List<String> hashes) throws InterruptedException {
+        Map<String, Long> stored = new ConcurrentHashMap<>();
+        forEachConcurrently(hashes, hash -> {
+            try {
+                HeadObjectRequest headRequest = HeadObjectRequest.builder().bucket(bucketName).key(CHUNKS_PREFIX + hash).build();
+                stored.put(hash, s3Client.headObject(headRequest).contentLength());
+            } catch (NoSuchKeyException e) {
+                // not uploaded yet
+            }
+        });
+        return stored;
+    }
+
+    private String presignChunk(String bucketName, String hash, long size) {
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(CHUNKS_PREFIX + hash)
+                .contentLength(size)
+                .checksumSHA256(Base64.getEncoder().encodeToString(HexFormat.of().parseHex(hash)))
+                .build();
+        PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
+                .signatureDuration(SIGNATURE_DURATION)
+                .putObjectRequest(putObjectRequest)
+                .build();
+        return s3Presigner.presignPutObject(presignRequest).url().toString();
+    }
+
+    static GameManifest manifest(ChunkedUploadRequest request) {
+        List<GameManifest.Chunk> chunks = new ArrayList<>(request.chunks().size());
+        long offset = 0;
+        for (ChunkedUploadRequest.Chunk chunk : request.chunks()) {
+            chunks.add(new GameManifest.Chunk(chunk.hash(), offset, chunk.size()));
+            offset += chunk.size();
+        }
+        return new GameManifest(request.gameName(), request.contentType(), offset, chunks);
+    }
+
+    static int chunkAt(GameManifest manifest, long position) {
+        int low = 0;
+        int high = manifest.chunks().size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (manifest.chunks().get(middle).offset() <= position)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        return low;
+    }
+
+    private void fetchChunk(String bucketName, GameManifest.Chunk chunk, FileChannel channel) {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder().bucket(bucketName).key(CHUNKS_PREFIX + chunk.hash()).build();
+        try (ResponseInputStream<GetObjectResponse> response = s3Client.getObject(getObjectRequest)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long written = writeAt(new DigestInputStream(response, digest), channel, chunk.offset());
+            String actual = HexFormat.of().formatHex(digest.digest());
+            if (written != chunk.size() || !actual.equals(chunk.hash()))
+                throw new IOException(String.format("Chunk %s is corrupt: read %d bytes hashing to %s", chunk.hash(), written, actual));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long writeAt(InputStream inputStream, FileChannel channel, long position) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long written = 0;
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+            while (byteBuffer.hasRemaining())
+                written += channel.write(byteBuffer, position + written);
+        }
+        return written;
+    }
+
+    private <T> void forEachConcurrently(List<T> items, Consumer<T> task) throws InterruptedException {
+        BoundedFanOut fanOut = new BoundedFanOut(executor, maxConcurrentRequests);
+        for (T item : items) {
+            if (!fanOut.submit(() -> task.accept(item)))
+                break;
+        }
+        fanOut.await();
+    }
+}
@@ -0,0 +1,113 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.domains.ChunkedUploadRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Splits content into chunks at positions chosen by the content itself, as FastCDC does, so an insertion or deletion
+ * only changes the chunks around it and the rest of a new build is found in the depot already. A gear rolling hash
+ * over the last 64 bytes is tested against a harder mask before {@code averageSize} and an easier one after it, which
+ * keeps chunk sizes close to the average; chunks are never smaller than {@code minSize} or larger than {@code maxSize}.
+ * <p>
+ * This is the chunking uploaders are expected to use; the gear table is fixed, so every uploader cuts the same
+ * content at the same positions.
+ */
+public class ContentDefinedChunker {
+
+    private static final long[] GEAR = new long[256];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_C0DEL);
+        for (int i = 0; i < GEAR.length; i++)
+            GEAR[i] = random.nextLong();
+    }
+
+    private final int minSize;
+    private final int averageSize;
+    private final int maxSize;
+    private final long strictMask;
+    private final long looseMask;
+
+    public ContentDefinedChunker(int minSize, int averageSize, int maxSize) {
+        if (minSize < 64 || averageSize <= minSize || maxSize <= averageSize || maxSize > ChunkStore.MAX_CHUNK_SIZE)
+            throw new IllegalArgumentException("Chunk sizes must satisfy 64 <= min < average < max <= " + ChunkStore.MAX_CHUNK_SIZE);
+        this.minSize = minSize;
+        this.averageSize = averageSize;
+        this.maxSize = maxSize;
+        int bits = 63 - Long.numberOfLeadingZeros(averageSize);
+        this.strictMask = highBits(bits + 1);
+        this.looseMask = highBits(bits - 1);
+    }
+
+    /**
+     * Returns the length of the chunk starting at {@code offset}, given {@code length} bytes of content from there.
+     * Unless the content ends within it, {@code length} must cover at least {@code maxSize} bytes.
+     */
+    public int nextChunkLength(byte[] buffer, int offset, int length) {
+        if (length <= minSize)
+            return length;
+        int end = Math.min(length, maxSize);
+        int normal = Math.min(end, averageSize);
+        long hash = 0;
+        int i = minSize - 64;
+        for (; i < minSize; i++)
+            hash = (hash << 1) + GEAR[buffer[offset + i] & 0xFF];
+        for (; i < normal; i++) {
+            hash = (hash << 1) + GEAR[buffer[offset + i] & 0xFF];
+            if ((hash & strictMask) == 0)
+                return i + 1;
+        }
+        for (; i < end; i++) {
+            hash = (hash << 1) + GEAR[buffer[offset + i] & 0xFF];
+            if ((hash & looseMask) == 0)
+                return i + 1;
+        }
+        return end;
+    }
+
+    public List<ChunkedUploadRequest.Chunk> split(InputStream inputStream) throws IOException {
+        MessageDigest digest = sha256();
+        List<ChunkedUploadRequest.Chunk> chunks = new ArrayList<>();
+        byte[] buffer = new byte[maxSize * 2];
+        int start = 0;
+        int end = 0;
+        boolean endOfStream = false;
+        while (true) {
+            if (!endOfStream && end - start < maxSize) {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                end -= start;
+                start = 0;
+                int requested = buffer.length - end;
+                int read = inputStream.readNBytes(buffer, end, requested);
+                end += read;
+                endOfStream = read < requested;
+            }
+            if (start == end)
+                return chunks;
+            int length = nextChunkLength(buffer, start, end - start);
+            digest.update(buffer, start, length);
+            chunks.add(new ChunkedUploadRequest.Chunk(HexFormat.of().formatHex(digest.digest()), length));
+            start += length;
+        }
+    }
+
+    private static long highBits(int bits) {
+        return bits <= 0 ? 0 : -1L << (64 - bits);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
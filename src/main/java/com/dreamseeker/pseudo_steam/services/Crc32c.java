@@ -0,0 +1,102 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * CRC32C helpers in the encoding S3 uses for {@code x-amz-checksum-crc32c}: the big-endian checksum, base64 encoded.
+ * <p>
+ * {@link #combine(long, long, long)} derives the checksum of two concatenated blocks from the checksums of the blocks
+ * and the length of the second one, as zlib's {@code crc32_combine} does, so the checksum of a whole object follows
+ * from the checksums of its parts or ranges without another pass over the data.
+ */
+final class Crc32c {
+
+    static final String ALGORITHM = "CRC32C";
+    private static final long POLYNOMIAL = 0x82F63B78L;
+
+    private Crc32c() {
+    }
+
+    static long of(byte[] buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer, offset, length);
+        return crc.getValue();
+    }
+
+    static String encode(long crc) {
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(4).putInt((int) crc).array());
+    }
+
+    static long decode(String checksum) {
+        return ByteBuffer.wrap(Base64.getDecoder().decode(checksum)).getInt() & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Combines the checksums of the parts of an upload, all {@code partSize} long except the last one.
+     * Returns {@code null} when a part has no checksum.
+     */
+    static String combine(List<String> partChecksums, long partSize, long objectSize) {
+        if (partChecksums.isEmpty())
+            return null;
+        long crc = 0;
+        int lastPart = partChecksums.size() - 1;
+        for (int i = 0; i <= lastPart; i++) {
+            String partChecksum = partChecksums.get(i);
+            if (partChecksum == null)
+                return null;
+            long partLength = i == lastPart ? objectSize - partSize * lastPart : partSize;
+            crc = combine(crc, decode(partChecksum), partLength);
+        }
+        return encode(crc);
+    }
+
+    static long combine(long crc1, long crc2, long length2) {
+        if (length2 <= 0)
+            return crc1;
+
+        long[] even = new long[32];
+        long[] odd = new long[32];
+        // operator for one zero bit
+        odd[0] = POLYNOMIAL;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        square(even, odd);
+        square(odd, even);
+
+        // apply length2 zero bytes to crc1, squaring the operator for every bit of length2
+        do {
+            square(even, odd);
+            if ((length2 & 1) != 0)
+                crc1 = times(even, crc1);
+            length2 >>= 1;
+            if (length2 == 0)
+                break;
+            square(odd, even);
+            if ((length2 & 1) != 0)
+                crc1 = times(odd, crc1);
+            length2 >>= 1;
+        } while (length2 != 0);
+
+        return crc1 ^ crc2;
+    }
+
+    private static long times(long[] matrix, long vector) {
+        long sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0)
+                sum ^= matrix[i];
+        }
+        return sum;
+    }
+
+    private static void square(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++)
+            square[n] = times(matrix, matrix[n]);
+    }
+}
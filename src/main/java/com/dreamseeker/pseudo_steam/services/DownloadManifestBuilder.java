@@ -0,0 +1,148 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.caches.DownloadManifestCache;
+import com.dreamseeker.pseudo_steam.domains.DownloadManifest;
+import com.dreamseeker.pseudo_steam.domains.DownloadManifestPage;
+import com.dreamseeker.pseudo_steam.domains.GameManifest;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.ChecksumType;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ObjectPart;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Builds the download manifest of a game version: the chunks a client can fetch in parallel straight from S3, with
+ * their offsets, sizes and checksums. Chunked games list their depot chunks with SHA-256 hashes, multipart objects
+ * their parts with CRC32C checksums, and other objects are split into byte ranges. Parts of a compressed game are
+ * listed at their offsets in the content, each one a frame to decode.
+ * <p>
+ * A manifest is built once per version and ETag and cached, and concurrent requests for the same version share one
+ * build; a request only pays for a HEAD and for presigning the page of chunks it asks for.
+ */
+@Slf4j
+@AllArgsConstructor
+public class DownloadManifestBuilder {
+
+    static final String SHA_256 = "SHA-256";
+    private static final Duration SIGNATURE_DURATION = Duration.ofHours(1);
+
+    private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final ChunkStore chunkStore;
+    private final DownloadManifestCache downloadManifestCache;
+    private final long rangeSize;
+    private final int maxPresignedChunks;
+    private final SingleFlight<ManifestKey, DownloadManifest> manifestFlights = new SingleFlight<>();
+
+    /**
+     * Returns the manifest of the version, the latest one when {@code versionId} is null, with presigned GETs for
+     * {@code count} chunks starting at chunk {@code fromChunk}.
+     */
+    public DownloadManifestPage page(String bucketName, String objectKey, String versionId, int fromChunk, int count) throws IOException {
+        HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder()
+                .bucket(bucketName)
+                .key(objectKey)
+                .versionId(versionId)
+                .checksumMode(ChecksumMode.ENABLED)
+                .build());
+        DownloadManifest manifest = manifest(bucketName, objectKey, head);
+
+        int from = Math.clamp(fromChunk, 0, manifest.chunks().size());
+        int to = (int) Math.min(manifest.chunks().size(), (long) from + Math.clamp(count, 0, maxPresignedChunks));
+        List<DownloadManifestPage.ChunkDownloadUrl> chunks = IntStream.range(from, to)
+                .mapToObj(index -> presignChunk(bucketName, manifest, index))
+                .toList();
+        return new DownloadManifestPage(manifest.gameName(), manifest.versionId(), manifest.size(), manifest.contentType(),
+                manifest.checksumAlgorithm(), manifest.codec(), manifest.chunks().size(), chunks);
+    }
+
+    public void removeStudio(String bucketName) {
+        downloadManifestCache.removeStudio(bucketName);
+    }
+
+    private DownloadManifest manifest(String bucketName, String objectKey, HeadObjectResponse head) throws IOException {
+        DownloadManifest cached = downloadManifestCache.get(bucketName, objectKey, head.versionId(), head.eTag());
+        if (cached != null)
+            return cached;
+        return manifestFlights.execute(new ManifestKey(bucketName, objectKey, head.versionId(), head.eTag()), () -> {
+            DownloadManifest built = build(bucketName, objectKey, head);
+            downloadManifestCache.put(bucketName, built);
+            log.info("Built download manifest of {}/{} version {}: {} chunks", bucketName, objectKey, head.versionId(), built.chunks().size());
+            return built;
+        });
+    }
+
+    private DownloadManifest build(String bucketName, String objectKey, HeadObjectResponse head) throws IOException {
+        if (ChunkStore.isChunked(head.metadata())) {
+            GameManifest gameManifest = chunkStore.readManifest(bucketName, objectKey, head.versionId());
+            List<DownloadManifest.Chunk> chunks = gameManifest.chunks().stream()
+                    .map(chunk -> new DownloadManifest.Chunk(chunk.offset(), chunk.size(), chunk.hash(), ChunkStore.CHUNKS_PREFIX + chunk.hash(), null, null))
+                    .toList();
+            return new DownloadManifest(objectKey, head.versionId(), head.eTag(), gameManifest.size(), gameManifest.contentType(), SHA_256, null, chunks);
+        }
+
+        boolean compressed = PartCompressor.isCompressed(head.metadata());
+        long size = compressed ? PartCompressor.uncompressedSize(head.metadata()) : head.contentLength();
+        String codec = compressed ? PartCompressor.DEFLATE : null;
+        List<ObjectPart> parts = ObjectParts.list(s3Client, bucketName, objectKey, head.versionId());
+        if (!parts.isEmpty() && parts.stream().mapToLong(ObjectPart::size).sum() == head.contentLength()) {
+            long uncompressedPartSize = compressed ? PartCompressor.uncompressedPartSize(head.metadata()) : 0;
+            List<DownloadManifest.Chunk> chunks = new ArrayList<>(parts.size());
+            long offset = 0;
+            for (ObjectPart part : parts) {
+                long chunkSize = compressed ? Math.min(uncompressedPartSize, size - offset) : part.size();
+                chunks.add(new DownloadManifest.Chunk(offset, chunkSize, part.checksumCRC32C(), objectKey, part.partNumber(), null));
+                offset += chunkSize;
+            }
+            return new DownloadManifest(objectKey, head.versionId(), head.eTag(), size, head.contentType(), Crc32c.ALGORITHM, codec, chunks);
+        }
+
+        String objectChecksum = head.checksumType() != ChecksumType.COMPOSITE ? head.checksumCRC32C() : null;
+        if (compressed) {
+            // a single frame can only be decoded as a whole
+            List<DownloadManifest.Chunk> chunks = List.of(new DownloadManifest.Chunk(0, size, objectChecksum, objectKey, null, null));
+            return new DownloadManifest(objectKey, head.versionId(), head.eTag(), size, head.contentType(),
+                    objectChecksum == null ? null : Crc32c.ALGORITHM, codec, chunks);
+        }
+        List<RangedDownloadEngine.ByteRange> ranges = RangedDownloadEngine.split(head.contentLength(), rangeSize);
+        String rangeChecksum = ranges.size() == 1 ? objectChecksum : null;
+        List<DownloadManifest.Chunk> chunks = ranges.stream()
+                .map(range -> new DownloadManifest.Chunk(range.start(), range.end() - range.start() + 1, rangeChecksum, objectKey, null,
+                        ranges.size() == 1 ? null : range.header()))
+                .toList();
+        return new DownloadManifest(objectKey, head.versionId(), head.eTag(), head.contentLength(), head.contentType(),
+                rangeChecksum == null ? null : Crc32c.ALGORITHM, null, chunks);
+    }
+
+    private DownloadManifestPage.ChunkDownloadUrl presignChunk(String bucketName, DownloadManifest manifest, int index) {
+        DownloadManifest.Chunk chunk = manifest.chunks().get(index);
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(chunk.objectKey())
+                .versionId(chunk.objectKey().equals(manifest.gameName()) ? manifest.versionId() : null)
+                .partNumber(chunk.partNumber())
+                .range(chunk.range())
+                .build();
+        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                .signatureDuration(SIGNATURE_DURATION)
+                .getObjectRequest(getObjectRequest)
+                .build();
+        String preSignedUrl = s3Presigner.presignGetObject(presignRequest).url().toString();
+        return new DownloadManifestPage.ChunkDownloadUrl(index, chunk.offset(), chunk.size(), chunk.checksum(), chunk.range(), preSignedUrl);
+    }
+
+    record ManifestKey(String bucketName, String objectKey, String versionId, String eTag) {
+    }
+}
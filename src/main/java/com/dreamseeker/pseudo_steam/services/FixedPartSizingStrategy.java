@@ -0,0 +1,24 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import static com.dreamseeker.pseudo_steam.services.PartCalculation.MAX_PARTS;
+import static com.dreamseeker.pseudo_steam.services.PartCalculation.MIN_PART_SIZE;
+
+public class FixedPartSizingStrategy implements PartSizingStrategy {
+
+    private static final long MAX_PART_SIZE = 100 * 1024 * 1024; // 100MB for optimal performance
+
+    @Override
+    public PartCalculation partsFor(String studioId, long fileSize, Hints hints) {
+        return calculateParts(fileSize);
+    }
+
+    static PartCalculation calculateParts(long fileSize) {
+        // Start with target part size, but ensure we don't exceed max parts
+        long partSize = Math.max(MIN_PART_SIZE, fileSize / MAX_PARTS);
+
+        // Cap at max part size for performance
+        partSize = Math.min(partSize, MAX_PART_SIZE);
+
+        return PartCalculation.of(fileSize, partSize);
+    }
+}
@@ -0,0 +1,143 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.caches.GameInfoCache;
+import com.dreamseeker.pseudo_steam.domains.GameInfo;
+import com.dreamseeker.pseudo_steam.domains.ObjectsPage;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Lists a studio's games as {@code {"games": [...], "continuationToken": ...}}. Keys are listed in pages of at
+ * most {@value #MAX_KEYS_PER_LIST} with ListObjectsV2, and every key is enriched through the game info cache
+ * with at most {@code maxConcurrentHeads} HEADs submitted at a time. Games are written in key order as soon as
+ * they are enriched, while the next page of keys is already being listed.
+ */
+@AllArgsConstructor
+public class GameCatalogLister {
+
+    static final int MAX_KEYS_PER_LIST = 1000;
+
+    private final ObjectStorageClient objectStorageClient;
+    private final GameInfoCache gameInfoCache;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final int maxConcurrentHeads;
+
+    /**
+     * Lists the first page eagerly so a missing studio fails before the response is committed.
+     */
+    public StreamingResponseBody list(String studioId, int limit, String continuationToken) throws BucketDoesNotExistException {
+        ObjectsPage firstPage = objectStorageClient.listObjects(studioId, Math.min(limit, MAX_KEYS_PER_LIST), continuationToken);
+        return outputStream -> {
+            Semaphore permits = new Semaphore(maxConcurrentHeads);
+            Deque<CompletableFuture<GameInfo>> pending = new ArrayDeque<>();
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("games");
+
+                ObjectsPage page = firstPage;
+                int remaining = limit - page.keys().size();
+                while (true) {
+                    CompletableFuture<ObjectsPage> nextPage = null;
+                    if (remaining > 0 && page.continuationToken() != null)
+                        nextPage = listAsync(studioId, Math.min(remaining, MAX_KEYS_PER_LIST), page.continuationToken());
+
+                    for (String key : page.keys()) {
+                        write(generator, pending, false);
+                        acquire(permits);
+                        pending.add(enrich(studioId, key, permits));
+                    }
+                    write(generator, pending, false);
+                    generator.flush();
+
+                    if (nextPage == null)
+                        break;
+                    page = await(nextPage);
+                    remaining -= page.keys().size();
+                }
+
+                write(generator, pending, true);
+                generator.writeEndArray();
+                generator.writeStringField("continuationToken", page.continuationToken());
+                generator.writeEndObject();
+            }
+        };
+    }
+
+    /**
+     * Writes the enriched games at the head of {@code pending} in key order, waiting for all of them when
+     * {@code all} is set and otherwise stopping at the first one still in flight.
+     */
+    private static void write(JsonGenerator generator, Deque<CompletableFuture<GameInfo>> pending, boolean all) throws IOException {
+        while (!pending.isEmpty() && (all || pending.peek().isDone())) {
+            GameInfo gameInfo = await(pending.poll());
+            if (gameInfo != null)
+                generator.writeObject(gameInfo);
+        }
+    }
+
+    /**
+     * The permit is taken before the HEAD is submitted, so the executor never holds more than
+     * {@code maxConcurrentHeads} of them and the listing of the next page is not queued behind the rest.
+     */
+    private CompletableFuture<GameInfo> enrich(String studioId, String key, Semaphore permits) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return gameInfoCache.get(studioId, key, () -> objectStorageClient.fetchObjectMetadata(studioId, key));
+                } catch (ObjectDoesNotExistsException e) {
+                    // deleted after it was listed
+                    return null;
+                } catch (BucketDoesNotExistException e) {
+                    throw new CompletionException(e);
+                } finally {
+                    permits.release();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private static void acquire(Semaphore permits) throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while listing games");
+        }
+    }
+
+    private CompletableFuture<ObjectsPage> listAsync(String studioId, int limit, String continuationToken) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return objectStorageClient.listObjects(studioId, limit, continuationToken);
+            } catch (BucketDoesNotExistException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw new IOException("Failed to list games", e.getCause());
+        }
+    }
+}
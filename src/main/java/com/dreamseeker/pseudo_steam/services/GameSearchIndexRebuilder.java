@@ -0,0 +1,88 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.caches.GameInfoCache;
+import com.dreamseeker.pseudo_steam.caches.GameSearchIndex;
+import com.dreamseeker.pseudo_steam.domains.BucketsPage;
+import com.dreamseeker.pseudo_steam.domains.ObjectsPage;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rebuilds the game search index from a full listing of every studio. Games are enriched through the game
+ * info cache with at most {@code maxConcurrentHeads} HEADs in flight.
+ */
+@Slf4j
+@AllArgsConstructor
+public class GameSearchIndexRebuilder {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final ObjectStorageClient objectStorageClient;
+    private final GameInfoCache gameInfoCache;
+    private final GameSearchIndex gameSearchIndex;
+    private final ExecutorService executor;
+    private final int maxConcurrentHeads;
+
+    @Scheduled(initialDelayString = "${search.index.initial-delay:0s}", fixedDelayString = "${search.index.rebuild-interval:30m}")
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        GameSearchIndex.Rebuild rebuild = gameSearchIndex.beginRebuild();
+        BoundedFanOut fanOut = new BoundedFanOut(executor, maxConcurrentHeads);
+        AtomicInteger indexed = new AtomicInteger();
+        try {
+            String bucketsToken = null;
+            do {
+                BucketsPage buckets = objectStorageClient.fetchBuckets(PAGE_SIZE, bucketsToken);
+                for (BucketsPage.Bucket bucket : buckets.buckets())
+                    indexStudio(bucket.bucketName(), rebuild, fanOut, indexed);
+                bucketsToken = buckets.continuationToken();
+            } while (bucketsToken != null && !fanOut.failed());
+
+            fanOut.await();
+        } catch (RuntimeException e) {
+            gameSearchIndex.abortRebuild();
+            log.warn("Failed to rebuild the game search index, keeping the current one", e);
+            return;
+        } catch (InterruptedException e) {
+            gameSearchIndex.abortRebuild();
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        gameSearchIndex.completeRebuild(rebuild);
+        log.info("Rebuilt the game search index with {} games in {} ms", indexed.get(), System.currentTimeMillis() - startedAt);
+    }
+
+    private void indexStudio(String studioId, GameSearchIndex.Rebuild rebuild, BoundedFanOut fanOut, AtomicInteger indexed)
+            throws InterruptedException {
+        String continuationToken = null;
+        do {
+            ObjectsPage page;
+            try {
+                page = objectStorageClient.listObjects(studioId, PAGE_SIZE, continuationToken);
+            } catch (BucketDoesNotExistException e) {
+                // deleted after it was listed
+                return;
+            }
+            for (String key : page.keys()) {
+                boolean submitted = fanOut.submit(() -> {
+                    try {
+                        rebuild.add(gameInfoCache.get(studioId, key, () -> objectStorageClient.fetchObjectMetadata(studioId, key)));
+                        indexed.incrementAndGet();
+                    } catch (ObjectDoesNotExistsException | BucketDoesNotExistException e) {
+                        // deleted after it was listed
+                    }
+                });
+                if (!submitted)
+                    return;
+            }
+            continuationToken = page.continuationToken();
+        } while (continuationToken != null);
+    }
+}
@@ -1,38 +1,161 @@
 package com.dreamseeker.pseudo_steam.services;
 
+import com.dreamseeker.pseudo_steam.caches.FrequencySketch;
+import com.dreamseeker.pseudo_steam.caches.GameInfoCache;
+import com.dreamseeker.pseudo_steam.caches.GameSearchIndex;
+import com.dreamseeker.pseudo_steam.caches.StudioDirectory;
+import com.dreamseeker.pseudo_steam.domains.BucketsPage;
+import com.dreamseeker.pseudo_steam.domains.ChunkedUploadRequest;
+import com.dreamseeker.pseudo_steam.domains.ChunkedUploadResponse;
 import com.dreamseeker.pseudo_steam.domains.CompleteUploadRequest;
+import com.dreamseeker.pseudo_steam.domains.DownloadManifestPage;
+import com.dreamseeker.pseudo_steam.domains.GameContent;
 import com.dreamseeker.pseudo_steam.domains.GameInfo;
 import com.dreamseeker.pseudo_steam.domains.InitiateUploadRequest;
 import com.dreamseeker.pseudo_steam.domains.InitiateUploadResponse;
+import com.dreamseeker.pseudo_steam.domains.ObjectUploadResponse;
+import com.dreamseeker.pseudo_steam.domains.PreSignedPartsPage;
+import com.dreamseeker.pseudo_steam.domains.ResumeUploadResponse;
 import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
 import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import com.dreamseeker.pseudo_steam.exceptions.RangeNotSatisfiableException;
+import com.dreamseeker.pseudo_steam.exceptions.UploadDoesNotExistException;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Map;
 
+@Slf4j
 @Service
 @AllArgsConstructor
 public class GamesService {
     private final ObjectStorageClient objectStorageClient;
+    private final GameInfoCache gameInfoCache;
+    private final StudioDirectory studioDirectory;
+    private final GameCatalogLister gameCatalogLister;
+    private final GameSearchIndex gameSearchIndex;
+    private final FrequencySketch frequencySketch;
 
     public void deleteGame(String studioId, String gameName) throws BucketDoesNotExistException, ObjectDoesNotExistsException {
+        requireStudio(studioId);
         objectStorageClient.deleteObject(studioId, gameName, null);
+        gameInfoCache.invalidate(studioId, gameName);
+        gameSearchIndex.remove(studioId, gameName);
     }
 
     public InitiateUploadResponse initiateGameUpload(String studioId, InitiateUploadRequest initiateUploadRequest) {
         return objectStorageClient.initiateUpload(studioId, initiateUploadRequest);
     }
 
-    public void completeGameUpload(String studioId, CompleteUploadRequest completeUploadRequest) {
+    public PreSignedPartsPage presignGameUploadParts(String studioId, String gameName, String uploadId, Long fileSize, Long partSize, int fromPart, int count)
+            throws UploadDoesNotExistException {
+        return objectStorageClient.presignUploadParts(studioId, gameName, uploadId, fileSize, partSize, fromPart, count);
+    }
+
+    public ResumeUploadResponse resumeGameUpload(String studioId, String gameName, String uploadId, Long fileSize, Long partSize)
+            throws UploadDoesNotExistException, BucketDoesNotExistException {
+        requireStudio(studioId);
+        return objectStorageClient.resumeUpload(studioId, gameName, uploadId, fileSize, partSize);
+    }
+
+    public void completeGameUpload(String studioId, CompleteUploadRequest completeUploadRequest) throws UploadDoesNotExistException {
         objectStorageClient.completeUpload(studioId, completeUploadRequest);
+        try {
+            reindexGame(studioId, completeUploadRequest.key());
+        } catch (ObjectDoesNotExistsException | BucketDoesNotExistException e) {
+            log.warn("Completed game {} in studio {} is not visible yet, leaving it to the next index rebuild", completeUploadRequest.key(), studioId);
+        }
+    }
+
+    public ChunkedUploadResponse initiateChunkedGameUpload(String studioId, ChunkedUploadRequest chunkedUploadRequest) throws BucketDoesNotExistException {
+        requireStudio(studioId);
+        return objectStorageClient.initiateChunkedUpload(studioId, chunkedUploadRequest);
+    }
+
+    public ObjectUploadResponse commitChunkedGameUpload(String studioId, ChunkedUploadRequest chunkedUploadRequest) throws BucketDoesNotExistException {
+        requireStudio(studioId);
+        ObjectUploadResponse committed = objectStorageClient.commitChunkedUpload(studioId, chunkedUploadRequest);
+        try {
+            reindexGame(studioId, chunkedUploadRequest.gameName());
+        } catch (ObjectDoesNotExistsException e) {
+            log.warn("Committed game {} in studio {} is not visible yet, leaving it to the next index rebuild", chunkedUploadRequest.gameName(), studioId);
+        }
+        return committed;
+    }
+
+    public StreamingResponseBody fetchGames(String studioId, int limit, String continuationToken) throws BucketDoesNotExistException {
+        requireStudio(studioId);
+        return gameCatalogLister.list(studioId, limit, continuationToken);
     }
 
     public GameInfo fetchGameInfo(String studioId, String gameName) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
-        return objectStorageClient.fetchObjectMetadata(studioId, gameName);
+        requireStudio(studioId);
+        frequencySketch.increment(studioId, gameName);
+        return gameInfoCache.get(studioId, gameName, () -> objectStorageClient.fetchObjectMetadata(studioId, gameName));
+    }
+
+    public GameContent fetchGameContent(String studioId, String gameName, String range, String ifRange) throws ObjectDoesNotExistsException, BucketDoesNotExistException, RangeNotSatisfiableException {
+        requireStudio(studioId);
+        frequencySketch.increment(studioId, gameName);
+        return objectStorageClient.fetchObjectContent(studioId, gameName, range, ifRange);
+    }
+
+    public DownloadManifestPage fetchGameManifest(String studioId, String gameName, String versionId, int fromChunk, int count)
+            throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        requireStudio(studioId);
+        frequencySketch.increment(studioId, gameName);
+        return objectStorageClient.fetchDownloadManifest(studioId, gameName, versionId, fromChunk, count);
     }
 
     public GameInfo modifyGameInfo(String studioId, String gameName, Map<String, String> metadata) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
-        return objectStorageClient.modifyObjectMetadata(studioId, gameName, metadata);
+        requireStudio(studioId);
+        GameInfo gameInfo = objectStorageClient.modifyObjectMetadata(studioId, gameName, metadata);
+        gameInfoCache.put(gameInfo);
+        gameSearchIndex.put(gameInfo);
+        return gameInfo;
+    }
+
+    public GameInfo persistGameInfo(String studioId, String gameName) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        requireStudio(studioId);
+        GameInfo gameInfo = objectStorageClient.persistObjectMetadata(studioId, gameName);
+        gameInfoCache.put(gameInfo);
+        return gameInfo;
+    }
+
+    public ObjectUploadResponse restoreGameVersion(String studioId, String gameName, String versionId) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        requireStudio(studioId);
+        ObjectUploadResponse restored = objectStorageClient.restoreObjectVersion(studioId, gameName, versionId);
+        reindexGame(studioId, gameName);
+        return restored;
+    }
+
+    /**
+     * Re-reads a game after a write and refreshes both the cache and the search index. Unlike {@link #fetchGameInfo}
+     * this is not a read of the game, so it does not feed the frequency sketch.
+     */
+    private void reindexGame(String studioId, String gameName) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        gameInfoCache.invalidate(studioId, gameName);
+        GameInfo gameInfo = objectStorageClient.fetchObjectMetadata(studioId, gameName);
+        gameInfoCache.put(gameInfo);
+        gameSearchIndex.put(gameInfo);
+    }
+
+    /**
+     * Rejects games of studios the directory does not know, unless the studio was created on another node since
+     * the last reconcile, in which case it is added to the directory. Studios a lookup just found missing are
+     * rejected without another one.
+     */
+    private void requireStudio(String studioId) throws BucketDoesNotExistException {
+        if (!studioDirectory.isUnknown(studioId))
+            return;
+        if (studioDirectory.isKnownMissing(studioId))
+            throw new BucketDoesNotExistException(studioId, null);
+        if (!objectStorageClient.bucketExists(studioId)) {
+            studioDirectory.markMissing(studioId);
+            throw new BucketDoesNotExistException(studioId, null);
+        }
+        studioDirectory.add(new BucketsPage.Bucket(studioId, null));
     }
 }
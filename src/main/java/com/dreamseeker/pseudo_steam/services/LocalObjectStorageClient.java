@@ -0,0 +1,882 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.domains.*;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.exceptions.BucketNameExistsException;
+import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import com.dreamseeker.pseudo_steam.exceptions.RangeNotSatisfiableException;
+import com.dreamseeker.pseudo_steam.exceptions.UploadDoesNotExistException;
+import com.dreamseeker.pseudo_steam.stores.GameVersionIndex;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+
+import static com.dreamseeker.pseudo_steam.services.AWSObjectStorageClient.GENRE;
+import static com.dreamseeker.pseudo_steam.services.AWSObjectStorageClient.VERSION;
+
+/**
+ * Object storage on a local filesystem, for running as an on-prem mirror without S3. A studio is a directory under
+ * {@code root} and a game a directory of immutable version files named by version id, described by a
+ * {@link GameVersionIndex} sidecar that also records delete markers and metadata. Every write is staged in the
+ * studio and moved into place, so readers never see a partial version.
+ * <p>
+ * Multipart uploads keep each part in a directory of its part number under {@value #UPLOADS_DIRECTORY}, in a file
+ * named by its CRC32C, so uploading a part again only touches that directory. Completing an upload concatenates the
+ * parts with {@link FileChannel#transferTo} without copying them through the heap; the CRC32C of the game is
+ * combined from the part checksums. Presigned URLs point at this service, signed by {@link LocalUrlSigner}.
+ * Downloads are copied to the response through a heap buffer, since a servlet output stream is not a channel
+ * {@link FileChannel#transferTo} could send the file to directly.
+ */
+@Slf4j
+@AllArgsConstructor
+public class LocalObjectStorageClient implements ObjectStorageClient {
+
+    static final String GAMES_DIRECTORY = "games";
+    static final String UPLOADS_DIRECTORY = ".uploads";
+    static final String CHUNKS_DIRECTORY = ".depot/chunks";
+    private static final String STAGING_DIRECTORY = ".staging";
+    private static final String VERSION_INDEX = "index";
+    private static final String UPLOAD_DESCRIPTOR = "upload";
+    private static final String STUDIO_PREFIX = "dev.";
+    private static final int UPLOAD_MAGIC = 0x4c555031;
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final LocalUrlSigner urlSigner;
+    private final GameVersionIndex versionIndex;
+    private final PartSizingStrategy partSizingStrategy;
+    private final long rangeSize;
+    private final int initialParts;
+    private final int maxPresignedParts;
+    private final int maxPresignedChunks;
+
+    @Override
+    public BucketsPage.Bucket createBucket(String bucketName) throws BucketNameExistsException {
+        String newBucketName = String.format("%s%s-%s", STUDIO_PREFIX, bucketName, UUID.randomUUID());
+        try {
+            Files.createDirectories(root);
+            Files.createDirectory(studioPath(newBucketName));
+            return new BucketsPage.Bucket(newBucketName, Instant.now());
+        } catch (FileAlreadyExistsException e) {
+            log.error("Bucket ({}) already exists", bucketName, e);
+            throw new BucketNameExistsException(bucketName, e);
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public BucketsPage fetchBuckets(Integer limit, String continuationToken) {
+        try (Stream<Path> studios = Files.list(root)) {
+            List<String> names = studios.filter(Files::isDirectory)
+                    .map(studio -> studio.getFileName().toString())
+                    .filter(name -> name.startsWith(STUDIO_PREFIX))
+                    .filter(name -> continuationToken == null || name.compareTo(continuationToken) > 0)
+                    .sorted()
+                    .toList();
+            List<String> page = names.subList(0, Math.min(names.size(), limit == null ? Integer.MAX_VALUE : limit));
+            List<BucketsPage.Bucket> buckets = new ArrayList<>(page.size());
+            for (String name : page)
+                buckets.add(new BucketsPage.Bucket(name, Files.readAttributes(root.resolve(name), BasicFileAttributes.class).creationTime().toInstant()));
+            return new BucketsPage(!page.isEmpty() && page.size() < names.size() ? page.getLast() : null, buckets);
+        } catch (NoSuchFileException e) {
+            return new BucketsPage(null, List.of());
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean bucketExists(String bucketName) {
+        try {
+            return Files.isDirectory(studioPath(bucketName));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void deleteBucket(String bucketName) throws BucketDoesNotExistException {
+        Path studio = existingStudio(bucketName);
+        try {
+            deleteTree(studio);
+            versionIndex.forget(studio);
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public ObjectUploadResponse putObjectSinglePartUpload(String bucketName, String objectKey, MultipartFile file) throws BucketDoesNotExistException {
+        Path studio = existingStudio(bucketName);
+        try (InputStream inputStream = file.getInputStream()) {
+            Staged staged = stage(studio, inputStream);
+            return publish(studio, bucketName, objectKey, staged, file.getContentType(), Map.of());
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A file uploaded through this service is already on the disk it is stored on, so it is written once as a
+     * whole rather than staged as parts.
+     */
+    @Override
+    public ObjectUploadResponse putObjectMultiPartUpload(String bucketName, String objectKey, MultipartFile file) {
+        try {
+            return putObjectSinglePartUpload(bucketName, objectKey, file);
+        } catch (BucketDoesNotExistException | UncheckedIOException e) {
+            throw new RuntimeException("Multipart upload failed", e);
+        }
+    }
+
+    @Override
+    public ObjectUploadResponse putObjectStreamingUpload(String bucketName, String objectKey, MultipartFile file) {
+        try {
+            return putObjectSinglePartUpload(bucketName, objectKey, file);
+        } catch (BucketDoesNotExistException | UncheckedIOException e) {
+            throw new RuntimeException("Streaming upload failed", e);
+        }
+    }
+
+    @Override
+    public ObjectsPage listObjects(String bucketName, Integer limit, String continuationToken) throws BucketDoesNotExistException {
+        Path games = existingStudio(bucketName).resolve(GAMES_DIRECTORY);
+        try (Stream<Path> gameDirectories = Files.list(games)) {
+            List<String> names = new ArrayList<>();
+            for (Path gameDirectory : gameDirectories.toList()) {
+                String gameName = URLDecoder.decode(gameDirectory.getFileName().toString(), StandardCharsets.UTF_8);
+                if ((continuationToken == null || gameName.compareTo(continuationToken) > 0) && latest(gameDirectory) != null)
+                    names.add(gameName);
+            }
+            Collections.sort(names);
+            List<String> page = names.subList(0, Math.min(names.size(), limit == null ? Integer.MAX_VALUE : limit));
+            return new ObjectsPage(!page.isEmpty() && page.size() < names.size() ? page.getLast() : null, List.copyOf(page));
+        } catch (NoSuchFileException e) {
+            return new ObjectsPage(null, List.of());
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Games are already on local disk, so this only checks that the version exists.
+     */
+    @Override
+    public void getObject(String bucketName, String objectKey, String versionId) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        Path gameDirectory = gameDirectory(existingStudio(bucketName), objectKey);
+        GameVersionIndex.Version version = version(bucketName, objectKey, gameDirectory, versionId);
+        log.info("{} with version id {} is stored in {}", objectKey, version.versionId(), gameDirectory.resolve(version.versionId()));
+    }
+
+    @Override
+    public GameContent fetchObjectContent(String bucketName, String objectKey, String range, String ifRange)
+            throws ObjectDoesNotExistsException, BucketDoesNotExistException, RangeNotSatisfiableException {
+        return fetchObjectContent(bucketName, objectKey, null, range, ifRange);
+    }
+
+    /**
+     * Returns the content of a version of the game, the latest one when {@code versionId} is null.
+     */
+    public GameContent fetchObjectContent(String bucketName, String objectKey, String versionId, String range, String ifRange)
+            throws ObjectDoesNotExistsException, BucketDoesNotExistException, RangeNotSatisfiableException {
+        Path gameDirectory = gameDirectory(existingStudio(bucketName), objectKey);
+        GameVersionIndex.Version version = version(bucketName, objectKey, gameDirectory, versionId);
+        RequestedRange requestedRange = RequestedRange.resolve(range, ifRange, version.eTag(), version.lastModified(), version.size());
+        long start = requestedRange == null ? 0 : requestedRange.start();
+        long length = requestedRange == null ? version.size() : requestedRange.length();
+        Path file = gameDirectory.resolve(version.versionId());
+        return new GameContent(
+                length,
+                requestedRange == null ? null : requestedRange.contentRange(),
+                version.eTag(),
+                version.contentType(),
+                requestedRange != null,
+                outputStream -> transfer(file, start, length, outputStream)
+        );
+    }
+
+    @Override
+    public DownloadManifestPage fetchDownloadManifest(String bucketName, String objectKey, String versionId, int fromChunk, int count)
+            throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        Path gameDirectory = gameDirectory(existingStudio(bucketName), objectKey);
+        GameVersionIndex.Version version = version(bucketName, objectKey, gameDirectory, versionId);
+        List<RangedDownloadEngine.ByteRange> ranges = RangedDownloadEngine.split(version.size(), rangeSize);
+        String checksum = ranges.size() == 1 ? version.checksumCrc32c() : null;
+        String url = urlSigner.presign("GET", gameResource(bucketName, objectKey), version.versionId());
+
+        int from = Math.clamp(fromChunk, 0, ranges.size());
+        int to = (int) Math.min(ranges.size(), (long) from + Math.clamp(count, 0, maxPresignedChunks));
+        List<DownloadManifestPage.ChunkDownloadUrl> chunks = IntStream.range(from, to)
+                .mapToObj(index -> {
+                    RangedDownloadEngine.ByteRange range = ranges.get(index);
+                    return new DownloadManifestPage.ChunkDownloadUrl(index, range.start(), range.end() - range.start() + 1, checksum,
+                            ranges.size() == 1 ? null : range.header(), url);
+                })
+                .toList();
+        return new DownloadManifestPage(objectKey, version.versionId(), version.size(), version.contentType(),
+                checksum == null ? null : Crc32c.ALGORITHM, null, ranges.size(), chunks);
+    }
+
+    /**
+     * Without a version id the game gets a delete marker as its latest version, as in a versioned bucket;
+     * with one that version is removed for good.
+     */
+    @Override
+    public String deleteObject(String bucketName, String objectKey, String versionId) throws BucketDoesNotExistException, ObjectDoesNotExistsException {
+        Path gameDirectory = gameDirectory(existingStudio(bucketName), objectKey);
+        Path sidecar = gameDirectory.resolve(VERSION_INDEX);
+        try {
+            if (versionId == null) {
+                if (versionIndex.versions(sidecar).isEmpty())
+                    throw objectDoesNotExist(bucketName, objectKey);
+                String markerId = UUID.randomUUID().toString();
+                versionIndex.update(sidecar, versions -> append(versions,
+                        new GameVersionIndex.Version(markerId, true, 0, Instant.now(), null, null, Map.of())));
+                return markerId;
+            }
+            if (versionIndex.versions(sidecar).stream().noneMatch(version -> version.versionId().equals(versionId)))
+                throw objectDoesNotExist(bucketName, objectKey);
+            List<GameVersionIndex.Version> remaining = versionIndex.update(sidecar, versions -> versions.stream()
+                    .filter(version -> !version.versionId().equals(versionId))
+                    .toList());
+            Files.deleteIfExists(gameDirectory.resolve(versionId));
+            if (remaining.isEmpty())
+                deleteTree(gameDirectory);
+            return versionId;
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public InitiateUploadResponse initiateUpload(String bucketName, InitiateUploadRequest initiateUploadRequest) {
+        Path studio = studio(bucketName);
+        gameDirectory(studio, initiateUploadRequest.gameName());
+        PartCalculation calculatedParts = partSizingStrategy.partsFor(bucketName, initiateUploadRequest.fileSize(), PartSizingStrategy.Hints.of(initiateUploadRequest));
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), bucketName, initiateUploadRequest.gameName(),
+                initiateUploadRequest.fileSize(), calculatedParts.partSize(), calculatedParts.partCount(),
+                Objects.requireNonNullElse(initiateUploadRequest.parallelism(), 0), Instant.now());
+        try {
+            Path uploadDirectory = studio.resolve(UPLOADS_DIRECTORY).resolve(session.uploadId());
+            Files.createDirectories(uploadDirectory);
+            writeUpload(uploadDirectory, new Upload(session, initiateUploadRequest.contentType(),
+                    initiateUploadRequest.metadata() == null ? Map.of() : initiateUploadRequest.metadata()));
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+        int count = initialParts > 0 ? Math.min(initialParts, session.partCount()) : session.partCount();
+        List<PreSignedPartUrl> preSignedUrls = presignParts(session, IntStream.rangeClosed(1, count).boxed().toList());
+        log.info("Initiated local multipart upload for {}/{} with uploadId: {} and {} parts",
+                bucketName, session.gameName(), session.uploadId(), session.partCount());
+        return new InitiateUploadResponse(session.uploadId(), session.gameName(), preSignedUrls, session.partCount(), Crc32c.ALGORITHM);
+    }
+
+    @Override
+    public PreSignedPartsPage presignUploadParts(String bucketName, String objectKey, String uploadId, Long fileSize, Long partSize, int fromPart, int count)
+            throws UploadDoesNotExistException {
+        UploadSession session = requireUpload(bucketName, uploadId).session();
+        if (fromPart < 1 || fromPart > session.partCount() || count < 1)
+            throw new IllegalArgumentException(String.format("Parts %d..%d are outside of 1..%d", fromPart, fromPart + count - 1, session.partCount()));
+        int lastPart = (int) Math.min(session.partCount(), (long) fromPart + Math.min(count, maxPresignedParts) - 1);
+        return new PreSignedPartsPage(uploadId, session.partCount(), presignParts(session, IntStream.rangeClosed(fromPart, lastPart).boxed().toList()));
+    }
+
+    /**
+     * Lists the parts staged for an upload and presigns the missing ones. A part is only staged once it has the
+     * size the upload's layout expects, so every staged part counts as uploaded.
+     */
+    @Override
+    public ResumeUploadResponse resumeUpload(String bucketName, String objectKey, String uploadId, Long fileSize, Long partSize)
+            throws UploadDoesNotExistException, BucketDoesNotExistException {
+        Path uploadDirectory = existingStudio(bucketName).resolve(UPLOADS_DIRECTORY).resolve(uploadSegment(uploadId));
+        try {
+            Upload upload = readUpload(uploadDirectory);
+            if (upload == null)
+                throw new UploadDoesNotExistException(uploadId, null);
+            UploadSession session = upload.session();
+            Map<Integer, StagedPart> stagedParts = stagedParts(uploadDirectory, session);
+            List<CompleteUploadRequest.CompletedPart> uploadedParts = stagedParts.values().stream()
+                    .sorted(Comparator.comparingInt(StagedPart::partNumber))
+                    .map(part -> new CompleteUploadRequest.CompletedPart(part.partNumber(), part.eTag(), part.checksumCrc32c()))
+                    .toList();
+            List<Integer> missingParts = IntStream.rangeClosed(1, session.partCount())
+                    .filter(partNumber -> !stagedParts.containsKey(partNumber))
+                    .boxed()
+                    .toList();
+            List<PreSignedPartUrl> preSignedUrls = presignParts(session, missingParts.subList(0, Math.min(missingParts.size(), maxPresignedParts)));
+            log.info("Resuming upload {} of {}/{}: {} of {} parts missing", uploadId, bucketName, objectKey, missingParts.size(), session.partCount());
+            return new ResumeUploadResponse(uploadId, session.gameName(), session.partCount(), uploadedParts, missingParts, preSignedUrls);
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stages a part sent to a presigned part URL, and returns its ETag. The part must have the size the upload's
+     * layout expects and, when the client sends one, the CRC32C it declares.
+     */
+    public String uploadPart(String bucketName, String uploadId, int partNumber, InputStream content, String checksumCrc32c)
+            throws UploadDoesNotExistException, BucketDoesNotExistException {
+        Path studio = existingStudio(bucketName);
+        Path uploadDirectory = studio.resolve(UPLOADS_DIRECTORY).resolve(uploadSegment(uploadId));
+        try {
+            Upload upload = readUpload(uploadDirectory);
+            if (upload == null)
+                throw new UploadDoesNotExistException(uploadId, null);
+            UploadSession session = upload.session();
+            if (partNumber < 1 || partNumber > session.partCount())
+                throw new IllegalArgumentException(String.format("Part %d is outside of 1..%d", partNumber, session.partCount()));
+            Staged staged = stage(studio, content);
+            try {
+                if (staged.size() != session.partSize(partNumber))
+                    throw new IllegalArgumentException(String.format("Part %d of upload %s is %d bytes, expected %d",
+                            partNumber, uploadId, staged.size(), session.partSize(partNumber)));
+                if (checksumCrc32c != null && !checksumCrc32c.equals(Crc32c.encode(staged.crc32c())))
+                    throw new IllegalArgumentException(String.format("Part %d of upload %s does not match its %s checksum",
+                            partNumber, uploadId, Crc32c.ALGORITHM));
+                Path partDirectory = uploadDirectory.resolve(Integer.toString(partNumber));
+                try {
+                    Files.createDirectory(partDirectory);
+                } catch (FileAlreadyExistsException e) {
+                    // uploaded before, the earlier file is replaced below
+                }
+                String partFileName = HexFormat.of().toHexDigits(staged.crc32c().intValue());
+                Files.move(staged.file(), partDirectory.resolve(partFileName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                try (Stream<Path> previous = Files.list(partDirectory)) {
+                    for (Path file : previous.filter(file -> !file.getFileName().toString().equals(partFileName)).toList())
+                        Files.deleteIfExists(file);
+                }
+                return partETag(staged.crc32c());
+            } finally {
+                Files.deleteIfExists(staged.file());
+            }
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void completeUpload(String bucketName, CompleteUploadRequest completeUploadRequest) throws UploadDoesNotExistException {
+        Path studio = studio(bucketName);
+        Upload upload = requireUpload(bucketName, completeUploadRequest.uploadId());
+        UploadSession session = upload.session();
+        if (!session.gameName().equals(completeUploadRequest.key()))
+            throw new IllegalArgumentException(String.format("Upload %s is an upload of %s, not %s",
+                    session.uploadId(), session.gameName(), completeUploadRequest.key()));
+        Path uploadDirectory = studio.resolve(UPLOADS_DIRECTORY).resolve(session.uploadId());
+        try {
+            Map<Integer, StagedPart> stagedParts = stagedParts(uploadDirectory, session);
+            List<CompleteUploadRequest.CompletedPart> sortedParts = completeUploadRequest.parts().stream()
+                    .sorted(Comparator.comparingInt(CompleteUploadRequest.CompletedPart::partNumber))
+                    .toList();
+            if (sortedParts.size() != session.partCount())
+                throw new IllegalArgumentException(String.format("Upload %s has %d parts, %d were completed",
+                        session.uploadId(), session.partCount(), sortedParts.size()));
+            List<StagedPart> parts = new ArrayList<>(sortedParts.size());
+            for (int i = 0; i < sortedParts.size(); i++) {
+                CompleteUploadRequest.CompletedPart completedPart = sortedParts.get(i);
+                StagedPart stagedPart = stagedParts.get(completedPart.partNumber());
+                if (completedPart.partNumber() != i + 1 || stagedPart == null || !stagedPart.eTag().equals(completedPart.etag())
+                        || (completedPart.checksumCrc32c() != null && !completedPart.checksumCrc32c().equals(stagedPart.checksumCrc32c())))
+                    throw new IllegalArgumentException(String.format("Part %d of upload %s was not uploaded as completed",
+                            completedPart.partNumber(), session.uploadId()));
+                parts.add(stagedPart);
+            }
+            String checksum = Crc32c.combine(parts.stream().map(StagedPart::checksumCrc32c).toList(), session.partSize(), session.fileSize());
+            if (completeUploadRequest.checksumCrc32c() != null && !completeUploadRequest.checksumCrc32c().equals(checksum))
+                throw new IllegalArgumentException(String.format("Upload %s does not match its %s checksum", session.uploadId(), Crc32c.ALGORITHM));
+
+            Path concatenated = concatenate(studio, parts.stream().map(StagedPart::file).toList());
+            publish(studio, bucketName, session.gameName(), new Staged(concatenated, session.fileSize(), Crc32c.decode(checksum)),
+                    upload.contentType(), upload.metadata());
+            deleteTree(uploadDirectory);
+            partSizingStrategy.recordUpload(session, Duration.between(session.initiatedAt(), Instant.now()));
+            log.info("Successfully completed local multipart upload in {} for key: {}", bucketName, session.gameName());
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public List<String> abortStaleUploads(String bucketName, Instant initiatedBefore) throws BucketDoesNotExistException {
+        Path uploads = existingStudio(bucketName).resolve(UPLOADS_DIRECTORY);
+        List<String> abortedUploads = new ArrayList<>();
+        try (Stream<Path> uploadDirectories = Files.list(uploads)) {
+            for (Path uploadDirectory : uploadDirectories.toList()) {
+                Upload upload = readUpload(uploadDirectory);
+                Instant initiatedAt = upload != null
+                        ? upload.session().initiatedAt()
+                        : Files.getLastModifiedTime(uploadDirectory).toInstant();
+                if (initiatedAt.isBefore(initiatedBefore)) {
+                    deleteTree(uploadDirectory);
+                    abortedUploads.add(uploadDirectory.getFileName().toString());
+                }
+            }
+            return abortedUploads;
+        } catch (NoSuchFileException e) {
+            return abortedUploads;
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public ChunkedUploadResponse initiateChunkedUpload(String bucketName, ChunkedUploadRequest chunkedUploadRequest) throws BucketDoesNotExistException {
+        Path chunksDirectory = existingStudio(bucketName).resolve(CHUNKS_DIRECTORY);
+        Map<String, Long> chunks = ChunkStore.distinctChunks(chunkedUploadRequest);
+        List<String> missing = missingChunks(chunksDirectory, chunks);
+        List<ChunkedUploadResponse.ChunkUploadUrl> preSignedUrls = missing.stream()
+                .limit(maxPresignedChunks)
+                .map(hash -> new ChunkedUploadResponse.ChunkUploadUrl(hash, chunks.get(hash),
+                        urlSigner.presign("PUT", chunkResource(bucketName, hash), null)))
+                .toList();
+        log.info("Chunked upload of {}/{}: {} of {} distinct chunks missing", bucketName, chunkedUploadRequest.gameName(), missing.size(), chunks.size());
+        return new ChunkedUploadResponse(chunkedUploadRequest.gameName(), chunkedUploadRequest.chunks().size(), missing.size(), preSignedUrls);
+    }
+
+    /**
+     * Stores a chunk sent to a presigned chunk URL once its content hashes to {@code hash}.
+     */
+    public void uploadChunk(String bucketName, String hash, InputStream content) throws BucketDoesNotExistException {
+        if (hash == null || !ChunkStore.HASH.matcher(hash).matches())
+            throw new IllegalArgumentException("Chunk hashes must be lowercase hex SHA-256: " + hash);
+        Path studio = existingStudio(bucketName);
+        Path chunksDirectory = studio.resolve(CHUNKS_DIRECTORY);
+        try {
+            MessageDigest digest = MessageDigest.getInstance(DownloadManifestBuilder.SHA_256);
+            Staged staged = stage(studio, new DigestInputStream(content, digest));
+            try {
+                if (staged.size() > ChunkStore.MAX_CHUNK_SIZE)
+                    throw new IllegalArgumentException(String.format("Chunk %s is %d bytes, chunks must be at most %d bytes",
+                            hash, staged.size(), ChunkStore.MAX_CHUNK_SIZE));
+                if (!HexFormat.of().formatHex(digest.digest()).equals(hash))
+                    throw new IllegalArgumentException("Chunk content does not hash to " + hash);
+                Files.createDirectories(chunksDirectory);
+                Files.move(staged.file(), chunksDirectory.resolve(hash), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(staged.file());
+            }
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Concatenates the chunks into a new version of the game. The game is stored as a plain file, so it is served
+     * like any other version; its CRC32C is unknown, chunks are only verified by their SHA-256.
+     */
+    @Override
+    public ObjectUploadResponse commitChunkedUpload(String bucketName, ChunkedUploadRequest chunkedUploadRequest) throws BucketDoesNotExistException {
+        Path studio = existingStudio(bucketName);
+        Path chunksDirectory = studio.resolve(CHUNKS_DIRECTORY);
+        Map<String, Long> chunks = ChunkStore.distinctChunks(chunkedUploadRequest);
+        List<String> absent = missingChunks(chunksDirectory, chunks);
+        if (!absent.isEmpty())
+            throw new IllegalArgumentException(String.format("%d chunks of %s have not been uploaded, first: %s",
+                    absent.size(), chunkedUploadRequest.gameName(), absent.getFirst()));
+        try {
+            List<Path> files = chunkedUploadRequest.chunks().stream().map(chunk -> chunksDirectory.resolve(chunk.hash())).toList();
+            Path concatenated = concatenate(studio, files);
+            ObjectUploadResponse response = publish(studio, bucketName, chunkedUploadRequest.gameName(),
+                    new Staged(concatenated, Files.size(concatenated), null), chunkedUploadRequest.contentType(),
+                    chunkedUploadRequest.metadata() == null ? Map.of() : chunkedUploadRequest.metadata());
+            log.info("Committed {}/{} from {} chunks, version {}", bucketName, chunkedUploadRequest.gameName(), files.size(), response.versionId());
+            return response;
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public GameInfo fetchObjectMetadata(String bucketName, String objectKey) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        Path gameDirectory = gameDirectory(existingStudio(bucketName), objectKey);
+        Map<String, String> metadata = version(bucketName, objectKey, gameDirectory, null).metadata();
+        return new GameInfo(bucketName, objectKey, metadata.get(GENRE), metadata.get(VERSION));
+    }
+
+    /**
+     * Edits the metadata of the latest version in its sidecar, the version file is left as is.
+     */
+    @Override
+    public GameInfo modifyObjectMetadata(String bucketName, String objectKey, Map<String, String> metadata) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        Path gameDirectory = gameDirectory(existingStudio(bucketName), objectKey);
+        GameVersionIndex.Version latest = version(bucketName, objectKey, gameDirectory, null);
+        Map<String, String> newMetadata = new HashMap<>(latest.metadata());
+        if (metadata.get(GENRE) == null)
+            newMetadata.remove(GENRE);
+        else
+            newMetadata.put(GENRE, metadata.get(GENRE));
+        try {
+            versionIndex.update(gameDirectory.resolve(VERSION_INDEX), versions -> versions.stream()
+                    .map(version -> version.versionId().equals(latest.versionId()) ? version.withMetadata(newMetadata) : version)
+                    .toList());
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+        return new GameInfo(bucketName, objectKey, newMetadata.get(GENRE), newMetadata.get(VERSION));
+    }
+
+    /**
+     * Metadata is always written to the sidecar of the version, so there is nothing left to persist.
+     */
+    @Override
+    public GameInfo persistObjectMetadata(String bucketName, String objectKey) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        return fetchObjectMetadata(bucketName, objectKey);
+    }
+
+    /**
+     * Version files never change, so the restored version is a hard link to the old one where the filesystem
+     * supports it, and a copy where it does not.
+     */
+    @Override
+    public ObjectUploadResponse restoreObjectVersion(String bucketName, String objectKey, String versionId) throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        Path gameDirectory = gameDirectory(existingStudio(bucketName), objectKey);
+        GameVersionIndex.Version restored = version(bucketName, objectKey, gameDirectory, versionId);
+        String restoredVersionId = UUID.randomUUID().toString();
+        try {
+            Path source = gameDirectory.resolve(restored.versionId());
+            Path target = gameDirectory.resolve(restoredVersionId);
+            try {
+                Files.createLink(target, source);
+            } catch (UnsupportedOperationException | IOException e) {
+                Files.copy(source, target);
+            }
+            versionIndex.update(gameDirectory.resolve(VERSION_INDEX), versions -> append(versions, new GameVersionIndex.Version(restoredVersionId,
+                    false, restored.size(), Instant.now(), restored.contentType(), restored.checksumCrc32c(), restored.metadata())));
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+        log.info("Restored version {} of {}/{} as version {}", versionId, bucketName, objectKey, restoredVersionId);
+        return new ObjectUploadResponse(bucketName, objectKey, restoredVersionId);
+    }
+
+    private ObjectUploadResponse publish(Path studio, String bucketName, String gameName, Staged staged, String contentType,
+                                         Map<String, String> metadata) throws IOException {
+        Path gameDirectory = gameDirectory(studio, gameName);
+        String versionId = UUID.randomUUID().toString();
+        try {
+            Files.createDirectories(gameDirectory);
+            Files.move(staged.file(), gameDirectory.resolve(versionId), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(staged.file());
+        }
+        GameVersionIndex.Version version = new GameVersionIndex.Version(versionId, false, staged.size(), Instant.now(), contentType,
+                staged.crc32c() == null ? null : Crc32c.encode(staged.crc32c()), metadata);
+        versionIndex.update(gameDirectory.resolve(VERSION_INDEX), versions -> append(versions, version));
+        return new ObjectUploadResponse(bucketName, gameName, versionId);
+    }
+
+    /**
+     * Writes the stream to a new file in the studio's staging directory, computing its CRC32C on the way.
+     */
+    private Staged stage(Path studio, InputStream content) throws IOException {
+        Path stagingDirectory = studio.resolve(STAGING_DIRECTORY);
+        Files.createDirectories(stagingDirectory);
+        Path file = Files.createTempFile(stagingDirectory, "object", ".tmp");
+        CRC32C crc = new CRC32C();
+        try (InputStream checked = new CheckedInputStream(content, crc)) {
+            long size = Files.copy(checked, file, StandardCopyOption.REPLACE_EXISTING);
+            return new Staged(file, size, crc.getValue());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private Path concatenate(Path studio, List<Path> files) throws IOException {
+        Path stagingDirectory = studio.resolve(STAGING_DIRECTORY);
+        Files.createDirectories(stagingDirectory);
+        Path concatenated = Files.createTempFile(stagingDirectory, "object", ".tmp");
+        try (FileChannel target = FileChannel.open(concatenated, StandardOpenOption.WRITE)) {
+            for (Path file : files) {
+                try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+                    long size = source.size();
+                    long position = 0;
+                    while (position < size)
+                        position += source.transferTo(position, size - position, target);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(concatenated);
+            throw e;
+        }
+        return concatenated;
+    }
+
+    private static void transfer(Path file, long position, long length, OutputStream outputStream) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            in.skipNBytes(position);
+            byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0)
+                    throw new EOFException(String.format("%s ended %d bytes early", file, remaining));
+                outputStream.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    private List<PreSignedPartUrl> presignParts(UploadSession session, List<Integer> partNumbers) {
+        return partNumbers.stream()
+                .map(partNumber -> new PreSignedPartUrl(partNumber,
+                        urlSigner.presign("PUT", partResource(session.studioId(), session.uploadId(), partNumber), null), session.partSize(partNumber)))
+                .toList();
+    }
+
+    public static String partResource(String bucketName, String uploadId, int partNumber) {
+        return "studios/" + LocalUrlSigner.segment(bucketName) + "/uploads/" + LocalUrlSigner.segment(uploadId) + "/parts/" + partNumber;
+    }
+
+    public static String gameResource(String bucketName, String gameName) {
+        return "studios/" + LocalUrlSigner.segment(bucketName) + "/games/" + LocalUrlSigner.segment(gameName);
+    }
+
+    public static String chunkResource(String bucketName, String hash) {
+        return "studios/" + LocalUrlSigner.segment(bucketName) + "/chunks/" + hash;
+    }
+
+    private List<String> missingChunks(Path chunksDirectory, Map<String, Long> chunks) {
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<String, Long> chunk : chunks.entrySet()) {
+            Path file = chunksDirectory.resolve(chunk.getKey());
+            try {
+                if (Files.size(file) != chunk.getValue())
+                    missing.add(chunk.getKey());
+            } catch (IOException e) {
+                missing.add(chunk.getKey());
+            }
+        }
+        return missing;
+    }
+
+    private Map<Integer, StagedPart> stagedParts(Path uploadDirectory, UploadSession session) throws IOException {
+        Map<Integer, StagedPart> stagedParts = new HashMap<>();
+        try (Stream<Path> partDirectories = Files.list(uploadDirectory)) {
+            for (Path partDirectory : partDirectories.toList()) {
+                String name = partDirectory.getFileName().toString();
+                if (name.isEmpty() || name.length() > 5 || !name.chars().allMatch(Character::isDigit) || !Files.isDirectory(partDirectory))
+                    continue;
+                int partNumber = Integer.parseInt(name);
+                if (partNumber < 1 || partNumber > session.partCount())
+                    continue;
+                try (Stream<Path> files = Files.list(partDirectory)) {
+                    for (Path file : files.toList()) {
+                        String crcDigits = file.getFileName().toString();
+                        if (crcDigits.length() != 8 || !crcDigits.chars().allMatch(HexFormat::isHexDigit) || Files.size(file) != session.partSize(partNumber))
+                            continue;
+                        long crc = HexFormat.fromHexDigits(crcDigits) & 0xFFFFFFFFL;
+                        stagedParts.put(partNumber, new StagedPart(partNumber, file, partETag(crc), Crc32c.encode(crc)));
+                    }
+                }
+            }
+        }
+        return stagedParts;
+    }
+
+    private static String partETag(long crc32c) {
+        return "\"" + HexFormat.of().toHexDigits((int) crc32c) + "\"";
+    }
+
+    private GameVersionIndex.Version latest(Path gameDirectory) throws IOException {
+        List<GameVersionIndex.Version> versions = versionIndex.versions(gameDirectory.resolve(VERSION_INDEX));
+        if (versions.isEmpty() || versions.getLast().deleteMarker())
+            return null;
+        return versions.getLast();
+    }
+
+    /**
+     * Returns the version, the latest one when {@code versionId} is null, failing when it does not exist or is a
+     * delete marker.
+     */
+    private GameVersionIndex.Version version(String bucketName, String objectKey, Path gameDirectory, String versionId)
+            throws ObjectDoesNotExistsException {
+        try {
+            GameVersionIndex.Version version = versionId == null
+                    ? latest(gameDirectory)
+                    : versionIndex.versions(gameDirectory.resolve(VERSION_INDEX)).stream()
+                    .filter(candidate -> candidate.versionId().equals(versionId))
+                    .findFirst()
+                    .orElse(null);
+            if (version == null || version.deleteMarker())
+                throw objectDoesNotExist(bucketName, objectKey);
+            return version;
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<GameVersionIndex.Version> append(List<GameVersionIndex.Version> versions, GameVersionIndex.Version version) {
+        List<GameVersionIndex.Version> appended = new ArrayList<>(versions.size() + 1);
+        appended.addAll(versions);
+        appended.add(version);
+        return appended;
+    }
+
+    private static ObjectDoesNotExistsException objectDoesNotExist(String bucketName, String objectKey) {
+        log.error("The object: {} does not exists", bucketName.concat("/" + objectKey));
+        return new ObjectDoesNotExistsException();
+    }
+
+    private Upload requireUpload(String bucketName, String uploadId) throws UploadDoesNotExistException {
+        try {
+            Upload upload = readUpload(studio(bucketName).resolve(UPLOADS_DIRECTORY).resolve(uploadSegment(uploadId)));
+            if (upload == null)
+                throw new UploadDoesNotExistException(uploadId, null);
+            return upload;
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path existingStudio(String bucketName) throws BucketDoesNotExistException {
+        Path studio = studioPath(bucketName);
+        if (!Files.isDirectory(studio)) {
+            log.error("Bucket ({}) does not exist", bucketName);
+            throw new BucketDoesNotExistException(bucketName, null);
+        }
+        return studio;
+    }
+
+    private Path studio(String bucketName) {
+        Path studio = studioPath(bucketName);
+        if (!Files.isDirectory(studio))
+            throw new IllegalArgumentException("Studio " + bucketName + " does not exist");
+        return studio;
+    }
+
+    private Path studioPath(String bucketName) {
+        if (bucketName == null || bucketName.isEmpty() || bucketName.startsWith(".") || bucketName.contains("/") || bucketName.contains("\\"))
+            throw new IllegalArgumentException("Invalid studio name: " + bucketName);
+        return root.resolve(bucketName);
+    }
+
+    private static Path gameDirectory(Path studio, String gameName) {
+        if (gameName == null || gameName.isBlank())
+            throw new IllegalArgumentException("Invalid game name: " + gameName);
+        String segment = LocalUrlSigner.segment(gameName);
+        if (segment.equals(".") || segment.equals(".."))
+            throw new IllegalArgumentException("Invalid game name: " + gameName);
+        return studio.resolve(GAMES_DIRECTORY).resolve(segment);
+    }
+
+    private static String uploadSegment(String uploadId) {
+        if (uploadId == null || uploadId.isEmpty() || uploadId.startsWith(".") || uploadId.contains("/") || uploadId.contains("\\"))
+            throw new IllegalArgumentException("Invalid upload id: " + uploadId);
+        return uploadId;
+    }
+
+    private static Upload readUpload(Path uploadDirectory) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(uploadDirectory.resolve(UPLOAD_DESCRIPTOR))))) {
+            if (in.readInt() != UPLOAD_MAGIC)
+                return null;
+            UploadSession session = new UploadSession(in.readUTF(), in.readUTF(), in.readUTF(), in.readLong(), in.readLong(),
+                    in.readInt(), in.readInt(), Instant.ofEpochMilli(in.readLong()));
+            String contentType = in.readBoolean() ? in.readUTF() : null;
+            int entries = in.readInt();
+            Map<String, String> metadata = new HashMap<>(entries);
+            for (int entry = 0; entry < entries; entry++)
+                metadata.put(in.readUTF(), in.readUTF());
+            return new Upload(session, contentType, Map.copyOf(metadata));
+        } catch (NoSuchFileException | EOFException e) {
+            return null;
+        }
+    }
+
+    private static void writeUpload(Path uploadDirectory, Upload upload) throws IOException {
+        UploadSession session = upload.session();
+        Path temp = Files.createTempFile(uploadDirectory, UPLOAD_DESCRIPTOR, ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(UPLOAD_MAGIC);
+            out.writeUTF(session.uploadId());
+            out.writeUTF(session.studioId());
+            out.writeUTF(session.gameName());
+            out.writeLong(session.fileSize());
+            out.writeLong(session.partSize());
+            out.writeInt(session.partCount());
+            out.writeInt(session.parallelism());
+            out.writeLong(session.initiatedAt().toEpochMilli());
+            out.writeBoolean(upload.contentType() != null);
+            if (upload.contentType() != null)
+                out.writeUTF(upload.contentType());
+            out.writeInt(upload.metadata().size());
+            for (Map.Entry<String, String> entry : upload.metadata().entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue());
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, uploadDirectory.resolve(UPLOAD_DESCRIPTOR), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root))
+            return;
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted((a, b) -> b.getNameCount() - a.getNameCount()).toList())
+                Files.deleteIfExists(path);
+        }
+    }
+
+    private record Staged(Path file, long size, Long crc32c) {
+    }
+
+    private record StagedPart(int partNumber, Path file, String eTag, String checksumCrc32c) {
+    }
+
+    private record Upload(UploadSession session, String contentType, Map<String, String> metadata) {
+    }
+}
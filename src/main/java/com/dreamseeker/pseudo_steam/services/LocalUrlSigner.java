@@ -0,0 +1,73 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.exceptions.InvalidSignatureException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Signs the URLs the local storage engine hands out in place of S3 presigned URLs, so clients upload parts and
+ * chunks and download games straight from this service the way they would from S3. A URL carries its expiry and an
+ * HMAC-SHA256 over the method, the resource and the expiry; the resource is the URL path below
+ * {@value #PATH_PREFIX}, with the version id appended for downloads of a specific version.
+ */
+public class LocalUrlSigner {
+
+    public static final String PATH_PREFIX = "/local-storage/";
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final String publicUrl;
+    private final Duration signatureDuration;
+    private final Clock clock;
+
+    public LocalUrlSigner(byte[] key, String publicUrl, Duration signatureDuration, Clock clock) {
+        this.key = new SecretKeySpec(key, ALGORITHM);
+        this.publicUrl = publicUrl.endsWith("/") ? publicUrl.substring(0, publicUrl.length() - 1) : publicUrl;
+        this.signatureDuration = signatureDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * Encodes a path segment the way it must appear in {@code resource}.
+     */
+    public static String segment(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    public String presign(String method, String resource, String versionId) {
+        long expires = clock.instant().plus(signatureDuration).getEpochSecond();
+        StringBuilder url = new StringBuilder(publicUrl).append(PATH_PREFIX).append(resource).append('?');
+        if (versionId != null)
+            url.append("versionId=").append(segment(versionId)).append('&');
+        return url.append("expires=").append(expires)
+                .append("&signature=").append(signature(method, resource, versionId, expires))
+                .toString();
+    }
+
+    public void verify(String method, String resource, String versionId, long expires, String signature) throws InvalidSignatureException {
+        if (signature == null || expires < clock.instant().getEpochSecond())
+            throw new InvalidSignatureException(resource);
+        byte[] expected = signature(method, resource, versionId, expires).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII)))
+            throw new InvalidSignatureException(resource);
+    }
+
+    private String signature(String method, String resource, String versionId, long expires) {
+        String canonical = method + "\n" + resource + "\n" + (versionId == null ? "" : versionId) + "\n" + expires;
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return HexFormat.of().formatHex(mac.doFinal(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Uploads the parts of a multipart upload concurrently, keeping at most {@code maxConcurrentParts}
+ * parts in flight. Part data lives in buffers of the {@link PartBufferPool} shared by all uploads, so heap
+ * usage is bounded by the pool capacity whatever the object size and however many uploads run at once. The
+ * first failing part stops the scheduling of new parts and is rethrown once the parts in flight are done, so the
+ * caller can abort the upload without parts still landing after it.
+ * <p>
+ * Every part carries its CRC32C, computed from the part buffer right before it is sent, so S3 rejects a part
+ * that was corrupted on the way. Parts can be compressed on the way with a {@link PartCompressor}.
+ */
+@Slf4j
+@AllArgsConstructor
+public class MultipartUploadEngine {
+
+    private final S3Client s3Client;
+    private final ExecutorService executor;
+    private final int maxConcurrentParts;
+    private final PartBufferPool partBufferPool;
+
+    /**
+     * Spools the file to disk once, moving it there when the container already did, and reads every slice with
+     * positional reads of the spooled file, so slices are read in parallel and no byte is read twice.
+     */
+    public List<CompletedPart> uploadParts(String bucketName, String objectKey, String uploadId, MultipartFile file,
+                                           long partSize, int partCount) throws IOException, InterruptedException {
+        return uploadParts(bucketName, objectKey, uploadId, file, partSize, partCount, null);
+    }
+
+    /**
+     * Same as {@link #uploadParts(String, String, String, MultipartFile, long, int)}, but every part is encoded as one
+     * compressed frame by {@code partCompressor} after it is read, in the same task, so parts are compressed in parallel.
+     */
+    public List<CompletedPart> uploadParts(String bucketName, String objectKey, String uploadId, MultipartFile file,
+                                           long partSize, int partCount, PartCompressor partCompressor) throws IOException, InterruptedException {
+        long fileSize = file.getSize();
+        Path spooledFile = Files.createTempFile("upload-", ".spool");
+        try {
+            file.transferTo(spooledFile.toFile());
+            try (FileChannel channel = FileChannel.open(spooledFile, StandardOpenOption.READ)) {
+                return uploadParts(bucketName, objectKey, uploadId, channel, fileSize, partSize, partCount, partCompressor);
+            }
+        } finally {
+            Files.deleteIfExists(spooledFile);
+        }
+    }
+
+    private List<CompletedPart> uploadParts(String bucketName, String objectKey, String uploadId, FileChannel channel, long fileSize,
+                                            long partSize, int partCount, PartCompressor partCompressor) throws InterruptedException {
+        int bufferSize = (int) Math.min(partSize, fileSize);
+        int[] bufferSizes = partCompressor == null ? new int[]{bufferSize} : new int[]{bufferSize, PartCompressor.maxFrameSize(bufferSize)};
+        BoundedFanOut fanOut = new BoundedFanOut(executor, maxConcurrentParts);
+        CompletedPart[] completedParts = new CompletedPart[partCount];
+
+        for (PartSlice slice : slice(fileSize, partSize, partCount)) {
+            if (fanOut.failed())
+                break;
+            byte[][] buffers = partBufferPool.acquire(bufferSizes);
+            boolean submitted = fanOut.submit(() -> {
+                readSlice(channel, slice, buffers[0]);
+                if (partCompressor == null) {
+                    completedParts[slice.partNumber() - 1] = uploadPart(bucketName, objectKey, uploadId, slice.partNumber(), buffers[0], (int) slice.length());
+                } else {
+                    int frameLength = partCompressor.encode(buffers[0], (int) slice.length(), buffers[1], slice.partNumber() == partCount);
+                    completedParts[slice.partNumber() - 1] = uploadPart(bucketName, objectKey, uploadId, slice.partNumber(), buffers[1], frameLength);
+                }
+            }, () -> partBufferPool.release(buffers));
+            if (!submitted)
+                break;
+        }
+        fanOut.await();
+        return List.of(completedParts);
+    }
+
+    /**
+     * Reads the stream sequentially into pooled buffers, uploading each buffer as soon as it is full.
+     * The stream length does not need to be known upfront.
+     */
+    public List<CompletedPart> uploadStream(String bucketName, String objectKey, String uploadId, InputStream inputStream,
+                                            long partSize) throws IOException, InterruptedException {
+        int bufferSize = (int) partSize;
+        BoundedFanOut fanOut = new BoundedFanOut(executor, maxConcurrentParts);
+        Map<Integer, CompletedPart> completedParts = new ConcurrentSkipListMap<>();
+
+        int partNumber = 1;
+        while (!fanOut.failed()) {
+            byte[] buffer = partBufferPool.acquire(bufferSize);
+            int length;
+            try {
+                length = inputStream.readNBytes(buffer, 0, bufferSize);
+            } catch (IOException e) {
+                partBufferPool.release(buffer);
+                throw e;
+            }
+            if (length == 0 && partNumber > 1) {
+                partBufferPool.release(buffer);
+                break;
+            }
+            int currentPartNumber = partNumber++;
+            boolean submitted = fanOut.submit(
+                    () -> completedParts.put(currentPartNumber, uploadPart(bucketName, objectKey, uploadId, currentPartNumber, buffer, length)),
+                    () -> partBufferPool.release(buffer));
+            if (!submitted || length < bufferSize)
+                break;
+        }
+        fanOut.await();
+        return List.copyOf(completedParts.values());
+    }
+
+    static List<PartSlice> slice(long fileSize, long partSize, int partCount) {
+        List<PartSlice> slices = new ArrayList<>(partCount);
+        for (int i = 0; i < partCount; i++) {
+            long offset = (long) i * partSize;
+            slices.add(new PartSlice(i + 1, offset, Math.min(partSize, fileSize - offset)));
+        }
+        return slices;
+    }
+
+    private void readSlice(FileChannel channel, PartSlice slice, byte[] buffer) {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, (int) slice.length());
+        try {
+            while (byteBuffer.hasRemaining()) {
+                if (channel.read(byteBuffer, slice.offset() + byteBuffer.position()) == -1)
+                    throw new EOFException(String.format("File ended before part %d was read", slice.partNumber()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CompletedPart uploadPart(String bucketName, String objectKey, String uploadId, int partNumber, byte[] buffer, int length) {
+        String checksum = Crc32c.encode(Crc32c.of(buffer, 0, length));
+        UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+                .bucket(bucketName)
+                .key(objectKey)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .checksumCRC32C(checksum)
+                .build();
+        RequestBody requestBody = RequestBody.fromContentProvider(() -> new ByteArrayInputStream(buffer, 0, length), length, "application/octet-stream");
+        UploadPartResponse uploadPartResponse = s3Client.uploadPart(uploadPartRequest, requestBody);
+
+        log.info("Upload part ({}) successful. Etag: {}", partNumber, uploadPartResponse.eTag());
+        return CompletedPart.builder()
+                .partNumber(partNumber)
+                .eTag(uploadPartResponse.eTag())
+                .checksumCRC32C(checksum)
+                .build();
+    }
+
+    record PartSlice(int partNumber, long offset, long length) {
+    }
+}
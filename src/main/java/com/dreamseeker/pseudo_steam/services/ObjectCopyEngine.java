@@ -0,0 +1,162 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Copies an object onto itself server side, optionally from an older version and with new metadata.
+ * Objects up to {@code multipartThreshold} are copied with one CopyObject; larger ones are copied with
+ * UploadPartCopy over byte ranges of at least {@code partSize}, keeping {@code maxConcurrentParts} parts in
+ * flight. Every part is pinned to the source version and ETag, so the copy fails instead of mixing versions
+ * if the source changes underneath it. No object data passes through this service.
+ * <p>
+ * Compressed games are always copied part for part along the source's own parts, since every part is one frame.
+ */
+@Slf4j
+@AllArgsConstructor
+public class ObjectCopyEngine {
+
+    static final long MAX_COPY_PART_SIZE = 5L * 1024 * 1024 * 1024;
+    private static final int MAX_PARTS = 10000;
+
+    private final S3Client s3Client;
+    private final ExecutorService executor;
+    private final long partSize;
+    private final int maxConcurrentParts;
+    private final long multipartThreshold;
+
+    /**
+     * @param sourceVersionId version to copy, or {@code null} for the current one
+     * @param metadata        metadata of the copy, or {@code null} to keep the source metadata
+     * @return the version id of the copy
+     */
+    public String copy(String bucketName, String objectKey, String sourceVersionId, Map<String, String> metadata) throws InterruptedException {
+        HeadObjectResponse source = s3Client.headObject(HeadObjectRequest.builder()
+                .bucket(bucketName)
+                .key(objectKey)
+                .versionId(sourceVersionId)
+                .build());
+        Map<String, String> targetMetadata = metadata != null ? metadata : source.metadata();
+
+        if (PartCompressor.isCompressed(source.metadata()))
+            return copyCompressed(bucketName, objectKey, source, targetMetadata);
+        if (source.contentLength() <= Math.min(multipartThreshold, MAX_COPY_PART_SIZE))
+            return copyObject(bucketName, objectKey, source, targetMetadata);
+        long objectSize = source.contentLength();
+        long copyPartSize = copyPartSize(objectSize, partSize);
+        int partCount = (int) ((objectSize + copyPartSize - 1) / copyPartSize);
+        return copyParts(bucketName, objectKey, source, targetMetadata, MultipartUploadEngine.slice(objectSize, copyPartSize, partCount), ChecksumType.FULL_OBJECT);
+    }
+
+    static long copyPartSize(long objectSize, long partSize) {
+        long minimumPartSize = (objectSize + MAX_PARTS - 1) / MAX_PARTS;
+        return Math.min(MAX_COPY_PART_SIZE, Math.max(partSize, minimumPartSize));
+    }
+
+    private String copyObject(String bucketName, String objectKey, HeadObjectResponse source, Map<String, String> metadata) {
+        CopyObjectRequest copyRequest = CopyObjectRequest.builder()
+                .sourceBucket(bucketName)
+                .sourceKey(objectKey)
+                .sourceVersionId(source.versionId())
+                .copySourceIfMatch(source.eTag())
+                .destinationBucket(bucketName)
+                .destinationKey(objectKey)
+                .contentType(source.contentType())
+                .metadata(metadata)
+                .metadataDirective(MetadataDirective.REPLACE)
+                .checksumAlgorithm(ChecksumAlgorithm.CRC32C)
+                .build();
+        return s3Client.copyObject(copyRequest).versionId();
+    }
+
+    /**
+     * Reads fetch a compressed game one frame at a time by part number, so the copy must keep the part boundaries
+     * of the source; a single CopyObject or ranges of another size would merge or split frames. The codec metadata
+     * is carried over onto new metadata.
+     */
+    private String copyCompressed(String bucketName, String objectKey, HeadObjectResponse source, Map<String, String> metadata) throws InterruptedException {
+        Map<String, String> compressedMetadata = PartCompressor.metadata(metadata,
+                PartCompressor.uncompressedSize(source.metadata()), PartCompressor.uncompressedPartSize(source.metadata()));
+        List<ObjectPart> parts = ObjectParts.list(s3Client, bucketName, objectKey, source.versionId());
+        // one frame uploaded in one request
+        if (parts.isEmpty())
+            return copyObject(bucketName, objectKey, source, compressedMetadata);
+
+        List<MultipartUploadEngine.PartSlice> slices = new ArrayList<>(parts.size());
+        long offset = 0;
+        for (ObjectPart part : parts) {
+            slices.add(new MultipartUploadEngine.PartSlice(slices.size() + 1, offset, part.size()));
+            offset += part.size();
+        }
+        if (offset != source.contentLength())
+            throw new IllegalStateException(String.format("Parts of %s/%s add up to %d of its %d bytes", bucketName, objectKey, offset, source.contentLength()));
+        return copyParts(bucketName, objectKey, source, compressedMetadata, slices, ChecksumType.COMPOSITE);
+    }
+
+    private String copyParts(String bucketName, String objectKey, HeadObjectResponse source, Map<String, String> metadata,
+                             List<MultipartUploadEngine.PartSlice> slices, ChecksumType checksumType) throws InterruptedException {
+        long objectSize = source.contentLength();
+        int partCount = slices.size();
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(objectKey)
+                .contentType(source.contentType())
+                .metadata(metadata)
+                .checksumAlgorithm(ChecksumAlgorithm.CRC32C)
+                .checksumType(checksumType)
+                .build()).uploadId();
+        log.info("Copying {} bytes of {}/{} in {} parts with uploadId: {}", objectSize, bucketName, objectKey, partCount, uploadId);
+
+        BoundedFanOut fanOut = new BoundedFanOut(executor, maxConcurrentParts);
+        CompletedPart[] completedParts = new CompletedPart[partCount];
+        try {
+            for (MultipartUploadEngine.PartSlice slice : slices) {
+                if (!fanOut.submit(() -> completedParts[slice.partNumber() - 1] = copyPart(bucketName, objectKey, uploadId, source, slice)))
+                    break;
+            }
+            fanOut.await();
+
+            return s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build()).versionId();
+        } catch (RuntimeException | InterruptedException e) {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .build());
+            throw e;
+        }
+    }
+
+    private CompletedPart copyPart(String bucketName, String objectKey, String uploadId, HeadObjectResponse source,
+                                   MultipartUploadEngine.PartSlice slice) {
+        UploadPartCopyRequest uploadPartCopyRequest = UploadPartCopyRequest.builder()
+                .sourceBucket(bucketName)
+                .sourceKey(objectKey)
+                .sourceVersionId(source.versionId())
+                .copySourceIfMatch(source.eTag())
+                .copySourceRange(String.format("bytes=%d-%d", slice.offset(), slice.offset() + slice.length() - 1))
+                .destinationBucket(bucketName)
+                .destinationKey(objectKey)
+                .uploadId(uploadId)
+                .partNumber(slice.partNumber())
+                .build();
+        UploadPartCopyResponse response = s3Client.uploadPartCopy(uploadPartCopyRequest);
+        return CompletedPart.builder()
+                .partNumber(slice.partNumber())
+                .eTag(response.copyPartResult().eTag())
+                .checksumCRC32C(response.copyPartResult().checksumCRC32C())
+                .build();
+    }
+}
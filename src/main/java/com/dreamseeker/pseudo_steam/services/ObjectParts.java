@@ -0,0 +1,43 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectAttributesParts;
+import software.amazon.awssdk.services.s3.model.GetObjectAttributesRequest;
+import software.amazon.awssdk.services.s3.model.ObjectAttributes;
+import software.amazon.awssdk.services.s3.model.ObjectPart;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lists the parts of a multipart object, with their sizes and CRC32C checksums, through GetObjectAttributes.
+ * Objects uploaded in one request have no parts.
+ */
+final class ObjectParts {
+
+    private static final int MAX_PARTS_PER_REQUEST = 1000;
+
+    private ObjectParts() {
+    }
+
+    static List<ObjectPart> list(S3Client s3Client, String bucketName, String objectKey, String versionId) {
+        List<ObjectPart> parts = new ArrayList<>();
+        Integer partNumberMarker = null;
+        do {
+            GetObjectAttributesRequest attributesRequest = GetObjectAttributesRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectKey)
+                    .versionId(versionId)
+                    .objectAttributes(ObjectAttributes.OBJECT_PARTS)
+                    .maxParts(MAX_PARTS_PER_REQUEST)
+                    .partNumberMarker(partNumberMarker)
+                    .build();
+            GetObjectAttributesParts objectParts = s3Client.getObjectAttributes(attributesRequest).objectParts();
+            if (objectParts == null || !objectParts.hasParts())
+                break;
+            parts.addAll(objectParts.parts());
+            partNumberMarker = Boolean.TRUE.equals(objectParts.isTruncated()) ? objectParts.nextPartNumberMarker() : null;
+        } while (partNumberMarker != null);
+        return parts;
+    }
+}
@@ -5,8 +5,12 @@ import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
 import com.dreamseeker.pseudo_steam.exceptions.BucketNameExistsException;
 import com.dreamseeker.pseudo_steam.exceptions.BucketNotEmptyException;
 import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import com.dreamseeker.pseudo_steam.exceptions.RangeNotSatisfiableException;
+import com.dreamseeker.pseudo_steam.exceptions.UploadDoesNotExistException;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 public interface ObjectStorageClient {
@@ -14,21 +18,45 @@ public interface ObjectStorageClient {
 
     BucketsPage fetchBuckets(Integer limit, String continuationToken);
 
+    boolean bucketExists(String bucketName);
+
     void deleteBucket(String bucketName) throws BucketDoesNotExistException, BucketNotEmptyException;
 
     ObjectUploadResponse putObjectSinglePartUpload(String bucketName, String objectKey, MultipartFile file) throws BucketDoesNotExistException;
 
     ObjectUploadResponse putObjectMultiPartUpload(String bucketName, String objectKey, MultipartFile file);
 
+    ObjectUploadResponse putObjectStreamingUpload(String bucketName, String objectKey, MultipartFile file);
+
+    ObjectsPage listObjects(String bucketName, Integer limit, String continuationToken) throws BucketDoesNotExistException;
+
     void getObject(String bucketName, String objectKey, String versionId) throws ObjectDoesNotExistsException, BucketDoesNotExistException;
 
+    GameContent fetchObjectContent(String bucketName, String objectKey, String range, String ifRange) throws ObjectDoesNotExistsException, BucketDoesNotExistException, RangeNotSatisfiableException;
+
+    DownloadManifestPage fetchDownloadManifest(String bucketName, String objectKey, String versionId, int fromChunk, int count) throws ObjectDoesNotExistsException, BucketDoesNotExistException;
+
     String deleteObject(String bucketName, String objectKey, String versionId) throws BucketDoesNotExistException, ObjectDoesNotExistsException;
 
     InitiateUploadResponse initiateUpload(String studioId, InitiateUploadRequest initiateUploadRequest);
 
-    void completeUpload(String studioId, CompleteUploadRequest completeUploadRequest);
+    PreSignedPartsPage presignUploadParts(String bucketName, String objectKey, String uploadId, Long fileSize, Long partSize, int fromPart, int count) throws UploadDoesNotExistException;
+
+    ResumeUploadResponse resumeUpload(String bucketName, String objectKey, String uploadId, Long fileSize, Long partSize) throws UploadDoesNotExistException, BucketDoesNotExistException;
+
+    void completeUpload(String studioId, CompleteUploadRequest completeUploadRequest) throws UploadDoesNotExistException;
+
+    List<String> abortStaleUploads(String bucketName, Instant initiatedBefore) throws BucketDoesNotExistException;
+
+    ChunkedUploadResponse initiateChunkedUpload(String bucketName, ChunkedUploadRequest chunkedUploadRequest) throws BucketDoesNotExistException;
+
+    ObjectUploadResponse commitChunkedUpload(String bucketName, ChunkedUploadRequest chunkedUploadRequest) throws BucketDoesNotExistException;
 
     GameInfo fetchObjectMetadata(String bucketName, String objectKey) throws ObjectDoesNotExistsException, BucketDoesNotExistException;
 
     GameInfo modifyObjectMetadata(String bucketName, String objectKey, Map<String, String> metadata) throws ObjectDoesNotExistsException, BucketDoesNotExistException;
+
+    GameInfo persistObjectMetadata(String bucketName, String objectKey) throws ObjectDoesNotExistsException, BucketDoesNotExistException;
+
+    ObjectUploadResponse restoreObjectVersion(String bucketName, String objectKey, String versionId) throws ObjectDoesNotExistsException, BucketDoesNotExistException;
 }
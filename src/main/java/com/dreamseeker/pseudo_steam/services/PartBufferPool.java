@@ -0,0 +1,113 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Part buffers shared by all uploads, keyed by size, holding at most {@code capacity} bytes of buffers in use and
+ * idle. Released buffers are kept for the next part of the same size; idle buffers of other sizes are dropped when
+ * a new size needs their room. {@link #acquire(int...)} blocks while the buffers in use leave no room, so uploads
+ * running at the same time share the memory instead of each allocating its own parts in flight.
+ */
+public class PartBufferPool {
+
+    private final long capacity;
+    private final Map<Integer, Deque<byte[]>> idle = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private long allocated;
+    private long idleBytes;
+
+    public PartBufferPool(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Acquires one buffer of every given size at once, so a caller never holds some of them while it waits for
+     * the others.
+     */
+    public byte[][] acquire(int... sizes) throws InterruptedException {
+        long requested = 0;
+        for (int size : sizes)
+            requested += size;
+        if (requested > capacity)
+            throw new IllegalArgumentException(String.format("%d bytes of part buffers exceed the pool capacity of %d bytes", requested, capacity));
+
+        lock.lockInterruptibly();
+        try {
+            while (allocated - idleBytes + requested > capacity)
+                released.await();
+
+            byte[][] buffers = new byte[sizes.length][];
+            long missing = 0;
+            for (int i = 0; i < sizes.length; i++) {
+                Deque<byte[]> sameSize = idle.get(sizes[i]);
+                buffers[i] = sameSize == null ? null : sameSize.poll();
+                if (buffers[i] != null)
+                    idleBytes -= sizes[i];
+                else
+                    missing += sizes[i];
+            }
+            evictIdle(allocated + missing - capacity);
+            for (int i = 0; i < sizes.length; i++) {
+                if (buffers[i] == null) {
+                    buffers[i] = new byte[sizes[i]];
+                    allocated += sizes[i];
+                }
+            }
+            return buffers;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public byte[] acquire(int size) throws InterruptedException {
+        return acquire(new int[]{size})[0];
+    }
+
+    public void release(byte[]... buffers) {
+        lock.lock();
+        try {
+            for (byte[] buffer : buffers) {
+                idle.computeIfAbsent(buffer.length, size -> new ArrayDeque<>()).push(buffer);
+                idleBytes += buffer.length;
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    long allocated() {
+        lock.lock();
+        try {
+            return allocated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictIdle(long bytes) {
+        Iterator<Deque<byte[]>> sizes = idle.values().iterator();
+        while (bytes > 0 && sizes.hasNext()) {
+            Deque<byte[]> sameSize = sizes.next();
+            while (bytes > 0 && !sameSize.isEmpty()) {
+                int length = sameSize.pop().length;
+                allocated -= length;
+                idleBytes -= length;
+                bytes -= length;
+            }
+            if (sameSize.isEmpty())
+                sizes.remove();
+        }
+    }
+}
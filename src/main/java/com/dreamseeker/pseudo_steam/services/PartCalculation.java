@@ -0,0 +1,17 @@
+package com.dreamseeker.pseudo_steam.services;
+
+public record PartCalculation(long partSize, int partCount) {
+
+    static final long MIN_PART_SIZE = 5 * 1024 * 1024;
+    static final long MAX_PART_SIZE = 5L * 1024 * 1024 * 1024;
+    static final int MAX_PARTS = 10000;
+    private static final long MB = 1024 * 1024;
+
+    /**
+     * Rounds the part size up to the nearest MB for cleaner numbers and derives the part count from it.
+     */
+    static PartCalculation of(long fileSize, long partSize) {
+        long roundedPartSize = ((partSize + MB - 1) / MB) * MB;
+        return new PartCalculation(roundedPartSize, (int) ((fileSize + roundedPartSize - 1) / roundedPartSize));
+    }
+}
@@ -0,0 +1,271 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import lombok.AllArgsConstructor;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import static com.dreamseeker.pseudo_steam.services.PartCalculation.MIN_PART_SIZE;
+
+/**
+ * Deflate compression of game objects with one self-contained frame per part, so parts are still compressed,
+ * uploaded and fetched in parallel, and a range of the game only needs the parts it spans. A frame is a one byte
+ * type and the eight byte length of its payload, followed by the payload, deflated or stored as is when deflating
+ * does not pay off. Compressed objects record the codec, their uncompressed size and the uncompressed size of a
+ * part in their metadata.
+ * <p>
+ * S3 needs every part but the last to be at least {@value PartCalculation#MIN_PART_SIZE} bytes, so a part that
+ * would deflate below that is stored too.
+ */
+@AllArgsConstructor
+public class PartCompressor {
+
+    static final String CODEC = "codec";
+    static final String DEFLATE = "deflate";
+    static final String UNCOMPRESSED_SIZE = "uncompressed-size";
+    static final String UNCOMPRESSED_PART_SIZE = "uncompressed-part-size";
+    static final int FRAME_HEADER_SIZE = 9;
+    private static final byte STORED = 0;
+    private static final byte DEFLATED = 1;
+
+    private final boolean enabled;
+    private final int level;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    static boolean isCompressed(Map<String, String> metadata) {
+        return metadata != null && DEFLATE.equals(metadata.get(CODEC));
+    }
+
+    static long uncompressedSize(Map<String, String> metadata) {
+        return Long.parseLong(metadata.get(UNCOMPRESSED_SIZE));
+    }
+
+    static long uncompressedPartSize(Map<String, String> metadata) {
+        return Long.parseLong(metadata.get(UNCOMPRESSED_PART_SIZE));
+    }
+
+    static Map<String, String> metadata(Map<String, String> metadata, long uncompressedSize, long uncompressedPartSize) {
+        Map<String, String> compressedMetadata = new HashMap<>(metadata == null ? Map.of() : metadata);
+        compressedMetadata.put(CODEC, DEFLATE);
+        compressedMetadata.put(UNCOMPRESSED_SIZE, Long.toString(uncompressedSize));
+        compressedMetadata.put(UNCOMPRESSED_PART_SIZE, Long.toString(uncompressedPartSize));
+        return compressedMetadata;
+    }
+
+    static int maxFrameSize(int length) {
+        return length + FRAME_HEADER_SIZE;
+    }
+
+    /**
+     * Encodes {@code source[0, length)} as one frame at the start of {@code target}, which must hold
+     * {@link #maxFrameSize} bytes, and returns the length of the frame.
+     */
+    int encode(byte[] source, int length, byte[] target, boolean lastPart) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(source, 0, length);
+            deflater.finish();
+            int deflated = 0;
+            while (!deflater.finished() && deflated < length)
+                deflated += deflater.deflate(target, FRAME_HEADER_SIZE + deflated, length - deflated);
+            if (deflater.finished() && deflated < length && (lastPart || deflated + FRAME_HEADER_SIZE >= MIN_PART_SIZE))
+                return frame(target, DEFLATED, deflated);
+            System.arraycopy(source, 0, target, FRAME_HEADER_SIZE, length);
+            return frame(target, STORED, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Deflates the whole stream as a single frame into {@code target}. Returns the length of the frame, or -1 when
+     * it is not smaller than the content, which is then better uploaded as is.
+     */
+    long encode(InputStream source, long length, Path target) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(FRAME_HEADER_SIZE);
+            Deflater deflater = new Deflater(level);
+            try {
+                DeflaterOutputStream deflating = new DeflaterOutputStream(Channels.newOutputStream(channel), deflater, 64 * 1024);
+                source.transferTo(deflating);
+                deflating.finish();
+            } finally {
+                deflater.end();
+            }
+            long deflated = channel.position() - FRAME_HEADER_SIZE;
+            if (deflated >= length)
+                return -1;
+            channel.write(header(DEFLATED, deflated), 0);
+            return channel.position();
+        }
+    }
+
+    /**
+     * Returns the content of consecutive frames read from {@code encoded}.
+     */
+    static InputStream decoding(InputStream encoded) {
+        return new FrameInputStream(encoded);
+    }
+
+    /**
+     * Replaces a downloaded compressed object with its content.
+     */
+    static void decode(Path path) throws IOException {
+        Path decodedFile = path.resolveSibling(path.getFileName() + ".decoded");
+        try (InputStream decoded = decoding(Files.newInputStream(path));
+             OutputStream outputStream = Files.newOutputStream(decodedFile)) {
+            decoded.transferTo(outputStream);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(decodedFile);
+            throw e;
+        }
+        Files.move(decodedFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Copies at most {@code limit} bytes and returns how many were copied.
+     */
+    static long transfer(InputStream inputStream, OutputStream outputStream, long limit) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long copied = 0;
+        int read;
+        while (copied < limit && (read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, limit - copied))) != -1) {
+            outputStream.write(buffer, 0, read);
+            copied += read;
+        }
+        return copied;
+    }
+
+    private static int frame(byte[] target, byte type, int payloadLength) {
+        header(type, payloadLength).get(target, 0, FRAME_HEADER_SIZE);
+        return FRAME_HEADER_SIZE + payloadLength;
+    }
+
+    private static ByteBuffer header(byte type, long payloadLength) {
+        return ByteBuffer.allocate(FRAME_HEADER_SIZE).put(type).putLong(payloadLength).flip();
+    }
+
+    private static final class FrameInputStream extends InputStream {
+
+        private final DataInputStream encoded;
+        private PayloadInputStream payload;
+        private InputStream frame;
+        private Inflater inflater;
+
+        private FrameInputStream(InputStream encoded) {
+            this.encoded = new DataInputStream(encoded);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0)
+                return 0;
+            while (true) {
+                if (frame == null && !nextFrame())
+                    return -1;
+                int read = frame.read(buffer, offset, length);
+                if (read != -1)
+                    return read;
+                endFrame();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (inflater != null)
+                inflater.end();
+            encoded.close();
+        }
+
+        private boolean nextFrame() throws IOException {
+            int type = encoded.read();
+            if (type == -1)
+                return false;
+            long payloadLength;
+            try {
+                payloadLength = encoded.readLong();
+            } catch (EOFException e) {
+                throw new IOException("Truncated compressed frame header", e);
+            }
+            payload = new PayloadInputStream(encoded, payloadLength);
+            if (type == DEFLATED) {
+                inflater = new Inflater();
+                frame = new InflaterInputStream(payload, inflater, 64 * 1024);
+            } else if (type == STORED) {
+                frame = payload;
+            } else {
+                throw new IOException("Unknown compressed frame type " + type);
+            }
+            return true;
+        }
+
+        private void endFrame() throws IOException {
+            if (payload.remaining > 0)
+                payload.skipNBytes(payload.remaining);
+            if (inflater != null) {
+                inflater.end();
+                inflater = null;
+            }
+            frame = null;
+            payload = null;
+        }
+    }
+
+    private static final class PayloadInputStream extends InputStream {
+
+        private final InputStream inputStream;
+        private long remaining;
+
+        private PayloadInputStream(InputStream inputStream, long length) {
+            this.inputStream = inputStream;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining == 0)
+                return -1;
+            int read = inputStream.read();
+            if (read == -1)
+                throw new EOFException("Truncated compressed frame");
+            remaining--;
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining == 0)
+                return -1;
+            int read = inputStream.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read == -1)
+                throw new EOFException("Truncated compressed frame");
+            remaining -= read;
+            return read;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.domains.InitiateUploadRequest;
+import com.dreamseeker.pseudo_steam.domains.UploadSession;
+
+import java.time.Duration;
+
+/**
+ * Chooses the part layout of a multipart upload. Implementations may learn from completed uploads through
+ * {@link #recordUpload(UploadSession, Duration)}.
+ */
+public interface PartSizingStrategy {
+
+    PartCalculation partsFor(String studioId, long fileSize, Hints hints);
+
+    default void recordUpload(UploadSession session, Duration elapsed) {
+    }
+
+    /**
+     * What the uploader told us about its link: how many parts it uploads at once and its total upload bandwidth
+     * in bytes per second. Either may be {@code null}.
+     */
+    record Hints(Integer parallelism, Long bandwidthBytesPerSecond) {
+        public static final Hints NONE = new Hints(null, null);
+
+        public static Hints of(InitiateUploadRequest initiateUploadRequest) {
+            return new Hints(initiateUploadRequest.parallelism(), initiateUploadRequest.bandwidthBytesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.domains.PreSignedPartUrl;
+import lombok.AllArgsConstructor;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedUploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.model.UploadPartPresignRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Presigns upload part URLs. Signing is pure CPU work, so windows larger than {@value #PARTS_PER_TASK}
+ * parts are split into chunks that are signed in parallel on {@code presignExecutor}. Only the first
+ * {@code initialParts} parts are signed when an upload is initiated; later windows are signed on demand.
+ * Part URLs are signed for CRC32C, so every part must be sent with its {@code x-amz-checksum-crc32c}.
+ */
+@AllArgsConstructor
+public class PreSignedUrlGenerator {
+
+    static final int PARTS_PER_TASK = 250;
+    private static final Duration SIGNATURE_DURATION = Duration.ofHours(1);
+
+    private final S3Presigner s3Presigner;
+    private final ExecutorService presignExecutor;
+    private final int initialParts;
+    private final int maxPartsPerRequest;
+
+    public List<PreSignedPartUrl> generateInitialPreSignedUrls(String bucketName, String objectKey, String uploadId,
+                                                               int partCount, long partSize, long totalFileSize) {
+        int count = initialParts > 0 ? Math.min(initialParts, partCount) : partCount;
+        return presign(bucketName, objectKey, uploadId, partRange(1, count), partCount, partSize, totalFileSize);
+    }
+
+    public List<PreSignedPartUrl> generatePreSignedUrlsWindow(String bucketName, String objectKey, String uploadId, int fromPart,
+                                                              int count, int partCount, long partSize, long totalFileSize) {
+        if (fromPart < 1 || fromPart > partCount || count < 1)
+            throw new IllegalArgumentException(String.format("Parts %d..%d are outside of 1..%d", fromPart, fromPart + count - 1, partCount));
+        int lastPart = (int) Math.min(partCount, (long) fromPart + Math.min(count, maxPartsPerRequest) - 1);
+        return presign(bucketName, objectKey, uploadId, partRange(fromPart, lastPart), partCount, partSize, totalFileSize);
+    }
+
+    /**
+     * Presigns an arbitrary set of parts, e.g. the parts still missing from a resumed upload. At most
+     * {@code maxPartsPerRequest} of the given parts are signed, in the order given.
+     */
+    public List<PreSignedPartUrl> generatePreSignedUrlsForParts(String bucketName, String objectKey, String uploadId, List<Integer> partNumbers,
+                                                                int partCount, long partSize, long totalFileSize) {
+        for (int partNumber : partNumbers) {
+            if (partNumber < 1 || partNumber > partCount)
+                throw new IllegalArgumentException(String.format("Part %d is outside of 1..%d", partNumber, partCount));
+        }
+        List<Integer> parts = partNumbers.subList(0, Math.min(partNumbers.size(), maxPartsPerRequest));
+        return presign(bucketName, objectKey, uploadId, parts, partCount, partSize, totalFileSize);
+    }
+
+    private static List<Integer> partRange(int firstPart, int lastPart) {
+        return IntStream.rangeClosed(firstPart, lastPart).boxed().toList();
+    }
+
+    private List<PreSignedPartUrl> presign(String bucketName, String objectKey, String uploadId, List<Integer> partNumbers,
+                                           int partCount, long partSize, long totalFileSize) {
+        List<CompletableFuture<List<PreSignedPartUrl>>> chunks = new ArrayList<>();
+        for (int chunkStart = 0; chunkStart < partNumbers.size(); chunkStart += PARTS_PER_TASK) {
+            List<Integer> chunk = partNumbers.subList(chunkStart, Math.min(partNumbers.size(), chunkStart + PARTS_PER_TASK));
+            Supplier<List<PreSignedPartUrl>> signing = () -> chunk.stream()
+                    .map(partNumber -> presignPart(bucketName, objectKey, uploadId, partNumber, partCount, partSize, totalFileSize))
+                    .toList();
+            chunks.add(partNumbers.size() <= PARTS_PER_TASK
+                    ? CompletableFuture.completedFuture(signing.get())
+                    : CompletableFuture.supplyAsync(signing, presignExecutor));
+        }
+        List<PreSignedPartUrl> preSignedUrls = new ArrayList<>(partNumbers.size());
+        chunks.forEach(chunk -> preSignedUrls.addAll(chunk.join()));
+        return preSignedUrls;
+    }
+
+    private PreSignedPartUrl presignPart(String bucketName, String objectKey, String uploadId, int partNumber,
+                                        int partCount, long partSize, long totalFileSize) {
+        long currentPartSize = partSize;
+        if (partNumber == partCount)
+            currentPartSize = totalFileSize - (partSize * (partCount - 1));
+
+        UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+                .bucket(bucketName)
+                .key(objectKey)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .checksumAlgorithm(ChecksumAlgorithm.CRC32C)
+                .build();
+
+        UploadPartPresignRequest presignRequest = UploadPartPresignRequest.builder()
+                .signatureDuration(SIGNATURE_DURATION)
+                .uploadPartRequest(uploadPartRequest)
+                .build();
+        PresignedUploadPartRequest presignedRequest = s3Presigner.presignUploadPart(presignRequest);
+
+        return new PreSignedPartUrl(
+                partNumber,
+                presignedRequest.url().toString(),
+                currentPartSize
+        );
+    }
+}
@@ -0,0 +1,244 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.ChecksumType;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ObjectPart;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.CRC32C;
+
+/**
+ * Downloads an object as concurrent byte range GETs written with positional writes into a
+ * file sized to the object up front. Every range is pinned to the version and ETag returned by the initial HEAD,
+ * so a concurrent overwrite can never produce a mixed file. Failed ranges are retried on their own.
+ * The CRC32C of every range is computed as its bytes are written and checked against the object's checksum, or
+ * against the checksum of every part when the object only has a composite checksum.
+ */
+@Slf4j
+@AllArgsConstructor
+public class RangedDownloadEngine {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final long RETRY_BACKOFF_MILLIS = 200;
+
+    private final S3Client s3Client;
+    private final ExecutorService executor;
+    private final long rangeSize;
+    private final int maxConcurrentRanges;
+    private final int maxAttempts;
+
+    public HeadObjectResponse download(String bucketName, String objectKey, String versionId, Path target) throws IOException, InterruptedException {
+        HeadObjectResponse headObjectResponse = s3Client.headObject(HeadObjectRequest.builder()
+                .bucket(bucketName)
+                .key(objectKey)
+                .versionId(versionId)
+                .checksumMode(ChecksumMode.ENABLED)
+                .build());
+        download(bucketName, objectKey, headObjectResponse, target);
+        return headObjectResponse;
+    }
+
+    /**
+     * Downloads the version described by {@code headObjectResponse}, which must have been fetched with checksums enabled.
+     */
+    public void download(String bucketName, String objectKey, HeadObjectResponse headObjectResponse, Path target) throws IOException, InterruptedException {
+        long objectSize = headObjectResponse.contentLength();
+        List<ObjectPart> parts = checkedParts(bucketName, objectKey, headObjectResponse);
+        List<ByteRange> ranges = parts == null ? split(objectSize, rangeSize) : split(parts, rangeSize);
+        log.info("Downloading {} ({} bytes) in {} ranges", objectKey, objectSize, ranges.size());
+
+        Path partialFile = target.resolveSibling(target.getFileName() + ".part");
+        try (FileChannel channel = FileChannel.open(partialFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            extendSparse(partialFile, channel, objectSize);
+            long[] rangeChecksums = fetchRanges(bucketName, objectKey, headObjectResponse, ranges, channel);
+            if (parts == null)
+                verify(objectKey, headObjectResponse, ranges, rangeChecksums);
+            else
+                verifyParts(objectKey, parts, ranges, rangeChecksums);
+            channel.force(false);
+        } catch (RuntimeException | IOException | InterruptedException e) {
+            Files.deleteIfExists(partialFile);
+            throw e;
+        }
+        Files.move(partialFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static List<ByteRange> split(long objectSize, long rangeSize) {
+        List<ByteRange> ranges = new ArrayList<>();
+        for (long start = 0; start < objectSize; start += rangeSize)
+            ranges.add(new ByteRange(start, Math.min(start + rangeSize, objectSize) - 1));
+        return ranges;
+    }
+
+    /**
+     * Splits every part into ranges of its own, so no range spans two parts.
+     */
+    static List<ByteRange> split(List<ObjectPart> parts, long rangeSize) {
+        List<ByteRange> ranges = new ArrayList<>();
+        long partStart = 0;
+        for (ObjectPart part : parts) {
+            for (ByteRange range : split(part.size(), rangeSize))
+                ranges.add(new ByteRange(partStart + range.start(), partStart + range.end()));
+            partStart += part.size();
+        }
+        return ranges;
+    }
+
+    /**
+     * Lists the parts of an object that only has a composite checksum, which is a checksum of its part checksums
+     * and cannot be compared with the content. Returns {@code null} when the object has a full object checksum or
+     * none, or when its parts do not carry checksums that cover the object.
+     */
+    private List<ObjectPart> checkedParts(String bucketName, String objectKey, HeadObjectResponse headObjectResponse) {
+        String checksum = headObjectResponse.checksumCRC32C();
+        if (checksum == null || headObjectResponse.checksumType() != ChecksumType.COMPOSITE && !checksum.contains("-"))
+            return null;
+        List<ObjectPart> parts = ObjectParts.list(s3Client, bucketName, objectKey, headObjectResponse.versionId());
+        if (parts.isEmpty() || parts.stream().anyMatch(part -> part.checksumCRC32C() == null)
+                || parts.stream().mapToLong(ObjectPart::size).sum() != headObjectResponse.contentLength()) {
+            log.debug("No part CRC32Cs stored for {}, skipping verification", objectKey);
+            return null;
+        }
+        return parts;
+    }
+
+    /**
+     * Extends the file to the object size as a sparse file, which does not reserve the space. The download fails
+     * straight away when the file store does not have that much free, rather than after most of it was fetched.
+     */
+    private void extendSparse(Path file, FileChannel channel, long objectSize) throws IOException {
+        long usableSpace = Files.getFileStore(file).getUsableSpace();
+        if (objectSize > usableSpace)
+            throw new IOException(String.format("Downloading %d bytes to %s needs more than the %d bytes free", objectSize, file, usableSpace));
+        if (objectSize > 0)
+            channel.write(ByteBuffer.allocate(1), objectSize - 1);
+    }
+
+    private long[] fetchRanges(String bucketName, String objectKey, HeadObjectResponse headObjectResponse,
+                               List<ByteRange> ranges, FileChannel channel) throws InterruptedException {
+        BoundedFanOut fanOut = new BoundedFanOut(executor, maxConcurrentRanges);
+        long[] rangeChecksums = new long[ranges.size()];
+
+        for (int i = 0; i < ranges.size(); i++) {
+            int rangeIndex = i;
+            ByteRange range = ranges.get(i);
+            if (!fanOut.submit(() -> rangeChecksums[rangeIndex] = fetchRange(bucketName, objectKey, headObjectResponse, range, channel)))
+                break;
+        }
+        fanOut.await();
+        return rangeChecksums;
+    }
+
+    /**
+     * Combines the CRC32C of every range, computed while the range was written, into the checksum of the whole
+     * object and compares it with the one S3 stored. Only full object checksums can be checked this way; composite
+     * checksums of multipart uploads are checksums of the part checksums, which {@link #verifyParts} checks instead.
+     */
+    private void verify(String objectKey, HeadObjectResponse headObjectResponse, List<ByteRange> ranges, long[] rangeChecksums) throws IOException {
+        String expected = headObjectResponse.checksumCRC32C();
+        if (expected == null || headObjectResponse.checksumType() == ChecksumType.COMPOSITE || expected.contains("-")) {
+            log.debug("No full object CRC32C stored for {}, skipping verification", objectKey);
+            return;
+        }
+        long crc = 0;
+        for (int i = 0; i < ranges.size(); i++)
+            crc = Crc32c.combine(crc, rangeChecksums[i], ranges.get(i).end() - ranges.get(i).start() + 1);
+        String actual = Crc32c.encode(crc);
+        if (!actual.equals(expected))
+            throw new IOException(String.format("CRC32C mismatch for %s: expected %s, downloaded %s", objectKey, expected, actual));
+    }
+
+    /**
+     * Combines the CRC32C of the ranges of every part and compares it with the checksum S3 stored for the part.
+     */
+    private void verifyParts(String objectKey, List<ObjectPart> parts, List<ByteRange> ranges, long[] rangeChecksums) throws IOException {
+        int rangeIndex = 0;
+        for (ObjectPart part : parts) {
+            long crc = 0;
+            for (long covered = 0; covered < part.size(); rangeIndex++) {
+                long length = ranges.get(rangeIndex).end() - ranges.get(rangeIndex).start() + 1;
+                crc = Crc32c.combine(crc, rangeChecksums[rangeIndex], length);
+                covered += length;
+            }
+            String actual = Crc32c.encode(crc);
+            if (!actual.equals(part.checksumCRC32C()))
+                throw new IOException(String.format("CRC32C mismatch for part %d of %s: expected %s, downloaded %s",
+                        part.partNumber(), objectKey, part.checksumCRC32C(), actual));
+        }
+    }
+
+    private long fetchRange(String bucketName, String objectKey, HeadObjectResponse headObjectResponse, ByteRange range, FileChannel channel) {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(objectKey)
+                .versionId(headObjectResponse.versionId())
+                .ifMatch(headObjectResponse.eTag())
+                .range(range.header())
+                .build();
+        for (int attempt = 1; ; attempt++) {
+            try (ResponseInputStream<GetObjectResponse> response = s3Client.getObject(getObjectRequest)) {
+                return writeAt(response, channel, range.start());
+            } catch (IOException | SdkClientException | S3Exception e) {
+                if (attempt >= maxAttempts || !isRetryable(e))
+                    throw e instanceof IOException ioException ? new UncheckedIOException(ioException) : (RuntimeException) e;
+                log.warn("Range {} of {} failed (attempt {}/{}), retrying", range.header(), objectKey, attempt, maxAttempts, e);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private long writeAt(InputStream inputStream, FileChannel channel, long position) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        CRC32C crc = new CRC32C();
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            crc.update(buffer, 0, read);
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+            while (byteBuffer.hasRemaining())
+                position += channel.write(byteBuffer, position);
+        }
+        return crc.getValue();
+    }
+
+    private boolean isRetryable(Exception e) {
+        if (e instanceof S3Exception s3Exception)
+            return s3Exception.statusCode() >= 500;
+        return true;
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(RETRY_BACKOFF_MILLIS << (attempt - 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying range", e);
+        }
+    }
+
+    record ByteRange(long start, long end) {
+        String header() {
+            return "bytes=" + start + "-" + end;
+        }
+    }
+}
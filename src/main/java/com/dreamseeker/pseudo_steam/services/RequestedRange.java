@@ -0,0 +1,76 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.exceptions.RangeNotSatisfiableException;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Single byte range resolved from a {@code Range} header against a known object size. Multi range
+ * requests and malformed headers resolve to {@code null}, which means the full object is served.
+ */
+record RequestedRange(long start, long end, long objectSize) {
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    static RequestedRange resolve(String rangeHeader, String ifRangeHeader, String eTag, Instant lastModified, long objectSize)
+            throws RangeNotSatisfiableException {
+        if (rangeHeader == null || !rangeHeader.startsWith(BYTES_UNIT) || rangeHeader.contains(","))
+            return null;
+        if (ifRangeHeader != null && !ifRangeMatches(ifRangeHeader, eTag, lastModified))
+            return null;
+
+        String spec = rangeHeader.substring(BYTES_UNIT.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0)
+            return null;
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                long suffixLength = Long.parseLong(spec.substring(1));
+                if (suffixLength == 0)
+                    throw new RangeNotSatisfiableException(objectSize);
+                start = Math.max(0, objectSize - suffixLength);
+                end = objectSize - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? objectSize - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), objectSize - 1);
+                if (end < start && start < objectSize)
+                    return null;
+            }
+            if (start >= objectSize)
+                throw new RangeNotSatisfiableException(objectSize);
+            return new RequestedRange(start, end, objectSize);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean ifRangeMatches(String ifRangeHeader, String eTag, Instant lastModified) {
+        if (ifRangeHeader.startsWith("W/"))
+            return false;
+        if (ifRangeHeader.startsWith("\""))
+            return ifRangeHeader.equals(eTag);
+        try {
+            Instant ifRangeDate = ZonedDateTime.parse(ifRangeHeader, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return lastModified != null && lastModified.getEpochSecond() == ifRangeDate.getEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    long length() {
+        return end - start + 1;
+    }
+
+    String header() {
+        return BYTES_UNIT + start + "-" + end;
+    }
+
+    String contentRange() {
+        return "bytes " + start + "-" + end + "/" + objectSize;
+    }
+}
@@ -0,0 +1,75 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls: the first caller for a key runs the call, and every caller that
+ * arrives while it is in flight waits for and shares its result or exception. Nothing is kept once the
+ * call completes, so the next caller always reaches S3 again.
+ */
+class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    <E1 extends Exception, E2 extends Exception> V execute(K key, Call<V, E1, E2> call) throws E1, E2 {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtimeException)
+                    throw runtimeException;
+                if (cause instanceof Error error)
+                    throw error;
+                throw (E1) cause;
+            }
+        }
+
+        try {
+            V value = call.call();
+            inFlight.remove(key, flight);
+            flight.complete(value);
+            return value;
+        } catch (Throwable e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    CompletableFuture<V> submit(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null)
+            return existing.copy();
+
+        try {
+            call.get().whenComplete((value, e) -> {
+                inFlight.remove(key, flight);
+                if (e != null)
+                    flight.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                else
+                    flight.complete(value);
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+        }
+        return flight.copy();
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    @FunctionalInterface
+    interface Call<V, E1 extends Exception, E2 extends Exception> {
+        V call() throws E1, E2;
+    }
+}
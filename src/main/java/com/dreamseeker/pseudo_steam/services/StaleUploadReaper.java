@@ -0,0 +1,55 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.domains.BucketsPage;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.stores.UploadSessionRegistry;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Aborts multipart uploads in every studio that were initiated more than {@code maxAge} ago, so abandoned
+ * uploads stop accruing storage for their parts. Sessions of the same age are dropped from the registry too.
+ */
+@Slf4j
+@AllArgsConstructor
+public class StaleUploadReaper {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final ObjectStorageClient objectStorageClient;
+    private final UploadSessionRegistry uploadSessionRegistry;
+    private final Duration maxAge;
+
+    @Scheduled(initialDelayString = "${uploads.reaper.initial-delay:10m}", fixedDelayString = "${uploads.reaper.interval:1h}")
+    public void reap() {
+        Instant cutoff = Instant.now().minus(maxAge);
+        int aborted = 0;
+        try {
+            String continuationToken = null;
+            do {
+                BucketsPage page = objectStorageClient.fetchBuckets(PAGE_SIZE, continuationToken);
+                for (BucketsPage.Bucket bucket : page.buckets())
+                    aborted += reapStudio(bucket.bucketName(), cutoff);
+                continuationToken = page.continuationToken();
+            } while (continuationToken != null);
+        } catch (RuntimeException e) {
+            log.warn("Failed to reap stale uploads, aborted {} before failing", aborted, e);
+            return;
+        }
+        int expiredSessions = uploadSessionRegistry.removeInitiatedBefore(cutoff);
+        log.info("Aborted {} uploads and expired {} upload sessions initiated before {}", aborted, expiredSessions, cutoff);
+    }
+
+    private int reapStudio(String studioId, Instant cutoff) {
+        try {
+            return objectStorageClient.abortStaleUploads(studioId, cutoff).size();
+        } catch (BucketDoesNotExistException e) {
+            // deleted after it was listed
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.caches.StudioDirectory;
+import com.dreamseeker.pseudo_steam.domains.BucketsPage;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Component
+@AllArgsConstructor
+public class StudioDirectoryReconciler {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final ObjectStorageClient objectStorageClient;
+    private final StudioDirectory studioDirectory;
+
+    @Scheduled(initialDelayString = "${studios.directory.initial-delay:0s}", fixedDelayString = "${studios.directory.reconcile-interval:5m}")
+    public void reconcile() {
+        long startedAtNanos = System.nanoTime();
+        List<BucketsPage.Bucket> listed = new ArrayList<>();
+        try {
+            String continuationToken = null;
+            do {
+                BucketsPage page = objectStorageClient.fetchBuckets(PAGE_SIZE, continuationToken);
+                listed.addAll(page.buckets());
+                continuationToken = page.continuationToken();
+            } while (continuationToken != null);
+        } catch (RuntimeException e) {
+            log.warn("Failed to list studios, keeping the current studio directory", e);
+            return;
+        }
+
+        studioDirectory.reconcile(listed, startedAtNanos);
+        try {
+            studioDirectory.writeSnapshot();
+        } catch (IOException e) {
+            log.warn("Failed to write the studio directory snapshot", e);
+        }
+    }
+}
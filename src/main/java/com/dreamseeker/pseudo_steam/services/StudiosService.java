@@ -1,5 +1,9 @@
 package com.dreamseeker.pseudo_steam.services;
 
+import com.dreamseeker.pseudo_steam.caches.FrequencySketch;
+import com.dreamseeker.pseudo_steam.caches.GameInfoCache;
+import com.dreamseeker.pseudo_steam.caches.GameSearchIndex;
+import com.dreamseeker.pseudo_steam.caches.StudioDirectory;
 import com.dreamseeker.pseudo_steam.domains.BucketsPage;
 import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
 import com.dreamseeker.pseudo_steam.exceptions.BucketNameExistsException;
@@ -13,16 +17,28 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class StudiosService {
     private final ObjectStorageClient objectStorageClient;
+    private final GameInfoCache gameInfoCache;
+    private final StudioDirectory studioDirectory;
+    private final GameSearchIndex gameSearchIndex;
+    private final FrequencySketch frequencySketch;
 
     public BucketsPage.Bucket createStudio(String studioName) throws BucketNameExistsException {
-        return objectStorageClient.createBucket(studioName);
+        BucketsPage.Bucket bucket = objectStorageClient.createBucket(studioName);
+        studioDirectory.add(bucket);
+        return bucket;
     }
 
     public BucketsPage fetchStudios(Integer limit, String continuationToken) {
+        if (studioDirectory.isLoaded())
+            return studioDirectory.page(limit, continuationToken);
         return objectStorageClient.fetchBuckets(limit, continuationToken);
     }
 
     public void deleteStudio(String studioId) throws BucketNotEmptyException, BucketDoesNotExistException {
         objectStorageClient.deleteBucket(studioId);
+        studioDirectory.remove(studioId);
+        gameSearchIndex.removeStudio(studioId);
+        gameInfoCache.invalidateStudio(studioId);
+        frequencySketch.removeStudio(studioId);
     }
 }
@@ -0,0 +1,198 @@
+package com.dreamseeker.pseudo_steam.stores;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Mutable game metadata kept next to the immutable game binaries, so editing it does not rewrite the object
+ * in S3. Every change is appended to a log of checksummed records and applied to an in-memory index that
+ * answers reads. The log is replayed on startup, truncated after the last intact record, and compacted to
+ * one record per game once it holds more than {@code compactionThreshold} records and twice the live games.
+ */
+@Slf4j
+public class GameMetadataStore implements Closeable {
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte REMOVE_STUDIO = 3;
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 1024 * 1024;
+
+    private final Path logPath;
+    private final boolean fsync;
+    private final int compactionThreshold;
+    private final Map<Key, Map<String, String>> index = new ConcurrentHashMap<>();
+    private FileChannel channel;
+    private long records;
+
+    public GameMetadataStore(Path logPath, boolean fsync, int compactionThreshold) throws IOException {
+        this.logPath = logPath;
+        this.fsync = fsync;
+        this.compactionThreshold = compactionThreshold;
+        Files.createDirectories(logPath.toAbsolutePath().getParent());
+        long validLength = replay();
+        channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() > validLength) {
+            log.warn("Truncating {} bytes of incomplete records from {}", channel.size() - validLength, logPath);
+            channel.truncate(validLength);
+        }
+        channel.position(validLength);
+    }
+
+    public Map<String, String> get(String studioId, String gameName) {
+        return index.get(new Key(studioId, gameName));
+    }
+
+    public synchronized void put(String studioId, String gameName, Map<String, String> metadata) {
+        Map<String, String> stored = new HashMap<>();
+        metadata.forEach((name, value) -> {
+            if (value != null)
+                stored.put(name, value);
+        });
+        append(record(PUT, studioId, gameName, stored));
+        index.put(new Key(studioId, gameName), Map.copyOf(stored));
+    }
+
+    public synchronized void remove(String studioId, String gameName) {
+        if (index.remove(new Key(studioId, gameName)) != null)
+            append(record(REMOVE, studioId, gameName, null));
+    }
+
+    public synchronized void removeStudio(String studioId) {
+        if (index.keySet().removeIf(key -> key.studioId().equals(studioId)))
+            append(record(REMOVE_STUDIO, studioId, null, null));
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private long replay() throws IOException {
+        if (!Files.exists(logPath))
+            return 0;
+        long position = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logPath)))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length < 0 || length > MAX_RECORD_BYTES)
+                    break;
+                long checksum = in.readInt() & 0xFFFFFFFFL;
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                CRC32 crc32 = new CRC32();
+                crc32.update(payload);
+                if (crc32.getValue() != checksum)
+                    break;
+                apply(payload);
+                position += HEADER_BYTES + length;
+                records++;
+            }
+        } catch (EOFException e) {
+            // torn record at the tail, dropped when the log is reopened
+        }
+        log.info("Loaded metadata of {} games from {} log records", index.size(), records);
+        return position;
+    }
+
+    private void apply(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte operation = in.readByte();
+        String studioId = in.readUTF();
+        switch (operation) {
+            case PUT -> {
+                String gameName = in.readUTF();
+                int count = in.readInt();
+                Map<String, String> metadata = new HashMap<>(count);
+                for (int i = 0; i < count; i++)
+                    metadata.put(in.readUTF(), in.readUTF());
+                index.put(new Key(studioId, gameName), Map.copyOf(metadata));
+            }
+            case REMOVE -> index.remove(new Key(studioId, in.readUTF()));
+            case REMOVE_STUDIO -> index.keySet().removeIf(key -> key.studioId().equals(studioId));
+            default -> throw new IOException("Unknown metadata log operation " + operation);
+        }
+    }
+
+    private static ByteBuffer record(byte operation, String studioId, String gameName, Map<String, String> metadata) {
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(payload);
+            out.writeByte(operation);
+            out.writeUTF(studioId);
+            if (gameName != null)
+                out.writeUTF(gameName);
+            if (metadata != null) {
+                out.writeInt(metadata.size());
+                for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(entry.getValue());
+                }
+            }
+            byte[] bytes = payload.toByteArray();
+            CRC32 crc32 = new CRC32();
+            crc32.update(bytes);
+            return ByteBuffer.allocate(HEADER_BYTES + bytes.length)
+                    .putInt(bytes.length)
+                    .putInt((int) crc32.getValue())
+                    .put(bytes)
+                    .flip();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void append(ByteBuffer record) {
+        try {
+            while (record.hasRemaining())
+                channel.write(record);
+            if (fsync)
+                channel.force(false);
+            if (++records > compactionThreshold && records > 2L * index.size())
+                compact();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to " + logPath, e);
+        }
+    }
+
+    private void compact() throws IOException {
+        Path temp = logPath.resolveSibling(logPath.getFileName() + ".compacting");
+        try (FileChannel compacted = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<Key, Map<String, String>> entry : index.entrySet()) {
+                ByteBuffer record = record(PUT, entry.getKey().studioId(), entry.getKey().gameName(), entry.getValue());
+                while (record.hasRemaining())
+                    compacted.write(record);
+            }
+            compacted.force(true);
+        }
+        channel.close();
+        Files.move(temp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        log.info("Compacted {} to {} records", logPath, index.size());
+        records = index.size();
+    }
+
+    private record Key(String studioId, String gameName) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.dreamseeker.pseudo_steam.stores;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * The versions of every game of a local storage root, oldest first, each one kept as a small binary sidecar file
+ * next to the version files of its game. A sidecar holds what S3 would answer for a HEAD: size, modification
+ * time, content type, CRC32C and user metadata, and delete markers. Sidecars are parsed once and held in memory;
+ * an update rewrites the whole sidecar to a temporary file and moves it over the old one, so a crash leaves
+ * either the old or the new versions.
+ */
+public class GameVersionIndex {
+
+    private static final int MAGIC = 0x47564931;
+
+    private final Map<Path, List<Version>> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the versions recorded in the sidecar, oldest first, or an empty list when there is none.
+     */
+    public List<Version> versions(Path sidecar) throws IOException {
+        List<Version> cached = versions.get(sidecar);
+        if (cached != null)
+            return cached;
+        List<Version> read = read(sidecar);
+        versions.putIfAbsent(sidecar, read);
+        return read;
+    }
+
+    /**
+     * Replaces the versions of the sidecar with the result of {@code update} applied to the current ones, and
+     * returns them. Updates of the same index are serialized.
+     */
+    public synchronized List<Version> update(Path sidecar, UnaryOperator<List<Version>> update) throws IOException {
+        List<Version> updated = List.copyOf(update.apply(versions(sidecar)));
+        if (updated.isEmpty()) {
+            Files.deleteIfExists(sidecar);
+        } else {
+            write(sidecar, updated);
+        }
+        versions.put(sidecar, updated);
+        return updated;
+    }
+
+    /**
+     * Forgets the sidecars below {@code directory}, after it was deleted.
+     */
+    public void forget(Path directory) {
+        versions.keySet().removeIf(sidecar -> sidecar.startsWith(directory));
+    }
+
+    private static List<Version> read(Path sidecar) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException("Not a game version index: " + sidecar);
+            int count = in.readInt();
+            List<Version> read = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String versionId = in.readUTF();
+                boolean deleteMarker = in.readBoolean();
+                long size = in.readLong();
+                Instant lastModified = Instant.ofEpochMilli(in.readLong());
+                String contentType = readNullable(in);
+                String checksumCrc32c = readNullable(in);
+                int entries = in.readInt();
+                Map<String, String> metadata = new HashMap<>(entries);
+                for (int entry = 0; entry < entries; entry++)
+                    metadata.put(in.readUTF(), in.readUTF());
+                read.add(new Version(versionId, deleteMarker, size, lastModified, contentType, checksumCrc32c, Map.copyOf(metadata)));
+            }
+            return List.copyOf(read);
+        } catch (NoSuchFileException e) {
+            return List.of();
+        }
+    }
+
+    private static void write(Path sidecar, List<Version> versions) throws IOException {
+        Path temp = Files.createTempFile(sidecar.getParent(), sidecar.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(versions.size());
+            for (Version version : versions) {
+                out.writeUTF(version.versionId());
+                out.writeBoolean(version.deleteMarker());
+                out.writeLong(version.size());
+                out.writeLong(version.lastModified().toEpochMilli());
+                writeNullable(out, version.contentType());
+                writeNullable(out, version.checksumCrc32c());
+                out.writeInt(version.metadata().size());
+                for (Map.Entry<String, String> entry : version.metadata().entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(entry.getValue());
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null)
+            out.writeUTF(value);
+    }
+
+    public record Version(String versionId, boolean deleteMarker, long size, Instant lastModified, String contentType,
+                          String checksumCrc32c, Map<String, String> metadata) {
+
+        public String eTag() {
+            return "\"" + versionId + "\"";
+        }
+
+        public Version withMetadata(Map<String, String> newMetadata) {
+            return new Version(versionId, deleteMarker, size, lastModified, contentType, checksumCrc32c, Map.copyOf(newMetadata));
+        }
+    }
+}
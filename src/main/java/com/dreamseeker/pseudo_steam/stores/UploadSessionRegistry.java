@@ -0,0 +1,46 @@
+package com.dreamseeker.pseudo_steam.stores;
+
+import com.dreamseeker.pseudo_steam.domains.UploadSession;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Multipart uploads started through this service, keyed by upload id. A session records the part layout the
+ * upload was initiated with, so later presign and resume requests hand out URLs for the same parts. Sessions
+ * are dropped when the upload completes or is reaped; uploads started before a restart are rebuilt on demand.
+ */
+public class UploadSessionRegistry {
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    public void register(UploadSession session) {
+        sessions.put(session.uploadId(), session);
+    }
+
+    public UploadSession get(String uploadId) {
+        return sessions.get(uploadId);
+    }
+
+    public UploadSession remove(String uploadId) {
+        return sessions.remove(uploadId);
+    }
+
+    public int removeInitiatedBefore(Instant cutoff) {
+        int removed = 0;
+        for (Iterator<UploadSession> iterator = sessions.values().iterator(); iterator.hasNext(); ) {
+            Instant initiatedAt = iterator.next().initiatedAt();
+            if (initiatedAt != null && initiatedAt.isBefore(cutoff)) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,43 @@
+package com.dreamseeker.pseudo_steam.caches;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkIndexTest {
+
+    @Test
+    void unknownHashesAreTheOnesNotLoadedOrAdded() {
+        ChunkIndex chunkIndex = new ChunkIndex(10);
+        chunkIndex.load("studio", List.of("a", "b"));
+        chunkIndex.add("studio", List.of("c"));
+
+        assertThat(chunkIndex.unknown("studio", List.of("a", "c", "d"))).containsExactly("d");
+        assertThat(chunkIndex.unknown("other-studio", List.of("a"))).containsExactly("a");
+    }
+
+    @Test
+    void leastRecentlyUsedStudiosAreEvicted() {
+        ChunkIndex chunkIndex = new ChunkIndex(4);
+        chunkIndex.load("first", List.of("a", "b"));
+        chunkIndex.load("second", List.of("c", "d"));
+        chunkIndex.isLoaded("first");
+        chunkIndex.load("third", List.of("e"));
+
+        assertThat(chunkIndex.isLoaded("first")).isTrue();
+        assertThat(chunkIndex.isLoaded("second")).isFalse();
+        assertThat(chunkIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    void studiosLargerThanTheIndexAreNeverLoaded() {
+        ChunkIndex chunkIndex = new ChunkIndex(2);
+        chunkIndex.load("studio", List.of("a", "b", "c"));
+
+        assertThat(chunkIndex.isLoaded("studio")).isFalse();
+        assertThat(chunkIndex.isOversized("studio")).isTrue();
+        assertThat(chunkIndex.size()).isZero();
+    }
+}
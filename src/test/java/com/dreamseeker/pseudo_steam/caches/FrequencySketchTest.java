@@ -0,0 +1,82 @@
+package com.dreamseeker.pseudo_steam.caches;
+
+import com.dreamseeker.pseudo_steam.domains.HotGame;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FrequencySketchTest {
+
+    @Test
+    void frequencyCountsReadsOfAGame() {
+        FrequencySketch frequencySketch = new FrequencySketch(1000, 10);
+
+        for (int i = 0; i < 5; i++)
+            frequencySketch.increment("studio", "game");
+
+        assertThat(frequencySketch.frequency("studio", "game")).isEqualTo(5);
+        assertThat(frequencySketch.frequency("studio", "unread")).isZero();
+        assertThat(frequencySketch.frequency("other-studio", "game")).isZero();
+    }
+
+    @Test
+    void countersAreHalvedOnceTheSampleIsFull() {
+        FrequencySketch frequencySketch = new FrequencySketch(64, 10);
+        for (int i = 0; i < 100; i++)
+            frequencySketch.increment("studio", "hot");
+        int before = frequencySketch.frequency("studio", "hot");
+
+        for (int game = 0; game < 10; game++)
+            for (int i = 0; i < 54; i++)
+                frequencySketch.increment("studio", "cold-" + game);
+
+        assertThat(frequencySketch.frequency("studio", "hot")).isLessThanOrEqualTo(before / 2);
+    }
+
+    @Test
+    void hottestGamesComeFirst() {
+        FrequencySketch frequencySketch = new FrequencySketch(1000, 2);
+        for (int i = 0; i < 30; i++)
+            frequencySketch.increment("studio", "game-" + i);
+        for (int i = 0; i < 10; i++)
+            frequencySketch.increment("studio", "hottest");
+        for (int i = 0; i < 5; i++)
+            frequencySketch.increment("studio", "warm");
+
+        assertThat(frequencySketch.hottest(2)).extracting(HotGame::gameName).containsExactly("hottest", "warm");
+        assertThat(frequencySketch.hottest(10)).hasSize(2);
+    }
+
+    @Test
+    void removedStudioIsNoLongerHot() {
+        FrequencySketch frequencySketch = new FrequencySketch(1000, 10);
+        frequencySketch.increment("studio", "game");
+
+        frequencySketch.removeStudio("studio");
+
+        assertThat(frequencySketch.hottest(10)).isEmpty();
+    }
+
+    @Test
+    void concurrentReadsAreAllCounted() throws Exception {
+        FrequencySketch frequencySketch = new FrequencySketch(1000, 10);
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++)
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++)
+                        frequencySketch.increment("studio", "game");
+                }));
+            for (Future<?> future : futures)
+                future.get();
+        }
+
+        assertThat(frequencySketch.frequency("studio", "game")).isEqualTo(200);
+    }
+}
@@ -0,0 +1,151 @@
+package com.dreamseeker.pseudo_steam.caches;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameFileCacheTest {
+
+    @TempDir
+    private Path directory;
+
+    private final FrequencySketch frequencySketch = new FrequencySketch(1000, 10);
+
+    @Test
+    void publishedFileIsServedForItsVersionAndETagOnly() throws IOException {
+        GameFileCache gameFileCache = new GameFileCache(directory, 100, frequencySketch);
+
+        Path cached = gameFileCache.publish("studio", "game", "v1", "\"etag-1\"", staged(gameFileCache, 10));
+
+        assertThat(cached).hasSize(10);
+        assertThat(gameFileCache.get("studio", "game", "v1", "\"etag-1\"")).isEqualTo(cached);
+        assertThat(gameFileCache.get("studio", "game", "v1", "\"etag-2\"")).isNull();
+        assertThat(gameFileCache.get("studio", "game", "v2", "\"etag-1\"")).isNull();
+        assertThat(gameFileCache.get("other-studio", "game", "v1", "\"etag-1\"")).isNull();
+    }
+
+    @Test
+    void leastRecentlyUsedFilesAreEvictedOverTheByteBudget() throws IOException {
+        GameFileCache gameFileCache = new GameFileCache(directory, 100, frequencySketch);
+        Path first = gameFileCache.publish("studio", "first", null, "a", staged(gameFileCache, 40));
+        Path second = gameFileCache.publish("studio", "second", null, "b", staged(gameFileCache, 40));
+        gameFileCache.get("studio", "first", null, "a");
+        frequencySketch.increment("studio", "third");
+
+        gameFileCache.publish("studio", "third", null, "c", staged(gameFileCache, 40));
+
+        assertThat(gameFileCache.get("studio", "second", null, "b")).isNull();
+        assertThat(second).doesNotExist();
+        assertThat(first).exists();
+        assertThat(gameFileCache.bytes()).isEqualTo(80);
+        assertThat(gameFileCache.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void gamesNotHotterThanTheVictimAreNotAdmitted() throws IOException {
+        GameFileCache gameFileCache = new GameFileCache(directory, 100, frequencySketch);
+        Path popular = gameFileCache.publish("studio", "popular", null, "a", staged(gameFileCache, 60));
+        frequencySketch.increment("studio", "popular");
+        frequencySketch.increment("studio", "popular");
+        frequencySketch.increment("studio", "one-off");
+        Path stagedFile = staged(gameFileCache, 60);
+
+        assertThat(gameFileCache.publish("studio", "one-off", null, "b", stagedFile)).isNull();
+        assertThat(stagedFile).doesNotExist();
+        assertThat(popular).exists();
+        assertThat(gameFileCache.get("studio", "popular", null, "a")).isEqualTo(popular);
+    }
+
+    @Test
+    void newVersionAlwaysReplacesTheOldVersionOfTheSameGame() throws IOException {
+        GameFileCache gameFileCache = new GameFileCache(directory, 100, frequencySketch);
+        Path oldVersion = gameFileCache.publish("studio", "game", "v1", "a", staged(gameFileCache, 60));
+
+        Path newVersion = gameFileCache.publish("studio", "game", "v2", "b", staged(gameFileCache, 60));
+
+        assertThat(newVersion).exists();
+        assertThat(oldVersion).doesNotExist();
+        assertThat(gameFileCache.bytes()).isEqualTo(60);
+    }
+
+    @Test
+    void filesLargerThanTheCacheAreDropped() throws IOException {
+        GameFileCache gameFileCache = new GameFileCache(directory, 100, frequencySketch);
+        Path stagedFile = staged(gameFileCache, 101);
+
+        assertThat(gameFileCache.publish("studio", "game", null, "a", stagedFile)).isNull();
+        assertThat(stagedFile).doesNotExist();
+        assertThat(gameFileCache.bytes()).isZero();
+    }
+
+    @Test
+    void admissionIsKnownBeforeTheGameIsDownloaded() throws IOException {
+        GameFileCache gameFileCache = new GameFileCache(directory, 100, frequencySketch);
+        gameFileCache.publish("studio", "popular", null, "a", staged(gameFileCache, 60));
+        frequencySketch.increment("studio", "popular");
+        frequencySketch.increment("studio", "popular");
+        frequencySketch.increment("studio", "one-off");
+
+        assertThat(gameFileCache.admits("studio", "one-off", null, "b", 40)).isTrue();
+        assertThat(gameFileCache.admits("studio", "one-off", null, "b", 60)).isFalse();
+        assertThat(gameFileCache.admits("studio", "popular", null, "a", 60)).isTrue();
+        assertThat(gameFileCache.admits("studio", "popular", null, "c", 60)).isTrue();
+        assertThat(gameFileCache.admits("studio", "huge", null, "d", 101)).isFalse();
+    }
+
+    @Test
+    void indexRestoresEntriesAndDropsUnknownFiles() throws IOException {
+        GameFileCache gameFileCache = new GameFileCache(directory, 100, frequencySketch);
+        Path cached = gameFileCache.publish("studio", "game", "v1", "a", staged(gameFileCache, 10));
+        Path removed = gameFileCache.publish("studio", "removed", "v1", "b", staged(gameFileCache, 10));
+        Files.delete(removed);
+        Path orphan = Files.writeString(directory.resolve("studio").resolve("orphan"), "left behind");
+        Path staging = gameFileCache.stagingFile();
+
+        GameFileCache restarted = new GameFileCache(directory, 100, frequencySketch);
+        restarted.load();
+
+        assertThat(restarted.get("studio", "game", "v1", "a")).isEqualTo(cached);
+        assertThat(restarted.get("studio", "removed", "v1", "b")).isNull();
+        assertThat(restarted.bytes()).isEqualTo(10);
+        assertThat(orphan).doesNotExist();
+        assertThat(staging).doesNotExist();
+    }
+
+    @Test
+    void filesLeftWithoutAnIndexAreDropped() throws IOException {
+        GameFileCache gameFileCache = new GameFileCache(directory, 100, frequencySketch);
+        Path orphan = gameFileCache.publish("studio", "game", "v1", "a", staged(gameFileCache, 10));
+        Files.delete(directory.resolve(".index"));
+
+        GameFileCache restarted = new GameFileCache(directory, 100, frequencySketch);
+        restarted.load();
+
+        assertThat(orphan).doesNotExist();
+        assertThat(restarted.get("studio", "game", "v1", "a")).isNull();
+        assertThat(restarted.bytes()).isZero();
+    }
+
+    @Test
+    void removeStudioDeletesItsFiles() throws IOException {
+        GameFileCache gameFileCache = new GameFileCache(directory, 100, frequencySketch);
+        gameFileCache.publish("studio", "game", "v1", "a", staged(gameFileCache, 10));
+        Path kept = gameFileCache.publish("other-studio", "game", "v1", "a", staged(gameFileCache, 10));
+
+        gameFileCache.removeStudio("studio");
+
+        assertThat(directory.resolve("studio")).doesNotExist();
+        assertThat(gameFileCache.get("studio", "game", "v1", "a")).isNull();
+        assertThat(kept).exists();
+        assertThat(gameFileCache.bytes()).isEqualTo(10);
+    }
+
+    private static Path staged(GameFileCache gameFileCache, int size) throws IOException {
+        return Files.write(gameFileCache.stagingFile(), new byte[size]);
+    }
+}
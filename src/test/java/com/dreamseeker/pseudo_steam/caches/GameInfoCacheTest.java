@@ -0,0 +1,111 @@
+package com.dreamseeker.pseudo_steam.caches;
+
+import com.dreamseeker.pseudo_steam.domains.GameInfo;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameInfoCacheTest {
+
+    private final GameInfoCache gameInfoCache = new GameInfoCache(1000, Duration.ofMinutes(5), Duration.ofMinutes(1));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void secondLookupIsServedFromTheCache() throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        GameInfo first = gameInfoCache.get("studio", "game", () -> load("studio", "game"));
+        GameInfo second = gameInfoCache.get("studio", "game", () -> load("studio", "game"));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(loads).hasValue(1);
+        assertThat(gameInfoCache.stats().hits()).isEqualTo(1);
+        assertThat(gameInfoCache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void missingGamesAreNegativelyCached() {
+        GameInfoCache.GameInfoLoader missing = () -> {
+            loads.incrementAndGet();
+            throw new ObjectDoesNotExistsException();
+        };
+
+        assertThatThrownBy(() -> gameInfoCache.get("studio", "game", missing)).isInstanceOf(ObjectDoesNotExistsException.class);
+        assertThatThrownBy(() -> gameInfoCache.get("studio", "game", missing)).isInstanceOf(ObjectDoesNotExistsException.class);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void asyncLookupsShareTheCacheAndItsNegativeEntries() throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        Supplier<CompletableFuture<GameInfo>> missing = () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.failedFuture(new ObjectDoesNotExistsException());
+        };
+
+        GameInfo loaded = gameInfoCache.getAsync("studio", "game", () -> CompletableFuture.completedFuture(load("studio", "game"))).join();
+        assertThatThrownBy(() -> gameInfoCache.getAsync("studio", "missing", missing).join()).hasCauseInstanceOf(ObjectDoesNotExistsException.class);
+        assertThatThrownBy(() -> gameInfoCache.getAsync("studio", "missing", missing).join()).hasCauseInstanceOf(ObjectDoesNotExistsException.class);
+
+        assertThat(gameInfoCache.get("studio", "game", () -> load("studio", "game"))).isEqualTo(loaded);
+        assertThat(loads).hasValue(2);
+        assertThat(gameInfoCache.stats().hits()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidatedEntriesAreReloaded() throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        gameInfoCache.get("studio", "game", () -> load("studio", "game"));
+        gameInfoCache.get("other-studio", "game", () -> load("other-studio", "game"));
+
+        gameInfoCache.invalidate("studio", "game");
+        gameInfoCache.get("studio", "game", () -> load("studio", "game"));
+        gameInfoCache.invalidateStudio("other-studio");
+        gameInfoCache.get("other-studio", "game", () -> load("other-studio", "game"));
+
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void expiredEntriesAreReloaded() throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        GameInfoCache expiring = new GameInfoCache(1000, Duration.ZERO, Duration.ZERO);
+
+        expiring.get("studio", "game", () -> load("studio", "game"));
+        expiring.get("studio", "game", () -> load("studio", "game"));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedOnceFull() throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        GameInfoCache small = new GameInfoCache(16, Duration.ofMinutes(5), Duration.ofMinutes(1));
+
+        for (int i = 0; i < 100; i++) {
+            String gameName = "game-" + i;
+            small.get("studio", gameName, () -> load("studio", gameName));
+        }
+
+        assertThat(small.stats().size()).isLessThanOrEqualTo(16);
+        assertThat(small.stats().evictions()).isEqualTo(100 - small.stats().size());
+    }
+
+    @Test
+    void modifiedGameInfoReplacesTheCachedEntry() throws ObjectDoesNotExistsException, BucketDoesNotExistException {
+        gameInfoCache.get("studio", "game", () -> load("studio", "game"));
+        GameInfo modified = new GameInfo("studio", "game", "Puzzle", "2");
+
+        gameInfoCache.put(modified);
+
+        assertThat(gameInfoCache.get("studio", "game", () -> load("studio", "game"))).isEqualTo(modified);
+        assertThat(loads).hasValue(1);
+    }
+
+    private GameInfo load(String studioId, String gameName) {
+        loads.incrementAndGet();
+        return new GameInfo(studioId, gameName, "Action", "1");
+    }
+}
@@ -0,0 +1,129 @@
+package com.dreamseeker.pseudo_steam.caches;
+
+import com.dreamseeker.pseudo_steam.domains.GameInfo;
+import com.dreamseeker.pseudo_steam.domains.GameSearchPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameSearchIndexTest {
+
+    private final GameSearchIndex gameSearchIndex = new GameSearchIndex();
+
+    @BeforeEach
+    void setup() {
+        gameSearchIndex.put(new GameInfo("dev.a", "Halo", "Shooter", "1"));
+        gameSearchIndex.put(new GameInfo("dev.a", "Hades", "Roguelike", "2"));
+        gameSearchIndex.put(new GameInfo("dev.b", "Half-Life", "Shooter", "2"));
+        gameSearchIndex.put(new GameInfo("dev.b", "Portal", "Puzzle", "1"));
+    }
+
+    @Test
+    void genreAndVersionFiltersAreIntersected() {
+        GameSearchPage page = gameSearchIndex.search("Shooter", "2", null, 10, null);
+
+        assertThat(page.games()).extracting(GameInfo::gameName).containsExactly("Half-Life");
+    }
+
+    @Test
+    void namePrefixIsCaseInsensitive() {
+        GameSearchPage page = gameSearchIndex.search(null, null, "ha", 10, null);
+
+        assertThat(page.games()).extracting(GameInfo::gameName).containsExactly("Hades", "Halo", "Half-Life");
+    }
+
+    @Test
+    void pagesFollowTheContinuationToken() {
+        GameSearchPage first = gameSearchIndex.search(null, null, null, 3, null);
+        GameSearchPage second = gameSearchIndex.search(null, null, null, 3, first.continuationToken());
+
+        assertThat(first.games()).hasSize(3);
+        assertThat(first.continuationToken()).isEqualTo("dev.b/Half-Life");
+        assertThat(second.games()).extracting(GameInfo::gameName).containsExactly("Portal");
+        assertThat(second.continuationToken()).isNull();
+    }
+
+    @Test
+    void modifiedAndRemovedGamesAreReindexed() {
+        gameSearchIndex.put(new GameInfo("dev.a", "Halo", "Strategy", "1"));
+        gameSearchIndex.remove("dev.b", "Portal");
+
+        assertThat(gameSearchIndex.search("Shooter", null, null, 10, null).games()).extracting(GameInfo::gameName).containsExactly("Half-Life");
+        assertThat(gameSearchIndex.search("Strategy", null, null, 10, null).games()).extracting(GameInfo::gameName).containsExactly("Halo");
+        assertThat(gameSearchIndex.search(null, null, "portal", 10, null).games()).isEmpty();
+        assertThat(gameSearchIndex.stats().games()).isEqualTo(3);
+    }
+
+    @Test
+    void removedStudioDropsAllItsGames() {
+        gameSearchIndex.removeStudio("dev.a");
+
+        assertThat(gameSearchIndex.search(null, null, null, 10, null).games()).extracting(GameInfo::studioId).containsOnly("dev.b");
+    }
+
+    @Test
+    void filteredPagesResumeAfterTheContinuationToken() {
+        GameSearchPage first = gameSearchIndex.search("Shooter", null, null, 1, null);
+        GameSearchPage second = gameSearchIndex.search("Shooter", null, null, 1, first.continuationToken());
+
+        assertThat(first.games()).extracting(GameInfo::gameName).containsExactly("Halo");
+        assertThat(first.continuationToken()).isEqualTo("dev.a/Halo");
+        assertThat(second.games()).extracting(GameInfo::gameName).containsExactly("Half-Life");
+        assertThat(second.continuationToken()).isNull();
+    }
+
+    @Test
+    void selectiveAndBroadFiltersPageThroughTheSameOrder() {
+        for (int i = 0; i < 100; i++)
+            gameSearchIndex.put(new GameInfo("dev.s" + i % 5, String.format("Game %03d", i), i % 10 == 0 ? "Indie" : "Arcade", "1"));
+
+        List<String> indie = allPages("Indie", "game 0");
+        List<String> arcade = allPages("Arcade", null);
+
+        assertThat(indie).containsExactly("dev.s0/Game 000", "dev.s0/Game 010", "dev.s0/Game 020", "dev.s0/Game 030",
+                "dev.s0/Game 040", "dev.s0/Game 050", "dev.s0/Game 060", "dev.s0/Game 070", "dev.s0/Game 080", "dev.s0/Game 090");
+        assertThat(arcade).hasSize(90).isSorted().doesNotContainAnyElementsOf(indie);
+    }
+
+    @Test
+    void removedStudioFreesItsTerms() {
+        gameSearchIndex.removeStudio("dev.b");
+
+        assertThat(gameSearchIndex.stats().studios()).isEqualTo(1);
+        assertThat(gameSearchIndex.stats().genres()).isEqualTo(2);
+    }
+
+    @Test
+    void updatesDuringARebuildAreReplayedOntoTheRebuiltIndex() {
+        GameSearchIndex.Rebuild rebuild = gameSearchIndex.beginRebuild();
+        rebuild.add(new GameInfo("dev.a", "Halo", "Shooter", "1"));
+        rebuild.add(new GameInfo("dev.b", "Portal", "Puzzle", "1"));
+        gameSearchIndex.put(new GameInfo("dev.c", "Celeste", "Platformer", "1"));
+        gameSearchIndex.remove("dev.b", "Portal");
+
+        gameSearchIndex.completeRebuild(rebuild);
+
+        assertThat(gameSearchIndex.search(null, null, null, 10, null).games()).extracting(GameInfo::gameName).containsExactly("Halo", "Celeste");
+    }
+
+    @Test
+    void statsEstimateTheMemoryPerGame() {
+        assertThat(gameSearchIndex.stats().genres()).isEqualTo(3);
+        assertThat(gameSearchIndex.stats().estimatedBytesPerGame()).isPositive();
+    }
+
+    private List<String> allPages(String genre, String namePrefix) {
+        List<String> games = new ArrayList<>();
+        String continuationToken = null;
+        do {
+            GameSearchPage page = gameSearchIndex.search(genre, null, namePrefix, 3, continuationToken);
+            page.games().forEach(game -> games.add(game.studioId() + "/" + game.gameName()));
+            continuationToken = page.continuationToken();
+        } while (continuationToken != null);
+        return games;
+    }
+}
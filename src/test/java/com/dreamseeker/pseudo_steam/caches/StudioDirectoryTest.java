@@ -0,0 +1,98 @@
+package com.dreamseeker.pseudo_steam.caches;
+
+import com.dreamseeker.pseudo_steam.domains.BucketsPage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudioDirectoryTest {
+
+    private static final Instant CREATED = Instant.parse("2025-05-01T10:15:30Z");
+
+    @TempDir
+    private Path snapshotDirectory;
+
+    @Test
+    void pagesAreServedInNameOrder() {
+        StudioDirectory studioDirectory = new StudioDirectory(snapshotDirectory.resolve("studios.snapshot"), Duration.ofSeconds(30));
+        studioDirectory.reconcile(List.of(bucket("dev.c"), bucket("dev.a"), bucket("dev.b")), System.nanoTime());
+
+        BucketsPage first = studioDirectory.page(2, null);
+        BucketsPage second = studioDirectory.page(2, first.continuationToken());
+
+        assertThat(first.buckets()).extracting(BucketsPage.Bucket::bucketName).containsExactly("dev.a", "dev.b");
+        assertThat(second.buckets()).extracting(BucketsPage.Bucket::bucketName).containsExactly("dev.c");
+        assertThat(second.continuationToken()).isNull();
+    }
+
+    @Test
+    void unknownStudiosAreOnlyRejectedOnceLoaded() {
+        StudioDirectory studioDirectory = new StudioDirectory(snapshotDirectory.resolve("studios.snapshot"), Duration.ofSeconds(30));
+
+        assertThat(studioDirectory.isUnknown("dev.a")).isFalse();
+        studioDirectory.reconcile(List.of(bucket("dev.b")), System.nanoTime());
+        assertThat(studioDirectory.isUnknown("dev.a")).isTrue();
+        assertThat(studioDirectory.isUnknown("dev.b")).isFalse();
+    }
+
+    @Test
+    void missingStudiosAreRememberedUntilCreated() {
+        StudioDirectory studioDirectory = new StudioDirectory(snapshotDirectory.resolve("studios.snapshot"), Duration.ofSeconds(30));
+        StudioDirectory expiring = new StudioDirectory(snapshotDirectory.resolve("studios.snapshot"), Duration.ZERO);
+
+        studioDirectory.markMissing("dev.a");
+        expiring.markMissing("dev.a");
+
+        assertThat(studioDirectory.isKnownMissing("dev.a")).isTrue();
+        assertThat(expiring.isKnownMissing("dev.a")).isFalse();
+        studioDirectory.add(bucket("dev.a"));
+        assertThat(studioDirectory.isKnownMissing("dev.a")).isFalse();
+    }
+
+    @Test
+    void reconcileKeepsChangesMadeAfterTheListingStarted() {
+        StudioDirectory studioDirectory = new StudioDirectory(snapshotDirectory.resolve("studios.snapshot"), Duration.ofSeconds(30));
+        studioDirectory.reconcile(List.of(bucket("dev.a"), bucket("dev.b")), System.nanoTime());
+        long listingStartedAt = System.nanoTime();
+
+        studioDirectory.add(bucket("dev.c"));
+        studioDirectory.remove("dev.a");
+        studioDirectory.reconcile(List.of(bucket("dev.a"), bucket("dev.b")), listingStartedAt);
+
+        assertThat(studioDirectory.page(null, null).buckets()).extracting(BucketsPage.Bucket::bucketName).containsExactly("dev.b", "dev.c");
+    }
+
+    @Test
+    void snapshotRestoresTheDirectory() throws IOException {
+        Path snapshotPath = snapshotDirectory.resolve("studios.snapshot");
+        StudioDirectory studioDirectory = new StudioDirectory(snapshotPath, Duration.ofSeconds(30));
+        studioDirectory.reconcile(List.of(bucket("dev.a"), bucket("dev.b")), System.nanoTime());
+        studioDirectory.writeSnapshot();
+
+        StudioDirectory restored = new StudioDirectory(snapshotPath, Duration.ofSeconds(30));
+        restored.loadSnapshot();
+
+        assertThat(restored.isLoaded()).isTrue();
+        assertThat(restored.page(null, null)).isEqualTo(studioDirectory.page(null, null));
+    }
+
+    @Test
+    void missingSnapshotLeavesTheDirectoryUnloaded() throws IOException {
+        StudioDirectory studioDirectory = new StudioDirectory(snapshotDirectory.resolve("missing.snapshot"), Duration.ofSeconds(30));
+
+        studioDirectory.loadSnapshot();
+
+        assertThat(studioDirectory.isLoaded()).isFalse();
+    }
+
+    private static BucketsPage.Bucket bucket(String name) {
+        return new BucketsPage.Bucket(name, CREATED);
+    }
+}
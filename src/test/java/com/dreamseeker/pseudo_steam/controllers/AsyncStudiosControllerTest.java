@@ -0,0 +1,58 @@
+package com.dreamseeker.pseudo_steam.controllers;
+
+import com.dreamseeker.pseudo_steam.domains.BucketsPage;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.services.AsyncStudiosService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = AsyncStudiosController.class, properties = "storage.client.mode=async")
+class AsyncStudiosControllerTest {
+
+    @MockitoBean
+    private AsyncStudiosService asyncStudiosService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void whenFetchBucketsReturnListOfBucketsSuccessfully() throws Exception {
+        BucketsPage mockBuckets = new BucketsPage("1", List.of(new BucketsPage.Bucket("test-bucket", Instant.now())));
+        when(asyncStudiosService.fetchStudios(anyInt(), anyString())).thenReturn(CompletableFuture.completedFuture(mockBuckets));
+
+        MvcResult mvcResult = mockMvc.perform(get("/studios").queryParam("limit", "2").queryParam("continuationToken", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets[0].bucketName").value("test-bucket"));
+    }
+
+    @Test
+    void whenDeleteBucketFailsWithStudioDoesNotExistReturnNotFound() throws Exception {
+        String bucketName = "test-bucket";
+        BucketDoesNotExistException bucketDoesNotExistsException = new BucketDoesNotExistException(bucketName, NoSuchBucketException.builder().build());
+        when(asyncStudiosService.deleteStudio(bucketName)).thenReturn(CompletableFuture.failedFuture(bucketDoesNotExistsException));
+
+        MvcResult mvcResult = mockMvc.perform(delete("/studios".concat("/test-bucket")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,48 @@
+package com.dreamseeker.pseudo_steam.controllers;
+
+import com.dreamseeker.pseudo_steam.domains.GameContent;
+import com.dreamseeker.pseudo_steam.services.GamesService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = GameContentController.class)
+class GameContentControllerTest {
+
+    @MockitoBean
+    private GamesService gamesService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void downloadGameRangeReturnsPartialContent() throws Exception {
+        final String gameName = "the-last-of-us-3";
+        final String studioId = "dev.naughty-dog-11111";
+        GameContent gameContent = new GameContent(4, "bytes 0-3/10", "\"etag\"", "application/zip", true,
+                outputStream -> outputStream.write(new byte[]{1, 2, 3, 4}));
+        when(gamesService.fetchGameContent(eq(studioId), eq(gameName), eq("bytes=0-3"), isNull())).thenReturn(gameContent);
+
+        MvcResult mvcResult = mockMvc.perform(get("/studios/" + studioId + "/games/" + gameName + "/content")
+                        .header(HttpHeaders.RANGE, "bytes=0-3"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-3/10"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().bytes(new byte[]{1, 2, 3, 4}));
+    }
+}
@@ -4,6 +4,7 @@ import com.dreamseeker.pseudo_steam.domains.*;
 import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
 import com.dreamseeker.pseudo_steam.exceptions.BucketNameExistsException;
 import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import com.dreamseeker.pseudo_steam.exceptions.UploadDoesNotExistException;
 import com.dreamseeker.pseudo_steam.utils.AWSObjectStorageClientUtils;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -71,7 +72,7 @@ public class AWSObjectStorageClientPreSignedPartsFlowTest {
 
     @Test
     @Order(2)
-    void objectPartsAreUploadedSuccessfully() throws URISyntaxException, ObjectDoesNotExistsException, BucketDoesNotExistException {
+    void objectPartsAreUploadedSuccessfully() throws URISyntaxException, ObjectDoesNotExistsException, BucketDoesNotExistException, UploadDoesNotExistException {
         List<CompleteUploadRequest.CompletedPart> completedParts = new ArrayList<>();
 
         for (PreSignedPartUrl presignedPartUrl : initiateUploadResponse.presignedUrls()) {
@@ -81,10 +82,13 @@ public class AWSObjectStorageClientPreSignedPartsFlowTest {
             long endByte = Math.min(startByte + partSize - 1, content.length - 1);
 
             byte[] partData = Arrays.copyOfRange(content, (int) startByte, (int) (endByte + 1));
+            String checksum = Crc32c.encode(Crc32c.of(partData, 0, partData.length));
 
             ResponseEntity<Void> response = restClient.put()
                     .uri(new URI(presignedPartUrl.preSignedUrl())) //URI prevents double encoding
                     .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .header("x-amz-sdk-checksum-algorithm", initiateUploadResponse.checksumAlgorithm())
+                    .header("x-amz-checksum-crc32c", checksum)
                     .body(partData)
                     .retrieve()
                     .toBodilessEntity();
@@ -94,7 +98,7 @@ public class AWSObjectStorageClientPreSignedPartsFlowTest {
             String etag = response.getHeaders().getETag();
             assertThat(etag).isNotNull();
 
-            completedParts.add(new CompleteUploadRequest.CompletedPart(partNumber, etag));
+            completedParts.add(new CompleteUploadRequest.CompletedPart(partNumber, etag, checksum));
             System.out.println("Uploaded part " + partNumber + " with ETag: " + etag);
         }
 
@@ -131,7 +135,7 @@ public class AWSObjectStorageClientPreSignedPartsFlowTest {
         assertThat(gameInfo.version()).isEqualTo(VERSION);
 
         listObjectVersionsResponse = awsObjectStorageClient.fetchListObjectVersions(studioId, null);
-        assertThat(listObjectVersionsResponse.versions()).hasSize(2);
+        assertThat(listObjectVersionsResponse.versions()).hasSize(1);
     }
 
     @AfterAll
@@ -0,0 +1,162 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.domains.CompleteUploadRequest;
+import com.dreamseeker.pseudo_steam.domains.PreSignedPartUrl;
+import com.dreamseeker.pseudo_steam.domains.PreSignedPartsPage;
+import com.dreamseeker.pseudo_steam.domains.ResumeUploadResponse;
+import com.dreamseeker.pseudo_steam.domains.UploadSession;
+import com.dreamseeker.pseudo_steam.exceptions.UploadDoesNotExistException;
+import com.dreamseeker.pseudo_steam.stores.UploadSessionRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.paginators.ListMultipartUploadsIterable;
+import software.amazon.awssdk.services.s3.paginators.ListPartsIterable;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AWSObjectStorageClientResumeUploadTest {
+
+    private static final long PART_SIZE = 8 * 1024 * 1024;
+
+    private S3Client s3Client;
+    private S3Presigner s3Presigner;
+    private ExecutorService presignExecutor;
+    private UploadSessionRegistry uploadSessionRegistry;
+    private AWSObjectStorageClient awsObjectStorageClient;
+
+    @BeforeEach
+    void setup() {
+        s3Client = mock(S3Client.class);
+        s3Presigner = S3Presigner.builder()
+                .region(Region.SA_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("access-key", "secret-key")))
+                .build();
+        presignExecutor = Executors.newFixedThreadPool(2);
+        uploadSessionRegistry = new UploadSessionRegistry();
+        PreSignedUrlGenerator preSignedUrlGenerator = new PreSignedUrlGenerator(s3Presigner, presignExecutor, 100, 1000);
+        awsObjectStorageClient = new AWSObjectStorageClient(s3Client, preSignedUrlGenerator, null, null, null, null, null, uploadSessionRegistry,
+                new FixedPartSizingStrategy(), null, null, null, null, null, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        presignExecutor.shutdownNow();
+        s3Presigner.close();
+    }
+
+    @Test
+    void onlyMissingAndTruncatedPartsArePresigned() throws Exception {
+        uploadSessionRegistry.register(new UploadSession("upload-id", "studio", "game", 3 * PART_SIZE + 10, PART_SIZE, 4, 4, Instant.now()));
+        listedParts(part(1, PART_SIZE), part(2, PART_SIZE / 2), part(3, PART_SIZE));
+
+        ResumeUploadResponse response = awsObjectStorageClient.resumeUpload("studio", "game", "upload-id", null, null);
+
+        assertThat(response.partCount()).isEqualTo(4);
+        assertThat(response.uploadedParts()).extracting(CompleteUploadRequest.CompletedPart::partNumber).containsExactly(1, 3);
+        assertThat(response.missingParts()).containsExactly(2, 4);
+        assertThat(response.presignedUrls()).extracting(PreSignedPartUrl::partSize).containsExactly(PART_SIZE, 10L);
+    }
+
+    @Test
+    void untrackedUploadFollowsTheListedPartSize() throws Exception {
+        listedParts(part(1, PART_SIZE));
+
+        ResumeUploadResponse response = awsObjectStorageClient.resumeUpload("studio", "game", "upload-id", 2 * PART_SIZE + 1, null);
+
+        assertThat(response.partCount()).isEqualTo(3);
+        assertThat(response.missingParts()).containsExactly(2, 3);
+        assertThat(uploadSessionRegistry.get("upload-id").partSize()).isEqualTo(PART_SIZE);
+    }
+
+    @Test
+    void untrackedUploadFollowsThePartSizeSentByTheClient() throws Exception {
+        listedParts(part(2, PART_SIZE));
+
+        ResumeUploadResponse response = awsObjectStorageClient.resumeUpload("studio", "game", "upload-id", 2 * PART_SIZE + 1, PART_SIZE);
+
+        assertThat(response.missingParts()).containsExactly(1, 3);
+        assertThat(uploadSessionRegistry.get("upload-id").partSize()).isEqualTo(PART_SIZE);
+    }
+
+    @Test
+    void untrackedPartsArePresignedWithTheClientLayout() throws Exception {
+        PreSignedPartsPage page = awsObjectStorageClient.presignUploadParts("studio", "game", "upload-id", 2 * PART_SIZE + 1, PART_SIZE, 1, 10);
+
+        assertThat(page.partCount()).isEqualTo(3);
+        assertThat(page.presignedUrls()).extracting(PreSignedPartUrl::partSize).containsExactly(PART_SIZE, PART_SIZE, 1L);
+        assertThatThrownBy(() -> awsObjectStorageClient.presignUploadParts("studio", "game", "other-upload-id", 2 * PART_SIZE + 1, null, 1, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void untrackedUploadWithoutFileSizeIsRejected() {
+        listedParts();
+
+        assertThatThrownBy(() -> awsObjectStorageClient.resumeUpload("studio", "game", "upload-id", null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void untrackedUploadWithoutAPartSizeIsRejected() {
+        listedParts(part(2, PART_SIZE));
+
+        assertThatThrownBy(() -> awsObjectStorageClient.resumeUpload("studio", "game", "upload-id", 2 * PART_SIZE + 1, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("partSize");
+        assertThat(uploadSessionRegistry.get("upload-id")).isNull();
+    }
+
+    @Test
+    void abortedUploadCannotBeResumed() {
+        uploadSessionRegistry.register(new UploadSession("upload-id", "studio", "game", PART_SIZE, PART_SIZE, 1, 4, Instant.now()));
+        when(s3Client.listPartsPaginator(any(ListPartsRequest.class))).thenThrow(NoSuchUploadException.builder().build());
+
+        assertThatThrownBy(() -> awsObjectStorageClient.resumeUpload("studio", "game", "upload-id", null, null))
+                .isInstanceOf(UploadDoesNotExistException.class);
+        assertThat(uploadSessionRegistry.get("upload-id")).isNull();
+    }
+
+    @Test
+    void onlyUploadsInitiatedBeforeTheCutoffAreAborted() throws Exception {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(24));
+        ListMultipartUploadsIterable uploads = mock(ListMultipartUploadsIterable.class);
+        SdkIterable<MultipartUpload> listedUploads = List.of(
+                MultipartUpload.builder().key("old").uploadId("old-upload").initiated(cutoff.minusSeconds(60)).build(),
+                MultipartUpload.builder().key("new").uploadId("new-upload").initiated(cutoff.plusSeconds(60)).build())::iterator;
+        when(uploads.uploads()).thenReturn(listedUploads);
+        when(s3Client.listMultipartUploadsPaginator(any(ListMultipartUploadsRequest.class))).thenReturn(uploads);
+
+        List<String> aborted = awsObjectStorageClient.abortStaleUploads("studio", cutoff);
+
+        assertThat(aborted).containsExactly("old-upload");
+        verify(s3Client, times(1)).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    private void listedParts(Part... parts) {
+        ListPartsIterable pages = mock(ListPartsIterable.class);
+        SdkIterable<Part> listed = List.of(parts)::iterator;
+        when(pages.parts()).thenReturn(listed);
+        when(s3Client.listPartsPaginator(any(ListPartsRequest.class))).thenReturn(pages);
+    }
+
+    private static Part part(int partNumber, long size) {
+        return Part.builder().partNumber(partNumber).size(size).eTag("etag-" + partNumber).build();
+    }
+}
@@ -93,8 +93,8 @@ class AWSObjectStorageClientTest {
     void downloadObjectSuccessfully() throws ObjectDoesNotExistsException, BucketDoesNotExistException {
         awsObjectStorageClient.getObject(studioId, singleUploadGameName, versionId);
 
-        Path downloadedFilePath = Path.of("downloads", singleUploadGameName);
-        assertThat(Files.exists(downloadedFilePath)).isTrue();
+        Path downloadedGamePath = Path.of("downloads", studioId, singleUploadGameName);
+        assertThat(downloadedGamePath).isDirectoryContaining(Files::isRegularFile);
     }
 
     @Test
@@ -109,14 +109,14 @@ class AWSObjectStorageClientTest {
     void downloadObjectSuccessfullyWithoutVersionId() throws ObjectDoesNotExistsException, BucketDoesNotExistException {
         awsObjectStorageClient.getObject(studioId, singleUploadGameName, null);
 
-        Path downloadedFilePath = Path.of("downloads", singleUploadGameName);
-        assertThat(Files.exists(downloadedFilePath)).isTrue();
+        Path downloadedGamePath = Path.of("downloads", studioId, singleUploadGameName);
+        assertThat(downloadedGamePath).isDirectoryContaining(Files::isRegularFile);
     }
 
     @Test
     void clean() throws BucketDoesNotExistException, IOException {
         awsObjectStorageClient.deleteBucket(studioId);
 
-        Files.delete(Path.of("downloads", singleUploadGameName));
+        assertThat(Path.of("downloads", studioId)).doesNotExist();
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.domains.UploadSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AdaptivePartSizingStrategyTest {
+
+    private static final long MB = 1024 * 1024;
+    private static final long GB = 1024 * MB;
+
+    private AdaptivePartSizingStrategy partSizingStrategy;
+
+    @BeforeEach
+    void setup() {
+        partSizingStrategy = new AdaptivePartSizingStrategy(Duration.ofSeconds(10), GB, 4, 4);
+    }
+
+    @Test
+    void fastUploaderGetsLargePartsButEnoughForEveryStream() {
+        PartCalculation parts = partSizingStrategy.partsFor("studio", 50 * GB, new PartSizingStrategy.Hints(32, 10_000_000_000L / 8));
+
+        assertThat(parts.partSize()).isGreaterThan(300 * MB);
+        assertThat(parts.partCount()).isBetween(32 * 4, 32 * 5);
+    }
+
+    @Test
+    void homeConnectionGetsSmallParts() {
+        PartCalculation parts = partSizingStrategy.partsFor("studio", 10 * GB, new PartSizingStrategy.Hints(4, 20_000_000L / 8));
+
+        assertThat(parts.partSize()).isEqualTo(6 * MB);
+        assertThat(parts.partCount()).isEqualTo((int) ((10 * GB + 6 * MB - 1) / (6 * MB)));
+    }
+
+    @Test
+    void withoutHintsOrHistoryTheFixedSizingIsUsed() {
+        PartCalculation parts = partSizingStrategy.partsFor("studio", 10 * GB, PartSizingStrategy.Hints.NONE);
+
+        assertThat(parts).isEqualTo(FixedPartSizingStrategy.calculateParts(10 * GB));
+    }
+
+    @Test
+    void slowLinksNeverNeedMoreThanTheMaximumPartCount() {
+        PartCalculation parts = partSizingStrategy.partsFor("studio", 200 * GB, new PartSizingStrategy.Hints(1, 100_000L));
+
+        assertThat(parts.partCount()).isLessThanOrEqualTo(PartCalculation.MAX_PARTS);
+        assertThat(parts.partSize() * parts.partCount()).isGreaterThanOrEqualTo(200 * GB);
+    }
+
+    @Test
+    void smallFilesAreSplitAcrossStreamsDownToTheMinimumPartSize() {
+        PartCalculation parts = partSizingStrategy.partsFor("studio", 100 * MB, new PartSizingStrategy.Hints(8, 10 * GB));
+
+        assertThat(parts.partSize()).isEqualTo(PartCalculation.MIN_PART_SIZE);
+        assertThat(parts.partCount()).isEqualTo(20);
+    }
+
+    @Test
+    void completedUploadsDrivePartSizeOfTheSameStudio() {
+        UploadSession session = new UploadSession("upload-id", "studio", "game", 800 * MB, 8 * MB, 100, 4, Instant.now());
+        partSizingStrategy.recordUpload(session, Duration.ofSeconds(250));
+
+        assertThat(partSizingStrategy.observedStreamBandwidth("studio")).isCloseTo(0.8 * MB, within(1.0));
+        assertThat(partSizingStrategy.partsFor("studio", 10 * GB, PartSizingStrategy.Hints.NONE).partSize()).isEqualTo(8 * MB);
+        assertThat(partSizingStrategy.partsFor("other-studio", 10 * GB, PartSizingStrategy.Hints.NONE))
+                .isEqualTo(FixedPartSizingStrategy.calculateParts(10 * GB));
+    }
+}
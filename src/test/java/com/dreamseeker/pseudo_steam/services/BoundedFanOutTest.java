@@ -0,0 +1,67 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedFanOutTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void atMostMaxInFlightTasksRunAtOnce() throws InterruptedException {
+        BoundedFanOut fanOut = new BoundedFanOut(executor, 3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        AtomicInteger done = new AtomicInteger();
+
+        for (int i = 0; i < 50; i++) {
+            fanOut.submit(() -> {
+                mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(2);
+                running.decrementAndGet();
+                done.incrementAndGet();
+            });
+        }
+        fanOut.await();
+
+        assertThat(done.get()).isEqualTo(50);
+        assertThat(mostRunning.get()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void firstFailureStopsTheFanOutAndIsRethrown() throws InterruptedException {
+        BoundedFanOut fanOut = new BoundedFanOut(executor, 2);
+        AtomicInteger released = new AtomicInteger();
+
+        fanOut.submit(() -> {
+            throw new IllegalStateException("part failed");
+        }, released::incrementAndGet);
+        while (!fanOut.failed())
+            Thread.onSpinWait();
+
+        assertThat(fanOut.submit(() -> {
+        }, released::incrementAndGet)).isFalse();
+        assertThatThrownBy(fanOut::await).isInstanceOf(IllegalStateException.class).hasMessage("part failed");
+        assertThat(released.get()).isEqualTo(2);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.paginators.ListMultipartUploadsIterable;
+import software.amazon.awssdk.services.s3.paginators.ListObjectVersionsIterable;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BucketTeardownEngineTest {
+
+    private S3Client s3Client;
+    private ExecutorService executor;
+    private BucketTeardownEngine bucketTeardownEngine;
+
+    @BeforeEach
+    void setup() {
+        s3Client = mock(S3Client.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        bucketTeardownEngine = new BucketTeardownEngine(s3Client, executor, 3);
+
+        ListMultipartUploadsIterable uploads = mock(ListMultipartUploadsIterable.class);
+        when(uploads.uploads()).thenAnswer(invocation -> List.of(MultipartUpload.builder().key("game").uploadId("upload-id").build()));
+        when(s3Client.listMultipartUploadsPaginator(any(ListMultipartUploadsRequest.class))).thenReturn(uploads);
+
+        ListObjectVersionsIterable pages = mock(ListObjectVersionsIterable.class);
+        when(pages.iterator()).thenAnswer(invocation -> List.of(page(0, 1500, 200), page(1500, 300, 0)).iterator());
+        when(s3Client.listObjectVersionsPaginator(any(ListObjectVersionsRequest.class))).thenReturn(pages);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void everyPageIsDeletedInBatchesOfAtMostOneThousandKeys() throws InterruptedException {
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenReturn(DeleteObjectsResponse.builder().build());
+
+        bucketTeardownEngine.emptyBucket("studio");
+
+        verify(s3Client, times(3)).deleteObjects(any(DeleteObjectsRequest.class));
+        verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    @Test
+    void batchesAreSplitPerPage() {
+        List<List<ObjectIdentifier>> batches = BucketTeardownEngine.batches(page(0, 1500, 700));
+
+        assertThat(batches).extracting(List::size).containsExactly(1000, 1000, 200);
+    }
+
+    @Test
+    void failedDeletionFailsTheTeardown() {
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenReturn(DeleteObjectsResponse.builder()
+                .errors(S3Error.builder().key("game").message("Access Denied").build())
+                .build());
+
+        assertThatThrownBy(() -> bucketTeardownEngine.emptyBucket("studio")).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static ListObjectVersionsResponse page(int firstVersion, int versions, int deleteMarkers) {
+        return ListObjectVersionsResponse.builder()
+                .versions(IntStream.range(firstVersion, firstVersion + versions)
+                        .mapToObj(i -> ObjectVersion.builder().key("game-" + i).versionId("v" + i).build())
+                        .toList())
+                .deleteMarkers(IntStream.range(0, deleteMarkers)
+                        .mapToObj(i -> DeleteMarkerEntry.builder().key("deleted-" + i).versionId("d" + i).build())
+                        .toList())
+                .build();
+    }
+}
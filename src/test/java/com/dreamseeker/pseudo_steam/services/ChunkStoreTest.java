@@ -0,0 +1,227 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.caches.ChunkIndex;
+import com.dreamseeker.pseudo_steam.domains.ChunkedUploadRequest;
+import com.dreamseeker.pseudo_steam.domains.ChunkedUploadResponse;
+import com.dreamseeker.pseudo_steam.domains.GameManifest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.paginators.ListObjectsV2Iterable;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChunkStoreTest {
+
+    @TempDir
+    Path downloadsDirectory;
+
+    private S3Client s3Client;
+    private S3Presigner s3Presigner;
+    private ExecutorService executor;
+    private ChunkIndex chunkIndex;
+    private ChunkStore chunkStore;
+    private final byte[] first = "first chunk of the build".getBytes();
+    private final byte[] second = "second chunk of the build".getBytes();
+
+    @BeforeEach
+    void setup() {
+        s3Client = mock(S3Client.class);
+        s3Presigner = S3Presigner.builder()
+                .region(Region.SA_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("access-key", "secret-key")))
+                .build();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        chunkIndex = new ChunkIndex(100);
+        chunkStore = new ChunkStore(s3Client, s3Presigner, new ObjectMapper(), executor, chunkIndex, 4, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        s3Presigner.close();
+    }
+
+    @Test
+    void onlyChunksTheDepotDoesNotHoldArePresigned() throws Exception {
+        listedChunks(sha256(first));
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+
+        ChunkedUploadResponse response = chunkStore.missingChunks("studio", request(first, second, first));
+
+        assertThat(response.chunkCount()).isEqualTo(3);
+        assertThat(response.missingChunkCount()).isEqualTo(1);
+        assertThat(response.presignedUrls()).singleElement().satisfies(url -> {
+            assertThat(url.hash()).isEqualTo(sha256(second));
+            assertThat(url.preSignedUrl()).contains(".depot/chunks/" + sha256(second));
+        });
+    }
+
+    @Test
+    void chunksUploadedBetweenCallsAreNotPresignedAgain() throws Exception {
+        chunkStore = new ChunkStore(s3Client, s3Presigner, new ObjectMapper(), executor, chunkIndex, 4, 1);
+        listedChunks();
+        Map<String, Long> depot = new ConcurrentHashMap<>();
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenAnswer(invocation -> {
+            Long size = depot.get(invocation.<HeadObjectRequest>getArgument(0).key());
+            if (size == null)
+                throw NoSuchKeyException.builder().build();
+            return HeadObjectResponse.builder().contentLength(size).build();
+        });
+
+        ChunkedUploadResponse firstBatch = chunkStore.missingChunks("studio", request(first, second));
+        depot.put(ChunkStore.CHUNKS_PREFIX + sha256(first), (long) first.length);
+        ChunkedUploadResponse secondBatch = chunkStore.missingChunks("studio", request(first, second));
+
+        assertThat(firstBatch.missingChunkCount()).isEqualTo(2);
+        assertThat(firstBatch.presignedUrls()).extracting(ChunkedUploadResponse.ChunkUploadUrl::hash).containsExactly(sha256(first));
+        assertThat(secondBatch.missingChunkCount()).isEqualTo(1);
+        assertThat(secondBatch.presignedUrls()).extracting(ChunkedUploadResponse.ChunkUploadUrl::hash).containsExactly(sha256(second));
+        assertThat(chunkIndex.unknown("studio", List.of(sha256(first)))).isEmpty();
+    }
+
+    @Test
+    void commitIsRejectedUntilEveryChunkIsUploaded() throws Exception {
+        listedChunks(sha256(first));
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+
+        assertThatThrownBy(() -> chunkStore.commit("studio", request(first, second)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(sha256(second));
+        verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    }
+
+    @Test
+    void committedManifestListsChunkOffsets() throws Exception {
+        listedChunks(sha256(first), sha256(second));
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenReturn(PutObjectResponse.builder().versionId("v1").build());
+
+        chunkStore.commit("studio", request(first, second));
+
+        ArgumentCaptor<PutObjectRequest> putRequest = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(putRequest.capture(), any(RequestBody.class));
+        assertThat(putRequest.getValue().key()).isEqualTo("game");
+        assertThat(putRequest.getValue().metadata()).containsEntry(ChunkStore.LAYOUT, ChunkStore.CHUNKED_LAYOUT).containsEntry("genre", "rpg");
+        GameManifest manifest = ChunkStore.manifest(request(first, second));
+        assertThat(manifest.size()).isEqualTo(first.length + second.length);
+        assertThat(manifest.chunks().get(1).offset()).isEqualTo(first.length);
+    }
+
+    @Test
+    void rangesAreServedAcrossChunkBoundaries() throws IOException {
+        serveChunks();
+        GameManifest manifest = ChunkStore.manifest(request(first, second));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        chunkStore.transfer("studio", manifest, first.length - 5, 10, outputStream);
+
+        byte[] content = concat(first, second);
+        assertThat(outputStream.toByteArray()).isEqualTo(Arrays.copyOfRange(content, first.length - 5, first.length + 5));
+    }
+
+    @Test
+    void downloadAssemblesAndVerifiesChunks() throws IOException, InterruptedException {
+        serveChunks();
+        Path target = downloadsDirectory.resolve("game");
+
+        chunkStore.download("studio", ChunkStore.manifest(request(first, second, first)), target);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(concat(first, second, first));
+    }
+
+    @Test
+    void corruptChunkFailsTheDownload() {
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> stream("corrupted".getBytes()));
+        Path target = downloadsDirectory.resolve("game");
+
+        assertThatThrownBy(() -> chunkStore.download("studio", ChunkStore.manifest(request(first)), target))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("corrupt");
+        assertThat(Files.exists(downloadsDirectory.resolve("game.part"))).isFalse();
+    }
+
+    private void listedChunks(String... hashes) {
+        ListObjectsV2Iterable pages = mock(ListObjectsV2Iterable.class);
+        SdkIterable<S3Object> listed = Arrays.stream(hashes).map(hash -> S3Object.builder().key(ChunkStore.CHUNKS_PREFIX + hash).build()).toList()::iterator;
+        when(pages.contents()).thenReturn(listed);
+        when(s3Client.listObjectsV2Paginator(any(ListObjectsV2Request.class))).thenReturn(pages);
+    }
+
+    private void serveChunks() {
+        Map<String, byte[]> chunks = Map.of(ChunkStore.CHUNKS_PREFIX + sha256(first), first, ChunkStore.CHUNKS_PREFIX + sha256(second), second);
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            GetObjectRequest request = invocation.getArgument(0);
+            byte[] chunk = chunks.get(request.key());
+            if (request.range() == null)
+                return stream(chunk);
+            String[] bounds = request.range().substring("bytes=".length()).split("-");
+            return stream(Arrays.copyOfRange(chunk, Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]) + 1));
+        });
+    }
+
+    private static ResponseInputStream<GetObjectResponse> stream(byte[] bytes) {
+        return new ResponseInputStream<>(GetObjectResponse.builder().contentLength((long) bytes.length).build(),
+                AbortableInputStream.create(new ByteArrayInputStream(bytes)));
+    }
+
+    private static ChunkedUploadRequest request(byte[]... chunks) {
+        return new ChunkedUploadRequest("game", "application/octet-stream", Map.of("genre", "rpg"),
+                Arrays.stream(chunks).map(chunk -> new ChunkedUploadRequest.Chunk(sha256(chunk), chunk.length)).toList());
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        for (byte[] part : parts)
+            outputStream.writeBytes(part);
+        return outputStream.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
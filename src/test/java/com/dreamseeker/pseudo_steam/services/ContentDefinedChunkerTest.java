@@ -0,0 +1,50 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.domains.ChunkedUploadRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentDefinedChunkerTest {
+
+    private final ContentDefinedChunker chunker = new ContentDefinedChunker(2 * 1024, 8 * 1024, 32 * 1024);
+
+    @Test
+    void chunksCoverTheContentWithinTheSizeBounds() throws IOException {
+        byte[] content = random(1024 * 1024, 1);
+
+        List<ChunkedUploadRequest.Chunk> chunks = chunker.split(new ByteArrayInputStream(content));
+
+        assertThat(chunks.stream().mapToLong(ChunkedUploadRequest.Chunk::size).sum()).isEqualTo(content.length);
+        assertThat(chunks.subList(0, chunks.size() - 1)).allSatisfy(chunk -> assertThat(chunk.size()).isBetween(2L * 1024, 32L * 1024));
+        assertThat(chunks.size()).isBetween(1024 / 32, 1024 / 4);
+    }
+
+    @Test
+    void insertionOnlyChangesTheChunksAroundIt() throws IOException {
+        byte[] content = random(1024 * 1024, 2);
+        byte[] edited = new byte[content.length + 100];
+        System.arraycopy(content, 0, edited, 0, 500_000);
+        System.arraycopy(random(100, 3), 0, edited, 500_000, 100);
+        System.arraycopy(content, 500_000, edited, 500_100, content.length - 500_000);
+
+        List<ChunkedUploadRequest.Chunk> original = chunker.split(new ByteArrayInputStream(content));
+        Set<String> originalHashes = new HashSet<>(original.stream().map(ChunkedUploadRequest.Chunk::hash).toList());
+        long changed = chunker.split(new ByteArrayInputStream(edited)).stream().filter(chunk -> !originalHashes.contains(chunk.hash())).count();
+
+        assertThat(changed).isBetween(1L, 3L);
+    }
+
+    private static byte[] random(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
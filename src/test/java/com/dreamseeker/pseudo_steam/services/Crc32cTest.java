@@ -0,0 +1,49 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Crc32cTest {
+
+    private final byte[] content = new byte[10_000];
+
+    {
+        new Random(42).nextBytes(content);
+    }
+
+    @Test
+    void knownValueIsEncodedBigEndian() {
+        byte[] digits = "123456789".getBytes();
+
+        assertThat(Crc32c.of(digits, 0, digits.length)).isEqualTo(0xE3069283L);
+        assertThat(Crc32c.decode(Crc32c.encode(0xE3069283L))).isEqualTo(0xE3069283L);
+    }
+
+    @Test
+    void combinedChecksumEqualsTheChecksumOfTheConcatenation() {
+        long first = Crc32c.of(content, 0, 3_333);
+        long second = Crc32c.of(content, 3_333, content.length - 3_333);
+
+        assertThat(Crc32c.combine(first, second, content.length - 3_333)).isEqualTo(Crc32c.of(content, 0, content.length));
+    }
+
+    @Test
+    void partChecksumsCombineIntoTheObjectChecksum() {
+        List<String> partChecksums = List.of(
+                Crc32c.encode(Crc32c.of(content, 0, 4_000)),
+                Crc32c.encode(Crc32c.of(content, 4_000, 4_000)),
+                Crc32c.encode(Crc32c.of(content, 8_000, 2_000)));
+
+        assertThat(Crc32c.combine(partChecksums, 4_000, content.length)).isEqualTo(Crc32c.encode(Crc32c.of(content, 0, content.length)));
+    }
+
+    @Test
+    void missingPartChecksumLeavesTheObjectChecksumUnknown() {
+        assertThat(Crc32c.combine(Arrays.asList(Crc32c.encode(1), null), 4_000, 6_000)).isNull();
+    }
+}
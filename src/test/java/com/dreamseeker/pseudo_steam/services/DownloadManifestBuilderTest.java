@@ -0,0 +1,128 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.caches.ChunkIndex;
+import com.dreamseeker.pseudo_steam.caches.DownloadManifestCache;
+import com.dreamseeker.pseudo_steam.domains.DownloadManifestPage;
+import com.dreamseeker.pseudo_steam.domains.GameManifest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectAttributesParts;
+import software.amazon.awssdk.services.s3.model.GetObjectAttributesRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectAttributesResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ObjectPart;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DownloadManifestBuilderTest {
+
+    private static final long MB = 1024 * 1024;
+
+    private S3Client s3Client;
+    private S3Presigner s3Presigner;
+    private DownloadManifestBuilder downloadManifestBuilder;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setup() {
+        s3Client = mock(S3Client.class);
+        s3Presigner = S3Presigner.builder()
+                .region(Region.SA_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("access-key", "secret-key")))
+                .build();
+        ChunkStore chunkStore = new ChunkStore(s3Client, s3Presigner, objectMapper, null, new ChunkIndex(100), 4, 1000);
+        downloadManifestBuilder = new DownloadManifestBuilder(s3Client, s3Presigner, chunkStore, new DownloadManifestCache(1000), 16 * MB, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Presigner.close();
+    }
+
+    @Test
+    void multipartObjectsAreFetchedByPartAndBuiltOncePerVersion() throws Exception {
+        head(20 * MB, Map.of());
+        GetObjectAttributesParts parts = GetObjectAttributesParts.builder()
+                .parts(part(1, 8 * MB, "AAAAAQ=="), part(2, 8 * MB, "AAAAAg=="), part(3, 4 * MB, "AAAAAw=="))
+                .build();
+        when(s3Client.getObjectAttributes(any(GetObjectAttributesRequest.class))).thenReturn(GetObjectAttributesResponse.builder().objectParts(parts).build());
+
+        DownloadManifestPage first = downloadManifestBuilder.page("studio", "game", null, 0, 100);
+        DownloadManifestPage second = downloadManifestBuilder.page("studio", "game", null, 2, 100);
+
+        assertThat(first.chunkCount()).isEqualTo(3);
+        assertThat(first.checksumAlgorithm()).isEqualTo("CRC32C");
+        assertThat(first.chunks()).hasSize(2);
+        assertThat(first.chunks().get(1).offset()).isEqualTo(8 * MB);
+        assertThat(first.chunks().get(1).preSignedUrl()).contains("partNumber=2").contains("versionId=v1");
+        assertThat(second.chunks()).singleElement().satisfies(chunk -> {
+            assertThat(chunk.index()).isEqualTo(2);
+            assertThat(chunk.size()).isEqualTo(4 * MB);
+            assertThat(chunk.checksum()).isEqualTo("AAAAAw==");
+        });
+        verify(s3Client, times(1)).getObjectAttributes(any(GetObjectAttributesRequest.class));
+    }
+
+    @Test
+    void singlePartObjectsAreSplitIntoRanges() throws Exception {
+        head(40 * MB, Map.of());
+        when(s3Client.getObjectAttributes(any(GetObjectAttributesRequest.class))).thenReturn(GetObjectAttributesResponse.builder().build());
+
+        DownloadManifestPage page = downloadManifestBuilder.page("studio", "game", null, 0, 100);
+
+        assertThat(page.chunkCount()).isEqualTo(3);
+        assertThat(page.chunks().getFirst().range()).isEqualTo("bytes=0-" + (16 * MB - 1));
+    }
+
+    @Test
+    void chunkedGamesAreFetchedFromTheDepot() throws Exception {
+        String hash = "a".repeat(64);
+        GameManifest gameManifest = new GameManifest("game", "application/zip", 10, List.of(new GameManifest.Chunk(hash, 0, 10)));
+        head(200, Map.of(ChunkStore.LAYOUT, ChunkStore.CHUNKED_LAYOUT));
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                AbortableInputStream.create(new ByteArrayInputStream(objectMapper.writeValueAsBytes(gameManifest)))));
+
+        DownloadManifestPage page = downloadManifestBuilder.page("studio", "game", null, 0, 100);
+
+        assertThat(page.size()).isEqualTo(10);
+        assertThat(page.checksumAlgorithm()).isEqualTo("SHA-256");
+        assertThat(page.chunks()).singleElement().satisfies(chunk -> {
+            assertThat(chunk.checksum()).isEqualTo(hash);
+            assertThat(chunk.preSignedUrl()).contains(".depot/chunks/" + hash).doesNotContain("versionId");
+        });
+    }
+
+    private void head(long contentLength, Map<String, String> metadata) {
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder()
+                .contentLength(contentLength)
+                .versionId("v1")
+                .eTag("\"etag\"")
+                .metadata(metadata)
+                .build());
+    }
+
+    private static ObjectPart part(int partNumber, long size, String checksum) {
+        return ObjectPart.builder().partNumber(partNumber).size(size).checksumCRC32C(checksum).build();
+    }
+}
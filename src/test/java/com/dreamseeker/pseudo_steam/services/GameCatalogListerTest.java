@@ -0,0 +1,115 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.caches.GameInfoCache;
+import com.dreamseeker.pseudo_steam.domains.GameInfo;
+import com.dreamseeker.pseudo_steam.domains.ObjectsPage;
+import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
+import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class GameCatalogListerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ObjectStorageClient objectStorageClient;
+    private ExecutorService executor;
+    private GameCatalogLister gameCatalogLister;
+
+    @BeforeEach
+    void setup() {
+        objectStorageClient = mock(ObjectStorageClient.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        GameInfoCache gameInfoCache = new GameInfoCache(1000, Duration.ofMinutes(5), Duration.ofMinutes(1));
+        gameCatalogLister = new GameCatalogLister(objectStorageClient, gameInfoCache, objectMapper, executor, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void gamesAreEnrichedInKeyOrderAcrossPages() throws Exception {
+        when(objectStorageClient.listObjects("studio", 3, null)).thenReturn(new ObjectsPage("token-1", List.of("a", "b")));
+        when(objectStorageClient.listObjects("studio", 1, "token-1")).thenReturn(new ObjectsPage("token-2", List.of("c")));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(objectStorageClient.fetchObjectMetadata(eq("studio"), anyString())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            String key = invocation.getArgument(1);
+            Thread.sleep("a".equals(key) ? 50 : 5);
+            inFlight.decrementAndGet();
+            return new GameInfo("studio", key, "Action", "1");
+        });
+
+        JsonNode response = list(3, null);
+
+        assertThat(response.get("games").findValuesAsText("gameName")).containsExactly("a", "b", "c");
+        assertThat(response.get("continuationToken").asText()).isEqualTo("token-2");
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void nextPageIsNotListedBehindTheHeadsOfThisPage() throws Exception {
+        ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        try {
+            GameCatalogLister lister = new GameCatalogLister(objectStorageClient, new GameInfoCache(1000, Duration.ofMinutes(5), Duration.ofMinutes(1)),
+                    objectMapper, singleThread, 1);
+            when(objectStorageClient.listObjects("studio", 4, null)).thenReturn(new ObjectsPage("token-1", List.of("a", "b")));
+            when(objectStorageClient.listObjects("studio", 2, "token-1")).thenReturn(new ObjectsPage(null, List.of("c", "d")));
+            when(objectStorageClient.fetchObjectMetadata(eq("studio"), anyString()))
+                    .thenAnswer(invocation -> new GameInfo("studio", invocation.getArgument(1), "Action", "1"));
+
+            lister.list("studio", 4, null).writeTo(new ByteArrayOutputStream());
+
+            InOrder inOrder = inOrder(objectStorageClient);
+            inOrder.verify(objectStorageClient).listObjects("studio", 2, "token-1");
+            inOrder.verify(objectStorageClient).fetchObjectMetadata("studio", "a");
+        } finally {
+            singleThread.shutdownNow();
+        }
+    }
+
+    @Test
+    void gamesDeletedAfterListingAreSkipped() throws Exception {
+        when(objectStorageClient.listObjects("studio", 10, null)).thenReturn(new ObjectsPage(null, List.of("a", "b")));
+        when(objectStorageClient.fetchObjectMetadata("studio", "a")).thenThrow(new ObjectDoesNotExistsException());
+        when(objectStorageClient.fetchObjectMetadata("studio", "b")).thenReturn(new GameInfo("studio", "b", "Action", "1"));
+
+        JsonNode response = list(10, null);
+
+        assertThat(response.get("games").findValuesAsText("gameName")).containsExactly("b");
+        assertThat(response.get("continuationToken").isNull()).isTrue();
+    }
+
+    @Test
+    void missingStudioFailsBeforeStreaming() throws BucketDoesNotExistException {
+        when(objectStorageClient.listObjects(eq("studio"), eq(10), isNull())).thenThrow(new BucketDoesNotExistException("studio", null));
+
+        assertThatThrownBy(() -> gameCatalogLister.list("studio", 10, null)).isInstanceOf(BucketDoesNotExistException.class);
+    }
+
+    private JsonNode list(int limit, String continuationToken) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        gameCatalogLister.list("studio", limit, continuationToken).writeTo(outputStream);
+        return objectMapper.readTree(outputStream.toByteArray());
+    }
+}
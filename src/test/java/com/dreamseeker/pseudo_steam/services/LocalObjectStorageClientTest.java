@@ -0,0 +1,230 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.domains.*;
+import com.dreamseeker.pseudo_steam.exceptions.InvalidSignatureException;
+import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import com.dreamseeker.pseudo_steam.exceptions.UploadDoesNotExistException;
+import com.dreamseeker.pseudo_steam.stores.GameVersionIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalObjectStorageClientTest {
+
+    private static final byte[] GAME = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    private Path root;
+
+    private final LocalUrlSigner urlSigner = new LocalUrlSigner(new byte[32], "http://mirror", Duration.ofHours(1), Clock.systemUTC());
+    private LocalObjectStorageClient client;
+    private String studio;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        client = client(new GameVersionIndex());
+        studio = client.createBucket("studio").bucketName();
+    }
+
+    @Test
+    void deleteMarkersHideTheGameAndOldVersionsCanBeRestored() throws Exception {
+        String first = client.putObjectSinglePartUpload(studio, "game", file("first")).versionId();
+        client.putObjectSinglePartUpload(studio, "game", file("second"));
+        assertThat(content(client.fetchObjectContent(studio, "game", null, null))).isEqualTo("second");
+
+        client.deleteObject(studio, "game", null);
+
+        assertThat(client.listObjects(studio, null, null).keys()).isEmpty();
+        assertThatThrownBy(() -> client.fetchObjectMetadata(studio, "game")).isInstanceOf(ObjectDoesNotExistsException.class);
+        client.getObject(studio, "game", first);
+
+        String restored = client.restoreObjectVersion(studio, "game", first).versionId();
+
+        assertThat(restored).isNotEqualTo(first);
+        assertThat(client.listObjects(studio, null, null).keys()).containsExactly("game");
+        assertThat(content(client.fetchObjectContent(studio, "game", null, null))).isEqualTo("first");
+    }
+
+    @Test
+    void deletingTheLastVersionRemovesTheGame() throws Exception {
+        String versionId = client.putObjectSinglePartUpload(studio, "game", file("first")).versionId();
+
+        assertThat(client.deleteObject(studio, "game", versionId)).isEqualTo(versionId);
+
+        assertThat(root.resolve(studio).resolve(LocalObjectStorageClient.GAMES_DIRECTORY).resolve("game")).doesNotExist();
+        assertThatThrownBy(() -> client.deleteObject(studio, "game", versionId)).isInstanceOf(ObjectDoesNotExistsException.class);
+    }
+
+    @Test
+    void completedUploadIsConcatenatedFromItsStagedParts() throws Exception {
+        InitiateUploadResponse upload = client.initiateUpload(studio, new InitiateUploadRequest("game", GAME.length, "application/zip", Map.of("genre", "rpg")));
+        assertThat(upload.presignedUrls()).extracting(PreSignedPartUrl::partSize).containsExactly(4L, 4L, 2L);
+
+        String third = client.uploadPart(studio, upload.uploadId(), 3, part(8, 10), checksum(8, 10));
+        String first = client.uploadPart(studio, upload.uploadId(), 1, part(0, 4), null);
+        ResumeUploadResponse resumed = client.resumeUpload(studio, "game", upload.uploadId(), null, null);
+        assertThat(resumed.missingParts()).containsExactly(2);
+        assertThat(resumed.presignedUrls()).extracting(PreSignedPartUrl::partNumber).containsExactly(2);
+        String second = client.uploadPart(studio, upload.uploadId(), 2, part(4, 8), checksum(4, 8));
+
+        client.completeUpload(studio, new CompleteUploadRequest(upload.uploadId(), "game", List.of(
+                new CompleteUploadRequest.CompletedPart(2, second),
+                new CompleteUploadRequest.CompletedPart(1, first),
+                new CompleteUploadRequest.CompletedPart(3, third)), Crc32c.encode(Crc32c.of(GAME, 0, GAME.length))));
+
+        assertThat(content(client.fetchObjectContent(studio, "game", null, null))).isEqualTo("0123456789");
+        assertThat(client.fetchObjectMetadata(studio, "game").genre()).isEqualTo("rpg");
+        assertThat(client.fetchDownloadManifest(studio, "game", null, 0, 10).checksumAlgorithm()).isEqualTo(Crc32c.ALGORITHM);
+        assertThat(root.resolve(studio).resolve(LocalObjectStorageClient.UPLOADS_DIRECTORY).resolve(upload.uploadId())).doesNotExist();
+    }
+
+    @Test
+    void partsOfTheWrongSizeOrChecksumAreRejected() throws Exception {
+        InitiateUploadResponse upload = client.initiateUpload(studio, new InitiateUploadRequest("game", GAME.length, null, null));
+
+        assertThatThrownBy(() -> client.uploadPart(studio, upload.uploadId(), 1, part(0, 3), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> client.uploadPart(studio, upload.uploadId(), 1, part(0, 4), checksum(4, 8)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(client.resumeUpload(studio, "game", upload.uploadId(), null, null).missingParts()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void partUploadedAgainReplacesItsEarlierFile() throws Exception {
+        InitiateUploadResponse upload = client.initiateUpload(studio, new InitiateUploadRequest("game", GAME.length, null, null));
+        client.uploadPart(studio, upload.uploadId(), 1, part(4, 8), null);
+
+        String first = client.uploadPart(studio, upload.uploadId(), 1, part(0, 4), null);
+
+        Path partDirectory = root.resolve(studio).resolve(LocalObjectStorageClient.UPLOADS_DIRECTORY).resolve(upload.uploadId()).resolve("1");
+        assertThat(partDirectory.toFile().list()).hasSize(1);
+        assertThat(client.resumeUpload(studio, "game", upload.uploadId(), null, null).uploadedParts())
+                .extracting(CompleteUploadRequest.CompletedPart::etag)
+                .containsExactly(first);
+    }
+
+    @Test
+    void unknownUploadsAreReportedAsMissing() {
+        String uploadId = "0".repeat(32);
+
+        assertThatThrownBy(() -> client.presignUploadParts(studio, "game", uploadId, null, null, 1, 10))
+                .isInstanceOf(UploadDoesNotExistException.class);
+        assertThatThrownBy(() -> client.resumeUpload(studio, "game", uploadId, null, null))
+                .isInstanceOf(UploadDoesNotExistException.class);
+        assertThatThrownBy(() -> client.uploadPart(studio, uploadId, 1, part(0, 4), null))
+                .isInstanceOf(UploadDoesNotExistException.class);
+        assertThatThrownBy(() -> client.completeUpload(studio, new CompleteUploadRequest(uploadId, "game", List.of())))
+                .isInstanceOf(UploadDoesNotExistException.class);
+    }
+
+    @Test
+    void rangesAreServedFromTheVersionFile() throws Exception {
+        client.putObjectSinglePartUpload(studio, "game", new MockMultipartFile("game", "game", "application/zip", GAME));
+
+        GameContent gameContent = client.fetchObjectContent(studio, "game", "bytes=2-5", null);
+
+        assertThat(gameContent.partialContent()).isTrue();
+        assertThat(gameContent.contentRange()).isEqualTo("bytes 2-5/10");
+        assertThat(content(gameContent)).isEqualTo("2345");
+    }
+
+    @Test
+    void downloadUrlsAreSignedForTheirVersion() throws Exception {
+        String versionId = client.putObjectSinglePartUpload(studio, "game", file("first")).versionId();
+        String url = client.fetchDownloadManifest(studio, "game", versionId, 0, 10).chunks().getFirst().preSignedUrl();
+        Map<String, String> query = query(url);
+        String resource = LocalObjectStorageClient.gameResource(studio, "game");
+
+        urlSigner.verify("GET", resource, versionId, Long.parseLong(query.get("expires")), query.get("signature"));
+
+        assertThat(url).startsWith("http://mirror" + LocalUrlSigner.PATH_PREFIX + resource);
+        assertThatThrownBy(() -> urlSigner.verify("GET", resource, "other", Long.parseLong(query.get("expires")), query.get("signature")))
+                .isInstanceOf(InvalidSignatureException.class);
+        assertThatThrownBy(() -> urlSigner.verify("PUT", resource, versionId, Long.parseLong(query.get("expires")), query.get("signature")))
+                .isInstanceOf(InvalidSignatureException.class);
+    }
+
+    @Test
+    void chunkedUploadIsCommittedFromTheDepot() throws Exception {
+        byte[] chunk = "chunk".getBytes(StandardCharsets.UTF_8);
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(chunk));
+        ChunkedUploadRequest request = new ChunkedUploadRequest("game", null, null, List.of(
+                new ChunkedUploadRequest.Chunk(hash, chunk.length), new ChunkedUploadRequest.Chunk(hash, chunk.length)));
+        assertThat(client.initiateChunkedUpload(studio, request).missingChunkCount()).isEqualTo(1);
+
+        assertThatThrownBy(() -> client.uploadChunk(studio, hash, new ByteArrayInputStream(GAME))).isInstanceOf(IllegalArgumentException.class);
+        client.uploadChunk(studio, hash, new ByteArrayInputStream(chunk));
+
+        assertThat(client.initiateChunkedUpload(studio, request).missingChunkCount()).isZero();
+        client.commitChunkedUpload(studio, request);
+        assertThat(content(client.fetchObjectContent(studio, "game", null, null))).isEqualTo("chunkchunk");
+    }
+
+    @Test
+    void modifiedMetadataIsReadBackFromTheSidecar() throws Exception {
+        client.putObjectSinglePartUpload(studio, "game", file("first"));
+
+        client.modifyObjectMetadata(studio, "game", Map.of("genre", "strategy"));
+
+        assertThat(client(new GameVersionIndex()).fetchObjectMetadata(studio, "game").genre()).isEqualTo("strategy");
+    }
+
+    @Test
+    void deletedStudioIsGone() throws Exception {
+        client.putObjectSinglePartUpload(studio, "game", file("first"));
+
+        client.deleteBucket(studio);
+
+        assertThat(root.resolve(studio)).doesNotExist();
+        assertThat(client.fetchBuckets(null, null).buckets()).isEmpty();
+    }
+
+    private LocalObjectStorageClient client(GameVersionIndex versionIndex) {
+        PartSizingStrategy partSizingStrategy = (studioId, fileSize, hints) -> new PartCalculation(4, (int) ((fileSize + 3) / 4));
+        return new LocalObjectStorageClient(root, urlSigner, versionIndex, partSizingStrategy, 1024, 1000, 1000, 1000);
+    }
+
+    private static MockMultipartFile file(String content) {
+        return new MockMultipartFile("game", "game", "application/zip", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ByteArrayInputStream part(int from, int to) {
+        return new ByteArrayInputStream(Arrays.copyOfRange(GAME, from, to));
+    }
+
+    private static String checksum(int from, int to) {
+        return Crc32c.encode(Crc32c.of(GAME, from, to - from));
+    }
+
+    private static String content(GameContent gameContent) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        gameContent.body().writeTo(outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> query(String url) {
+        Map<String, String> query = new HashMap<>();
+        for (String parameter : url.substring(url.indexOf('?') + 1).split("&")) {
+            String[] pair = parameter.split("=", 2);
+            query.put(pair[0], pair[1]);
+        }
+        return query;
+    }
+}
@@ -0,0 +1,144 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MultipartUploadEngineTest {
+
+    private S3Client s3Client;
+    private ExecutorService executor;
+    private MultipartUploadEngine multipartUploadEngine;
+
+    @BeforeEach
+    void setup() {
+        s3Client = mock(S3Client.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        multipartUploadEngine = new MultipartUploadEngine(s3Client, executor, 2, new PartBufferPool(1024 * 1024));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void partsAreReturnedInPartNumberOrder() throws IOException, InterruptedException {
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            Thread.sleep(10L * (5 - request.partNumber()));
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        });
+        MockMultipartFile file = new MockMultipartFile("game.bin", new byte[10]);
+
+        List<CompletedPart> completedParts = multipartUploadEngine.uploadParts("studio", "game", "upload-id", file, 3, 4);
+
+        assertThat(completedParts).extracting(CompletedPart::partNumber).containsExactly(1, 2, 3, 4);
+        assertThat(completedParts).extracting(CompletedPart::eTag).containsExactly("etag-1", "etag-2", "etag-3", "etag-4");
+    }
+
+    @Test
+    void everyPartHoldsItsSliceOfTheFile() throws IOException, InterruptedException {
+        Map<Integer, byte[]> uploadedParts = new ConcurrentHashMap<>();
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            RequestBody requestBody = invocation.getArgument(1);
+            uploadedParts.put(request.partNumber(), requestBody.contentStreamProvider().newStream().readAllBytes());
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        });
+        byte[] content = new byte[10];
+        for (int i = 0; i < content.length; i++)
+            content[i] = (byte) i;
+
+        multipartUploadEngine.uploadParts("studio", "game", "upload-id", new MockMultipartFile("game.bin", content), 3, 4);
+
+        assertThat(uploadedParts.get(1)).containsExactly(0, 1, 2);
+        assertThat(uploadedParts.get(2)).containsExactly(3, 4, 5);
+        assertThat(uploadedParts.get(3)).containsExactly(6, 7, 8);
+        assertThat(uploadedParts.get(4)).containsExactly(9);
+    }
+
+    @Test
+    void failingPartFailsTheWholeUpload() {
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            if (request.partNumber() == 2)
+                throw S3Exception.builder().message("Part upload failed").build();
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        });
+        MockMultipartFile file = new MockMultipartFile("game.bin", new byte[10]);
+
+        assertThatThrownBy(() -> multipartUploadEngine.uploadParts("studio", "game", "upload-id", file, 3, 4))
+                .isInstanceOf(S3Exception.class);
+    }
+
+    @Test
+    void streamIsSplitIntoPartsOfPartSize() throws IOException, InterruptedException {
+        List<Long> contentLengths = new CopyOnWriteArrayList<>();
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            RequestBody requestBody = invocation.getArgument(1);
+            contentLengths.add(requestBody.optionalContentLength().orElseThrow());
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        });
+
+        List<CompletedPart> completedParts = multipartUploadEngine.uploadStream("studio", "game", "upload-id", new ByteArrayInputStream(new byte[10]), 4);
+
+        assertThat(completedParts).extracting(CompletedPart::partNumber).containsExactly(1, 2, 3);
+        assertThat(contentLengths).containsExactlyInAnyOrder(4L, 4L, 2L);
+    }
+
+    @Test
+    void compressedPartsDecodeToTheFile() throws IOException, InterruptedException {
+        Map<Integer, byte[]> uploadedParts = new ConcurrentHashMap<>();
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            RequestBody requestBody = invocation.getArgument(1);
+            uploadedParts.put(request.partNumber(), requestBody.contentStreamProvider().newStream().readAllBytes());
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        });
+        byte[] content = new byte[3000];
+        Arrays.fill(content, (byte) 'a');
+        MockMultipartFile file = new MockMultipartFile("game.bin", content);
+
+        multipartUploadEngine.uploadParts("studio", "game", "upload-id", file, 1000, 3, new PartCompressor(true, 1));
+
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        for (int partNumber = 1; partNumber <= 3; partNumber++)
+            stored.writeBytes(uploadedParts.get(partNumber));
+        assertThat(PartCompressor.decoding(new ByteArrayInputStream(stored.toByteArray())).readAllBytes()).isEqualTo(content);
+        assertThat(uploadedParts.get(3).length).isLessThan(1000);
+    }
+
+    @Test
+    void lastSliceHoldsTheRemainingBytes() {
+        List<MultipartUploadEngine.PartSlice> slices = MultipartUploadEngine.slice(10, 3, 4);
+
+        assertThat(slices).extracting(MultipartUploadEngine.PartSlice::offset).containsExactly(0L, 3L, 6L, 9L);
+        assertThat(slices).extracting(MultipartUploadEngine.PartSlice::length).containsExactly(3L, 3L, 3L, 1L);
+    }
+}
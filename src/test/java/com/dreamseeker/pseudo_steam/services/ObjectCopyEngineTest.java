@@ -0,0 +1,144 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ObjectCopyEngineTest {
+
+    private static final long MB = 1024 * 1024;
+
+    private S3Client s3Client;
+    private ExecutorService executor;
+    private ObjectCopyEngine objectCopyEngine;
+
+    @BeforeEach
+    void setup() {
+        s3Client = mock(S3Client.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        objectCopyEngine = new ObjectCopyEngine(s3Client, executor, 10 * MB, 3, 20 * MB);
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-id").build());
+        when(s3Client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+                .thenReturn(CompleteMultipartUploadResponse.builder().versionId("v3").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void smallObjectsAreCopiedInOneRequest() throws InterruptedException {
+        head(5 * MB);
+        when(s3Client.copyObject(any(CopyObjectRequest.class))).thenReturn(CopyObjectResponse.builder().versionId("v3").build());
+
+        String versionId = objectCopyEngine.copy("studio", "game", "v1", Map.of("genre", "puzzle"));
+
+        ArgumentCaptor<CopyObjectRequest> copyRequest = ArgumentCaptor.forClass(CopyObjectRequest.class);
+        verify(s3Client).copyObject(copyRequest.capture());
+        assertThat(versionId).isEqualTo("v3");
+        assertThat(copyRequest.getValue().sourceVersionId()).isEqualTo("v1");
+        assertThat(copyRequest.getValue().metadata()).containsEntry("genre", "puzzle");
+        verify(s3Client, never()).uploadPartCopy(any(UploadPartCopyRequest.class));
+    }
+
+    @Test
+    void largeObjectsAreCopiedAsPinnedByteRanges() throws InterruptedException {
+        head(25 * MB);
+        when(s3Client.uploadPartCopy(any(UploadPartCopyRequest.class))).thenAnswer(invocation -> {
+            UploadPartCopyRequest request = invocation.getArgument(0);
+            Thread.sleep(10L * (4 - request.partNumber()));
+            return UploadPartCopyResponse.builder()
+                    .copyPartResult(CopyPartResult.builder().eTag("etag-" + request.partNumber()).build())
+                    .build();
+        });
+
+        String versionId = objectCopyEngine.copy("studio", "game", "v1", null);
+
+        ArgumentCaptor<UploadPartCopyRequest> partRequests = ArgumentCaptor.forClass(UploadPartCopyRequest.class);
+        verify(s3Client, times(3)).uploadPartCopy(partRequests.capture());
+        assertThat(partRequests.getAllValues()).extracting(UploadPartCopyRequest::copySourceRange)
+                .containsExactlyInAnyOrder("bytes=0-10485759", "bytes=10485760-20971519", "bytes=20971520-26214399");
+        assertThat(partRequests.getAllValues()).extracting(UploadPartCopyRequest::sourceVersionId).containsOnly("v1");
+        assertThat(partRequests.getAllValues()).extracting(UploadPartCopyRequest::copySourceIfMatch).containsOnly("\"etag\"");
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> completeRequest = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3Client).completeMultipartUpload(completeRequest.capture());
+        assertThat(completeRequest.getValue().multipartUpload().parts()).extracting(CompletedPart::eTag)
+                .containsExactly("etag-1", "etag-2", "etag-3");
+        assertThat(versionId).isEqualTo("v3");
+    }
+
+    @Test
+    void compressedObjectsAreCopiedAlongTheirOwnParts() throws InterruptedException {
+        head(9 * MB, PartCompressor.metadata(Map.of("genre", "action"), 12 * MB, 5 * MB));
+        when(s3Client.getObjectAttributes(any(GetObjectAttributesRequest.class))).thenReturn(GetObjectAttributesResponse.builder()
+                .objectParts(GetObjectAttributesParts.builder().parts(
+                        ObjectPart.builder().partNumber(1).size(4 * MB).build(),
+                        ObjectPart.builder().partNumber(2).size(4 * MB).build(),
+                        ObjectPart.builder().partNumber(3).size(MB).build()).build())
+                .build());
+        when(s3Client.uploadPartCopy(any(UploadPartCopyRequest.class))).thenAnswer(invocation -> UploadPartCopyResponse.builder()
+                .copyPartResult(CopyPartResult.builder().eTag("etag-" + invocation.<UploadPartCopyRequest>getArgument(0).partNumber()).build())
+                .build());
+
+        objectCopyEngine.copy("studio", "game", null, Map.of("genre", "puzzle"));
+
+        ArgumentCaptor<UploadPartCopyRequest> partRequests = ArgumentCaptor.forClass(UploadPartCopyRequest.class);
+        verify(s3Client, times(3)).uploadPartCopy(partRequests.capture());
+        assertThat(partRequests.getAllValues()).extracting(UploadPartCopyRequest::copySourceRange)
+                .containsExactlyInAnyOrder("bytes=0-4194303", "bytes=4194304-8388607", "bytes=8388608-9437183");
+        ArgumentCaptor<CreateMultipartUploadRequest> createRequest = ArgumentCaptor.forClass(CreateMultipartUploadRequest.class);
+        verify(s3Client).createMultipartUpload(createRequest.capture());
+        assertThat(createRequest.getValue().checksumType()).isEqualTo(ChecksumType.COMPOSITE);
+        assertThat(createRequest.getValue().metadata()).containsEntry("genre", "puzzle").containsEntry(PartCompressor.CODEC, PartCompressor.DEFLATE);
+        verify(s3Client, never()).copyObject(any(CopyObjectRequest.class));
+    }
+
+    @Test
+    void failedPartAbortsTheCopy() {
+        head(25 * MB);
+        when(s3Client.uploadPartCopy(any(UploadPartCopyRequest.class))).thenThrow(S3Exception.builder().message("Precondition Failed").build());
+
+        assertThatThrownBy(() -> objectCopyEngine.copy("studio", "game", null, null)).isInstanceOf(RuntimeException.class);
+
+        verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    void partSizeGrowsToStayWithinThePartLimit() {
+        assertThat(ObjectCopyEngine.copyPartSize(50L * 1024 * MB, 256 * MB)).isEqualTo(256 * MB);
+        assertThat(ObjectCopyEngine.copyPartSize(5L * 1024 * 1024 * MB, 256 * MB)).isGreaterThan(256 * MB);
+        assertThat(ObjectCopyEngine.copyPartSize(100L * 1024 * 1024 * MB, 256 * MB)).isEqualTo(ObjectCopyEngine.MAX_COPY_PART_SIZE);
+    }
+
+    private void head(long contentLength) {
+        head(contentLength, Map.of("genre", "action"));
+    }
+
+    private void head(long contentLength, Map<String, String> metadata) {
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenAnswer(invocation -> {
+            HeadObjectRequest request = invocation.getArgument(0);
+            return HeadObjectResponse.builder()
+                    .contentLength(contentLength)
+                    .eTag("\"etag\"")
+                    .versionId(request.versionId() == null ? "v2" : request.versionId())
+                    .metadata(metadata)
+                    .build();
+        });
+    }
+}
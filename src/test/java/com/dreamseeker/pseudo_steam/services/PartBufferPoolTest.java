@@ -0,0 +1,59 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PartBufferPoolTest {
+
+    @Test
+    void releasedBuffersAreReusedForTheSameSize() throws InterruptedException {
+        PartBufferPool pool = new PartBufferPool(100);
+        byte[] buffer = pool.acquire(40);
+        pool.release(buffer);
+
+        assertThat(pool.acquire(40)).isSameAs(buffer);
+        assertThat(pool.allocated()).isEqualTo(40);
+    }
+
+    @Test
+    void idleBuffersOfOtherSizesMakeRoom() throws InterruptedException {
+        PartBufferPool pool = new PartBufferPool(100);
+        pool.release(pool.acquire(40, 40));
+
+        byte[] buffer = pool.acquire(90);
+
+        assertThat(buffer).hasSize(90);
+        assertThat(pool.allocated()).isEqualTo(90);
+    }
+
+    @Test
+    void acquireWaitsForBuffersInUse() throws Exception {
+        PartBufferPool pool = new PartBufferPool(100);
+        byte[][] buffers = pool.acquire(30, 30);
+        CompletableFuture<byte[][]> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.acquire(30, 30);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThatThrownBy(() -> waiting.get(100, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+        pool.release(buffers);
+        assertThat(waiting.get(1, TimeUnit.SECONDS)).containsExactlyInAnyOrder(buffers);
+        assertThat(pool.allocated()).isEqualTo(60);
+    }
+
+    @Test
+    void buffersLargerThanThePoolAreRejected() {
+        PartBufferPool pool = new PartBufferPool(100);
+
+        assertThatThrownBy(() -> pool.acquire(60, 60)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
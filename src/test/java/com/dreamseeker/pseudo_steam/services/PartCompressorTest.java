@@ -0,0 +1,96 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PartCompressorTest {
+
+    private static final int MB = 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private final PartCompressor partCompressor = new PartCompressor(true, 1);
+
+    @Test
+    void framesOfEveryKindDecodeInOrder() throws IOException {
+        byte[] compressible = text(8 * MB);
+        byte[] incompressible = random(MB);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+
+        encoded.write(encode(compressible, false));
+        encoded.write(encode(incompressible, false));
+        encoded.write(encode(compressible, true));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.writeBytes(compressible);
+        expected.writeBytes(incompressible);
+        expected.writeBytes(compressible);
+        assertThat(PartCompressor.decoding(new ByteArrayInputStream(encoded.toByteArray())).readAllBytes()).isEqualTo(expected.toByteArray());
+    }
+
+    @Test
+    void incompressiblePartsAreStored() {
+        assertThat(encode(random(MB), true)).hasSize(MB + PartCompressor.FRAME_HEADER_SIZE);
+    }
+
+    @Test
+    void partsThatWouldDeflateBelowTheMinimumPartSizeAreStoredUnlessLast() {
+        byte[] zeros = new byte[6 * MB];
+
+        assertThat(encode(zeros, false)).hasSize(zeros.length + PartCompressor.FRAME_HEADER_SIZE);
+        assertThat(encode(zeros, true).length).isLessThan(MB);
+    }
+
+    @Test
+    void streamIsEncodedAsOneFrameAndDecodedInPlace() throws IOException {
+        byte[] content = text(3 * MB);
+        Path file = directory.resolve("game");
+
+        long encodedSize = partCompressor.encode(new ByteArrayInputStream(content), content.length, file);
+        PartCompressor.decode(file);
+
+        assertThat(encodedSize).isLessThan(content.length);
+        assertThat(Files.readAllBytes(file)).isEqualTo(content);
+    }
+
+    @Test
+    void truncatedFrameFailsToDecode() {
+        byte[] frame = encode(random(1024), true);
+
+        assertThatThrownBy(() -> PartCompressor.decoding(new ByteArrayInputStream(Arrays.copyOf(frame, 100))).readAllBytes())
+                .isInstanceOf(IOException.class);
+    }
+
+    private byte[] encode(byte[] content, boolean lastPart) {
+        byte[] frame = new byte[PartCompressor.maxFrameSize(content.length)];
+        int length = partCompressor.encode(content, content.length, frame, lastPart);
+        return Arrays.copyOf(frame, length);
+    }
+
+    private static byte[] text(int size) {
+        byte[] sentence = "the quick brown fox jumps over the lazy dog, ".getBytes();
+        Random random = new Random(1);
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++)
+            bytes[i] = i % 97 == 0 ? (byte) random.nextInt(256) : sentence[i % sentence.length];
+        return bytes;
+    }
+
+    private static byte[] random(int size) {
+        byte[] bytes = new byte[size];
+        new Random(2).nextBytes(bytes);
+        return bytes;
+    }
+}
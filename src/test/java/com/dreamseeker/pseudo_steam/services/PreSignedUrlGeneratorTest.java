@@ -0,0 +1,94 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.domains.PreSignedPartUrl;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PreSignedUrlGeneratorTest {
+
+    private static final long PART_SIZE = 5 * 1024 * 1024;
+
+    private S3Presigner s3Presigner;
+    private ExecutorService presignExecutor;
+    private PreSignedUrlGenerator preSignedUrlGenerator;
+
+    @BeforeAll
+    void setup() {
+        s3Presigner = S3Presigner.builder()
+                .region(Region.SA_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("access-key", "secret-key")))
+                .build();
+        presignExecutor = Executors.newFixedThreadPool(4);
+        preSignedUrlGenerator = new PreSignedUrlGenerator(s3Presigner, presignExecutor, 100, 1000);
+    }
+
+    @AfterAll
+    void tearDown() {
+        presignExecutor.shutdownNow();
+        s3Presigner.close();
+    }
+
+    @Test
+    void parallelPresigningKeepsPartOrder() {
+        long fileSize = 700 * PART_SIZE - 10;
+
+        List<PreSignedPartUrl> preSignedUrls = preSignedUrlGenerator.generatePreSignedUrlsWindow("studio", "game", "upload-id", 1, 700, 700, PART_SIZE, fileSize);
+
+        assertThat(preSignedUrls).extracting(PreSignedPartUrl::partNumber).isSorted().hasSize(700).startsWith(1).endsWith(700);
+        assertThat(preSignedUrls.getLast().partSize()).isEqualTo(PART_SIZE - 10);
+        assertThat(preSignedUrls.getFirst().preSignedUrl()).contains("partNumber=1").contains("uploadId=upload-id");
+    }
+
+    @Test
+    void initiationOnlyPresignsTheInitialParts() {
+        List<PreSignedPartUrl> preSignedUrls = preSignedUrlGenerator.generateInitialPreSignedUrls("studio", "game", "upload-id", 700, PART_SIZE, 700 * PART_SIZE);
+
+        assertThat(preSignedUrls).hasSize(100);
+    }
+
+    @Test
+    void windowIsClippedToTheLastPart() {
+        List<PreSignedPartUrl> preSignedUrls = preSignedUrlGenerator.generatePreSignedUrlsWindow("studio", "game", "upload-id", 690, 50, 700, PART_SIZE, 700 * PART_SIZE);
+
+        assertThat(preSignedUrls).extracting(PreSignedPartUrl::partNumber).containsExactly(690, 691, 692, 693, 694, 695, 696, 697, 698, 699, 700);
+    }
+
+    @Test
+    void windowOutsideOfTheUploadIsRejected() {
+        assertThatThrownBy(() -> preSignedUrlGenerator.generatePreSignedUrlsWindow("studio", "game", "upload-id", 701, 10, 700, PART_SIZE, 700 * PART_SIZE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void onlyTheRequestedPartsAreSigned() {
+        List<PreSignedPartUrl> preSignedUrls = preSignedUrlGenerator.generatePreSignedUrlsForParts("studio", "game", "upload-id", List.of(3, 7, 700), 700, PART_SIZE, 700 * PART_SIZE - 1);
+
+        assertThat(preSignedUrls).extracting(PreSignedPartUrl::partNumber).containsExactly(3, 7, 700);
+        assertThat(preSignedUrls).extracting(PreSignedPartUrl::partSize).containsExactly(PART_SIZE, PART_SIZE, PART_SIZE - 1);
+    }
+
+    @Test
+    void scatteredPartsAreCappedAtTheRequestLimit() {
+        List<Integer> partNumbers = IntStream.rangeClosed(1, 3000).filter(partNumber -> partNumber % 2 == 0).boxed().toList();
+
+        List<PreSignedPartUrl> preSignedUrls = preSignedUrlGenerator.generatePreSignedUrlsForParts("studio", "game", "upload-id", partNumbers, 3000, PART_SIZE, 3000 * PART_SIZE);
+
+        assertThat(preSignedUrls).hasSize(1000);
+        assertThat(preSignedUrls).extracting(PreSignedPartUrl::partNumber).isEqualTo(partNumbers.subList(0, 1000));
+    }
+}
@@ -0,0 +1,183 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ChecksumType;
+import software.amazon.awssdk.services.s3.model.GetObjectAttributesParts;
+import software.amazon.awssdk.services.s3.model.GetObjectAttributesRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectAttributesResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ObjectPart;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RangedDownloadEngineTest {
+
+    @TempDir
+    Path downloadsDirectory;
+
+    private S3Client s3Client;
+    private ExecutorService executor;
+    private RangedDownloadEngine rangedDownloadEngine;
+    private final byte[] content = new byte[1000];
+
+    @BeforeEach
+    void setup() {
+        for (int i = 0; i < content.length; i++)
+            content[i] = (byte) i;
+        s3Client = mock(S3Client.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        rangedDownloadEngine = new RangedDownloadEngine(s3Client, executor, 128, 4, 2);
+        when(s3Client.headObject(any(HeadObjectRequest.class)))
+                .thenReturn(HeadObjectResponse.builder().contentLength((long) content.length).versionId("v1").eTag("\"etag\"").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void rangesAreWrittenAtTheirOffsets() throws IOException, InterruptedException {
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> serveRange(invocation.getArgument(0)));
+        Path target = downloadsDirectory.resolve("game");
+
+        rangedDownloadEngine.download("studio", "game", null, target);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+        assertThat(Files.exists(downloadsDirectory.resolve("game.part"))).isFalse();
+    }
+
+    @Test
+    void failedRangeIsRetried() throws IOException, InterruptedException {
+        Set<String> failedOnce = ConcurrentHashMap.newKeySet();
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            GetObjectRequest request = invocation.getArgument(0);
+            if (failedOnce.add(request.range()))
+                throw SdkClientException.create("Connection reset");
+            return serveRange(request);
+        });
+        Path target = downloadsDirectory.resolve("game");
+
+        rangedDownloadEngine.download("studio", "game", null, target);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+    }
+
+    @Test
+    void matchingChecksumIsVerifiedFromTheRanges() throws IOException, InterruptedException {
+        headWithChecksum(Crc32c.encode(Crc32c.of(content, 0, content.length)));
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> serveRange(invocation.getArgument(0)));
+        Path target = downloadsDirectory.resolve("game");
+
+        rangedDownloadEngine.download("studio", "game", null, target);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+    }
+
+    @Test
+    void corruptedDownloadIsDiscarded() {
+        headWithChecksum(Crc32c.encode(Crc32c.of(content, 0, content.length) ^ 1));
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> serveRange(invocation.getArgument(0)));
+        Path target = downloadsDirectory.resolve("game");
+
+        assertThatThrownBy(() -> rangedDownloadEngine.download("studio", "game", null, target))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("CRC32C mismatch");
+        assertThat(Files.exists(target)).isFalse();
+        assertThat(Files.exists(downloadsDirectory.resolve("game.part"))).isFalse();
+    }
+
+    @Test
+    void compositeChecksumIsVerifiedPartByPart() throws IOException, InterruptedException {
+        headWithCompositeChecksum(Crc32c.encode(Crc32c.of(content, 0, 600)), Crc32c.encode(Crc32c.of(content, 600, 400)));
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> serveRange(invocation.getArgument(0)));
+        Path target = downloadsDirectory.resolve("game");
+
+        rangedDownloadEngine.download("studio", "game", null, target);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+    }
+
+    @Test
+    void corruptedPartIsDiscarded() {
+        headWithCompositeChecksum(Crc32c.encode(Crc32c.of(content, 0, 600)), Crc32c.encode(Crc32c.of(content, 600, 400) ^ 1));
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> serveRange(invocation.getArgument(0)));
+        Path target = downloadsDirectory.resolve("game");
+
+        assertThatThrownBy(() -> rangedDownloadEngine.download("studio", "game", null, target))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("CRC32C mismatch for part 2");
+        assertThat(Files.exists(target)).isFalse();
+    }
+
+    @Test
+    void rangesNeverSpanTwoParts() {
+        List<ObjectPart> parts = List.of(ObjectPart.builder().partNumber(1).size(6L).build(), ObjectPart.builder().partNumber(2).size(3L).build());
+
+        assertThat(RangedDownloadEngine.split(parts, 4)).extracting(RangedDownloadEngine.ByteRange::header)
+                .containsExactly("bytes=0-3", "bytes=4-5", "bytes=6-8");
+    }
+
+    @Test
+    void objectIsSplitIntoInclusiveRanges() {
+        assertThat(RangedDownloadEngine.split(10, 4)).extracting(RangedDownloadEngine.ByteRange::header)
+                .containsExactly("bytes=0-3", "bytes=4-7", "bytes=8-9");
+    }
+
+    private void headWithChecksum(String checksum) {
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder()
+                .contentLength((long) content.length)
+                .versionId("v1")
+                .eTag("\"etag\"")
+                .checksumCRC32C(checksum)
+                .checksumType(ChecksumType.FULL_OBJECT)
+                .build());
+    }
+
+    private void headWithCompositeChecksum(String firstPartChecksum, String secondPartChecksum) {
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder()
+                .contentLength((long) content.length)
+                .versionId("v1")
+                .eTag("\"etag\"")
+                .checksumCRC32C("composite-2")
+                .checksumType(ChecksumType.COMPOSITE)
+                .build());
+        when(s3Client.getObjectAttributes(any(GetObjectAttributesRequest.class))).thenReturn(GetObjectAttributesResponse.builder()
+                .objectParts(GetObjectAttributesParts.builder().parts(
+                        ObjectPart.builder().partNumber(1).size(600L).checksumCRC32C(firstPartChecksum).build(),
+                        ObjectPart.builder().partNumber(2).size(400L).checksumCRC32C(secondPartChecksum).build()).build())
+                .build());
+    }
+
+    private ResponseInputStream<GetObjectResponse> serveRange(GetObjectRequest request) {
+        String[] bounds = request.range().substring("bytes=".length()).split("-");
+        int start = Integer.parseInt(bounds[0]);
+        int end = Integer.parseInt(bounds[1]);
+        ByteArrayInputStream rangeContent = new ByteArrayInputStream(content, start, end - start + 1);
+        return new ResponseInputStream<>(GetObjectResponse.builder().build(), AbortableInputStream.create(rangeContent));
+    }
+}
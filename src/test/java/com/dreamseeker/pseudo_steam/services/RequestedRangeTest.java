@@ -0,0 +1,48 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.exceptions.RangeNotSatisfiableException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestedRangeTest {
+
+    private static final String ETAG = "\"etag\"";
+    private static final Instant LAST_MODIFIED = Instant.parse("2025-05-01T10:15:30Z");
+
+    @Test
+    void boundedRangeIsClampedToObjectSize() throws RangeNotSatisfiableException {
+        RequestedRange range = RequestedRange.resolve("bytes=5-100", null, ETAG, LAST_MODIFIED, 10);
+
+        assertThat(range.header()).isEqualTo("bytes=5-9");
+        assertThat(range.contentRange()).isEqualTo("bytes 5-9/10");
+        assertThat(range.length()).isEqualTo(5);
+    }
+
+    @Test
+    void openAndSuffixRangesAreResolved() throws RangeNotSatisfiableException {
+        assertThat(RequestedRange.resolve("bytes=4-", null, ETAG, LAST_MODIFIED, 10).header()).isEqualTo("bytes=4-9");
+        assertThat(RequestedRange.resolve("bytes=-3", null, ETAG, LAST_MODIFIED, 10).header()).isEqualTo("bytes=7-9");
+    }
+
+    @Test
+    void rangeIsIgnoredWhenIfRangeDoesNotMatch() throws RangeNotSatisfiableException {
+        assertThat(RequestedRange.resolve("bytes=0-3", "\"other\"", ETAG, LAST_MODIFIED, 10)).isNull();
+        assertThat(RequestedRange.resolve("bytes=0-3", ETAG, ETAG, LAST_MODIFIED, 10)).isNotNull();
+        assertThat(RequestedRange.resolve("bytes=0-3", "Thu, 01 May 2025 10:15:30 GMT", ETAG, LAST_MODIFIED, 10)).isNotNull();
+    }
+
+    @Test
+    void multipleRangesServeTheWholeObject() throws RangeNotSatisfiableException {
+        assertThat(RequestedRange.resolve("bytes=0-1,4-5", null, ETAG, LAST_MODIFIED, 10)).isNull();
+    }
+
+    @Test
+    void rangeStartingPastTheEndIsNotSatisfiable() {
+        assertThatThrownBy(() -> RequestedRange.resolve("bytes=10-", null, ETAG, LAST_MODIFIED, 10))
+                .isInstanceOf(RangeNotSatisfiableException.class);
+    }
+}
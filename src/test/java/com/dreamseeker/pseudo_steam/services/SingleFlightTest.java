@@ -0,0 +1,105 @@
+package com.dreamseeker.pseudo_steam.services;
+
+import com.dreamseeker.pseudo_steam.exceptions.ObjectDoesNotExistsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("game", () -> {
+                calls.incrementAndGet();
+                release.await();
+                return "info";
+            })));
+        }
+        waitUntilInFlight();
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<String> result : results)
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("info");
+        assertThat(calls.get()).isLessThan(20);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    void waitingCallersReceiveTheSameException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ObjectDoesNotExistsException missing = new ObjectDoesNotExistsException();
+        Future<String> leader = executor.submit(() -> singleFlight.execute("game", () -> {
+            calls.incrementAndGet();
+            release.await();
+            throw missing;
+        }));
+        waitUntilInFlight();
+        Future<String> follower = executor.submit(() -> singleFlight.execute("game", () -> {
+            calls.incrementAndGet();
+            return "info";
+        }));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCause(missing);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCause(missing);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void completedCallsAreNotReused() {
+        singleFlight.execute("game", () -> "v" + calls.incrementAndGet());
+
+        assertThat(singleFlight.execute("game", () -> "v" + calls.incrementAndGet())).isEqualTo("v2");
+    }
+
+    @Test
+    void asyncCallersShareOneFuture() {
+        CompletableFuture<String> response = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.submit("game", () -> {
+            calls.incrementAndGet();
+            return response;
+        });
+        CompletableFuture<String> second = singleFlight.submit("game", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        response.complete("info");
+
+        assertThat(first.join()).isEqualTo("info");
+        assertThat(second.join()).isEqualTo("info");
+        assertThat(calls).hasValue(1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    private void waitUntilInFlight() throws InterruptedException {
+        while (singleFlight.inFlight() == 0)
+            Thread.sleep(1);
+    }
+}
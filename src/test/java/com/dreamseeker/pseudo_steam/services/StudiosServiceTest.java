@@ -1,5 +1,9 @@
 package com.dreamseeker.pseudo_steam.services;
 
+import com.dreamseeker.pseudo_steam.caches.FrequencySketch;
+import com.dreamseeker.pseudo_steam.caches.GameInfoCache;
+import com.dreamseeker.pseudo_steam.caches.GameSearchIndex;
+import com.dreamseeker.pseudo_steam.caches.StudioDirectory;
 import com.dreamseeker.pseudo_steam.domains.BucketsPage;
 import com.dreamseeker.pseudo_steam.exceptions.BucketDoesNotExistException;
 import com.dreamseeker.pseudo_steam.exceptions.BucketNameExistsException;
@@ -24,6 +28,14 @@ class StudiosServiceTest {
     private StudiosService studiosService;
     @Mock
     private ObjectStorageClient objectStorageClient;
+    @Mock
+    private GameInfoCache gameInfoCache;
+    @Mock
+    private StudioDirectory studioDirectory;
+    @Mock
+    private GameSearchIndex gameSearchIndex;
+    @Mock
+    private FrequencySketch frequencySketch;
 
     @Test
     void createBucketThrowsBucketNameExistsExceptionWhenStudioAlreadyExists() throws BucketNameExistsException {
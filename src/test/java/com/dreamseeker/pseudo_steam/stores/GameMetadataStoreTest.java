@@ -0,0 +1,86 @@
+package com.dreamseeker.pseudo_steam.stores;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameMetadataStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void changesSurviveAReopen() throws IOException {
+        Path logPath = directory.resolve("metadata.log");
+        try (GameMetadataStore store = new GameMetadataStore(logPath, false, 100)) {
+            store.put("dev.a", "halo", Map.of("genre", "shooter", "version", "1"));
+            store.put("dev.a", "hades", Map.of("genre", "roguelike"));
+            store.put("dev.b", "portal", Map.of("genre", "puzzle"));
+            store.put("dev.a", "halo", Map.of("genre", "strategy", "version", "1"));
+            store.remove("dev.a", "hades");
+        }
+
+        try (GameMetadataStore store = new GameMetadataStore(logPath, false, 100)) {
+            assertThat(store.get("dev.a", "halo")).containsEntry("genre", "strategy").containsEntry("version", "1");
+            assertThat(store.get("dev.a", "hades")).isNull();
+            assertThat(store.get("dev.b", "portal")).containsEntry("genre", "puzzle");
+            assertThat(store.size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void removedStudioDropsAllItsGames() throws IOException {
+        Path logPath = directory.resolve("metadata.log");
+        try (GameMetadataStore store = new GameMetadataStore(logPath, false, 100)) {
+            store.put("dev.a", "halo", Map.of("genre", "shooter"));
+            store.put("dev.b", "portal", Map.of("genre", "puzzle"));
+            store.removeStudio("dev.a");
+        }
+
+        try (GameMetadataStore store = new GameMetadataStore(logPath, false, 100)) {
+            assertThat(store.get("dev.a", "halo")).isNull();
+            assertThat(store.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void logIsCompactedToOneRecordPerGame() throws IOException {
+        Path logPath = directory.resolve("metadata.log");
+        try (GameMetadataStore store = new GameMetadataStore(logPath, false, 10)) {
+            for (int i = 0; i < 1000; i++)
+                store.put("dev.a", "halo", Map.of("genre", "genre-" + i));
+            assertThat(Files.size(logPath)).isLessThan(20 * 100L);
+        }
+
+        try (GameMetadataStore store = new GameMetadataStore(logPath, false, 10)) {
+            assertThat(store.get("dev.a", "halo")).containsEntry("genre", "genre-999");
+        }
+    }
+
+    @Test
+    void tornRecordAtTheTailIsDropped() throws IOException {
+        Path logPath = directory.resolve("metadata.log");
+        try (GameMetadataStore store = new GameMetadataStore(logPath, false, 100)) {
+            store.put("dev.a", "halo", Map.of("genre", "shooter"));
+        }
+        long intactLength = Files.size(logPath);
+        Files.write(logPath, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        try (GameMetadataStore store = new GameMetadataStore(logPath, false, 100)) {
+            assertThat(store.get("dev.a", "halo")).containsEntry("genre", "shooter");
+            assertThat(Files.size(logPath)).isEqualTo(intactLength);
+            store.put("dev.b", "portal", Map.of("genre", "puzzle"));
+        }
+
+        try (GameMetadataStore store = new GameMetadataStore(logPath, false, 100)) {
+            assertThat(store.get("dev.b", "portal")).containsEntry("genre", "puzzle");
+        }
+    }
+}
@@ -1,15 +1,34 @@
 package com.dreamseeker.pseudo_steam.utils;
 
+import com.dreamseeker.pseudo_steam.caches.FrequencySketch;
+import com.dreamseeker.pseudo_steam.caches.GameFileCache;
 import com.dreamseeker.pseudo_steam.services.AWSObjectStorageClient;
+import com.dreamseeker.pseudo_steam.services.BucketTeardownEngine;
+import com.dreamseeker.pseudo_steam.services.ChunkStore;
+import com.dreamseeker.pseudo_steam.services.DownloadManifestBuilder;
+import com.dreamseeker.pseudo_steam.services.MultipartUploadEngine;
+import com.dreamseeker.pseudo_steam.services.ObjectCopyEngine;
+import com.dreamseeker.pseudo_steam.services.PartCompressor;
+import com.dreamseeker.pseudo_steam.services.PartSizingStrategy;
+import com.dreamseeker.pseudo_steam.services.PreSignedUrlGenerator;
+import com.dreamseeker.pseudo_steam.services.RangedDownloadEngine;
+import com.dreamseeker.pseudo_steam.stores.GameMetadataStore;
+import com.dreamseeker.pseudo_steam.stores.UploadSessionRegistry;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
-import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 @Service
 public final class AWSObjectStorageClientUtils extends AWSObjectStorageClient {
-    public AWSObjectStorageClientUtils(S3Client s3Client, S3Presigner s3Presigner) {
-        super(s3Client, s3Presigner);
+    public AWSObjectStorageClientUtils(S3Client s3Client, PreSignedUrlGenerator preSignedUrlGenerator, MultipartUploadEngine multipartUploadEngine,
+                                       RangedDownloadEngine rangedDownloadEngine, BucketTeardownEngine bucketTeardownEngine,
+                                       ObjectCopyEngine objectCopyEngine, GameMetadataStore gameMetadataStore,
+                                       UploadSessionRegistry uploadSessionRegistry, PartSizingStrategy partSizingStrategy,
+                                       ChunkStore chunkStore, DownloadManifestBuilder downloadManifestBuilder,
+                                       PartCompressor partCompressor, GameFileCache gameFileCache,
+                                       FrequencySketch frequencySketch) {
+        super(s3Client, preSignedUrlGenerator, multipartUploadEngine, rangedDownloadEngine, bucketTeardownEngine, objectCopyEngine, gameMetadataStore, uploadSessionRegistry, partSizingStrategy,
+                chunkStore, downloadManifestBuilder, partCompressor, gameFileCache, frequencySketch);
     }
 
     public ListObjectVersionsResponse fetchListObjectVersions(String bucketName, String objectKey) {